@@ -0,0 +1,41 @@
+package dev.gustavorosa.cobranca_cp.config;
+
+import dev.gustavorosa.cobranca_cp.infra.barramento.BarramentoAlteracoes;
+import dev.gustavorosa.cobranca_cp.infra.barramento.OuvinteAlteracoesRemotas;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Barramento de alterações entre instâncias (ver BarramentoAlteracoes), ativado quando o banco é PostgreSQL e
+ * app.barramento.habilitado não é false. Sem ele cada instância só vê as próprias alterações na memória e as
+ * das outras depois da validade dos caches.
+ */
+@Configuration
+@ConditionalOnExpression("${app.barramento.habilitado:true} and '${spring.datasource.url:}'.startsWith('jdbc:postgresql:')")
+public class BarramentoConfig {
+
+    @Bean(initMethod = "iniciar", destroyMethod = "encerrar")
+    public BarramentoAlteracoes barramentoAlteracoes(DataSource dataSource, DataSourceProperties properties,
+                                                     ObjectProvider<OuvinteAlteracoesRemotas> ouvintes,
+                                                     @Value("${app.barramento.intervalo-ms:100}") long intervaloMs,
+                                                     @Value("${app.barramento.timeout-escuta-ms:10000}") int timeoutEscutaMs,
+                                                     @Value("${app.barramento.limite-ids:20000}") int limiteIds) {
+        // a escuta usa a URL do primário: NOTIFY não chega às réplicas
+        return new BarramentoAlteracoes(dataSource, properties.determineUrl(), properties.determineUsername(),
+                properties.determinePassword(), ouvintes, intervaloMs, timeoutEscutaMs, limiteIds);
+    }
+
+    @Bean
+    public HealthIndicator barramentoHealthIndicator(BarramentoAlteracoes barramentoAlteracoes) {
+        // escuta fora do ar não derruba a aplicação: os caches só voltam a depender da validade
+        return () -> Health.up().withDetails(barramentoAlteracoes.situacao()).build();
+    }
+}
@@ -0,0 +1,18 @@
+package dev.gustavorosa.cobranca_cp.config;
+
+import dev.gustavorosa.cobranca_cp.infra.carteira.CarteiraEndpoint;
+import dev.gustavorosa.cobranca_cp.service.CarteiraAbertaService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Retrato colunar da carteira em aberto (ver CarteiraAbertaService) exposto em /actuator/carteira.
+ */
+@Configuration
+public class CarteiraConfig {
+
+    @Bean
+    public CarteiraEndpoint carteiraEndpoint(CarteiraAbertaService carteiraAbertaService) {
+        return new CarteiraEndpoint(carteiraAbertaService);
+    }
+}
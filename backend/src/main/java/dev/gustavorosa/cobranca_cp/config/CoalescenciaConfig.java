@@ -0,0 +1,43 @@
+package dev.gustavorosa.cobranca_cp.config;
+
+import dev.gustavorosa.cobranca_cp.infra.coalescencia.CoalescenciaEndpoint;
+import dev.gustavorosa.cobranca_cp.infra.coalescencia.CoalescenciaFilter;
+import dev.gustavorosa.cobranca_cp.infra.coalescencia.CoalescenciaLeituras;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Leituras idênticas simultâneas nas listagens completas viram uma execução só (ver CoalescenciaLeituras),
+ * com os contadores em /actuator/coalescencia. O filtro roda logo depois do Spring Security, que é quem define
+ * o perfil do usuário usado na chave. Com app.coalescencia.habilitado=false nada disto é criado.
+ */
+@Configuration
+@ConditionalOnExpression("${app.coalescencia.habilitado:true}")
+public class CoalescenciaConfig {
+
+    @Bean
+    public CoalescenciaLeituras<CoalescenciaFilter.Resposta> coalescenciaLeituras(
+            @Value("${app.coalescencia.espera-maxima-ms:10000}") long esperaMaximaMs) {
+        return new CoalescenciaLeituras<>(esperaMaximaMs);
+    }
+
+    @Bean
+    public FilterRegistrationBean<CoalescenciaFilter> coalescenciaFilter(CoalescenciaLeituras<CoalescenciaFilter.Resposta> coalescencia,
+                                                                         @Value("${app.coalescencia.rotas:/clientes,/contratos,/pagamentos}") List<String> rotas) {
+        FilterRegistrationBean<CoalescenciaFilter> registro = new FilterRegistrationBean<>(new CoalescenciaFilter(coalescencia, Set.copyOf(rotas)));
+        registro.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registro;
+    }
+
+    @Bean
+    public CoalescenciaEndpoint coalescenciaEndpoint(CoalescenciaLeituras<CoalescenciaFilter.Resposta> coalescencia) {
+        return new CoalescenciaEndpoint(coalescencia);
+    }
+}
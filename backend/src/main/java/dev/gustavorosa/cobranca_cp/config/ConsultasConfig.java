@@ -0,0 +1,52 @@
+package dev.gustavorosa.cobranca_cp.config;
+
+import dev.gustavorosa.cobranca_cp.infra.consultas.ConsultasEndpoint;
+import dev.gustavorosa.cobranca_cp.infra.consultas.InspetorConsultas;
+import dev.gustavorosa.cobranca_cp.infra.consultas.MonitorConsultas;
+import dev.gustavorosa.cobranca_cp.infra.consultas.OuvinteCarregamentos;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Contagem de comandos SQL por requisição e por lote de job (ver MonitorConsultas): o InspetorConsultas entra como
+ * StatementInspector do Hibernate e o OuvinteCarregamentos nos eventos de carga de entidades e coleções.
+ */
+@Configuration
+public class ConsultasConfig {
+
+    @Bean
+    public MonitorConsultas monitorConsultas(@Value("${app.consultas.modo:avisar}") String modo,
+                                             @Value("${app.consultas.limite-repeticoes:10}") int limiteRepeticoes,
+                                             @Value("${app.consultas.limite-comandos:50}") int limiteComandos) {
+        return new MonitorConsultas(MonitorConsultas.Modo.valueOf(modo.trim().toUpperCase()), limiteRepeticoes, limiteComandos);
+    }
+
+    @Bean
+    public ConsultasEndpoint consultasEndpoint(MonitorConsultas monitor) {
+        return new ConsultasEndpoint(monitor);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer inspetorConsultas() {
+        return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, new InspetorConsultas());
+    }
+
+    @Bean
+    public SmartInitializingSingleton ouvinteCarregamentos(EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            OuvinteCarregamentos ouvinte = new OuvinteCarregamentos();
+            EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry().getService(EventListenerRegistry.class);
+            registro.appendListeners(EventType.POST_LOAD, ouvinte);
+            registro.appendListeners(EventType.INIT_COLLECTION, ouvinte);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package dev.gustavorosa.cobranca_cp.config;
+
+import dev.gustavorosa.cobranca_cp.infra.jfr.CacheObservavel;
+import dev.gustavorosa.cobranca_cp.infra.jfr.EstatisticasCacheJfr;
+import dev.gustavorosa.cobranca_cp.infra.jfr.GravacoesJfr;
+import dev.gustavorosa.cobranca_cp.infra.jfr.JfrEndpoint;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Eventos JFR da aplicação (pacote infra.jfr) e gravações sob demanda em /actuator/jfr.
+ */
+@Configuration
+public class JfrConfig {
+
+    @Bean(destroyMethod = "encerrar")
+    public GravacoesJfr gravacoesJfr(@Value("${app.jfr.diretorio:${java.io.tmpdir}/cobranca-jfr}") String diretorio,
+                                     @Value("${app.jfr.idade-maxima:6h}") Duration idadeMaxima,
+                                     @Value("${app.jfr.tamanho-maximo:256MB}") DataSize tamanhoMaximo) {
+        return new GravacoesJfr(Path.of(diretorio), idadeMaxima, tamanhoMaximo.toBytes());
+    }
+
+    @Bean
+    public SmartInitializingSingleton gravacaoContinuaJfr(GravacoesJfr gravacoes, @Value("${app.jfr.continua:true}") boolean continua) {
+        return () -> {
+            if (continua) gravacoes.iniciarContinua();
+        };
+    }
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(GravacoesJfr gravacoes) {
+        return new JfrEndpoint(gravacoes);
+    }
+
+    @Bean(destroyMethod = "close")
+    public EstatisticasCacheJfr estatisticasCacheJfr(List<CacheObservavel> caches) {
+        return new EstatisticasCacheJfr(caches);
+    }
+}
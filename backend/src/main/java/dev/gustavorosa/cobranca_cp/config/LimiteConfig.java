@@ -0,0 +1,76 @@
+package dev.gustavorosa.cobranca_cp.config;
+
+import dev.gustavorosa.cobranca_cp.infra.limite.LimitadorTaxa;
+import dev.gustavorosa.cobranca_cp.infra.limite.LimiteConcorrencia;
+import dev.gustavorosa.cobranca_cp.infra.limite.LimiteConcorrenciaInterceptor;
+import dev.gustavorosa.cobranca_cp.infra.limite.LimiteTaxaInterceptor;
+import dev.gustavorosa.cobranca_cp.infra.limite.LimitesEndpoint;
+import dev.gustavorosa.cobranca_cp.infra.limite.LimitesRequisicao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+import static dev.gustavorosa.cobranca_cp.infra.limite.LimitesRequisicao.LISTAGENS;
+import static dev.gustavorosa.cobranca_cp.infra.limite.LimitesRequisicao.LOGIN_EMAIL;
+import static dev.gustavorosa.cobranca_cp.infra.limite.LimitesRequisicao.LOGIN_IP;
+import static dev.gustavorosa.cobranca_cp.infra.limite.LimitesRequisicao.PROCESSAMENTO;
+import static dev.gustavorosa.cobranca_cp.infra.limite.LimitesRequisicao.REGISTRO_IP;
+import static dev.gustavorosa.cobranca_cp.infra.limite.LimitesRequisicao.RENOVACAO_IP;
+
+/**
+ * Controle de admissão: balde de tokens por IP nas rotas públicas de autenticação (onde cada requisição
+ * custa um BCrypt ou uma assinatura JWT), por e-mail no login (ver AuthController) e teto de requisições
+ * simultâneas nas rotas que varrem a carteira inteira. Recusas respondem 429 com Retry-After.
+ * Com app.limites.habilitado=false os limitadores continuam existindo, mas nenhum é aplicado.
+ */
+@Configuration
+public class LimiteConfig {
+
+    @Bean
+    public LimitesRequisicao limitesRequisicao(Environment env, @Value("${app.limites.habilitado:true}") boolean habilitado,
+                                               @Value("${app.limites.max-chaves:100000}") int maxChaves) {
+        List<LimitadorTaxa> taxas = List.of(
+                taxa(env, LOGIN_IP, 20, 10, maxChaves),
+                taxa(env, LOGIN_EMAIL, 5, 5, maxChaves),
+                taxa(env, REGISTRO_IP, 5, 2, maxChaves),
+                taxa(env, RENOVACAO_IP, 30, 30, maxChaves));
+        List<LimiteConcorrencia> concorrencias = List.of(
+                new LimiteConcorrencia(LISTAGENS, env.getProperty("app.limites.listagens.maximo", Integer.class, 8)),
+                new LimiteConcorrencia(PROCESSAMENTO, env.getProperty("app.limites.processamento.maximo", Integer.class, 2)));
+        return new LimitesRequisicao(habilitado, taxas, concorrencias);
+    }
+
+    private static LimitadorTaxa taxa(Environment env, String nome, int capacidade, int reposicaoPorMinuto, int maxChaves) {
+        return new LimitadorTaxa(nome,
+                env.getProperty("app.limites." + nome + ".capacidade", Integer.class, capacidade),
+                env.getProperty("app.limites." + nome + ".por-minuto", Integer.class, reposicaoPorMinuto),
+                maxChaves);
+    }
+
+    @Bean
+    public LimitesEndpoint limitesEndpoint(LimitesRequisicao limites) {
+        return new LimitesEndpoint(limites);
+    }
+
+    @Bean
+    public WebMvcConfigurer limitesConfigurer(LimitesRequisicao limites) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                if (!limites.isHabilitado()) return;
+                registry.addInterceptor(new LimiteTaxaInterceptor(limites.taxa(LOGIN_IP))).addPathPatterns("/auth/login");
+                registry.addInterceptor(new LimiteTaxaInterceptor(limites.taxa(REGISTRO_IP))).addPathPatterns("/auth/register");
+                registry.addInterceptor(new LimiteTaxaInterceptor(limites.taxa(RENOVACAO_IP))).addPathPatterns("/auth/refresh");
+                registry.addInterceptor(new LimiteConcorrenciaInterceptor(limites.concorrencia(LISTAGENS), "GET"))
+                        .addPathPatterns("/clientes", "/contratos", "/pagamentos");
+                registry.addInterceptor(new LimiteConcorrenciaInterceptor(limites.concorrencia(PROCESSAMENTO), "POST"))
+                        .addPathPatterns("/conciliacoes", "/projecoes/parcelas");
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package dev.gustavorosa.cobranca_cp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.gustavorosa.cobranca_cp.infra.replica.EscritaRecenteInterceptor;
+import dev.gustavorosa.cobranca_cp.infra.replica.EscritasRecentes;
+import dev.gustavorosa.cobranca_cp.infra.replica.MonitorReplicas;
+import dev.gustavorosa.cobranca_cp.infra.replica.RoteadorReplicas;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roteamento de leituras para réplicas, ativado quando app.replicas.urls tem ao menos uma URL.
+ * Transações @Transactional(readOnly = true) marcam a conexão como somente leitura antes do primeiro comando;
+ * o LazyConnectionDataSourceProxy só obtém a conexão física nesse momento e, se ela for somente leitura,
+ * pede ao RoteadorReplicas, que escolhe uma réplica saudável ou o primário. Todo o resto (escritas, DDL,
+ * acesso fora de transação) vai para o primário.
+ * Sem réplicas configuradas este arquivo não cria nada e o DataSource padrão do Spring Boot é usado.
+ */
+@Configuration
+@ConditionalOnExpression("'${app.replicas.urls:}' != ''")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    public EscritasRecentes escritasRecentes(@Value("${app.replicas.janela-leitura-propria-segundos:10}") long janelaSegundos) {
+        return new EscritasRecentes(janelaSegundos);
+    }
+
+    @Bean
+    public RoteadorReplicas roteadorReplicas(HikariDataSource dataSourcePrimario, EscritasRecentes escritasRecentes,
+                                             DataSourceProperties properties,
+                                             @Value("${app.replicas.urls}") String urls,
+                                             @Value("${app.replicas.username:}") String username,
+                                             @Value("${app.replicas.password:}") String password,
+                                             @Value("${app.replicas.tamanho-pool:10}") int tamanhoPool) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : StringUtils.commaDelimitedListToStringArray(urls)) {
+            if (url.isBlank()) continue;
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(tamanhoPool);
+            replica.setReadOnly(true);
+            // réplica fora do ar deve falhar rápido; o monitor a retira do roteamento na próxima verificação
+            replica.setConnectionTimeout(3000);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new RoteadorReplicas(dataSourcePrimario, replicas, escritasRecentes);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource dataSourcePrimario, RoteadorReplicas roteadorReplicas) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(dataSourcePrimario);
+        proxy.setReadOnlyDataSource(roteadorReplicas);
+        return proxy;
+    }
+
+    @Bean
+    public MonitorReplicas monitorReplicas(RoteadorReplicas roteadorReplicas, EscritasRecentes escritasRecentes,
+                                           @Value("${app.replicas.consulta-atraso:}") String consultaAtraso,
+                                           @Value("${app.replicas.atraso-maximo-segundos:5}") double atrasoMaximoSegundos) {
+        return new MonitorReplicas(roteadorReplicas, escritasRecentes,
+                consultaAtraso.isBlank() ? MonitorReplicas.CONSULTA_ATRASO_POSTGRES : consultaAtraso,
+                atrasoMaximoSegundos);
+    }
+
+    @Bean
+    public WebMvcConfigurer escritaRecenteConfigurer(EscritasRecentes escritasRecentes) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new EscritaRecenteInterceptor(escritasRecentes));
+            }
+        };
+    }
+
+    @Bean
+    public HealthIndicator replicasHealthIndicator(RoteadorReplicas roteadorReplicas) {
+        // réplica indisponível não derruba a aplicação: as leituras só voltam para o primário
+        return () -> Health.up().withDetails(roteadorReplicas.situacao()).build();
+    }
+}
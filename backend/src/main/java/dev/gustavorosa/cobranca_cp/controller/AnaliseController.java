@@ -0,0 +1,54 @@
+package dev.gustavorosa.cobranca_cp.controller;
+
+import dev.gustavorosa.cobranca_cp.service.CarteiraAbertaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Análises da carteira em aberto numa data de referência (padrão: hoje), calculadas sobre o retrato em memória.
+ * Responde 503 enquanto o retrato ainda não foi construído na subida.
+ */
+@RestController
+@RequestMapping("/analises")
+@RequiredArgsConstructor
+public class AnaliseController {
+
+    private final CarteiraAbertaService carteiraAbertaService;
+
+    @GetMapping("/aging")
+    public ResponseEntity<?> aging(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        return responder(() -> carteiraAbertaService.aging(data));
+    }
+
+    @GetMapping("/fluxo-caixa")
+    public ResponseEntity<?> fluxoCaixa(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+                                        @RequestParam(defaultValue = "12") int meses) {
+        return responder(() -> carteiraAbertaService.fluxoCaixa(data, meses));
+    }
+
+    @GetMapping("/inadimplencia")
+    public ResponseEntity<?> inadimplencia(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+                                           @RequestParam(defaultValue = "20") int limite) {
+        return responder(() -> carteiraAbertaService.inadimplencia(data, limite));
+    }
+
+    private static ResponseEntity<?> responder(Supplier<?> analise) {
+        try {
+            return ResponseEntity.ok(analise.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10").body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.gustavorosa.cobranca_cp.controller;
+
+import dev.gustavorosa.cobranca_cp.dto.AuditoriaPagamentoDTO;
+import dev.gustavorosa.cobranca_cp.service.AuditoriaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/auditoria")
+@RequiredArgsConstructor
+public class AuditoriaController {
+
+    private final AuditoriaService auditoriaService;
+
+    @GetMapping("/pagamentos/{id}")
+    public ResponseEntity<List<AuditoriaPagamentoDTO>> recuperarPorPagamento(@PathVariable Long id) {
+        return ResponseEntity.ok(auditoriaService.recuperarPorPagamento(id).stream().map(AuditoriaPagamentoDTO::new).toList());
+    }
+
+    @GetMapping("/contratos/{id}")
+    public ResponseEntity<List<AuditoriaPagamentoDTO>> recuperarPorContrato(@PathVariable Long id) {
+        return ResponseEntity.ok(auditoriaService.recuperarPorContrato(id).stream().map(AuditoriaPagamentoDTO::new).toList());
+    }
+}
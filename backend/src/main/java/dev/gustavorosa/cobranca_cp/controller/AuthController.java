@@ -4,10 +4,12 @@ import dev.gustavorosa.cobranca_cp.dto.AuthResponse;
 import dev.gustavorosa.cobranca_cp.dto.LoginRequest;
 import dev.gustavorosa.cobranca_cp.dto.RefreshTokenRequest;
 import dev.gustavorosa.cobranca_cp.dto.RegisterRequest;
+import dev.gustavorosa.cobranca_cp.infra.limite.LimitesRequisicao;
 import dev.gustavorosa.cobranca_cp.service.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,9 +21,18 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     
     private final AuthService authService;
+    private final LimitesRequisicao limites;
     
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+        // o limite por IP é aplicado antes, no interceptor; este protege uma conta atacada de vários IPs
+        long esperaSegundos = limites.consumir(LimitesRequisicao.LOGIN_EMAIL, request.getEmail().trim().toLowerCase());
+        if (esperaSegundos > 0) {
+            log.warn("Login bloqueado temporariamente por excesso de tentativas: {}", request.getEmail());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(esperaSegundos))
+                    .body("Muitas tentativas de login. Tente novamente em " + esperaSegundos + " segundos.");
+        }
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
@@ -55,5 +66,17 @@ public class AuthController {
                     .body("Refresh token inválido ou expirado");
         }
     }
+    
+    /**
+     * Encerra a sessão: revoga o access token do cabeçalho Authorization e, se enviado no corpo,
+     * o refresh token junto com toda a sua família.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
 }
 
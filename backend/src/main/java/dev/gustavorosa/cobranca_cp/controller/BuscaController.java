@@ -0,0 +1,34 @@
+package dev.gustavorosa.cobranca_cp.controller;
+
+import dev.gustavorosa.cobranca_cp.dto.ResultadoBuscaDTO;
+import dev.gustavorosa.cobranca_cp.infra.busca.TipoDocumentoBusca;
+import dev.gustavorosa.cobranca_cp.service.BuscaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/busca")
+@RequiredArgsConstructor
+public class BuscaController {
+
+    private static final int LIMITE_MAXIMO = 100;
+
+    private final BuscaService buscaService;
+
+    @GetMapping
+    public ResponseEntity<List<ResultadoBuscaDTO>> buscar(@RequestParam("q") String consulta,
+                                                          @RequestParam(required = false) TipoDocumentoBusca tipo,
+                                                          @RequestParam(defaultValue = "20") int limite) {
+        List<ResultadoBuscaDTO> resultados = buscaService.buscar(consulta, tipo, Math.min(limite, LIMITE_MAXIMO)).stream()
+                .map(ResultadoBuscaDTO::new).toList();
+        return ResponseEntity.ok()
+                .header("X-Indice-Carregando", String.valueOf(buscaService.isCarregando()))
+                .body(resultados);
+    }
+}
@@ -2,17 +2,27 @@ package dev.gustavorosa.cobranca_cp.controller;
 
 import dev.gustavorosa.cobranca_cp.dto.ClienteDTO;
 import dev.gustavorosa.cobranca_cp.dto.ClienteDetailsDTO;
+import dev.gustavorosa.cobranca_cp.dto.ExclusaoDTO;
+import dev.gustavorosa.cobranca_cp.dto.ExtratoClienteDTO;
+import dev.gustavorosa.cobranca_cp.dto.SaldoDTO;
 import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Exclusao;
+import dev.gustavorosa.cobranca_cp.model.StatusExclusao;
 import dev.gustavorosa.cobranca_cp.service.ClienteService;
+import dev.gustavorosa.cobranca_cp.service.ExtratoService;
+import dev.gustavorosa.cobranca_cp.service.SaldoService;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/clientes")
@@ -22,9 +32,15 @@ public class ClienteController {
     @Autowired
     private ClienteService clienteService;
 
+    @Autowired
+    private ExtratoService extratoService;
+
+    @Autowired
+    private SaldoService saldoService;
+
     @PostMapping
     public ResponseEntity<ClienteDetailsDTO> registraCliente(@RequestBody ClienteDTO clienteDTO){
-        log.info("Entry [ClienteController.registraCliente] - Registrando cliente: {}", clienteDTO);
+        log.debug("Entry [ClienteController.registraCliente] - Registrando cliente");
         Cliente novoCliente = clienteService.registraCliente(clienteDTO);
 
         URI localNovoCliente = ServletUriComponentsBuilder
@@ -33,39 +49,90 @@ public class ClienteController {
                 .buildAndExpand(novoCliente.getId())
                 .toUri();
 
-        log.info("Exit [ClienteController.registraCliente] - Cliente registrado com sucesso: {}", novoCliente);
+        log.debug("Exit [ClienteController.registraCliente] - Cliente registrado com sucesso: {}", novoCliente.getId());
         return ResponseEntity.created(localNovoCliente).body(new ClienteDetailsDTO(novoCliente));
     }
 
+    /**
+     * {@code fields} (ex: cliente_id,nome,telefone) devolve só esses campos de cada cliente, lidos do banco
+     * sem o resto da linha; campo desconhecido dá 400.
+     */
     @GetMapping
-    public ResponseEntity<List<ClienteDetailsDTO>> recuperarClientes(){
-        log.info("Entry [ClienteController.recuperarClientes] - Recuperando todos os clientes");
+    public ResponseEntity<?> recuperarClientes(@RequestParam(required = false) String fields){
+        log.debug("Entry [ClienteController.recuperarClientes] - Recuperando todos os clientes");
+        if (fields != null) {
+            List<String> campos;
+            try {
+                campos = ClienteDetailsDTO.CAMPOS.interpretar(fields);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+            List<Map<String, Object>> resposta = clienteService.recuperarTodos(campos);
+            log.debug("Exit [ClienteController.recuperarClientes] - {} clientes recuperados com os campos {}", resposta.size(), campos);
+            return ResponseEntity.ok(resposta);
+        }
         List<Cliente> todosClientes = clienteService.recuperarTodos();
         List<ClienteDetailsDTO> respostaDTO = todosClientes.stream().map(ClienteDetailsDTO::new).toList();
-        log.info("Exit [ClienteController.recuperarClientes] - Clientes recuperados com sucesso: {}", respostaDTO);
+        log.debug("Exit [ClienteController.recuperarClientes] - {} clientes recuperados", respostaDTO.size());
         return ResponseEntity.ok(respostaDTO);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ClienteDetailsDTO> recuperarClientePorId(@PathVariable Long id){
-        log.info("Entry [ClienteController.recuperarClientePorId] - Recuperando cliente por id: {}", id);
+        log.debug("Entry [ClienteController.recuperarClientePorId] - Recuperando cliente por id: {}", id);
         Cliente clienteRecuperado = clienteService.recuperarPorId(id);
-        log.info("Exit [ClienteController.recuperarClientePorId] - Cliente recuperado com sucesso: {}", clienteRecuperado);
+        log.debug("Exit [ClienteController.recuperarClientePorId] - Cliente recuperado com sucesso: {}", id);
         return ResponseEntity.ok(new ClienteDetailsDTO(clienteRecuperado));
     }
 
+    @GetMapping("/{id}/extrato")
+    public ResponseEntity<ExtratoClienteDTO> recuperarExtrato(@PathVariable Long id){
+        log.debug("Entry [ClienteController.recuperarExtrato] - Recuperando extrato do cliente: {}", id);
+        ExtratoClienteDTO extrato = extratoService.extratoCliente(id);
+        log.debug("Exit [ClienteController.recuperarExtrato] - Extrato recuperado: {} contratos", extrato.contratos().size());
+        return ResponseEntity.ok(extrato);
+    }
+
+    @GetMapping("/{id}/saldo")
+    public ResponseEntity<SaldoDTO> recuperarSaldo(@PathVariable Long id){
+        return ResponseEntity.ok(saldoService.saldoCliente(id));
+    }
+
+    /**
+     * 409 com o cliente atual quando ele foi alterado depois da leitura (versao da requisição) ou durante a gravação.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<ClienteDetailsDTO> atualizarCliente(@PathVariable Long id, @RequestBody ClienteDTO clienteDTO){
-        log.info("Entry [ClienteController.atualizarCliente] - Atualizando cliente com id: {}, dados: {}", id, clienteDTO);
-        Cliente clienteAtualizado = clienteService.atualizarCliente(id, clienteDTO);
-        log.info("Exit [ClienteController.atualizarCliente] - Cliente atualizado com sucesso: {}", clienteAtualizado);
-        return ResponseEntity.ok(new ClienteDetailsDTO(clienteAtualizado));
+        log.debug("Entry [ClienteController.atualizarCliente] - Atualizando cliente com id: {}", id);
+        try {
+            Cliente clienteAtualizado = clienteService.atualizarCliente(id, clienteDTO);
+            log.debug("Exit [ClienteController.atualizarCliente] - Cliente atualizado com sucesso: {}", id);
+            return ResponseEntity.ok(new ClienteDetailsDTO(clienteAtualizado));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Exit [ClienteController.atualizarCliente] - Conflito de versao no cliente {}", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ClienteDetailsDTO(clienteService.recuperarPorId(id)));
+        }
     }
 
+    /**
+     * 204 quando a exclusão terminou na própria requisição; 202 com a exclusão em andamento quando ela foi para
+     * segundo plano (clientes grandes ou segundoPlano=true), acompanhável em GET /exclusoes/{id}.
+     */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> excluirCliente(@PathVariable Long id){
-        log.info("Entry [ClienteController.excluirCliente] - Excluindo cliente por id: {}", id);
-        clienteService.excluirCliente(id);
+    public ResponseEntity<ExclusaoDTO> excluirCliente(@PathVariable Long id, @RequestParam(required = false) Boolean segundoPlano){
+        log.debug("Entry [ClienteController.excluirCliente] - Excluindo cliente por id: {}", id);
+        Exclusao exclusao = clienteService.excluirCliente(id, segundoPlano);
+        if (exclusao.getStatus() == StatusExclusao.FALHA) {
+            throw new RuntimeException("Falha ao excluir cliente " + id + ": " + exclusao.getErro());
+        }
+        if (exclusao.getStatus() != StatusExclusao.CONCLUIDA) {
+            log.info("Exit [ClienteController.excluirCliente] - Exclusao do cliente {} em segundo plano: {}", id, exclusao.getId());
+            URI localExclusao = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/exclusoes/{id}")
+                    .buildAndExpand(exclusao.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(localExclusao).body(new ExclusaoDTO(exclusao));
+        }
         log.info("Exit [ClienteController.excluirCliente] - Cliente excluido com sucesso: {}", id);
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,51 @@
+package dev.gustavorosa.cobranca_cp.controller;
+
+import dev.gustavorosa.cobranca_cp.dto.ConciliacaoPendenteDTO;
+import dev.gustavorosa.cobranca_cp.dto.ResolucaoPendenciaDTO;
+import dev.gustavorosa.cobranca_cp.dto.ResumoConciliacaoDTO;
+import dev.gustavorosa.cobranca_cp.infra.conciliacao.FormatoExtrato;
+import dev.gustavorosa.cobranca_cp.model.ConciliacaoPendente;
+import dev.gustavorosa.cobranca_cp.service.ConciliacaoService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/conciliacoes")
+@RequiredArgsConstructor
+public class ConciliacaoController {
+
+    private final ConciliacaoService conciliacaoService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> conciliarExtrato(@RequestParam("arquivo") MultipartFile arquivo,
+                                              @RequestParam FormatoExtrato formato) throws IOException {
+        try {
+            ResumoConciliacaoDTO resumo = conciliacaoService.conciliar(arquivo.getOriginalFilename(), arquivo, formato);
+            return ResponseEntity.ok(resumo);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/pendentes")
+    public ResponseEntity<List<ConciliacaoPendenteDTO>> recuperarPendentes() {
+        List<ConciliacaoPendenteDTO> pendentes = conciliacaoService.recuperarPendentes().stream()
+                .map(ConciliacaoPendenteDTO::new).toList();
+        return ResponseEntity.ok(pendentes);
+    }
+
+    @PostMapping("/pendentes/{id}/resolver")
+    public ResponseEntity<ConciliacaoPendenteDTO> resolverPendencia(@PathVariable Long id,
+                                                                    @Valid @RequestBody ResolucaoPendenciaDTO dto) {
+        ConciliacaoPendente resolvida = conciliacaoService.resolverPendencia(id, dto.pagamento_id());
+        return ResponseEntity.ok(new ConciliacaoPendenteDTO(resolvida));
+    }
+}
@@ -2,9 +2,18 @@ package dev.gustavorosa.cobranca_cp.controller;
 
 import dev.gustavorosa.cobranca_cp.dto.ContratoDTO;
 import dev.gustavorosa.cobranca_cp.dto.ContratoDetailsDTO;
+import dev.gustavorosa.cobranca_cp.dto.ExclusaoDTO;
+import dev.gustavorosa.cobranca_cp.dto.ExtratoContratoDTO;
+import dev.gustavorosa.cobranca_cp.dto.SaldoDTO;
 import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.Exclusao;
+import dev.gustavorosa.cobranca_cp.model.StatusExclusao;
 import dev.gustavorosa.cobranca_cp.service.ContratoService;
+import dev.gustavorosa.cobranca_cp.service.ExtratoService;
+import dev.gustavorosa.cobranca_cp.service.SaldoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -19,9 +28,20 @@ public class ContratoController {
     @Autowired
     private ContratoService contratoService;
 
+    @Autowired
+    private ExtratoService extratoService;
+
+    @Autowired
+    private SaldoService saldoService;
+
     @PostMapping
-    public ResponseEntity<ContratoDetailsDTO> registrarContrato(@RequestBody ContratoDTO contratoDTO){
-        Contrato novoContrato = contratoService.registrarContrato(contratoDTO);
+    public ResponseEntity<?> registrarContrato(@RequestBody ContratoDTO contratoDTO){
+        Contrato novoContrato;
+        try {
+            novoContrato = contratoService.registrarContrato(contratoDTO);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
         URI localNovoContrato = ServletUriComponentsBuilder
                 .fromCurrentRequest()
@@ -32,8 +52,21 @@ public class ContratoController {
         return ResponseEntity.created(localNovoContrato).body(new ContratoDetailsDTO(novoContrato));
     }
 
+    /**
+     * {@code fields} (ex: contrato_id,nome_contratante) devolve só esses campos de cada contrato, lidos do banco
+     * sem o resto da linha; campo desconhecido dá 400.
+     */
     @GetMapping
-    public ResponseEntity<List<ContratoDetailsDTO>> recuperarContratos(){
+    public ResponseEntity<?> recuperarContratos(@RequestParam(required = false) String fields){
+        if (fields != null) {
+            List<String> campos;
+            try {
+                campos = ContratoDetailsDTO.CAMPOS.interpretar(fields);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+            return ResponseEntity.ok(contratoService.recuperarContratos(campos));
+        }
         List<Contrato> todosContratos = contratoService.recuperarContratos();
         List<ContratoDetailsDTO> respostaDTO = todosContratos.stream().map(ContratoDetailsDTO::new).toList();
         return ResponseEntity.ok(respostaDTO);
@@ -46,15 +79,45 @@ public class ContratoController {
         return ResponseEntity.ok(contratoResposta);
     }
 
+    @GetMapping("/{id}/pagamentos")
+    public ResponseEntity<ExtratoContratoDTO> recuperarPagamentosDoContrato(@PathVariable Long id){
+        return ResponseEntity.ok(extratoService.extratoContrato(id));
+    }
+
+    @GetMapping("/{id}/saldo")
+    public ResponseEntity<SaldoDTO> recuperarSaldo(@PathVariable Long id){
+        return ResponseEntity.ok(saldoService.saldoContrato(id));
+    }
+
+    /**
+     * 409 com o contrato atual quando ele (ou uma das parcelas regeneradas) foi alterado depois da leitura;
+     * 400 com duração ou valor não positivos.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<ContratoDetailsDTO> atualizarContrato(@PathVariable Long id, @RequestBody ContratoDTO contratoDTO){
-        Contrato contratoAtualizado = contratoService.atualizarContrato(id, contratoDTO);
-        return ResponseEntity.ok(new ContratoDetailsDTO(contratoAtualizado));
+    public ResponseEntity<?> atualizarContrato(@PathVariable Long id, @RequestBody ContratoDTO contratoDTO){
+        try {
+            Contrato contratoAtualizado = contratoService.atualizarContrato(id, contratoDTO);
+            return ResponseEntity.ok(new ContratoDetailsDTO(contratoAtualizado));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ContratoDetailsDTO(contratoService.recuperarContratoPorId(id)));
+        }
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> excluirContrato(@PathVariable Long id){
-        contratoService.excluirContrato(id);
+    public ResponseEntity<ExclusaoDTO> excluirContrato(@PathVariable Long id, @RequestParam(required = false) Boolean segundoPlano){
+        Exclusao exclusao = contratoService.excluirContrato(id, segundoPlano);
+        if (exclusao.getStatus() == StatusExclusao.FALHA) {
+            throw new RuntimeException("Falha ao excluir contrato " + id + ": " + exclusao.getErro());
+        }
+        if (exclusao.getStatus() != StatusExclusao.CONCLUIDA) {
+            URI localExclusao = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/exclusoes/{id}")
+                    .buildAndExpand(exclusao.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(localExclusao).body(new ExclusaoDTO(exclusao));
+        }
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,30 @@
+package dev.gustavorosa.cobranca_cp.controller;
+
+import dev.gustavorosa.cobranca_cp.dto.ExclusaoDTO;
+import dev.gustavorosa.cobranca_cp.service.ExclusaoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/exclusoes")
+@RequiredArgsConstructor
+public class ExclusaoController {
+
+    private final ExclusaoService exclusaoService;
+
+    @GetMapping
+    public ResponseEntity<List<ExclusaoDTO>> recuperarRecentes() {
+        return ResponseEntity.ok(exclusaoService.recuperarRecentes().stream().map(ExclusaoDTO::new).toList());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExclusaoDTO> recuperarPorId(@PathVariable Long id) {
+        return ResponseEntity.ok(new ExclusaoDTO(exclusaoService.recuperarPorId(id)));
+    }
+}
@@ -0,0 +1,109 @@
+package dev.gustavorosa.cobranca_cp.controller;
+
+import dev.gustavorosa.cobranca_cp.dto.DisparoJobDTO;
+import dev.gustavorosa.cobranca_cp.dto.ExecucaoJobDTO;
+import dev.gustavorosa.cobranca_cp.dto.JobDTO;
+import dev.gustavorosa.cobranca_cp.infra.job.Job;
+import dev.gustavorosa.cobranca_cp.model.ExecucaoJob;
+import dev.gustavorosa.cobranca_cp.service.JobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Situação, histórico e tendência dos jobs em segundo plano. Disparar, pausar e retomar exigem ADMIN;
+ * o disparo manual responde 202 com o endereço da execução, que roda em segundo plano.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+
+    @GetMapping
+    public ResponseEntity<List<JobDTO>> listar() {
+        return ResponseEntity.ok(jobService.listar());
+    }
+
+    @GetMapping("/{nome}/execucoes")
+    public ResponseEntity<?> historico(@PathVariable String nome, @RequestParam(defaultValue = "50") int limite) {
+        Optional<Job> job = jobService.buscar(nome);
+        if (job.isEmpty()) return jobNaoEncontrado(nome);
+        return ResponseEntity.ok(jobService.historico(job.get(), limite).stream().map(ExecucaoJobDTO::new).toList());
+    }
+
+    @GetMapping("/{nome}/execucoes/{id}")
+    public ResponseEntity<?> execucao(@PathVariable String nome, @PathVariable Long id) {
+        Optional<Job> job = jobService.buscar(nome);
+        if (job.isEmpty()) return jobNaoEncontrado(nome);
+        return jobService.execucao(job.get(), id)
+                .<ResponseEntity<?>>map(execucao -> ResponseEntity.ok(new ExecucaoJobDTO(execucao)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body("Execução " + id + " do job " + nome + " não encontrada"));
+    }
+
+    @GetMapping("/{nome}/tendencia")
+    public ResponseEntity<?> tendencia(@PathVariable String nome, @RequestParam(defaultValue = "30") int dias) {
+        Optional<Job> job = jobService.buscar(nome);
+        if (job.isEmpty()) return jobNaoEncontrado(nome);
+        return ResponseEntity.ok(jobService.tendencia(job.get(), dias));
+    }
+
+    @PostMapping("/{nome}/execucoes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> disparar(@PathVariable String nome, @RequestBody(required = false) DisparoJobDTO disparo,
+                                      Authentication autenticacao) {
+        Optional<Job> job = jobService.buscar(nome);
+        if (job.isEmpty()) return jobNaoEncontrado(nome);
+        try {
+            ExecucaoJob execucao = jobService.disparar(job.get(), disparo != null ? disparo.dataReferencia() : null,
+                    autenticacao.getName());
+            URI localExecucao = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .path("/{id}")
+                    .buildAndExpand(execucao.getId())
+                    .toUri();
+            return ResponseEntity.accepted().location(localExecucao).body(new ExecucaoJobDTO(execucao));
+        } catch (IllegalStateException e) {
+            log.warn("Disparo do job {} recusado: {}", nome, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{nome}/pausar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> pausar(@PathVariable String nome, Authentication autenticacao) {
+        Optional<Job> job = jobService.buscar(nome);
+        if (job.isEmpty()) return jobNaoEncontrado(nome);
+        jobService.pausar(job.get(), autenticacao.getName());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{nome}/retomar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> retomar(@PathVariable String nome, Authentication autenticacao) {
+        Optional<Job> job = jobService.buscar(nome);
+        if (job.isEmpty()) return jobNaoEncontrado(nome);
+        jobService.retomar(job.get(), autenticacao.getName());
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<?> jobNaoEncontrado(String nome) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Job " + nome + " não encontrado");
+    }
+}
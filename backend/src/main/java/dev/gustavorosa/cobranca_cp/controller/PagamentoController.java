@@ -1,13 +1,18 @@
 package dev.gustavorosa.cobranca_cp.controller;
 
 import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoLoteItemDTO;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoLoteResultadoDTO;
 import dev.gustavorosa.cobranca_cp.model.Pagamento;
 import dev.gustavorosa.cobranca_cp.service.PagamentoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/pagamentos")
@@ -16,18 +21,56 @@ public class PagamentoController {
     @Autowired
     private PagamentoService pagamentoService;
 
+    /**
+     * {@code fields} (ex: pagamento_id,data_vencimento,status) devolve só esses campos de cada parcela, lidos do banco
+     * sem o resto da linha; campo desconhecido dá 400.
+     */
     @GetMapping
-    public ResponseEntity<List<PagamentoDTO>> recuperarPagamentos(){
+    public ResponseEntity<?> recuperarPagamentos(@RequestParam(required = false) String fields){
+       if (fields != null) {
+          List<String> campos;
+          try {
+             campos = PagamentoDTO.CAMPOS.interpretar(fields);
+          } catch (IllegalArgumentException e) {
+             return ResponseEntity.badRequest().body(e.getMessage());
+          }
+          return ResponseEntity.ok(pagamentoService.recuperarTodos(campos));
+       }
        List<Pagamento> pagamentosRecuperados = pagamentoService.recuperarTodos();
        List<PagamentoDTO> dtos = pagamentosRecuperados.stream().map(PagamentoDTO::new).toList();
        return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * 409 com a parcela atual quando ela foi alterada depois da leitura (versao da requisição) ou durante a gravação,
+     * por exemplo pela atualização diária.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<PagamentoDTO> atualizarPagamento(@RequestBody PagamentoDTO dto, @PathVariable Long id){
-        System.out.println("Comecando atualizacao");
-       Pagamento atualizado = this.pagamentoService.atualizarPagamento(dto, id);
-       System.out.println("Atualizando pagamento " + id);
-       return ResponseEntity.ok(new PagamentoDTO(atualizado));
+       try {
+          Pagamento atualizado = this.pagamentoService.atualizarPagamento(dto, id);
+          return ResponseEntity.ok(new PagamentoDTO(atualizado));
+       } catch (OptimisticLockingFailureException e) {
+          return ResponseEntity.status(HttpStatus.CONFLICT).body(new PagamentoDTO(pagamentoService.recuperarPorId(id)));
+       }
+    }
+
+    /**
+     * Validação é por item: item inválido ou inexistente volta como falha com o motivo e não impede os demais, em
+     * vez de um 400 para o lote inteiro. Itens com versao desatualizada voltam como falha com a parcela atual. Se
+     * outra transação gravar uma das parcelas durante o lote, nada é aplicado: 409 com o estado atual de todas as
+     * parcelas pedidas.
+     */
+    @RequestMapping(value = "/batch", method = {RequestMethod.PUT, RequestMethod.PATCH})
+    public ResponseEntity<?> atualizarPagamentosEmLote(@RequestBody List<PagamentoLoteItemDTO> itens){
+       try {
+          List<PagamentoLoteResultadoDTO> resultados = this.pagamentoService.atualizarPagamentosEmLote(itens);
+          return ResponseEntity.ok(resultados);
+       } catch (OptimisticLockingFailureException e) {
+          List<Long> ids = itens.stream().filter(Objects::nonNull).map(PagamentoLoteItemDTO::pagamento_id)
+                  .filter(Objects::nonNull).distinct().toList();
+          return ResponseEntity.status(HttpStatus.CONFLICT)
+                  .body(pagamentoService.recuperarPorIds(ids).stream().map(PagamentoDTO::new).toList());
+       }
     }
 }
@@ -0,0 +1,50 @@
+package dev.gustavorosa.cobranca_cp.controller;
+
+import dev.gustavorosa.cobranca_cp.dto.ProjecaoParcelasDTO;
+import dev.gustavorosa.cobranca_cp.dto.ProjecaoSaldoDTO;
+import dev.gustavorosa.cobranca_cp.service.ProjecaoSaldoService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Projeção de saldo devedor numa data (padrão: hoje). Somente leitura; nenhum valor é gravado.
+ * detalhar=false omite a lista de parcelas e devolve apenas os totais.
+ */
+@RestController
+@RequestMapping("/projecoes")
+@RequiredArgsConstructor
+public class ProjecaoController {
+
+    private final ProjecaoSaldoService projecaoSaldoService;
+
+    @GetMapping("/clientes/{id}")
+    public ResponseEntity<ProjecaoSaldoDTO> projetarCliente(@PathVariable Long id,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+                                                            @RequestParam(defaultValue = "true") boolean detalhar) {
+        return ResponseEntity.ok(projecaoSaldoService.projetarCliente(id, data, detalhar));
+    }
+
+    @GetMapping("/contratos/{id}")
+    public ResponseEntity<ProjecaoSaldoDTO> projetarContrato(@PathVariable Long id,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+                                                             @RequestParam(defaultValue = "true") boolean detalhar) {
+        return ResponseEntity.ok(projecaoSaldoService.projetarContrato(id, data, detalhar));
+    }
+
+    @PostMapping("/parcelas")
+    public ResponseEntity<ProjecaoSaldoDTO> projetarParcelas(@Valid @RequestBody ProjecaoParcelasDTO requisicao,
+                                                             @RequestParam(defaultValue = "true") boolean detalhar) {
+        return ResponseEntity.ok(projecaoSaldoService.projetarParcelas(requisicao.pagamento_ids(), requisicao.data(), detalhar));
+    }
+}
@@ -0,0 +1,14 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public record AgingCarteiraDTO(
+        LocalDate data_referencia,
+        long quantidade_parcelas,
+        double valor_total,
+        List<FaixaAgingDTO> faixas,
+        Map<String, Long> parcelas_por_situacao
+) {
+}
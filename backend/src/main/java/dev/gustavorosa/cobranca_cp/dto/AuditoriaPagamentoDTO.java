@@ -0,0 +1,30 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.model.AuditoriaPagamento;
+
+import java.time.LocalDateTime;
+
+public record AuditoriaPagamentoDTO(
+        Long pagamento_id,
+        Long contrato_id,
+        String campo,
+        String valor_anterior,
+        String valor_novo,
+        String usuario,
+        String origem,
+        LocalDateTime data_hora
+) {
+
+    public AuditoriaPagamentoDTO(AuditoriaPagamento auditoria) {
+        this(
+                auditoria.getPagamentoId(),
+                auditoria.getContratoId(),
+                auditoria.getCampo(),
+                auditoria.getValorAnterior(),
+                auditoria.getValorNovo(),
+                auditoria.getUsuario(),
+                auditoria.getOrigem().toString(),
+                auditoria.getDataHora()
+        );
+    }
+}
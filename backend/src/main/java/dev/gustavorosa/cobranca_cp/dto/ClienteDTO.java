@@ -17,7 +17,8 @@ public record ClienteDTO(
         String banco,
         Double taxaMulta,
         Double taxaJurosMensal,
-        List<Contrato> contratos
+        List<Contrato> contratos,
+        Long versao
 ) {
     public ClienteDTO(Cliente novoCliente) {
         this(
@@ -30,7 +31,8 @@ public record ClienteDTO(
                 novoCliente.getBanco(),
                 novoCliente.getTaxaMulta(),
                 novoCliente.getTaxaJurosMensal(),
-                novoCliente.getContratos()
+                novoCliente.getContratos(),
+                novoCliente.getVersao()
         );
     }
 
@@ -46,6 +48,7 @@ public record ClienteDTO(
         .taxaMulta(taxaMulta())
         .taxaJurosMensal(taxaJurosMensal())
         .contratos(contratos())
+        .versao(versao())
         .build();
     }
 }
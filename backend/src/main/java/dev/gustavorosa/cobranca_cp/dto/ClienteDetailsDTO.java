@@ -1,5 +1,6 @@
 package dev.gustavorosa.cobranca_cp.dto;
 
+import dev.gustavorosa.cobranca_cp.infra.campos.SelecaoCampos;
 import dev.gustavorosa.cobranca_cp.model.Cliente;
 
 public record ClienteDetailsDTO(
@@ -10,12 +11,28 @@ public record ClienteDetailsDTO(
         String registro,
         String banco,
         Double taxa_multa,
-        Double taxa_juros_mensal
+        Double taxa_juros_mensal,
+        Long versao
 ) {
 
+    /**
+     * Campos de GET /clientes?fields=...
+     */
+    public static final SelecaoCampos CAMPOS = SelecaoCampos.de("from Cliente c where c.excluidoEm is null")
+            .campo("cliente_id", "c.id")
+            .campo("nome", "c.nome")
+            .campo("endereco", "c.endereco")
+            .campo("telefone", "c.telefone")
+            .campo("registro", "c.registro")
+            .campo("banco", "c.banco")
+            .campo("taxa_multa", "c.taxaMulta")
+            .campo("taxa_juros_mensal", "c.taxaJurosMensal")
+            .campo("versao", "c.versao")
+            .construir();
+
     public ClienteDetailsDTO(Cliente clienteRecuperado) {
         this(clienteRecuperado.getId(), clienteRecuperado.getNome(), clienteRecuperado.getEndereco(),
                 clienteRecuperado.getTelefone(), clienteRecuperado.getRegistro(), clienteRecuperado.getBanco(),
-                clienteRecuperado.getTaxaMulta(), clienteRecuperado.getTaxaJurosMensal());
+                clienteRecuperado.getTaxaMulta(), clienteRecuperado.getTaxaJurosMensal(), clienteRecuperado.getVersao());
     }
 }
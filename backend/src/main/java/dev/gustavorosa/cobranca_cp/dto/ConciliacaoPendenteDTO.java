@@ -0,0 +1,36 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.model.ConciliacaoPendente;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public record ConciliacaoPendenteDTO(
+        Long pendencia_id,
+        String arquivo,
+        Long linha_arquivo,
+        LocalDate data_lancamento,
+        Double valor,
+        String documento,
+        String descricao,
+        String motivo,
+        List<Long> candidatos
+) {
+
+    public ConciliacaoPendenteDTO(ConciliacaoPendente pendente) {
+        this(
+                pendente.getId(),
+                pendente.getArquivo(),
+                pendente.getLinhaArquivo(),
+                pendente.getDataLancamento(),
+                pendente.getValor(),
+                pendente.getDocumento(),
+                pendente.getDescricao(),
+                pendente.getMotivo().toString(),
+                pendente.getCandidatos() == null || pendente.getCandidatos().isEmpty()
+                        ? List.of()
+                        : Arrays.stream(pendente.getCandidatos().split(",")).map(Long::valueOf).toList()
+        );
+    }
+}
@@ -4,6 +4,7 @@ import dev.gustavorosa.cobranca_cp.model.Cliente;
 import dev.gustavorosa.cobranca_cp.model.Contrato;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -12,10 +13,13 @@ public record ContratoDTO(
         @NotNull(message = "Id do cliente e obrigatorio.") Long clienteId,
         @NotBlank(message = "Nome do contratante e obrigatorio.") String nomeContratante,
         String cpfContratante,
-        @NotNull(message = "Duracao do contrato e indispensavel.") Integer duracaoEmMeses,
+        @NotNull(message = "Duracao do contrato e indispensavel.")
+        @Positive(message = "Duracao do contrato deve ser de pelo menos 1 mes.") Integer duracaoEmMeses,
         @NotNull(message = "Data do inicio do contrato e obrigatorio.") LocalDate dataInicioContrato,
         @NotNull(message = "Data da primeira parcela e obrigatorio") LocalDate dataPrimeiraParcela,
-        @NotNull(message = "O valor do contrato e obrigatorio.")  Double valorContrato
+        @NotNull(message = "O valor do contrato e obrigatorio.")
+        @Positive(message = "O valor do contrato deve ser positivo.") Double valorContrato,
+        Long versao
 ) {
     public ContratoDTO(Contrato novoContrato) {
         this(
@@ -25,7 +29,8 @@ public record ContratoDTO(
                 novoContrato.getDuracaoEmMeses(),
                 null,
                 novoContrato.getDataInicioContrato(),
-                novoContrato.getValorContrato()
+                novoContrato.getValorContrato(),
+                novoContrato.getVersao()
         );
     }
 
@@ -1,5 +1,6 @@
 package dev.gustavorosa.cobranca_cp.dto;
 
+import dev.gustavorosa.cobranca_cp.infra.campos.SelecaoCampos;
 import dev.gustavorosa.cobranca_cp.model.Contrato;
 
 import java.time.LocalDate;
@@ -11,9 +12,24 @@ public record ContratoDetailsDTO(
         String cpf_contratante,
         String nome_contratante,
         LocalDate data,
-        Double valor_contrato
+        Double valor_contrato,
+        Long versao
 ) {
 
+    /**
+     * Campos de GET /contratos?fields=...
+     */
+    public static final SelecaoCampos CAMPOS = SelecaoCampos.de("from Contrato c where c.excluidoEm is null")
+            .campo("contrato_id", "c.id")
+            .campo("cliente_id", "c.cliente.id")
+            .campo("duracao_em_meses", "c.duracaoEmMeses")
+            .campo("cpf_contratante", "c.cpfContratante")
+            .campo("nome_contratante", "c.nomeContratante")
+            .campo("data", "c.dataInicioContrato")
+            .campo("valor_contrato", "c.valorContrato")
+            .campo("versao", "c.versao")
+            .construir();
+
     public ContratoDetailsDTO(Contrato contrato){
         this(
                 contrato.getId(),
@@ -22,6 +38,7 @@ public record ContratoDetailsDTO(
                 contrato.getCpfContratante(),
                 contrato.getNomeContratante(),
                 contrato.getDataInicioContrato(),
-                contrato.getValorContrato());
+                contrato.getValorContrato(),
+                contrato.getVersao());
     }
 }
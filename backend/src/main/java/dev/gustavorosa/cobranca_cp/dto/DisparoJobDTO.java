@@ -0,0 +1,9 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+
+/**
+ * @param dataReferencia data para a qual o job roda; vazio para hoje
+ */
+public record DisparoJobDTO(LocalDate dataReferencia) {
+}
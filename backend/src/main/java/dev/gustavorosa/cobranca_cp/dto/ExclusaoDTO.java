@@ -0,0 +1,38 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.model.Exclusao;
+
+import java.time.LocalDateTime;
+
+public record ExclusaoDTO(
+        Long exclusao_id,
+        String tipo,
+        Long alvo_id,
+        String status,
+        Long parcelas_estimadas,
+        Long parcelas_excluidas,
+        Long contratos_excluidos,
+        String usuario,
+        String erro,
+        LocalDateTime criada_em,
+        LocalDateTime iniciada_em,
+        LocalDateTime concluida_em
+) {
+
+    public ExclusaoDTO(Exclusao exclusao) {
+        this(
+                exclusao.getId(),
+                exclusao.getTipo().toString(),
+                exclusao.getAlvoId(),
+                exclusao.getStatus().toString(),
+                exclusao.getParcelasEstimadas(),
+                exclusao.getParcelasExcluidas(),
+                exclusao.getContratosExcluidos(),
+                exclusao.getUsuario(),
+                exclusao.getErro(),
+                exclusao.getCriadaEm(),
+                exclusao.getIniciadaEm(),
+                exclusao.getConcluidaEm()
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.model.ExecucaoJob;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record ExecucaoJobDTO(
+        Long execucao_id,
+        String job,
+        LocalDate data_referencia,
+        String origem,
+        String status,
+        String usuario,
+        Long registros,
+        Integer tentativas,
+        Double registros_por_segundo,
+        Long duracao_ms,
+        String erro,
+        LocalDateTime iniciada_em,
+        LocalDateTime concluida_em
+) {
+
+    public ExecucaoJobDTO(ExecucaoJob execucao) {
+        this(
+                execucao.getId(),
+                execucao.getJob(),
+                execucao.getDataReferencia(),
+                execucao.getOrigem().toString(),
+                execucao.getStatus().toString(),
+                execucao.getUsuario(),
+                execucao.getRegistros(),
+                execucao.getTentativas(),
+                execucao.getRegistrosPorSegundo(),
+                execucao.getDuracaoMs(),
+                execucao.getErro(),
+                execucao.getIniciadaEm(),
+                execucao.getConcluidaEm()
+        );
+    }
+}
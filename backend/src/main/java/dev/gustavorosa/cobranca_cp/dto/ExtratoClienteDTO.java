@@ -0,0 +1,12 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.util.List;
+
+public record ExtratoClienteDTO(
+        Long cliente_id,
+        String nome,
+        String registro,
+        TotaisExtratoDTO totais,
+        List<ExtratoContratoDTO> contratos
+) {
+}
@@ -0,0 +1,15 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.util.List;
+
+public record ExtratoContratoDTO(
+        Long contrato_id,
+        Long cliente_id,
+        String nome_contratante,
+        String cpf_contratante,
+        Integer duracao_em_meses,
+        Double valor_contrato,
+        TotaisExtratoDTO totais,
+        List<PagamentoDTO> pagamentos
+) {
+}
@@ -0,0 +1,8 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+public record FaixaAgingDTO(
+        String faixa,
+        long quantidade_parcelas,
+        double valor
+) {
+}
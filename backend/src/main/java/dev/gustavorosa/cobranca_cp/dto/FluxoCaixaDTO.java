@@ -0,0 +1,14 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record FluxoCaixaDTO(
+        LocalDate data_referencia,
+        long quantidade_vencidas,
+        double valor_vencido,
+        List<MesFluxoCaixaDTO> meses,
+        long quantidade_apos_horizonte,
+        double valor_apos_horizonte
+) {
+}
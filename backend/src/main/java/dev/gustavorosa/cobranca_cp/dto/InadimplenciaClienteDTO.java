@@ -0,0 +1,10 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+public record InadimplenciaClienteDTO(
+        Long cliente_id,
+        String nome,
+        int quantidade_parcelas,
+        double valor_vencido,
+        int maior_atraso_dias
+) {
+}
@@ -0,0 +1,10 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+public record JobDTO(
+        String nome,
+        String descricao,
+        boolean pausado,
+        boolean executando,
+        ExecucaoJobDTO ultima_execucao
+) {
+}
@@ -0,0 +1,18 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+
+import java.time.LocalDate;
+
+/**
+ * Uma parcela em aberto com as colunas da carteira em memória (ver CarteiraColunar).
+ */
+public record LinhaCarteiraDTO(
+        Long pagamentoId,
+        Long contratoId,
+        Long clienteId,
+        LocalDate dataVencimento,
+        Double valor,
+        SituacaoPagamento status
+) {
+}
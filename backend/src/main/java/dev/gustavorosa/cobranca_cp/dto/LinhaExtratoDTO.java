@@ -0,0 +1,31 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+
+import java.time.LocalDate;
+
+/**
+ * Uma linha da consulta achatada de extrato: cliente + contrato + parcela. Contrato e parcela podem vir nulos
+ * (left join) quando o cliente não tem contratos ou o contrato não tem parcelas.
+ */
+public record LinhaExtratoDTO(
+        Long clienteId,
+        String clienteNome,
+        String clienteRegistro,
+        Long contratoId,
+        String nomeContratante,
+        String cpfContratante,
+        Integer duracaoEmMeses,
+        Double valorContrato,
+        Long pagamentoId,
+        Integer numeroParcela,
+        Double valor,
+        Double valorOriginal,
+        Double valorAtualizado,
+        LocalDate dataVencimento,
+        LocalDate dataPagamento,
+        SituacaoPagamento status,
+        String observacao,
+        Long versao
+) {
+}
@@ -0,0 +1,16 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+
+/**
+ * Uma parcela não paga de um contrato, só com o que entra no saldo. Contratos sem parcelas em aberto
+ * vêm numa única linha com os campos da parcela nulos (left join).
+ */
+public record LinhaSaldoDTO(
+        Long contratoId,
+        Long clienteId,
+        Double valor,
+        Double valorOriginal,
+        SituacaoPagamento status
+) {
+}
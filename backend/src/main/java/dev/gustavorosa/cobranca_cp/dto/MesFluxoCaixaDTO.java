@@ -0,0 +1,10 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.YearMonth;
+
+public record MesFluxoCaixaDTO(
+        YearMonth mes,
+        long quantidade_parcelas,
+        double valor
+) {
+}
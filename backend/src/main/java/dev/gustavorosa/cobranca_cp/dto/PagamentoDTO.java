@@ -1,5 +1,6 @@
 package dev.gustavorosa.cobranca_cp.dto;
 
+import dev.gustavorosa.cobranca_cp.infra.campos.SelecaoCampos;
 import dev.gustavorosa.cobranca_cp.model.Pagamento;
 
 public record PagamentoDTO(
@@ -12,9 +13,27 @@ public record PagamentoDTO(
         String data_vencimento,
         String status,
         String observacao,
-        Integer numero_parcela
+        Integer numero_parcela,
+        Long versao
 ) {
 
+    /**
+     * Campos de GET /pagamentos?fields=..., com as mesmas conversões do construtor.
+     */
+    public static final SelecaoCampos CAMPOS = SelecaoCampos.de("from Pagamento p join p.contrato c where c.excluidoEm is null")
+            .campo("pagamento_id", "p.id")
+            .campo("contrato_id", "c.id")
+            .campo("valor", "p.valor")
+            .campo("valor_original", "p.valorOriginal")
+            .campo("valor_atualizado", "p.valorAtualizado")
+            .campo("data_pagamento", "p.dataPagamento", data -> data != null ? data.toString() : "")
+            .campo("data_vencimento", "p.dataVencimento", SelecaoCampos.TEXTO)
+            .campo("status", "p.status", SelecaoCampos.TEXTO)
+            .campo("observacao", "p.observacao")
+            .campo("numero_parcela", "p.numeroParcela")
+            .campo("versao", "p.versao")
+            .construir();
+
     public PagamentoDTO(Pagamento pagamento){
         this(
                 pagamento.getId(),
@@ -26,7 +45,8 @@ public record PagamentoDTO(
                 pagamento.getDataVencimento().toString(),
                 pagamento.getStatus().toString(),
                 pagamento.getObservacao(),
-                pagamento.getNumeroParcela()
+                pagamento.getNumeroParcela(),
+                pagamento.getVersao()
         );
     }
 }
@@ -0,0 +1,12 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record PagamentoLoteItemDTO(
+        @NotNull(message = "Id do pagamento e obrigatorio.") Long pagamento_id,
+        String data_pagamento,
+        @NotBlank(message = "Data de vencimento e obrigatoria.") String data_vencimento,
+        Long versao
+) {
+}
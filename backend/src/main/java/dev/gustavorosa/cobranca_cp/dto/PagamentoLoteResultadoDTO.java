@@ -0,0 +1,27 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+
+public record PagamentoLoteResultadoDTO(
+        Long pagamento_id,
+        boolean sucesso,
+        String erro,
+        PagamentoDTO pagamento
+) {
+
+    public static PagamentoLoteResultadoDTO sucesso(Pagamento pagamento) {
+        return new PagamentoLoteResultadoDTO(pagamento.getId(), true, null, new PagamentoDTO(pagamento));
+    }
+
+    /**
+     * Versão informada diferente da atual: o item não é aplicado e volta com o estado atual da parcela.
+     */
+    public static PagamentoLoteResultadoDTO conflito(Pagamento atual) {
+        return new PagamentoLoteResultadoDTO(atual.getId(), false, "Pagamento alterado por outra operacao (versao atual "
+                + atual.getVersao() + ")", new PagamentoDTO(atual));
+    }
+
+    public static PagamentoLoteResultadoDTO falha(Long pagamentoId, String erro) {
+        return new PagamentoLoteResultadoDTO(pagamentoId, false, erro, null);
+    }
+}
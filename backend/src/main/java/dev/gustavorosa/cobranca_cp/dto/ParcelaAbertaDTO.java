@@ -0,0 +1,12 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+
+public record ParcelaAbertaDTO(
+        Long pagamentoId,
+        Double valor,
+        LocalDate dataVencimento,
+        String cpfContratante,
+        String registroCliente
+) {
+}
@@ -0,0 +1,14 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+
+public record ParcelaProjecaoDTO(
+        Long pagamentoId,
+        Long contratoId,
+        Integer numeroParcela,
+        LocalDate dataVencimento,
+        Double valorOriginal,
+        Double taxaMulta,
+        Double taxaJurosMensal
+) {
+}
@@ -0,0 +1,16 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+
+public record ParcelaProjetadaDTO(
+        Long pagamento_id,
+        Long contrato_id,
+        Integer numero_parcela,
+        LocalDate data_vencimento,
+        long dias_atraso,
+        double valor_original,
+        double multa,
+        double juros,
+        double valor_projetado
+) {
+}
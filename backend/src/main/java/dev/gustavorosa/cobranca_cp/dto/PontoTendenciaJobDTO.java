@@ -0,0 +1,13 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+
+public record PontoTendenciaJobDTO(
+        LocalDate data,
+        int execucoes,
+        long duracao_media_ms,
+        long duracao_maxima_ms,
+        long registros,
+        Double registros_por_segundo
+) {
+}
@@ -0,0 +1,12 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record ProjecaoParcelasDTO(
+        LocalDate data,
+        @NotEmpty(message = "Informe ao menos uma parcela.") List<Long> pagamento_ids
+) {
+}
@@ -0,0 +1,15 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record ProjecaoSaldoDTO(
+        LocalDate data_referencia,
+        int quantidade_parcelas,
+        double valor_original,
+        double multa,
+        double juros,
+        double valor_projetado,
+        List<ParcelaProjetadaDTO> parcelas
+) {
+}
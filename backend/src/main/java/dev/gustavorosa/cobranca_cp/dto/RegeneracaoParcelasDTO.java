@@ -0,0 +1,16 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+/**
+ * Resumo da reconciliação do cronograma de parcelas após a edição de um contrato.
+ */
+public record RegeneracaoParcelasDTO(
+        int inseridas,
+        int atualizadas,
+        int removidas,
+        int preservadas
+) {
+
+    public boolean houveAlteracao() {
+        return inseridas + atualizadas + removidas > 0;
+    }
+}
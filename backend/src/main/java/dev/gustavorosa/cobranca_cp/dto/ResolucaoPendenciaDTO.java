@@ -0,0 +1,8 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record ResolucaoPendenciaDTO(
+        @NotNull(message = "Id do pagamento e obrigatorio.") Long pagamento_id
+) {
+}
@@ -0,0 +1,24 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import dev.gustavorosa.cobranca_cp.infra.busca.ResultadoBusca;
+
+public record ResultadoBuscaDTO(
+        String tipo,
+        Long id,
+        Long cliente_id,
+        String nome,
+        String documento,
+        double relevancia
+) {
+
+    public ResultadoBuscaDTO(ResultadoBusca resultado) {
+        this(
+                resultado.documento().tipo().toString(),
+                resultado.documento().id(),
+                resultado.documento().clienteId(),
+                resultado.documento().nome(),
+                resultado.documento().documento(),
+                resultado.relevancia()
+        );
+    }
+}
@@ -0,0 +1,21 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.util.List;
+
+/**
+ * @param linhas_invalidas linhas que não puderam ser interpretadas e ficaram de fora
+ * @param erros_leitura    "linha N: motivo" das primeiras linhas inválidas
+ */
+public record ResumoConciliacaoDTO(
+        String arquivo,
+        long registros_lidos,
+        long creditos,
+        long baixados,
+        long ambiguos,
+        long sem_correspondencia,
+        long linhas_invalidas,
+        List<String> erros_leitura,
+        int parcelas_indexadas,
+        long duracao_ms
+) {
+}
@@ -0,0 +1,20 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Saldo de um contrato ou, somando os contratos, de um cliente (contrato_id nulo).
+ * encargos são multa e juros já aplicados pela atualização diária; total_devido = principal + encargos.
+ */
+public record SaldoDTO(
+        Long cliente_id,
+        Long contrato_id,
+        double principal_em_aberto,
+        double encargos,
+        double valor_atrasado,
+        double total_devido,
+        int parcelas_em_aberto,
+        int parcelas_atrasadas,
+        LocalDateTime atualizado_em
+) {
+}
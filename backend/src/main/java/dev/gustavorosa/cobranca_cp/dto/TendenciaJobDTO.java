@@ -0,0 +1,18 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.util.List;
+
+/**
+ * Duração e vazão por dia das execuções concluídas, e a última execução comparada com a mediana das anteriores.
+ * regressao indica vazão abaixo de 70% da mediana (só com histórico suficiente para comparar).
+ */
+public record TendenciaJobDTO(
+        String job,
+        int dias,
+        List<PontoTendenciaJobDTO> pontos,
+        Double ultima_registros_por_segundo,
+        Double mediana_registros_por_segundo,
+        Double variacao_percentual,
+        boolean regressao
+) {
+}
@@ -0,0 +1,13 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+public record TotaisExtratoDTO(
+        int quantidade_parcelas,
+        int quantidade_em_aberto,
+        int quantidade_atrasadas,
+        int quantidade_pagas,
+        double total_em_aberto,
+        double total_atrasado,
+        double total_pago,
+        double total_devido
+) {
+}
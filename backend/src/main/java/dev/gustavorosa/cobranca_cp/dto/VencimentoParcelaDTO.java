@@ -0,0 +1,12 @@
+package dev.gustavorosa.cobranca_cp.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Parcela em aberto com o vencimento, para a agenda de viradas de situação (ver AgendaVencimentosService).
+ */
+public record VencimentoParcelaDTO(
+        Long pagamentoId,
+        LocalDate dataVencimento
+) {
+}
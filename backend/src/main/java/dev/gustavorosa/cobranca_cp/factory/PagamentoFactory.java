@@ -19,7 +19,6 @@ public class PagamentoFactory {
     public Pagamento fromDTO(PagamentoDTO dto){
         LocalDate dataPagamento = null;
         if(!dto.data_pagamento().isEmpty()){
-            System.out.println("Data de pagamento : " + dto.data_pagamento());
             dataPagamento = converteDate(dto.data_pagamento());
         }
         LocalDate dataVencimento = converteDate(dto.data_vencimento());
@@ -39,6 +38,7 @@ public class PagamentoFactory {
                 .status(SituacaoPagamento.valueOf(dto.status()))
                 .observacao(dto.observacao())
                 .numeroParcela(dto.numero_parcela())
+                .versao(dto.versao())
                 .build();
     }
 
@@ -1,24 +1,63 @@
 package dev.gustavorosa.cobranca_cp.infra;
 
+import dev.gustavorosa.cobranca_cp.infra.job.Job;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
 import dev.gustavorosa.cobranca_cp.service.AtualizacaoPagamentoService;
+import dev.gustavorosa.cobranca_cp.service.CarteiraAbertaService;
+import dev.gustavorosa.cobranca_cp.service.JobService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+
 /**
  * Scheduler responsável por executar a atualização diária de situação 
  * e valores dos pagamentos em atraso (multa e juros).
+ * Roda pelo JobService, que registra cada execução e garante uma execução concluída por dia.
+ * Ao terminar, pede a reconstrução da carteira em memória (ver CarteiraAbertaService).
  */
 @Slf4j
 @Component
-public class AtualizacaoPagamentoScheduler {
+public class AtualizacaoPagamentoScheduler implements Job {
+
+    public static final String NOME = "atualizacao-pagamentos";
 
     private final AtualizacaoPagamentoService atualizacaoPagamentoService;
+    private final JobService jobService;
+    private final CarteiraAbertaService carteiraAbertaService;
 
     @Autowired
-    public AtualizacaoPagamentoScheduler(AtualizacaoPagamentoService atualizacaoPagamentoService) {
+    public AtualizacaoPagamentoScheduler(AtualizacaoPagamentoService atualizacaoPagamentoService, JobService jobService,
+                                         CarteiraAbertaService carteiraAbertaService) {
         this.atualizacaoPagamentoService = atualizacaoPagamentoService;
+        this.jobService = jobService;
+        this.carteiraAbertaService = carteiraAbertaService;
+    }
+
+    @Override
+    public String nome() {
+        return NOME;
+    }
+
+    @Override
+    public String descricao() {
+        return "Atualiza situação, multa e juros das parcelas em atraso e registra os lembretes";
+    }
+
+    @Override
+    public boolean umaVezPorData() {
+        return true;
+    }
+
+    @Override
+    public long executar(LocalDate dataReferencia, OrigemExecucaoJob origem) {
+        long atrasadas = atualizacaoPagamentoService.atualizarSituacao(dataReferencia,
+                origem == OrigemExecucaoJob.INICIALIZACAO ? OrigemAlteracao.INICIALIZACAO : OrigemAlteracao.JOB_NOTURNO);
+        carteiraAbertaService.solicitarReconstrucao();
+        return atrasadas;
     }
 
     /**
@@ -28,12 +67,6 @@ public class AtualizacaoPagamentoScheduler {
     @Scheduled(cron = "0 0 1 * * *")
     public void executarAtualizacaoDiaria() {
         log.info("Iniciando job de atualização diária de pagamentos...");
-        try {
-            atualizacaoPagamentoService.atualizarSituacaoSeNecessario();
-            log.info("Job de atualização diária concluído com sucesso.");
-        } catch (Exception e) {
-            log.error("Erro ao executar job de atualização diária: {}", e.getMessage(), e);
-        }
+        jobService.executarAgendado(this, OrigemExecucaoJob.AGENDADA);
     }
 }
-
@@ -1,9 +1,10 @@
 package dev.gustavorosa.cobranca_cp.infra;
 
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
 import dev.gustavorosa.cobranca_cp.model.Role;
 import dev.gustavorosa.cobranca_cp.model.Usuario;
 import dev.gustavorosa.cobranca_cp.repository.UsuarioRepository;
-import dev.gustavorosa.cobranca_cp.service.AtualizacaoPagamentoService;
+import dev.gustavorosa.cobranca_cp.service.JobService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -15,22 +16,25 @@ import org.springframework.stereotype.Component;
 @Component
 public class Inicializador {
 
-    private final AtualizacaoPagamentoService atualizacaoPagamentoService;
+    private final AtualizacaoPagamentoScheduler atualizacaoPagamentoScheduler;
+    private final JobService jobService;
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
 
     @Autowired
-    public Inicializador(AtualizacaoPagamentoService atualizacaoPagamentoService,
+    public Inicializador(AtualizacaoPagamentoScheduler atualizacaoPagamentoScheduler,
+                        JobService jobService,
                         UsuarioRepository usuarioRepository,
                         PasswordEncoder passwordEncoder) {
-        this.atualizacaoPagamentoService = atualizacaoPagamentoService;
+        this.atualizacaoPagamentoScheduler = atualizacaoPagamentoScheduler;
+        this.jobService = jobService;
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
     }
 
     @EventListener(ApplicationReadyEvent.class)
     public void aoIniciarAplicacao() {
-        atualizacaoPagamentoService.atualizarSituacaoSeNecessario();
+        jobService.executarAgendado(atualizacaoPagamentoScheduler, OrigemExecucaoJob.INICIALIZACAO);
         criarUsuarioAdminPadrao();
     }
     
@@ -0,0 +1,284 @@
+package dev.gustavorosa.cobranca_cp.infra.barramento;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Avisa as outras instâncias do backend, por LISTEN/NOTIFY do próprio PostgreSQL, dos clientes e contratos
+ * alterados aqui, para que caches e estruturas em memória (saldos, carteira, agenda de vencimentos, busca)
+ * não fiquem velhos atrás do nginx.
+ * <p>
+ * Quem altera chama {@link #publicarAoConfirmar} dentro da transação; os ids entram na fila só depois do commit
+ * e uma thread os envia a cada {@code intervaloMs}, juntando tudo que chegou nesse intervalo em poucos NOTIFY.
+ * Outra thread mantém uma conexão dedicada (fora do pool) com LISTEN e repassa o que as outras instâncias
+ * publicaram aos OuvinteAlteracoesRemotas. Cada instância numera as suas mensagens: um número pulado, ou uma
+ * reconexão da escuta, significa notificações perdidas e os ouvintes relêem tudo (ressincronizar).
+ */
+@Slf4j
+public class BarramentoAlteracoes {
+
+    static final String CANAL = "cobranca_alteracoes";
+    private static final long ESPERA_MAXIMA_RECONEXAO_MS = 30_000;
+
+    private final String instancia = UUID.randomUUID().toString().substring(0, 8);
+    private final DataSource dataSource;
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final ObjectProvider<OuvinteAlteracoesRemotas> ouvintes;
+    private final long intervaloMs;
+    private final int timeoutEscutaMs;
+    private final int limiteIds;
+    private final Map<TipoAlteracao, Set<Long>> pendentes = new EnumMap<>(TipoAlteracao.class);
+    private final Map<String, Long> ultimaSequencia = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService envio;
+    private final Thread escuta;
+    private volatile boolean ativo = true;
+    private volatile boolean conectado;
+    private boolean ressincronizacaoPendente;
+    private long sequencia;
+    private final LongAdder enviadas = new LongAdder();
+    private final LongAdder recebidas = new LongAdder();
+    private final LongAdder lacunas = new LongAdder();
+    private final LongAdder reconexoes = new LongAdder();
+    private final LongAdder falhasEnvio = new LongAdder();
+
+    public BarramentoAlteracoes(DataSource dataSource, String url, String usuario, String senha,
+                                ObjectProvider<OuvinteAlteracoesRemotas> ouvintes, long intervaloMs, int timeoutEscutaMs,
+                                int limiteIds) {
+        this.dataSource = dataSource;
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.ouvintes = ouvintes;
+        this.intervaloMs = intervaloMs;
+        this.timeoutEscutaMs = timeoutEscutaMs;
+        this.limiteIds = limiteIds;
+        this.envio = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "barramento-envio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.escuta = new Thread(this::escutar, "barramento-escuta");
+        this.escuta.setDaemon(true);
+    }
+
+    public void iniciar() {
+        escuta.start();
+        envio.scheduleWithFixedDelay(this::enviarPendentes, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        log.info("Barramento de alterações iniciado (instância {}, canal {})", instancia, CANAL);
+    }
+
+    public void encerrar() {
+        ativo = false;
+        envio.shutdown();
+        try {
+            // o que foi confirmado até aqui ainda sai
+            envio.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        enviarPendentes();
+        escuta.interrupt();
+    }
+
+    /**
+     * Publica os ids depois do commit da transação atual (na hora, se não houver transação). Rollback descarta.
+     */
+    public void publicarAoConfirmar(TipoAlteracao tipo, Collection<Long> ids) {
+        if (ids.isEmpty()) return;
+        Set<Long> copia = new HashSet<>(ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enfileirar(tipo, copia);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enfileirar(tipo, copia);
+            }
+        });
+    }
+
+    private void enfileirar(TipoAlteracao tipo, Set<Long> ids) {
+        synchronized (pendentes) {
+            if (ressincronizacaoPendente) return;
+            pendentes.computeIfAbsent(tipo, t -> new HashSet<>()).addAll(ids);
+            int total = pendentes.values().stream().mapToInt(Set::size).sum();
+            // listar tudo custaria mais NOTIFY (e mais remendos nas outras instâncias) que reler a carteira
+            if (total > limiteIds) {
+                pendentes.clear();
+                ressincronizacaoPendente = true;
+            }
+        }
+    }
+
+    private void enviarPendentes() {
+        Map<TipoAlteracao, Set<Long>> lote;
+        boolean ressincronizar;
+        synchronized (pendentes) {
+            if (pendentes.isEmpty() && !ressincronizacaoPendente) return;
+            lote = new EnumMap<>(pendentes);
+            ressincronizar = ressincronizacaoPendente;
+            pendentes.clear();
+            ressincronizacaoPendente = false;
+        }
+        try (Connection conexao = dataSource.getConnection();
+             PreparedStatement notify = conexao.prepareStatement("select pg_notify(?, ?)")) {
+            if (ressincronizar) {
+                enviar(notify, new MensagemAlteracoes(instancia, sequencia + 1, null));
+            } else {
+                for (Map<TipoAlteracao, Set<Long>> grupo : MensagemAlteracoes.dividir(instancia, lote)) {
+                    enviar(notify, new MensagemAlteracoes(instancia, sequencia + 1, grupo));
+                    grupo.forEach((tipo, ids) -> lote.get(tipo).removeAll(ids));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            falhasEnvio.increment();
+            log.warn("Falha ao publicar alterações no barramento; tentando de novo em {} ms: {}", intervaloMs, e.getMessage());
+            if (ressincronizar) {
+                synchronized (pendentes) {
+                    ressincronizacaoPendente = true;
+                }
+            } else {
+                lote.forEach(this::enfileirar);
+            }
+        }
+    }
+
+    /**
+     * A sequência só avança depois do NOTIFY aceito: um envio que falhou e é repetido não abre lacuna nos outros.
+     */
+    private void enviar(PreparedStatement notify, MensagemAlteracoes mensagem) throws SQLException {
+        notify.setString(1, CANAL);
+        notify.setString(2, mensagem.codificar());
+        notify.execute();
+        sequencia = mensagem.sequencia();
+        enviadas.increment();
+    }
+
+    private void escutar() {
+        long espera = 1000;
+        boolean primeiraConexao = true;
+        while (ativo) {
+            try (Connection conexao = DriverManager.getConnection(url, usuario, senha)) {
+                conexao.setAutoCommit(true);
+                try (Statement listen = conexao.createStatement()) {
+                    listen.execute("LISTEN " + CANAL);
+                }
+                conectado = true;
+                espera = 1000;
+                if (!primeiraConexao) {
+                    // o que foi publicado enquanto a escuta esteve fora não vai chegar
+                    reconexoes.increment();
+                    log.info("Escuta do barramento reconectada; ressincronizando");
+                    ressincronizarOuvintes();
+                }
+                primeiraConexao = false;
+                PGConnection pg = conexao.unwrap(PGConnection.class);
+                while (ativo) {
+                    PGNotification[] notificacoes = pg.getNotifications(timeoutEscutaMs);
+                    if (notificacoes == null || notificacoes.length == 0) {
+                        // sem tráfego: confirma que a conexão continua viva
+                        try (Statement ping = conexao.createStatement()) {
+                            ping.execute("select 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notificacao : notificacoes) {
+                        receber(notificacao.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                conectado = false;
+                if (!ativo) return;
+                log.warn("Escuta do barramento desconectada ({}); reconectando em {} ms", e.getMessage(), espera);
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException interrompido) {
+                    return;
+                }
+                espera = Math.min(espera * 2, ESPERA_MAXIMA_RECONEXAO_MS);
+            }
+        }
+    }
+
+    void receber(String payload) {
+        MensagemAlteracoes mensagem;
+        try {
+            mensagem = MensagemAlteracoes.decodificar(payload);
+        } catch (RuntimeException e) {
+            log.warn("Notificação do barramento ignorada: {}", e.getMessage());
+            return;
+        }
+        if (instancia.equals(mensagem.instancia())) return;
+        recebidas.increment();
+        Long anterior = ultimaSequencia.put(mensagem.instancia(), mensagem.sequencia());
+        if (mensagem.ressincronizar()) {
+            ressincronizarOuvintes();
+            return;
+        }
+        // instância que ainda não tínhamos visto começa daqui; depois disso a sequência tem de ser contínua
+        if (anterior != null && mensagem.sequencia() != anterior + 1) {
+            lacunas.increment();
+            log.warn("Lacuna nas notificações da instância {} ({} depois de {}); ressincronizando",
+                    mensagem.instancia(), mensagem.sequencia(), anterior);
+            ressincronizarOuvintes();
+            return;
+        }
+        mensagem.ids().forEach((tipo, ids) -> ouvintes.forEach(ouvinte -> {
+            try {
+                ouvinte.alteradosEmOutraInstancia(tipo, ids);
+            } catch (RuntimeException e) {
+                log.error("Falha ao repassar alterações de {} a {}", tipo, ouvinte.getClass().getSimpleName(), e);
+            }
+        }));
+    }
+
+    private void ressincronizarOuvintes() {
+        ouvintes.forEach(ouvinte -> {
+            try {
+                ouvinte.ressincronizar();
+            } catch (RuntimeException e) {
+                log.error("Falha ao ressincronizar {}", ouvinte.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    public Map<String, Object> situacao() {
+        Map<String, Object> situacao = new LinkedHashMap<>();
+        situacao.put("instancia", instancia);
+        situacao.put("conectado", conectado);
+        situacao.put("enviadas", enviadas.sum());
+        situacao.put("recebidas", recebidas.sum());
+        situacao.put("lacunas", lacunas.sum());
+        situacao.put("reconexoes", reconexoes.sum());
+        situacao.put("falhasEnvio", falhasEnvio.sum());
+        situacao.put("outrasInstancias", List.copyOf(ultimaSequencia.keySet()));
+        return situacao;
+    }
+}
@@ -0,0 +1,96 @@
+package dev.gustavorosa.cobranca_cp.infra.barramento;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Payload de um NOTIFY: {@code instancia|sequencia|TIPO:ids;TIPO:ids}, ou {@code instancia|sequencia|*} para
+ * pedir ressincronização. Os ids vão ordenados e como diferença do anterior em base 36, o que põe alguns
+ * milhares de ids dentro do limite de 8000 bytes do PostgreSQL.
+ */
+record MensagemAlteracoes(String instancia, long sequencia, Map<TipoAlteracao, Set<Long>> ids) {
+
+    static final int LIMITE_PAYLOAD = 7900;
+    private static final String RESSINCRONIZAR = "*";
+
+    boolean ressincronizar() {
+        return ids == null;
+    }
+
+    String codificar() {
+        StringBuilder payload = new StringBuilder(instancia).append('|').append(sequencia).append('|');
+        if (ressincronizar()) return payload.append(RESSINCRONIZAR).toString();
+        boolean primeiro = true;
+        for (Map.Entry<TipoAlteracao, Set<Long>> tipo : ids.entrySet()) {
+            if (!primeiro) payload.append(';');
+            primeiro = false;
+            payload.append(tipo.getKey().name()).append(':');
+            long anterior = 0;
+            boolean primeiroId = true;
+            for (long id : tipo.getValue()) {
+                if (!primeiroId) payload.append(',');
+                primeiroId = false;
+                payload.append(Long.toString(id - anterior, 36));
+                anterior = id;
+            }
+        }
+        return payload.toString();
+    }
+
+    static MensagemAlteracoes decodificar(String payload) {
+        String[] partes = payload.split("\\|", 3);
+        if (partes.length != 3) throw new IllegalArgumentException("payload inválido: " + payload);
+        long sequencia = Long.parseLong(partes[1]);
+        if (RESSINCRONIZAR.equals(partes[2])) return new MensagemAlteracoes(partes[0], sequencia, null);
+        Map<TipoAlteracao, Set<Long>> ids = new EnumMap<>(TipoAlteracao.class);
+        if (!partes[2].isEmpty()) {
+            for (String tipo : partes[2].split(";")) {
+                int separador = tipo.indexOf(':');
+                Set<Long> doTipo = ids.computeIfAbsent(TipoAlteracao.valueOf(tipo.substring(0, separador)), t -> new TreeSet<>());
+                long anterior = 0;
+                for (String delta : tipo.substring(separador + 1).split(",")) {
+                    anterior += Long.parseLong(delta, 36);
+                    doTipo.add(anterior);
+                }
+            }
+        }
+        return new MensagemAlteracoes(partes[0], sequencia, ids);
+    }
+
+    /**
+     * Divide os ids pendentes em grupos que cabem, cada um, num payload (a sequência ainda não é conhecida;
+     * reserva 20 caracteres para ela).
+     */
+    static List<Map<TipoAlteracao, Set<Long>>> dividir(String instancia, Map<TipoAlteracao, ? extends Set<Long>> pendentes) {
+        List<Map<TipoAlteracao, Set<Long>>> grupos = new ArrayList<>();
+        int limite = LIMITE_PAYLOAD - instancia.length() - 22;
+        Map<TipoAlteracao, Set<Long>> atual = new EnumMap<>(TipoAlteracao.class);
+        int tamanho = 0;
+        for (Map.Entry<TipoAlteracao, ? extends Set<Long>> tipo : pendentes.entrySet()) {
+            long anterior = 0;
+            Set<Long> doTipo = null;
+            for (long id : new TreeSet<>(tipo.getValue())) {
+                int custo = Long.toString(id - anterior, 36).length() + 1;
+                if (doTipo == null) custo += tipo.getKey().name().length() + 2;
+                if (tamanho + custo > limite && tamanho > 0) {
+                    grupos.add(atual);
+                    atual = new EnumMap<>(TipoAlteracao.class);
+                    tamanho = 0;
+                    doTipo = null;
+                    anterior = 0;
+                    custo = Long.toString(id, 36).length() + 1 + tipo.getKey().name().length() + 2;
+                }
+                if (doTipo == null) doTipo = atual.computeIfAbsent(tipo.getKey(), t -> new TreeSet<>());
+                doTipo.add(id);
+                tamanho += custo;
+                anterior = id;
+            }
+        }
+        if (!atual.isEmpty()) grupos.add(atual);
+        return grupos;
+    }
+}
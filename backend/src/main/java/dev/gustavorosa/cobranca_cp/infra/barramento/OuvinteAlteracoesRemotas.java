@@ -0,0 +1,18 @@
+package dev.gustavorosa.cobranca_cp.infra.barramento;
+
+import java.util.Set;
+
+/**
+ * Avisado das alterações confirmadas em outra instância (ver BarramentoAlteracoes). Basta ser um bean.
+ * A chamada acontece na thread que escuta o banco: o trabalho deve ser curto ou ir para outra thread.
+ */
+public interface OuvinteAlteracoesRemotas {
+
+    void alteradosEmOutraInstancia(TipoAlteracao tipo, Set<Long> ids);
+
+    /**
+     * Algumas notificações se perderam (conexão de escuta caiu, sequência com lacuna) ou a outra instância
+     * alterou coisa demais para listar: o que estiver em memória deve ser relido por inteiro.
+     */
+    void ressincronizar();
+}
@@ -0,0 +1,9 @@
+package dev.gustavorosa.cobranca_cp.infra.barramento;
+
+/**
+ * O que mudou numa notificação do barramento. Alterações de parcelas chegam como o contrato delas.
+ */
+public enum TipoAlteracao {
+    CLIENTE,
+    CONTRATO
+}
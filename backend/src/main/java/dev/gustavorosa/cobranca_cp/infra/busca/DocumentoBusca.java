@@ -0,0 +1,13 @@
+package dev.gustavorosa.cobranca_cp.infra.busca;
+
+/**
+ * Registro indexado para busca: um cliente (nome + registro) ou um contrato (contratante + CPF).
+ */
+public record DocumentoBusca(
+        TipoDocumentoBusca tipo,
+        Long id,
+        Long clienteId,
+        String nome,
+        String documento
+) {
+}
@@ -0,0 +1,326 @@
+package dev.gustavorosa.cobranca_cp.infra.busca;
+
+import dev.gustavorosa.cobranca_cp.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido de trigramas, em memória, sobre o texto normalizado (StringUtils.normalizeForSearch)
+ * do nome e do documento de cada registro. Cada palavra é indexada com dois espaços à esquerda e um à direita,
+ * então consultas curtas casam como prefixo de palavra e consultas longas toleram erros de digitação.
+ *
+ * Cada registro recebe um número interno crescente; as listas de postings são arrays de int ordenados.
+ * Atualizar um registro marca o número antigo como removido e acrescenta um novo; quando os removidos
+ * passam de um quarto do índice, ele é compactado. Leituras concorrentes, escritas serializadas.
+ */
+public class IndiceTrigramas {
+
+    private static final double FRACAO_MINIMA_TRIGRAMAS = 0.6;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<int[]> contadores = ThreadLocal.withInitial(() -> new int[0]);
+
+    private Map<Long, Postings> postings = new HashMap<>();
+    private Map<Long, Integer> numeroPorChave = new HashMap<>();
+    private DocumentoBusca[] documentos = new DocumentoBusca[1024];
+    private String[] textos = new String[1024];
+    private BitSet removidos = new BitSet();
+    private int proximoNumero;
+    private int quantidadeRemovidos;
+
+    public void indexar(DocumentoBusca documento) {
+        lock.writeLock().lock();
+        try {
+            remover(chave(documento.tipo(), documento.id()));
+            acrescentar(documento);
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa apenas se o registro ainda não estiver no índice (carga inicial concorrente com as escritas).
+     */
+    public void indexarSeAusente(DocumentoBusca documento) {
+        lock.writeLock().lock();
+        try {
+            if (!numeroPorChave.containsKey(chave(documento.tipo(), documento.id()))) {
+                acrescentar(documento);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(TipoDocumentoBusca tipo, Long id) {
+        lock.writeLock().lock();
+        try {
+            remover(chave(tipo, id));
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removerContratosDoCliente(Long clienteId) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < proximoNumero; i++) {
+                DocumentoBusca documento = documentos[i];
+                if (!removidos.get(i) && documento.tipo() == TipoDocumentoBusca.CONTRATO && clienteId.equals(documento.clienteId())) {
+                    remover(chave(documento.tipo(), documento.id()));
+                }
+            }
+            compactarSeNecessario();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return numeroPorChave.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna os registros mais relevantes para a consulta. A relevância é a fração dos trigramas da consulta
+     * presentes no registro, com bônus quando o texto começa com a consulta e uma pequena preferência por textos
+     * mais curtos, que são correspondências mais específicas.
+     *
+     * Primeiro tenta os registros que têm todos os trigramas, intersectando as listas a partir da menor com
+     * busca galopante. Só quando isso não preenche o limite (erro de digitação, por exemplo) faz a busca
+     * aproximada, aceitando registros com pelo menos 60% dos trigramas.
+     */
+    public List<ResultadoBusca> buscar(String consulta, TipoDocumentoBusca tipo, int limite) {
+        String normalizada = StringUtils.normalizeForSearch(consulta);
+        if (normalizada.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        long[] trigramas = trigramasConsulta(normalizada);
+        int minimo = Math.max(1, (int) Math.ceil(trigramas.length * FRACAO_MINIMA_TRIGRAMAS));
+
+        lock.readLock().lock();
+        try {
+            List<Postings> listas = new ArrayList<>(trigramas.length);
+            for (long trigrama : trigramas) {
+                Postings lista = postings.get(trigrama);
+                if (lista != null) listas.add(lista);
+            }
+            if (listas.size() < minimo) {
+                return List.of();
+            }
+            listas.sort(Comparator.comparingInt(l -> l.tamanho));
+
+            PriorityQueue<ResultadoBusca> melhores = new PriorityQueue<>(limite + 1, Comparator.comparingDouble(ResultadoBusca::relevancia));
+            if (listas.size() == trigramas.length) {
+                buscarExata(listas, normalizada, tipo, limite, melhores);
+            }
+            if (melhores.size() < limite) {
+                melhores.clear();
+                buscarAproximada(listas, trigramas.length, minimo, normalizada, tipo, limite, melhores);
+            }
+
+            List<ResultadoBusca> resultado = new ArrayList<>(melhores);
+            resultado.sort(Comparator.comparingDouble(ResultadoBusca::relevancia).reversed());
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void buscarExata(List<Postings> listas, String consulta, TipoDocumentoBusca tipo, int limite,
+                             PriorityQueue<ResultadoBusca> melhores) {
+        Postings menor = listas.get(0);
+        int[] cursores = new int[listas.size()];
+        candidatos:
+        for (int i = 0; i < menor.tamanho; i++) {
+            int numero = menor.numeros[i];
+            for (int l = 1; l < listas.size(); l++) {
+                Postings lista = listas.get(l);
+                cursores[l] = galopar(lista, cursores[l], numero);
+                if (cursores[l] == lista.tamanho) break candidatos;
+                if (lista.numeros[cursores[l]] != numero) continue candidatos;
+            }
+            considerar(numero, 1.0, consulta, tipo, limite, melhores);
+        }
+    }
+
+    private void buscarAproximada(List<Postings> listas, int totalTrigramas, int minimo, String consulta,
+                                  TipoDocumentoBusca tipo, int limite, PriorityQueue<ResultadoBusca> melhores) {
+        int[] contagem = contadores.get();
+        if (contagem.length < proximoNumero) {
+            contagem = new int[Math.max(proximoNumero, contagem.length * 2)];
+            contadores.set(contagem);
+        }
+
+        int geradoras = listas.size() - minimo + 1;
+        int[] tocados = new int[64];
+        int quantidadeTocados = 0;
+        for (int l = 0; l < geradoras; l++) {
+            Postings lista = listas.get(l);
+            for (int i = 0; i < lista.tamanho; i++) {
+                int numero = lista.numeros[i];
+                if (contagem[numero]++ == 0) {
+                    if (quantidadeTocados == tocados.length) tocados = Arrays.copyOf(tocados, tocados.length * 2);
+                    tocados[quantidadeTocados++] = numero;
+                }
+            }
+        }
+        for (int l = geradoras; l < listas.size(); l++) {
+            Postings lista = listas.get(l);
+            if ((long) quantidadeTocados * (32 - Integer.numberOfLeadingZeros(lista.tamanho)) < lista.tamanho) {
+                for (int i = 0; i < quantidadeTocados; i++) {
+                    if (Arrays.binarySearch(lista.numeros, 0, lista.tamanho, tocados[i]) >= 0) contagem[tocados[i]]++;
+                }
+            } else {
+                for (int i = 0; i < lista.tamanho; i++) {
+                    int numero = lista.numeros[i];
+                    if (contagem[numero] > 0) contagem[numero]++;
+                }
+            }
+        }
+
+        for (int i = 0; i < quantidadeTocados; i++) {
+            int numero = tocados[i];
+            int encontrados = contagem[numero];
+            contagem[numero] = 0;
+            if (encontrados >= minimo) {
+                considerar(numero, (double) encontrados / totalTrigramas, consulta, tipo, limite, melhores);
+            }
+        }
+    }
+
+    private void considerar(int numero, double fracaoTrigramas, String consulta, TipoDocumentoBusca tipo, int limite,
+                            PriorityQueue<ResultadoBusca> melhores) {
+        if (removidos.get(numero)) return;
+        DocumentoBusca documento = documentos[numero];
+        if (tipo != null && documento.tipo() != tipo) return;
+
+        String texto = textos[numero];
+        double relevancia = fracaoTrigramas + (texto.startsWith(consulta) ? 0.5 : 0) - texto.length() * 1e-4;
+        if (melhores.size() < limite) {
+            melhores.add(new ResultadoBusca(documento, relevancia));
+        } else if (relevancia > melhores.peek().relevancia()) {
+            melhores.poll();
+            melhores.add(new ResultadoBusca(documento, relevancia));
+        }
+    }
+
+    /**
+     * Primeira posição a partir de {@code inicio} com número >= alvo (busca exponencial + binária).
+     */
+    private static int galopar(Postings lista, int inicio, int alvo) {
+        int passo = 1;
+        int alto = inicio;
+        while (alto < lista.tamanho && lista.numeros[alto] < alvo) {
+            inicio = alto + 1;
+            alto += passo;
+            passo <<= 1;
+        }
+        int fim = Math.min(alto + 1, lista.tamanho);
+        int posicao = Arrays.binarySearch(lista.numeros, inicio, fim, alvo);
+        return posicao >= 0 ? posicao : -posicao - 1;
+    }
+
+    private void acrescentar(DocumentoBusca documento) {
+        String texto = StringUtils.normalizeForSearch(documento.nome() + " " + (documento.documento() != null ? documento.documento() : ""));
+        if (proximoNumero == documentos.length) {
+            documentos = Arrays.copyOf(documentos, documentos.length * 2);
+            textos = Arrays.copyOf(textos, textos.length * 2);
+        }
+        int numero = proximoNumero++;
+        documentos[numero] = documento;
+        textos[numero] = texto;
+        numeroPorChave.put(chave(documento.tipo(), documento.id()), numero);
+        for (long trigrama : trigramasDocumento(texto)) {
+            postings.computeIfAbsent(trigrama, t -> new Postings()).adicionar(numero);
+        }
+    }
+
+    private void remover(long chave) {
+        Integer numero = numeroPorChave.remove(chave);
+        if (numero != null) {
+            removidos.set(numero);
+            quantidadeRemovidos++;
+        }
+    }
+
+    private void compactarSeNecessario() {
+        if (quantidadeRemovidos < 1024 || quantidadeRemovidos * 4 < proximoNumero) return;
+
+        DocumentoBusca[] ativos = new DocumentoBusca[numeroPorChave.size()];
+        int quantidade = 0;
+        for (int i = 0; i < proximoNumero; i++) {
+            if (!removidos.get(i)) ativos[quantidade++] = documentos[i];
+        }
+        postings = new HashMap<>();
+        numeroPorChave = new HashMap<>();
+        documentos = new DocumentoBusca[Math.max(1024, quantidade * 2)];
+        textos = new String[documentos.length];
+        removidos = new BitSet();
+        proximoNumero = 0;
+        quantidadeRemovidos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            acrescentar(ativos[i]);
+        }
+    }
+
+    private static long[] trigramasDocumento(String texto) {
+        return trigramas(texto, true);
+    }
+
+    private static long[] trigramasConsulta(String texto) {
+        // sem espaço à direita: a última palavra pode estar incompleta
+        return trigramas(texto, false);
+    }
+
+    private static long[] trigramas(String texto, boolean fecharPalavra) {
+        long[] resultado = new long[texto.length() + 2];
+        int quantidade = 0;
+        char a = ' ';
+        char b = ' ';
+        for (int i = 0; i <= texto.length(); i++) {
+            char c = i < texto.length() ? texto.charAt(i) : ' ';
+            if (c == ' ' && b == ' ') {
+                continue; // espaço extra entre palavras
+            }
+            if (c != ' ' || fecharPalavra) {
+                long trigrama = ((long) a << 32) | ((long) b << 16) | c;
+                boolean repetido = false;
+                for (int j = 0; j < quantidade && !repetido; j++) repetido = resultado[j] == trigrama;
+                if (!repetido) resultado[quantidade++] = trigrama;
+            }
+            // ao fim de uma palavra, a próxima recomeça com dois espaços à esquerda
+            a = c == ' ' ? ' ' : b;
+            b = c;
+        }
+        return Arrays.copyOf(resultado, quantidade);
+    }
+
+    private static long chave(TipoDocumentoBusca tipo, Long id) {
+        return (id << 1) | tipo.ordinal();
+    }
+
+    private static class Postings {
+        private int[] numeros = new int[4];
+        private int tamanho;
+
+        void adicionar(int numero) {
+            if (tamanho == numeros.length) numeros = Arrays.copyOf(numeros, tamanho * 2);
+            numeros[tamanho++] = numero;
+        }
+    }
+}
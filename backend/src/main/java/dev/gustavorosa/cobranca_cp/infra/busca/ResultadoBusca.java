@@ -0,0 +1,7 @@
+package dev.gustavorosa.cobranca_cp.infra.busca;
+
+public record ResultadoBusca(
+        DocumentoBusca documento,
+        double relevancia
+) {
+}
@@ -0,0 +1,6 @@
+package dev.gustavorosa.cobranca_cp.infra.busca;
+
+public enum TipoDocumentoBusca {
+    CLIENTE,
+    CONTRATO
+}
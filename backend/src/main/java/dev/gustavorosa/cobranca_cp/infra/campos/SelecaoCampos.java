@@ -0,0 +1,116 @@
+package dev.gustavorosa.cobranca_cp.infra.campos;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Listagem só com os campos pedidos em {@code ?fields=a,b,c}: cada campo do DTO de saída (em snake_case, como no
+ * JSON completo) corresponde a uma expressão JPQL, e o SELECT leva só as expressões pedidas. Colunas não pedidas
+ * não saem do banco, nenhuma entidade é materializada (nem entra no contexto de persistência) e a resposta é uma
+ * lista de mapas com as chaves na ordem pedida.
+ * <p>
+ * A conversão de cada campo repete a do construtor do DTO (ex: datas como texto em PagamentoDTO), para que o
+ * valor de um campo seja o mesmo com ou sem {@code fields}.
+ */
+public final class SelecaoCampos {
+
+    /**
+     * toString de datas e enums, mantendo nulo como nulo.
+     */
+    public static final Function<Object, Object> TEXTO = valor -> valor != null ? valor.toString() : null;
+
+    private final String origem;
+    private final Map<String, Campo> campos;
+
+    private record Campo(String expressao, Function<Object, Object> conversao) {
+    }
+
+    private SelecaoCampos(String origem, Map<String, Campo> campos) {
+        this.origem = origem;
+        this.campos = campos;
+    }
+
+    /**
+     * @param origem FROM e WHERE da listagem completa, ex: {@code "from Cliente c where c.excluidoEm is null"}
+     */
+    public static Builder de(String origem) {
+        return new Builder(origem);
+    }
+
+    /**
+     * Lê o parâmetro {@code fields} (nomes separados por vírgula; repetidos contam uma vez).
+     *
+     * @throws IllegalArgumentException campo desconhecido ou nenhum campo
+     */
+    public List<String> interpretar(String fields) {
+        Set<String> pedidos = new LinkedHashSet<>();
+        for (String nome : fields.split(",")) {
+            String campo = nome.trim();
+            if (campo.isEmpty()) continue;
+            if (!campos.containsKey(campo)) {
+                throw new IllegalArgumentException("Campo desconhecido: " + campo + ". Disponíveis: " + String.join(",", campos.keySet()));
+            }
+            pedidos.add(campo);
+        }
+        if (pedidos.isEmpty()) {
+            throw new IllegalArgumentException("Informe ao menos um campo. Disponíveis: " + String.join(",", campos.keySet()));
+        }
+        return List.copyOf(pedidos);
+    }
+
+    /**
+     * Executa a listagem com só esses campos (já validados por {@link #interpretar}).
+     */
+    public List<Map<String, Object>> consultar(EntityManager entityManager, List<String> pedidos) {
+        StringBuilder jpql = new StringBuilder("select ");
+        for (int i = 0; i < pedidos.size(); i++) {
+            if (i > 0) jpql.append(", ");
+            jpql.append(campos.get(pedidos.get(i)).expressao());
+        }
+        jpql.append(' ').append(origem);
+
+        List<Tuple> tuplas = entityManager.createQuery(jpql.toString(), Tuple.class).getResultList();
+        List<Map<String, Object>> linhas = new ArrayList<>(tuplas.size());
+        for (Tuple tupla : tuplas) {
+            Map<String, Object> linha = new LinkedHashMap<>(pedidos.size() * 2);
+            for (int i = 0; i < pedidos.size(); i++) {
+                String nome = pedidos.get(i);
+                linha.put(nome, campos.get(nome).conversao().apply(tupla.get(i)));
+            }
+            linhas.add(linha);
+        }
+        return linhas;
+    }
+
+    public static final class Builder {
+
+        private final String origem;
+        private final Map<String, Campo> campos = new LinkedHashMap<>();
+
+        private Builder(String origem) {
+            this.origem = origem;
+        }
+
+        public Builder campo(String nome, String expressao) {
+            return campo(nome, expressao, Function.identity());
+        }
+
+        public Builder campo(String nome, String expressao, Function<Object, Object> conversao) {
+            campos.put(nome, new Campo(expressao, conversao));
+            return this;
+        }
+
+        public SelecaoCampos construir() {
+            return new SelecaoCampos(origem, Collections.unmodifiableMap(new LinkedHashMap<>(campos)));
+        }
+    }
+}
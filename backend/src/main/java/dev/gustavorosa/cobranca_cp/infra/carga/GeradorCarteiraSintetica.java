@@ -0,0 +1,207 @@
+package dev.gustavorosa.cobranca_cp.infra.carga;
+
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
+import dev.gustavorosa.cobranca_cp.service.BuscaService;
+import dev.gustavorosa.cobranca_cp.service.SaldoService;
+import dev.gustavorosa.cobranca_cp.service.PagamentoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Popula o banco com uma carteira sintética para testes de carga locais. Só existe no perfil "carga":
+ *
+ *   java -jar cobranca-cp.jar --spring.profiles.active=carga --app.carga.clientes=20000
+ *
+ * As parcelas saem de PagamentoService.gerarPagamentosAutomaticos, como num cadastro real. Os contratos
+ * começam espalhados nos últimos meses, com vencimentos concentrados nos dias usuais de cobrança, e cada
+ * contrato recebe um perfil de pagamento:
+ * - pontual (65%): paga entre 3 dias antes e 2 dias depois do vencimento;
+ * - atrasa (25%): paga com atraso médio de ~12 dias e deixa ~10% das parcelas vencidas em aberto;
+ * - inadimplente (10%): paga em dia até uma parcela sorteada e depois para de pagar.
+ * A semente é fixa por padrão, então duas execuções com os mesmos parâmetros geram a mesma carteira.
+ */
+@Slf4j
+@Component
+@Profile("carga")
+public class GeradorCarteiraSintetica {
+
+    private static final String[] NOMES = {"Ana", "Maria", "Jose", "Joao", "Antonio", "Francisco", "Carlos", "Paulo",
+            "Pedro", "Lucas", "Luiz", "Marcos", "Gabriel", "Rafael", "Daniel", "Marcelo", "Bruno", "Eduardo", "Felipe",
+            "Juliana", "Adriana", "Fernanda", "Patricia", "Aline", "Sandra", "Camila", "Amanda", "Bruna", "Jessica",
+            "Leticia", "Julia", "Luciana", "Vanessa", "Mariana", "Gabriela", "Vera", "Vitoria", "Larissa", "Claudia",
+            "Beatriz", "Rita", "Sebastiao", "Raimundo", "Manoel", "Gustavo", "Rodrigo", "Fabio", "Roberto", "Sergio"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves",
+            "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares",
+            "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques",
+            "Machado", "Mendes", "Freitas", "Cardoso", "Ramos", "Goncalves", "Santana", "Teixeira", "Araujo", "Pinto",
+            "Caixeta", "Rosa", "Moura", "Cavalcanti", "Monteiro", "Batista", "Campos", "Correia", "Rezende", "Borges"};
+    private static final String[] BANCOS = {"Banco do Brasil", "Caixa", "Itau", "Bradesco", "Santander", "Sicoob", "Nubank"};
+    private static final int[] DIAS_VENCIMENTO = {5, 5, 5, 10, 10, 10, 10, 15, 15, 20, 20, 25, 28};
+    private static final int[] DURACOES = {6, 10, 12, 12, 12, 18, 24, 24, 36};
+
+    private enum Perfil { PONTUAL, ATRASA, INADIMPLENTE }
+
+    private final ClienteRepository clienteRepository;
+    private final PagamentoService pagamentoService;
+    private final BuscaService buscaService;
+    private final SaldoService saldoService;
+
+    @Value("${app.carga.clientes:1000}")
+    private int quantidadeClientes;
+
+    @Value("${app.carga.contratos-por-cliente-maximo:3}")
+    private int contratosPorClienteMaximo;
+
+    @Value("${app.carga.semente:42}")
+    private long semente;
+
+    @Value("${app.carga.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    @Value("${app.carga.apenas-banco-vazio:true}")
+    private boolean apenasBancoVazio;
+
+    public GeradorCarteiraSintetica(ClienteRepository clienteRepository, PagamentoService pagamentoService,
+                                    BuscaService buscaService, SaldoService saldoService) {
+        this.clienteRepository = clienteRepository;
+        this.pagamentoService = pagamentoService;
+        this.buscaService = buscaService;
+        this.saldoService = saldoService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void gerar() {
+        if (apenasBancoVazio && clienteRepository.count() > 0) {
+            log.info("Carteira sintética não gerada: o banco já tem clientes (app.carga.apenas-banco-vazio=true)");
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        Random random = new Random(semente);
+        LocalDate hoje = LocalDate.now();
+        int contratos = 0;
+        int parcelas = 0;
+
+        List<Cliente> lote = new ArrayList<>(tamanhoLote);
+        for (int i = 0; i < quantidadeClientes; i++) {
+            Cliente cliente = gerarCliente(random);
+            int quantidadeContratos = 1 + random.nextInt(Math.max(1, contratosPorClienteMaximo));
+            for (int c = 0; c < quantidadeContratos; c++) {
+                Contrato contrato = gerarContrato(cliente, random, hoje);
+                cliente.getContratos().add(contrato);
+                contratos++;
+                parcelas += contrato.getPagamentos().size();
+            }
+            lote.add(cliente);
+            if (lote.size() == tamanhoLote || i == quantidadeClientes - 1) {
+                gravar(lote);
+                lote = new ArrayList<>(tamanhoLote);
+                log.info("Carteira sintética: {}/{} clientes gravados", i + 1, quantidadeClientes);
+            }
+        }
+        log.info("Carteira sintética gerada em {} ms: {} clientes, {} contratos, {} parcelas",
+                System.currentTimeMillis() - inicio, quantidadeClientes, contratos, parcelas);
+    }
+
+    private void gravar(List<Cliente> lote) {
+        List<Cliente> salvos = clienteRepository.saveAll(lote);
+        List<Long> contratoIds = new ArrayList<>();
+        for (Cliente cliente : salvos) {
+            buscaService.indexarCliente(cliente);
+            cliente.getContratos().forEach(buscaService::indexarContrato);
+            cliente.getContratos().forEach(contrato -> contratoIds.add(contrato.getId()));
+        }
+        saldoService.recalcularContratos(contratoIds);
+    }
+
+    private Cliente gerarCliente(Random random) {
+        return Cliente.builder()
+                .nome(nomeCompleto(random))
+                .endereco("Rua " + SOBRENOMES[random.nextInt(SOBRENOMES.length)] + ", " + (1 + random.nextInt(2000)))
+                .telefone(String.format("(%02d) 9%04d-%04d", 11 + random.nextInt(88), random.nextInt(10_000), random.nextInt(10_000)))
+                .registro(cpf(random))
+                .banco(BANCOS[random.nextInt(BANCOS.length)])
+                .taxaMulta(0.02)
+                .taxaJurosMensal(random.nextInt(4) == 0 ? 0.02 : 0.01)
+                .build();
+    }
+
+    private Contrato gerarContrato(Cliente cliente, Random random, LocalDate hoje) {
+        int duracao = DURACOES[random.nextInt(DURACOES.length)];
+        // inícios espalhados de forma que parte dos contratos já terminou, parte está em curso e parte começa em breve
+        LocalDate primeiraParcela = hoje.minusMonths(random.nextInt(duracao + 12) - 2)
+                .withDayOfMonth(DIAS_VENCIMENTO[random.nextInt(DIAS_VENCIMENTO.length)]);
+        Contrato contrato = Contrato.builder()
+                .cliente(cliente)
+                .nomeContratante(random.nextInt(5) == 0 ? nomeCompleto(random) : cliente.getNome())
+                .cpfContratante(random.nextInt(5) == 0 ? cpf(random) : cliente.getRegistro())
+                .duracaoEmMeses(duracao)
+                .dataInicioContrato(primeiraParcela.minusMonths(1))
+                .valorContrato(Math.round(duracao * 150 * Math.exp(random.nextGaussian() * 0.6)) * 1.0)
+                .build();
+        List<Pagamento> pagamentos = pagamentoService.gerarPagamentosAutomaticos(contrato, primeiraParcela);
+        aplicarPerfil(pagamentos, sortearPerfil(random), random, hoje);
+        contrato.setPagamentos(pagamentos);
+        return contrato;
+    }
+
+    private void aplicarPerfil(List<Pagamento> pagamentos, Perfil perfil, Random random, LocalDate hoje) {
+        int parcelaCalote = perfil == Perfil.INADIMPLENTE ? random.nextInt(pagamentos.size()) : Integer.MAX_VALUE;
+        for (Pagamento pagamento : pagamentos) {
+            LocalDate vencimento = pagamento.getDataVencimento();
+            if (vencimento.isAfter(hoje.plusDays(3)) || pagamento.getNumeroParcela() > parcelaCalote) continue;
+            if (perfil == Perfil.ATRASA && random.nextInt(10) == 0) continue;
+
+            int diasAposVencimento = perfil == Perfil.ATRASA
+                    ? (int) Math.round(-12 * Math.log(1 - random.nextDouble()))
+                    : random.nextInt(6) - 3;
+            LocalDate dataPagamento = vencimento.plusDays(diasAposVencimento);
+            if (dataPagamento.isAfter(hoje)) continue;
+            pagamento.atualizar(dataPagamento, vencimento, hoje);
+        }
+    }
+
+    private static Perfil sortearPerfil(Random random) {
+        int sorteio = random.nextInt(100);
+        if (sorteio < 65) return Perfil.PONTUAL;
+        if (sorteio < 90) return Perfil.ATRASA;
+        return Perfil.INADIMPLENTE;
+    }
+
+    private static String nomeCompleto(Random random) {
+        return NOMES[random.nextInt(NOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)]
+                + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+    }
+
+    /**
+     * CPF com dígitos verificadores válidos, formatado como no cadastro manual.
+     */
+    private static String cpf(Random random) {
+        int[] digitos = new int[11];
+        for (int i = 0; i < 9; i++) digitos[i] = random.nextInt(10);
+        for (int posicao = 9; posicao < 11; posicao++) {
+            int soma = 0;
+            for (int i = 0; i < posicao; i++) soma += digitos[i] * (posicao + 1 - i);
+            int resto = soma % 11;
+            digitos[posicao] = resto < 2 ? 0 : 11 - resto;
+        }
+        StringBuilder cpf = new StringBuilder(14);
+        for (int i = 0; i < 11; i++) {
+            if (i == 3 || i == 6) cpf.append('.');
+            if (i == 9) cpf.append('-');
+            cpf.append(digitos[i]);
+        }
+        return cpf.toString();
+    }
+}
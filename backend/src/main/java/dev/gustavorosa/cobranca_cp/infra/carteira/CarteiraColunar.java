@@ -0,0 +1,428 @@
+package dev.gustavorosa.cobranca_cp.infra.carteira;
+
+import dev.gustavorosa.cobranca_cp.dto.LinhaCarteiraDTO;
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Retrato em memória das parcelas em aberto, em colunas de arrays primitivos, para as análises da carteira
+ * (aging, fluxo de caixa esperado, inadimplência por cliente) sem ir ao banco.
+ * <p>
+ * A base vem ordenada por (cliente, contrato, parcela): as parcelas de um cliente ficam contíguas, então o
+ * total por cliente sai de uma varredura sequencial, e as de um contrato também, o que permite achá-las por
+ * pesquisa binária. Cada alteração gera um novo retrato ({@link #remendar}) que marca as linhas antigas dos
+ * contratos tocados num bitmap de removidas e guarda as linhas atuais numa sobreposição pequena; quando a
+ * sobreposição cresce demais ({@link #precisaCompactar()}) quem mantém o retrato reconstrói a base.
+ * <p>
+ * Imutável depois de construído: pode ser lido por várias threads enquanto o próximo é montado. As
+ * varreduras dividem a base em partes alinhadas ao início de um cliente e as percorrem em paralelo,
+ * acumulando em arrays primitivos de tamanho fixo, sem alocar por parcela.
+ */
+public final class CarteiraColunar {
+
+    public static final String[] FAIXAS_AGING = {"A_VENCER", "0-30", "31-60", "61-90", "90+"};
+
+    private static final int BITS_POSICAO = 24;
+    private static final long MASCARA_POSICAO = (1L << BITS_POSICAO) - 1;
+    private static final int LINHAS_POR_PARTE = 32_768;
+    private static final int SITUACOES = SituacaoPagamento.values().length;
+
+    private final SegmentoParcelas base;
+    private final long[] chavesContrato;
+    private final int[] inicioContrato;
+    private final int[] limitesPartes;
+    private final long[] removidas;
+    private final int quantidadeRemovidas;
+    private final SegmentoParcelas sobreposicao;
+    private final LocalDateTime construidaEm;
+
+    private CarteiraColunar(SegmentoParcelas base, long[] chavesContrato, int[] inicioContrato, int[] limitesPartes,
+                            long[] removidas, int quantidadeRemovidas, SegmentoParcelas sobreposicao, LocalDateTime construidaEm) {
+        this.base = base;
+        this.chavesContrato = chavesContrato;
+        this.inicioContrato = inicioContrato;
+        this.limitesPartes = limitesPartes;
+        this.removidas = removidas;
+        this.quantidadeRemovidas = quantidadeRemovidas;
+        this.sobreposicao = sobreposicao;
+        this.construidaEm = construidaEm;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parcelas vigentes: a base menos as removidas, mais a sobreposição.
+     */
+    public int tamanho() {
+        return base.tamanho - quantidadeRemovidas + sobreposicao.tamanho;
+    }
+
+    public int tamanhoBase() {
+        return base.tamanho;
+    }
+
+    public int tamanhoSobreposicao() {
+        return sobreposicao.tamanho;
+    }
+
+    public int quantidadeRemovidas() {
+        return quantidadeRemovidas;
+    }
+
+    public int partes() {
+        return limitesPartes.length - 1;
+    }
+
+    public LocalDateTime construidaEm() {
+        return construidaEm;
+    }
+
+    /**
+     * Memória ocupada pelos arrays do retrato, em bytes.
+     */
+    public long bytes() {
+        return base.bytes() + sobreposicao.bytes()
+                + SegmentoParcelas.bytesArray(chavesContrato.length, 8)
+                + SegmentoParcelas.bytesArray(inicioContrato.length, 4)
+                + SegmentoParcelas.bytesArray(limitesPartes.length, 4)
+                + SegmentoParcelas.bytesArray(removidas.length, 8);
+    }
+
+    public boolean precisaCompactar() {
+        return sobreposicao.tamanho > Math.max(10_000, base.tamanho / 8)
+                || quantidadeRemovidas > Math.max(10_000, base.tamanho / 4);
+    }
+
+    /**
+     * Novo retrato em que as parcelas dos contratos informados são exatamente {@code linhasAtuais}
+     * (as parcelas em aberto desses contratos lidas depois da alteração; vazia para contratos quitados ou excluídos).
+     */
+    public CarteiraColunar remendar(Set<Long> contratoIds, Collection<LinhaCarteiraDTO> linhasAtuais) {
+        long[] novasRemovidas = removidas.clone();
+        int novaQuantidade = quantidadeRemovidas;
+        for (Long contratoId : contratoIds) {
+            int contrato = posicaoContrato(contratoId);
+            if (contrato < 0) continue;
+            for (int i = inicioContrato[contrato]; i < inicioContrato[contrato + 1]; i++) {
+                long bit = 1L << i;
+                if ((novasRemovidas[i >>> 6] & bit) == 0) {
+                    novasRemovidas[i >>> 6] |= bit;
+                    novaQuantidade++;
+                }
+            }
+        }
+
+        SegmentoParcelas.Builder novaSobreposicao = new SegmentoParcelas.Builder(sobreposicao.tamanho + linhasAtuais.size());
+        for (int i = 0; i < sobreposicao.tamanho; i++) {
+            if (!contratoIds.contains(sobreposicao.contratos[i])) novaSobreposicao.copiar(sobreposicao, i);
+        }
+        linhasAtuais.forEach(novaSobreposicao::adicionar);
+        return new CarteiraColunar(base, chavesContrato, inicioContrato, limitesPartes, novasRemovidas, novaQuantidade,
+                novaSobreposicao.construir(), construidaEm);
+    }
+
+    private int posicaoContrato(long contratoId) {
+        if (contratoId < 0 || contratoId >= 1L << (63 - BITS_POSICAO)) return -1;
+        long procurada = contratoId << BITS_POSICAO;
+        int baixo = 0;
+        int alto = chavesContrato.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (chavesContrato[meio] < procurada) baixo = meio + 1;
+            else alto = meio;
+        }
+        if (baixo == chavesContrato.length || chavesContrato[baixo] >>> BITS_POSICAO != contratoId) return -1;
+        return (int) (chavesContrato[baixo] & MASCARA_POSICAO);
+    }
+
+    /**
+     * Parcelas e valores por faixa de atraso em relação a {@code referencia} (índices de {@link #FAIXAS_AGING};
+     * A_VENCER são as que vencem depois da referência, 0-30 inclui as que vencem no próprio dia) e quantidade de
+     * parcelas por situação gravada (índice pelo ordinal de SituacaoPagamento).
+     */
+    public Aging aging(LocalDate referencia) {
+        int dia = (int) referencia.toEpochDay();
+        int faixas = FAIXAS_AGING.length;
+        long[] total = somar(faixas * 2 + SITUACOES, (segmento, removidas, inicio, fim, acumulado) -> {
+            for (int i = inicio; i < fim; i++) {
+                if (removidas != null && (removidas[i >>> 6] & (1L << i)) != 0) continue;
+                int atraso = dia - segmento.vencimentos[i];
+                int faixa = atraso < 0 ? 0 : atraso <= 30 ? 1 : atraso <= 60 ? 2 : atraso <= 90 ? 3 : 4;
+                acumulado[faixa]++;
+                acumulado[faixas + faixa] += segmento.centavos[i];
+                acumulado[faixas * 2 + segmento.situacoes[i]]++;
+            }
+        });
+        return new Aging(Arrays.copyOfRange(total, 0, faixas), Arrays.copyOfRange(total, faixas, faixas * 2),
+                Arrays.copyOfRange(total, faixas * 2, total.length));
+    }
+
+    /**
+     * Entrada esperada por mês de vencimento, a partir do mês de {@code referencia}: índice 0 são as parcelas já
+     * vencidas (antes da referência), 1 a {@code meses} os meses do horizonte (o primeiro só a partir da
+     * referência) e o último o que vence depois do horizonte.
+     */
+    public Fluxo fluxo(LocalDate referencia, int meses) {
+        int dia = (int) referencia.toEpochDay();
+        LocalDate primeiroMes = referencia.withDayOfMonth(1);
+        int[] fimMes = new int[meses];
+        for (int m = 0; m < meses; m++) {
+            fimMes[m] = (int) primeiroMes.plusMonths(m + 1L).toEpochDay();
+        }
+        int posicoes = meses + 2;
+        long[] total = somar(posicoes * 2, (segmento, removidas, inicio, fim, acumulado) -> {
+            for (int i = inicio; i < fim; i++) {
+                if (removidas != null && (removidas[i >>> 6] & (1L << i)) != 0) continue;
+                int vencimento = segmento.vencimentos[i];
+                int posicao = vencimento < dia ? 0 : 1 + primeiroMaior(fimMes, vencimento);
+                acumulado[posicao]++;
+                acumulado[posicoes + posicao] += segmento.centavos[i];
+            }
+        });
+        return new Fluxo(Arrays.copyOfRange(total, 0, posicoes), Arrays.copyOfRange(total, posicoes, posicoes * 2));
+    }
+
+    private static int primeiroMaior(int[] ordenado, int valor) {
+        int baixo = 0;
+        int alto = ordenado.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (ordenado[meio] <= valor) baixo = meio + 1;
+            else alto = meio;
+        }
+        return baixo;
+    }
+
+    /**
+     * Os {@code limite} clientes com maior valor vencido antes de {@code referencia}, do maior para o menor.
+     */
+    public List<Inadimplente> inadimplentes(LocalDate referencia, int limite) {
+        int dia = (int) referencia.toEpochDay();
+        ResumoSobreposicao resumo = resumirVencidasSobreposicao(dia);
+
+        List<Ranking> parciais = IntStream.range(0, partes()).parallel().mapToObj(parte -> {
+            Ranking ranking = new Ranking(limite);
+            int i = limitesPartes[parte];
+            int fim = limitesPartes[parte + 1];
+            while (i < fim) {
+                long cliente = base.clientes[i];
+                int parcelas = 0;
+                long centavos = 0;
+                int maiorAtraso = 0;
+                for (; i < fim && base.clientes[i] == cliente; i++) {
+                    if ((removidas[i >>> 6] & (1L << i)) != 0) continue;
+                    int atraso = dia - base.vencimentos[i];
+                    if (atraso <= 0) continue;
+                    parcelas++;
+                    centavos += base.centavos[i];
+                    if (atraso > maiorAtraso) maiorAtraso = atraso;
+                }
+                int naSobreposicao = Arrays.binarySearch(resumo.clientes, cliente);
+                if (naSobreposicao >= 0) {
+                    parcelas += resumo.parcelas[naSobreposicao];
+                    centavos += resumo.centavos[naSobreposicao];
+                    maiorAtraso = Math.max(maiorAtraso, resumo.maiorAtraso[naSobreposicao]);
+                }
+                if (parcelas > 0) ranking.oferecer(cliente, parcelas, centavos, maiorAtraso);
+            }
+            return ranking;
+        }).toList();
+
+        Ranking ranking = new Ranking(limite);
+        for (Ranking parcial : parciais) {
+            for (int i = 0; i < parcial.tamanho; i++) {
+                ranking.oferecer(parcial.clientes[i], parcial.parcelas[i], parcial.centavos[i], parcial.maioresAtrasos[i]);
+            }
+        }
+        // clientes que só aparecem na sobreposição (contratos novos depois da última reconstrução)
+        for (int i = 0; i < resumo.clientes.length; i++) {
+            if (Arrays.binarySearch(base.clientes, resumo.clientes[i]) < 0) {
+                ranking.oferecer(resumo.clientes[i], resumo.parcelas[i], resumo.centavos[i], resumo.maiorAtraso[i]);
+            }
+        }
+
+        List<Inadimplente> resultado = new ArrayList<>(ranking.tamanho);
+        for (int i = 0; i < ranking.tamanho; i++) {
+            resultado.add(new Inadimplente(ranking.clientes[i], ranking.parcelas[i], ranking.centavos[i], ranking.maioresAtrasos[i]));
+        }
+        return resultado;
+    }
+
+    private ResumoSobreposicao resumirVencidasSobreposicao(int dia) {
+        long[] clientes = new long[sobreposicao.tamanho];
+        int distintos = 0;
+        for (int i = 0; i < sobreposicao.tamanho; i++) {
+            if (sobreposicao.vencimentos[i] < dia) clientes[distintos++] = sobreposicao.clientes[i];
+        }
+        Arrays.sort(clientes, 0, distintos);
+        int unicos = 0;
+        for (int i = 0; i < distintos; i++) {
+            if (unicos == 0 || clientes[unicos - 1] != clientes[i]) clientes[unicos++] = clientes[i];
+        }
+        ResumoSobreposicao resumo = new ResumoSobreposicao(Arrays.copyOf(clientes, unicos), new int[unicos], new long[unicos], new int[unicos]);
+        for (int i = 0; i < sobreposicao.tamanho; i++) {
+            int atraso = dia - sobreposicao.vencimentos[i];
+            if (atraso <= 0) continue;
+            int posicao = Arrays.binarySearch(resumo.clientes, sobreposicao.clientes[i]);
+            resumo.parcelas[posicao]++;
+            resumo.centavos[posicao] += sobreposicao.centavos[i];
+            resumo.maiorAtraso[posicao] = Math.max(resumo.maiorAtraso[posicao], atraso);
+        }
+        return resumo;
+    }
+
+    /**
+     * Percorre as partes da base em paralelo, cada uma com o seu acumulador, soma os acumuladores e por fim
+     * percorre a sobreposição.
+     */
+    private long[] somar(int largura, Varredura varredura) {
+        List<long[]> parciais = IntStream.range(0, partes()).parallel().mapToObj(parte -> {
+            long[] acumulado = new long[largura];
+            varredura.varrer(base, removidas, limitesPartes[parte], limitesPartes[parte + 1], acumulado);
+            return acumulado;
+        }).toList();
+        long[] total = new long[largura];
+        for (long[] parcial : parciais) {
+            for (int i = 0; i < largura; i++) total[i] += parcial[i];
+        }
+        varredura.varrer(sobreposicao, null, 0, sobreposicao.tamanho, total);
+        return total;
+    }
+
+    @FunctionalInterface
+    private interface Varredura {
+        void varrer(SegmentoParcelas segmento, long[] removidas, int inicio, int fim, long[] acumulado);
+    }
+
+    private record ResumoSobreposicao(long[] clientes, int[] parcelas, long[] centavos, int[] maiorAtraso) {
+    }
+
+    /**
+     * Os maiores valores vistos até aqui, em ordem decrescente (empate pelo menor cliente), com inserção direta:
+     * o limite é pequeno perto da quantidade de clientes.
+     */
+    private static final class Ranking {
+        final long[] clientes;
+        final int[] parcelas;
+        final long[] centavos;
+        final int[] maioresAtrasos;
+        int tamanho;
+
+        Ranking(int limite) {
+            clientes = new long[limite];
+            parcelas = new int[limite];
+            centavos = new long[limite];
+            maioresAtrasos = new int[limite];
+        }
+
+        void oferecer(long cliente, int quantidade, long valor, int maiorAtraso) {
+            int posicao = tamanho;
+            while (posicao > 0 && (centavos[posicao - 1] < valor || (centavos[posicao - 1] == valor && clientes[posicao - 1] > cliente))) {
+                posicao--;
+            }
+            if (posicao >= clientes.length) return;
+            int mover = Math.min(tamanho, clientes.length - 1) - posicao;
+            System.arraycopy(clientes, posicao, clientes, posicao + 1, mover);
+            System.arraycopy(parcelas, posicao, parcelas, posicao + 1, mover);
+            System.arraycopy(centavos, posicao, centavos, posicao + 1, mover);
+            System.arraycopy(maioresAtrasos, posicao, maioresAtrasos, posicao + 1, mover);
+            clientes[posicao] = cliente;
+            parcelas[posicao] = quantidade;
+            centavos[posicao] = valor;
+            maioresAtrasos[posicao] = maiorAtraso;
+            if (tamanho < clientes.length) tamanho++;
+        }
+    }
+
+    /**
+     * @param parcelas   por faixa de {@link #FAIXAS_AGING}
+     * @param centavos   por faixa de {@link #FAIXAS_AGING}
+     * @param situacoes  quantidade de parcelas pelo ordinal de SituacaoPagamento
+     */
+    public record Aging(long[] parcelas, long[] centavos, long[] situacoes) {
+    }
+
+    /**
+     * @param parcelas vencidas, meses do horizonte e depois do horizonte, nessa ordem
+     * @param centavos mesma ordem de {@code parcelas}
+     */
+    public record Fluxo(long[] parcelas, long[] centavos) {
+    }
+
+    public record Inadimplente(long clienteId, int parcelas, long centavos, int maiorAtrasoDias) {
+    }
+
+    /**
+     * Recebe as parcelas já na ordem (cliente, contrato, parcela); linhas fora de ordem são rejeitadas porque
+     * quebrariam as varreduras por cliente e a busca por contrato.
+     */
+    public static class Builder {
+        private final SegmentoParcelas.Builder linhas = new SegmentoParcelas.Builder(1024);
+        private int[] inicioContrato = new int[1024];
+        private int contratos;
+
+        public Builder adicionar(LinhaCarteiraDTO linha) {
+            boolean novoContrato = true;
+            if (linhas.tamanho() > 0) {
+                long cliente = linhas.ultimoCliente();
+                long contrato = linhas.ultimoContrato();
+                int ordem = linha.clienteId() != cliente ? Long.compare(linha.clienteId(), cliente)
+                        : linha.contratoId() != contrato ? Long.compare(linha.contratoId(), contrato)
+                        : Long.compare(linha.pagamentoId(), linhas.ultimoId());
+                if (ordem <= 0) {
+                    throw new IllegalStateException("Parcela " + linha.pagamentoId() + " fora da ordem (cliente, contrato, parcela)");
+                }
+                novoContrato = linha.contratoId() != contrato;
+            }
+            if (novoContrato) {
+                if (contratos == inicioContrato.length) inicioContrato = Arrays.copyOf(inicioContrato, contratos * 2);
+                inicioContrato[contratos++] = linhas.tamanho();
+            }
+            linhas.adicionar(linha);
+            return this;
+        }
+
+        public CarteiraColunar construir() {
+            SegmentoParcelas base = linhas.construir();
+            if (contratos >= 1 << BITS_POSICAO) {
+                throw new IllegalStateException("Quantidade de contratos excede o limite da carteira: " + contratos);
+            }
+            // (contrato, posição do contrato) empacotados em um único long, sem boxing
+            long[] chaves = new long[contratos];
+            for (int c = 0; c < contratos; c++) {
+                long contratoId = base.contratos[inicioContrato[c]];
+                if (contratoId < 0 || contratoId >= 1L << (63 - BITS_POSICAO)) {
+                    throw new IllegalStateException("Contrato " + contratoId + " fora da faixa da carteira");
+                }
+                chaves[c] = (contratoId << BITS_POSICAO) | c;
+            }
+            Arrays.parallelSort(chaves);
+            int[] inicios = Arrays.copyOf(inicioContrato, contratos + 1);
+            inicios[contratos] = base.tamanho;
+            return new CarteiraColunar(base, chaves, inicios, dividir(base), new long[(base.tamanho + 63) >>> 6], 0,
+                    SegmentoParcelas.VAZIO, LocalDateTime.now());
+        }
+
+        private static int[] dividir(SegmentoParcelas base) {
+            int partes = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, base.tamanho / LINHAS_POR_PARTE));
+            int[] limites = new int[partes + 1];
+            for (int parte = 1; parte < partes; parte++) {
+                int i = Math.max(limites[parte - 1], (int) ((long) base.tamanho * parte / partes));
+                while (i > 0 && i < base.tamanho && base.clientes[i] == base.clientes[i - 1]) i++;
+                limites[parte] = i;
+            }
+            limites[partes] = base.tamanho;
+            return limites;
+        }
+    }
+}
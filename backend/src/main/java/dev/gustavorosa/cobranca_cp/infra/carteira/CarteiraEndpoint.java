@@ -0,0 +1,25 @@
+package dev.gustavorosa.cobranca_cp.infra.carteira;
+
+import dev.gustavorosa.cobranca_cp.service.CarteiraAbertaService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/carteira: parcelas, sobreposição e memória do retrato colunar da carteira. Só ADMIN (ver SecurityConfig).
+ */
+@Endpoint(id = "carteira")
+public class CarteiraEndpoint {
+
+    private final CarteiraAbertaService carteiraAbertaService;
+
+    public CarteiraEndpoint(CarteiraAbertaService carteiraAbertaService) {
+        this.carteiraAbertaService = carteiraAbertaService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> situacao() {
+        return carteiraAbertaService.situacao();
+    }
+}
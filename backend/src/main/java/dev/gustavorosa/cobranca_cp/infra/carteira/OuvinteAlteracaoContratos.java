@@ -0,0 +1,13 @@
+package dev.gustavorosa.cobranca_cp.infra.carteira;
+
+import java.util.Set;
+
+/**
+ * Avisado depois do commit de cada transação que alterou parcelas (ou excluiu contratos), com os contratos
+ * afetados. Quem avisa é o SaldoService, por onde passam todas essas alterações. Basta ser um bean; a chamada
+ * acontece na thread da requisição ou do job, então o trabalho pesado deve ir para outra thread.
+ */
+public interface OuvinteAlteracaoContratos {
+
+    void contratosAlterados(Set<Long> contratoIds);
+}
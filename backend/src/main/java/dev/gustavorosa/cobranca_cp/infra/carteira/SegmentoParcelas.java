@@ -0,0 +1,114 @@
+package dev.gustavorosa.cobranca_cp.infra.carteira;
+
+import dev.gustavorosa.cobranca_cp.dto.LinhaCarteiraDTO;
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+
+import java.util.Arrays;
+
+/**
+ * Colunas de um conjunto de parcelas em aberto, uma por atributo, todas do mesmo tamanho.
+ * Vencimento em epoch day e situação pelo ordinal de SituacaoPagamento.
+ */
+final class SegmentoParcelas {
+
+    static final SegmentoParcelas VAZIO = new Builder(0).construir();
+
+    final long[] ids;
+    final long[] contratos;
+    final long[] clientes;
+    final int[] vencimentos;
+    final long[] centavos;
+    final byte[] situacoes;
+    final int tamanho;
+
+    private SegmentoParcelas(long[] ids, long[] contratos, long[] clientes, int[] vencimentos, long[] centavos, byte[] situacoes) {
+        this.ids = ids;
+        this.contratos = contratos;
+        this.clientes = clientes;
+        this.vencimentos = vencimentos;
+        this.centavos = centavos;
+        this.situacoes = situacoes;
+        this.tamanho = ids.length;
+    }
+
+    long bytes() {
+        return bytesArray(tamanho, 8) * 4 + bytesArray(tamanho, 4) + bytesArray(tamanho, 1);
+    }
+
+    /**
+     * Cabeçalho de 16 bytes mais os elementos, alinhado em 8 (HotSpot 64 bits com compressed oops).
+     */
+    static long bytesArray(int elementos, int tamanhoElemento) {
+        return (16 + (long) elementos * tamanhoElemento + 7) & ~7L;
+    }
+
+    static final class Builder {
+        private long[] ids;
+        private long[] contratos;
+        private long[] clientes;
+        private int[] vencimentos;
+        private long[] centavos;
+        private byte[] situacoes;
+        private int tamanho;
+
+        Builder(int capacidade) {
+            ids = new long[capacidade];
+            contratos = new long[capacidade];
+            clientes = new long[capacidade];
+            vencimentos = new int[capacidade];
+            centavos = new long[capacidade];
+            situacoes = new byte[capacidade];
+        }
+
+        int tamanho() {
+            return tamanho;
+        }
+
+        Builder adicionar(LinhaCarteiraDTO linha) {
+            return adicionar(linha.pagamentoId(), linha.contratoId(), linha.clienteId(), (int) linha.dataVencimento().toEpochDay(),
+                    MoneyUtils.toCents(linha.valor()), (byte) linha.status().ordinal());
+        }
+
+        Builder copiar(SegmentoParcelas origem, int posicao) {
+            return adicionar(origem.ids[posicao], origem.contratos[posicao], origem.clientes[posicao], origem.vencimentos[posicao],
+                    origem.centavos[posicao], origem.situacoes[posicao]);
+        }
+
+        private Builder adicionar(long id, long contrato, long cliente, int vencimento, long valorCentavos, byte situacao) {
+            if (tamanho == ids.length) {
+                int novaCapacidade = Math.max(1024, ids.length * 2);
+                ids = Arrays.copyOf(ids, novaCapacidade);
+                contratos = Arrays.copyOf(contratos, novaCapacidade);
+                clientes = Arrays.copyOf(clientes, novaCapacidade);
+                vencimentos = Arrays.copyOf(vencimentos, novaCapacidade);
+                centavos = Arrays.copyOf(centavos, novaCapacidade);
+                situacoes = Arrays.copyOf(situacoes, novaCapacidade);
+            }
+            ids[tamanho] = id;
+            contratos[tamanho] = contrato;
+            clientes[tamanho] = cliente;
+            vencimentos[tamanho] = vencimento;
+            centavos[tamanho] = valorCentavos;
+            situacoes[tamanho] = situacao;
+            tamanho++;
+            return this;
+        }
+
+        long ultimoCliente() {
+            return clientes[tamanho - 1];
+        }
+
+        long ultimoContrato() {
+            return contratos[tamanho - 1];
+        }
+
+        long ultimoId() {
+            return ids[tamanho - 1];
+        }
+
+        SegmentoParcelas construir() {
+            return new SegmentoParcelas(Arrays.copyOf(ids, tamanho), Arrays.copyOf(contratos, tamanho), Arrays.copyOf(clientes, tamanho),
+                    Arrays.copyOf(vencimentos, tamanho), Arrays.copyOf(centavos, tamanho), Arrays.copyOf(situacoes, tamanho));
+        }
+    }
+}
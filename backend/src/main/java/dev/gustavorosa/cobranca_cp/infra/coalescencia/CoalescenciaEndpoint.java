@@ -0,0 +1,26 @@
+package dev.gustavorosa.cobranca_cp.infra.coalescencia;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/coalescencia: por rota, execuções de líderes, requisições atendidas com a resposta de outra e
+ * as que acabaram executando sozinhas (espera esgotada, líder sem resposta 2xx, voo anterior a uma escrita).
+ * Só ADMIN (ver SecurityConfig).
+ */
+@Endpoint(id = "coalescencia")
+public class CoalescenciaEndpoint {
+
+    private final CoalescenciaLeituras<?> coalescencia;
+
+    public CoalescenciaEndpoint(CoalescenciaLeituras<?> coalescencia) {
+        this.coalescencia = coalescencia;
+    }
+
+    @ReadOperation
+    public Map<String, Object> situacao() {
+        return coalescencia.situacao();
+    }
+}
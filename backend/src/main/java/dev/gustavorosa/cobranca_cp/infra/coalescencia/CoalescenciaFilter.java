@@ -0,0 +1,158 @@
+package dev.gustavorosa.cobranca_cp.infra.coalescencia;
+
+import dev.gustavorosa.cobranca_cp.infra.replica.EscritasRecentes;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Aplica a CoalescenciaLeituras aos GET das rotas configuradas (as listagens completas que os painéis abrem
+ * juntos no começo do dia). Fica depois do filtro do Spring Security: a chave é rota + parâmetros (em ordem de
+ * nome) + Accept + perfis do usuário, já que as listagens não dependem de quem pede além do perfil. O líder
+ * responde normalmente e a resposta 2xx dele (status, cabeçalhos e corpo) é copiada para os seguidores, que
+ * assim não chegam ao controller, ao banco, à serialização, nem ocupam vaga do limite de listagens. Dos
+ * cabeçalhos do líder ficam de fora Set-Cookie (é de quem pediu), Content-Length (recalculado) e os que os
+ * filtros anteriores já puseram na resposta do seguidor (CORS, segurança), que valem para a requisição dele.
+ * <p>
+ * POST, PUT, PATCH e DELETE em qualquer rota marcam a escrita ao terminar, para que leituras posteriores não
+ * recebam uma resposta montada antes dela. A escrita feita em outra instância não passa por aqui: o GET que traz
+ * a marca de escrita recente (ver EscritasRecentes) segue sozinho, sem entrar nem liderar um voo.
+ */
+public class CoalescenciaFilter extends OncePerRequestFilter {
+
+    private final CoalescenciaLeituras<Resposta> coalescencia;
+    private final Set<String> rotas;
+
+    private static final Set<String> CABECALHOS_NAO_COPIADOS = Set.of(
+            HttpHeaders.SET_COOKIE.toLowerCase(), HttpHeaders.CONTENT_LENGTH.toLowerCase());
+
+    /**
+     * Resposta do líder como foi enviada a ele.
+     */
+    public record Resposta(int status, String contentType, Map<String, List<String>> cabecalhos, byte[] corpo) {
+    }
+
+    public CoalescenciaFilter(CoalescenciaLeituras<Resposta> coalescencia, Set<String> rotas) {
+        this.coalescencia = coalescencia;
+        this.rotas = rotas;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (escrita(request)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                coalescencia.registrarEscrita();
+            }
+            return;
+        }
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (!"GET".equals(request.getMethod()) || !rotas.contains(caminho) || !autenticado(autenticacao)
+                || EscritasRecentes.temMarca(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CoalescenciaLeituras.Voo<Resposta> voo = coalescencia.entrar("GET " + caminho, chave(request, caminho, autenticacao));
+        if (voo == null) {
+            filterChain.doFilter(request, response);
+        } else if (voo.lider()) {
+            liderar(voo, request, response, filterChain);
+        } else {
+            Resposta resposta;
+            try {
+                resposta = coalescencia.aguardar(voo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrompido aguardando leitura idêntica em andamento", e);
+            }
+            if (resposta != null) {
+                escrever(response, resposta);
+            } else {
+                filterChain.doFilter(request, response);
+            }
+        }
+    }
+
+    private void liderar(CoalescenciaLeituras.Voo<Resposta> voo, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+        Resposta resposta = null;
+        try {
+            filterChain.doFilter(request, captura);
+            int status = captura.getStatus();
+            if (status >= 200 && status < 300) {
+                resposta = new Resposta(status, captura.getContentType(), cabecalhos(captura),
+                        captura.getContentAsByteArray());
+            }
+        } finally {
+            // libera os seguidores antes de enviar o corpo ao próprio cliente
+            coalescencia.concluir(voo, resposta);
+            captura.copyBodyToResponse();
+        }
+    }
+
+    private static Map<String, List<String>> cabecalhos(HttpServletResponse response) {
+        Map<String, List<String>> cabecalhos = new LinkedHashMap<>();
+        for (String nome : response.getHeaderNames()) {
+            if (CABECALHOS_NAO_COPIADOS.contains(nome.toLowerCase())) continue;
+            cabecalhos.putIfAbsent(nome, List.copyOf(response.getHeaders(nome)));
+        }
+        return cabecalhos;
+    }
+
+    private static void escrever(HttpServletResponse response, Resposta resposta) throws IOException {
+        response.setStatus(resposta.status());
+        resposta.cabecalhos().forEach((nome, valores) -> {
+            if (response.containsHeader(nome)) return;
+            for (String valor : valores) response.addHeader(nome, valor);
+        });
+        if (resposta.contentType() != null) response.setContentType(resposta.contentType());
+        response.setContentLength(resposta.corpo().length);
+        response.getOutputStream().write(resposta.corpo());
+    }
+
+    private static String chave(HttpServletRequest request, String caminho, Authentication autenticacao) {
+        StringBuilder chave = new StringBuilder(caminho).append('?');
+        for (Map.Entry<String, String[]> parametro : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            chave.append(parametro.getKey()).append('=').append(String.join(",", parametro.getValue())).append('&');
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        chave.append('|').append(accept != null ? accept : "");
+        chave.append('|').append(autenticacao.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(",")));
+        return chave.toString();
+    }
+
+    private static boolean autenticado(Authentication autenticacao) {
+        return autenticacao != null && autenticacao.isAuthenticated() && !(autenticacao instanceof AnonymousAuthenticationToken);
+    }
+
+    private static boolean escrita(HttpServletRequest request) {
+        return switch (request.getMethod()) {
+            case "POST", "PUT", "PATCH", "DELETE" -> true;
+            default -> false;
+        };
+    }
+}
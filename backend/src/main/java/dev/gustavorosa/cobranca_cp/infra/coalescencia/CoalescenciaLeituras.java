@@ -0,0 +1,149 @@
+package dev.gustavorosa.cobranca_cp.infra.coalescencia;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Junta leituras idênticas simultâneas numa execução só ("single flight"): a primeira requisição de uma chave
+ * vira líder e executa; as que chegam com a mesma chave enquanto ela está em andamento esperam o resultado dela,
+ * no máximo {@code esperaMaximaMs}, e depois disso executam sozinhas. Um líder que termina sem resultado
+ * compartilhável (erro, resposta que não é 2xx) também manda os seguidores executarem sozinhos.
+ * <p>
+ * Leitura-da-própria-escrita: uma leitura não entra num voo que começou antes da última escrita concluída nesta
+ * instância ({@link #registrarEscrita}), já que o líder pode ter lido o banco antes do commit dela.
+ * Não guarda nada depois que o voo termina: quem chega depois executa de novo.
+ */
+public class CoalescenciaLeituras<T> {
+
+    private final long esperaMaximaMs;
+    private final ConcurrentHashMap<String, Voo<T>> emVoo = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Contadores> porRota = new ConcurrentHashMap<>();
+    private volatile long ultimaEscrita = System.nanoTime();
+
+    public CoalescenciaLeituras(long esperaMaximaMs) {
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Voo de uma chave. {@code lider} é de quem recebeu esta instância em {@link #entrar}: o líder recebe um
+     * voo novo; os seguidores, uma cópia do voo em andamento com {@code lider} falso.
+     */
+    public static final class Voo<T> {
+        private final String rota;
+        private final String chave;
+        private final long inicio;
+        private final boolean lider;
+        private final CompletableFuture<T> resultado;
+
+        private Voo(String rota, String chave, long inicio, boolean lider, CompletableFuture<T> resultado) {
+            this.rota = rota;
+            this.chave = chave;
+            this.inicio = inicio;
+            this.lider = lider;
+            this.resultado = resultado;
+        }
+
+        public boolean lider() {
+            return lider;
+        }
+    }
+
+    /**
+     * @return voo liderado por esta chamada, voo em andamento a aguardar, ou null para executar sozinho
+     * (o voo em andamento começou antes da última escrita)
+     */
+    public Voo<T> entrar(String rota, String chave) {
+        Contadores contadores = contadores(rota);
+        Voo<T> novo = new Voo<>(rota, chave, System.nanoTime(), true, new CompletableFuture<>());
+        Voo<T> andamento = emVoo.putIfAbsent(chave, novo);
+        if (andamento == null) {
+            contadores.execucoes.increment();
+            return novo;
+        }
+        if (andamento.inicio - ultimaEscrita <= 0) {
+            contadores.aposEscrita.increment();
+            return null;
+        }
+        return new Voo<>(rota, chave, andamento.inicio, false, andamento.resultado);
+    }
+
+    /**
+     * Espera o líder. Devolve null (e o seguidor executa sozinho) se o líder não terminar a tempo ou terminar
+     * sem resultado compartilhável.
+     */
+    public T aguardar(Voo<T> voo) throws InterruptedException {
+        Contadores contadores = contadores(voo.rota);
+        try {
+            T resultado = voo.resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+            if (resultado == null) {
+                contadores.semResultado.increment();
+                return null;
+            }
+            contadores.coalescidas.increment();
+            return resultado;
+        } catch (TimeoutException e) {
+            contadores.esperasEsgotadas.increment();
+            return null;
+        } catch (ExecutionException e) {
+            contadores.semResultado.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Fim do líder: libera a chave e entrega {@code resultado} (null se não for compartilhável) aos seguidores.
+     * Deve ser chamado sempre, inclusive quando o líder falha.
+     */
+    public void concluir(Voo<T> voo, T resultado) {
+        emVoo.remove(voo.chave, voo);
+        voo.resultado.complete(resultado);
+    }
+
+    public void registrarEscrita() {
+        ultimaEscrita = System.nanoTime();
+    }
+
+    private Contadores contadores(String rota) {
+        return porRota.computeIfAbsent(rota, r -> new Contadores());
+    }
+
+    public Map<String, Object> situacao() {
+        Map<String, Object> situacao = new LinkedHashMap<>();
+        situacao.put("esperaMaximaMs", esperaMaximaMs);
+        situacao.put("emVoo", emVoo.size());
+        Map<String, Object> rotas = new TreeMap<>();
+        porRota.forEach((rota, contadores) -> rotas.put(rota, contadores.situacao()));
+        situacao.put("rotas", rotas);
+        return situacao;
+    }
+
+    private static final class Contadores {
+        private final LongAdder execucoes = new LongAdder();
+        private final LongAdder coalescidas = new LongAdder();
+        private final LongAdder esperasEsgotadas = new LongAdder();
+        private final LongAdder semResultado = new LongAdder();
+        private final LongAdder aposEscrita = new LongAdder();
+
+        Map<String, Object> situacao() {
+            long lideres = execucoes.sum();
+            long servidas = coalescidas.sum();
+            Map<String, Object> situacao = new LinkedHashMap<>();
+            situacao.put("execucoes", lideres);
+            situacao.put("coalescidas", servidas);
+            situacao.put("esperasEsgotadas", esperasEsgotadas.sum());
+            situacao.put("semResultado", semResultado.sum());
+            situacao.put("aposEscrita", aposEscrita.sum());
+            // fração das requisições atendidas sem ir ao banco
+            long total = lideres + servidas + esperasEsgotadas.sum() + semResultado.sum() + aposEscrita.sum();
+            situacao.put("taxaCoalescencia", total == 0 ? 0.0 : (double) servidas / total);
+            return situacao;
+        }
+    }
+}
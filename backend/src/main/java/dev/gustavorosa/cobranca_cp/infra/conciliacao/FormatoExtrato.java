@@ -0,0 +1,19 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import java.util.function.Supplier;
+
+public enum FormatoExtrato {
+    CSV(LeitorExtratoCsv::new),
+    OFX(LeitorExtratoOfx::new),
+    CNAB240(LeitorExtratoCnab240::new);
+
+    private final Supplier<LeitorExtrato> fabrica;
+
+    FormatoExtrato(Supplier<LeitorExtrato> fabrica) {
+        this.fabrica = fabrica;
+    }
+
+    public LeitorExtrato novoLeitor() {
+        return fabrica.get();
+    }
+}
@@ -0,0 +1,155 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import dev.gustavorosa.cobranca_cp.util.StringUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Índice em memória das parcelas em aberto, ordenado por valor em centavos.
+ * Os dados ficam em arrays primitivos paralelos: a busca é uma pesquisa binária pelo valor
+ * seguida de uma varredura curta pelas parcelas de mesmo valor dentro da janela de vencimento.
+ * Cada parcela conciliada é marcada como consumida para não ser baixada por dois créditos.
+ * Não é thread-safe; cada conciliação constrói o seu.
+ */
+public class IndiceParcelasAbertas {
+
+    private static final int MAX_CANDIDATOS = 10;
+    private static final int BITS_POSICAO = 24;
+
+    private final long[] centavos;
+    private final long[] ids;
+    private final int[] vencimentos;
+    private final String[] cpfs;
+    private final String[] registros;
+    private final BitSet consumidas;
+
+    private IndiceParcelasAbertas(long[] centavos, long[] ids, int[] vencimentos, String[] cpfs, String[] registros) {
+        this.centavos = centavos;
+        this.ids = ids;
+        this.vencimentos = vencimentos;
+        this.cpfs = cpfs;
+        this.registros = registros;
+        this.consumidas = new BitSet(ids.length);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int tamanho() {
+        return ids.length;
+    }
+
+    /**
+     * Procura a parcela correspondente ao crédito: mesmo valor em centavos, vencimento a no máximo
+     * {@code janelaDias} da data do crédito e, quando o extrato informa, mesmo CPF/CNPJ do contratante
+     * ou registro do cliente. Só há correspondência exata quando sobra um único candidato.
+     */
+    public Correspondencia buscar(LancamentoExtrato credito, int janelaDias) {
+        int dia = (int) credito.data().toEpochDay();
+        String documento = credito.documento();
+
+        List<Integer> candidatos = new ArrayList<>();
+        List<Integer> candidatosDocumento = new ArrayList<>();
+        for (int i = primeiraPosicao(credito.centavos()); i < centavos.length && centavos[i] == credito.centavos(); i++) {
+            if (consumidas.get(i) || Math.abs(vencimentos[i] - dia) > janelaDias) continue;
+            candidatos.add(i);
+            if (documento != null && (documento.equals(cpfs[i]) || documento.equals(registros[i]))) {
+                candidatosDocumento.add(i);
+            }
+        }
+
+        List<Integer> finais = documento != null && !candidatosDocumento.isEmpty() ? candidatosDocumento : candidatos;
+        boolean exata = finais.size() == 1 && (documento == null || !candidatosDocumento.isEmpty());
+        if (exata) {
+            int posicao = finais.get(0);
+            consumidas.set(posicao);
+            return new Correspondencia(ids[posicao], List.of(ids[posicao]));
+        }
+        return new Correspondencia(null, finais.stream().limit(MAX_CANDIDATOS).map(i -> ids[i]).toList());
+    }
+
+    private int primeiraPosicao(long valor) {
+        int baixo = 0;
+        int alto = centavos.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (centavos[meio] < valor) baixo = meio + 1;
+            else alto = meio;
+        }
+        return baixo;
+    }
+
+    /**
+     * @param pagamentoId parcela a baixar, ou null quando não há correspondência exata
+     * @param candidatos  parcelas compatíveis (vazia quando nenhuma parcela confere)
+     */
+    public record Correspondencia(Long pagamentoId, List<Long> candidatos) {
+
+        public boolean exata() {
+            return pagamentoId != null;
+        }
+    }
+
+    public static class Builder {
+        private long[] centavos = new long[1024];
+        private long[] ids = new long[1024];
+        private int[] vencimentos = new int[1024];
+        private String[] cpfs = new String[1024];
+        private String[] registros = new String[1024];
+        private int tamanho;
+
+        public Builder adicionar(long id, long valorCentavos, LocalDate dataVencimento, String cpfContratante, String registroCliente) {
+            if (valorCentavos < 0 || valorCentavos >= 1L << (63 - BITS_POSICAO)) {
+                return this; // valor fora da faixa indexável, fica para conciliação manual
+            }
+            if (tamanho == ids.length) {
+                int novaCapacidade = ids.length * 2;
+                centavos = Arrays.copyOf(centavos, novaCapacidade);
+                ids = Arrays.copyOf(ids, novaCapacidade);
+                vencimentos = Arrays.copyOf(vencimentos, novaCapacidade);
+                cpfs = Arrays.copyOf(cpfs, novaCapacidade);
+                registros = Arrays.copyOf(registros, novaCapacidade);
+            }
+            centavos[tamanho] = valorCentavos;
+            ids[tamanho] = id;
+            vencimentos[tamanho] = (int) dataVencimento.toEpochDay();
+            cpfs[tamanho] = StringUtils.onlyDigits(cpfContratante);
+            registros[tamanho] = StringUtils.onlyDigits(registroCliente);
+            tamanho++;
+            return this;
+        }
+
+        public IndiceParcelasAbertas construir() {
+            if (tamanho >= 1 << BITS_POSICAO) {
+                throw new IllegalStateException("Quantidade de parcelas em aberto excede o limite do indice: " + tamanho);
+            }
+            // Ordena (valor, posição) empacotados em um único long, sem boxing
+            long[] chaves = new long[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                chaves[i] = (centavos[i] << BITS_POSICAO) | i;
+            }
+            Arrays.parallelSort(chaves);
+
+            long[] centavosOrdenados = new long[tamanho];
+            long[] idsOrdenados = new long[tamanho];
+            int[] vencimentosOrdenados = new int[tamanho];
+            String[] cpfsOrdenados = new String[tamanho];
+            String[] registrosOrdenados = new String[tamanho];
+            int mascara = (1 << BITS_POSICAO) - 1;
+            for (int i = 0; i < tamanho; i++) {
+                int origem = (int) (chaves[i] & mascara);
+                centavosOrdenados[i] = centavos[origem];
+                idsOrdenados[i] = ids[origem];
+                vencimentosOrdenados[i] = vencimentos[origem];
+                cpfsOrdenados[i] = cpfs[origem];
+                registrosOrdenados[i] = registros[origem];
+            }
+            return new IndiceParcelasAbertas(centavosOrdenados, idsOrdenados, vencimentosOrdenados, cpfsOrdenados, registrosOrdenados);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import java.time.LocalDate;
+
+/**
+ * Um crédito lido do extrato bancário.
+ *
+ * @param linha     posição do lançamento no arquivo (para rastrear pendências)
+ * @param data      data em que o crédito entrou na conta
+ * @param centavos  valor creditado em centavos
+ * @param documento CPF/CNPJ do pagador, somente dígitos, ou null se o extrato não informar
+ * @param descricao histórico/memo do lançamento
+ */
+public record LancamentoExtrato(
+        long linha,
+        LocalDate data,
+        long centavos,
+        String documento,
+        String descricao
+) {
+}
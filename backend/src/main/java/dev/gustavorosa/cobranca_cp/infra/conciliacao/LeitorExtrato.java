@@ -0,0 +1,18 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Lê um extrato bancário em streaming, entregando apenas os lançamentos de crédito.
+ * Implementações não devem carregar o arquivo inteiro em memória. Uma linha que não pode ser interpretada
+ * é entregue a {@code invalidas} e a leitura segue; só erros de E/S interrompem a leitura.
+ */
+public interface LeitorExtrato {
+
+    /**
+     * @return quantidade de linhas/registros lidos do arquivo
+     */
+    long ler(InputStream entrada, Consumer<LancamentoExtrato> creditos, Consumer<LinhaInvalida> invalidas) throws IOException;
+}
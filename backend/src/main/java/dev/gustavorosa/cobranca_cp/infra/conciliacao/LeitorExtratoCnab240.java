@@ -0,0 +1,50 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Extrato para conciliação bancária no layout CNAB 240 (FEBRABAN), registros de detalhe segmento "E".
+ * Posições (base 1): 008 tipo de registro, 014 segmento, 143-150 data do lançamento (DDMMAAAA),
+ * 151-168 valor com 2 decimais, 169 tipo de lançamento (D/C), 177-201 histórico.
+ * O layout não traz o documento do pagador, então a conciliação usa apenas valor e data.
+ */
+public class LeitorExtratoCnab240 implements LeitorExtrato {
+
+    @Override
+    public long ler(InputStream entrada, Consumer<LancamentoExtrato> creditos, Consumer<LinhaInvalida> invalidas) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.ISO_8859_1));
+        long linha = 0;
+        String registro;
+        while ((registro = reader.readLine()) != null) {
+            linha++;
+            if (registro.length() < 201 || registro.charAt(7) != '3' || registro.charAt(13) != 'E') continue;
+            if (registro.charAt(168) != 'C') continue;
+
+            LancamentoExtrato credito;
+            try {
+                long centavos = Long.parseLong(registro.substring(150, 168).trim());
+                if (centavos <= 0) continue;
+
+                credito = new LancamentoExtrato(linha, lerData(registro.substring(142, 150)), centavos,
+                        null, registro.substring(176, 201).trim());
+            } catch (RuntimeException e) {
+                invalidas.accept(new LinhaInvalida(linha, e.getMessage()));
+                continue;
+            }
+            creditos.accept(credito);
+        }
+        return linha;
+    }
+
+    private LocalDate lerData(String ddmmaaaa) {
+        return LocalDate.of(Integer.parseInt(ddmmaaaa.substring(4, 8)),
+                Integer.parseInt(ddmmaaaa.substring(2, 4)),
+                Integer.parseInt(ddmmaaaa.substring(0, 2)));
+    }
+}
@@ -0,0 +1,61 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+import dev.gustavorosa.cobranca_cp.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Extrato em CSV com as colunas: data;valor;documento;descricao
+ * Separador ";" ou ",", data em yyyy-MM-dd ou dd/MM/yyyy. Valores negativos (débitos) são ignorados,
+ * assim como um cabeçalho na primeira linha.
+ */
+public class LeitorExtratoCsv implements LeitorExtrato {
+
+    @Override
+    public long ler(InputStream entrada, Consumer<LancamentoExtrato> creditos, Consumer<LinhaInvalida> invalidas) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        long linha = 0;
+        String conteudo;
+        while ((conteudo = reader.readLine()) != null) {
+            linha++;
+            if (conteudo.isBlank()) continue;
+
+            String[] campos = conteudo.split(conteudo.indexOf(';') >= 0 ? ";" : ",", -1);
+            String data = campos[0].trim();
+            if (campos.length < 2 || data.isEmpty() || !Character.isDigit(data.charAt(0))) {
+                continue; // cabeçalho ou linha sem data
+            }
+
+            LancamentoExtrato credito;
+            try {
+                long centavos = MoneyUtils.parseCents(campos[1]);
+                if (centavos <= 0) continue;
+
+                String documento = campos.length > 2 ? StringUtils.onlyDigits(campos[2]) : null;
+                String descricao = campos.length > 3 ? campos[3].trim() : null;
+                credito = new LancamentoExtrato(linha, lerData(data), centavos,
+                        documento == null || documento.isEmpty() ? null : documento, descricao);
+            } catch (RuntimeException e) {
+                invalidas.accept(new LinhaInvalida(linha, e.getMessage()));
+                continue;
+            }
+            creditos.accept(credito);
+        }
+        return linha;
+    }
+
+    private LocalDate lerData(String data) {
+        if (data.indexOf('/') >= 0) {
+            String[] pedacos = data.split("/");
+            return LocalDate.of(Integer.parseInt(pedacos[2]), Integer.parseInt(pedacos[1]), Integer.parseInt(pedacos[0]));
+        }
+        return LocalDate.parse(data);
+    }
+}
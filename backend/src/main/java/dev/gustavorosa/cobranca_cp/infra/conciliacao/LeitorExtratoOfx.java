@@ -0,0 +1,102 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extrato OFX (SGML 1.x ou XML 2.x). Cada bloco STMTTRN com TRNAMT positivo vira um crédito;
+ * o CPF/CNPJ do pagador é procurado no NAME/MEMO, onde os bancos costumam informá-lo.
+ */
+public class LeitorExtratoOfx implements LeitorExtrato {
+
+    private static final Pattern DOCUMENTO = Pattern.compile("(?<!\\d)(\\d{14}|\\d{11})(?!\\d)");
+    private static final Pattern DOCUMENTO_FORMATADO = Pattern.compile("\\d{2,3}\\.\\d{3}\\.\\d{3}[/-][\\d-]{2,7}");
+
+    @Override
+    public long ler(InputStream entrada, Consumer<LancamentoExtrato> creditos, Consumer<LinhaInvalida> invalidas) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.ISO_8859_1));
+        long registros = 0;
+        Transacao atual = null;
+        String conteudo;
+        while ((conteudo = reader.readLine()) != null) {
+            // Alguns bancos emitem várias tags na mesma linha
+            for (String token : conteudo.split("<")) {
+                int fimTag = token.indexOf('>');
+                if (fimTag < 0) continue;
+                String tag = token.substring(0, fimTag).trim().toUpperCase();
+                String valor = token.substring(fimTag + 1).trim();
+
+                switch (tag) {
+                    case "STMTTRN" -> atual = new Transacao(++registros);
+                    case "/STMTTRN" -> {
+                        if (atual != null && atual.erro != null) {
+                            invalidas.accept(new LinhaInvalida(atual.numero, atual.erro));
+                        } else if (atual != null && atual.centavos > 0 && atual.data != null) {
+                            creditos.accept(new LancamentoExtrato(atual.numero, atual.data, atual.centavos,
+                                    extrairDocumento(atual.nome, atual.memo), atual.memo != null ? atual.memo : atual.nome));
+                        }
+                        atual = null;
+                    }
+                    case "DTPOSTED", "TRNAMT" -> { if (atual != null) lerCampo(atual, tag, valor); }
+                    case "NAME" -> { if (atual != null) atual.nome = valor; }
+                    case "MEMO" -> { if (atual != null) atual.memo = valor; }
+                    default -> { }
+                }
+            }
+        }
+        return registros;
+    }
+
+    private void lerCampo(Transacao transacao, String tag, String valor) {
+        try {
+            if (tag.equals("DTPOSTED")) transacao.data = lerData(valor);
+            else transacao.centavos = MoneyUtils.parseCents(valor);
+        } catch (RuntimeException e) {
+            if (transacao.erro == null) transacao.erro = tag + " invalido (" + valor + "): " + e.getMessage();
+        }
+    }
+
+    private LocalDate lerData(String valor) {
+        // Formato OFX: YYYYMMDD[HHMMSS[.XXX]][[gmt]]
+        return LocalDate.of(Integer.parseInt(valor.substring(0, 4)),
+                Integer.parseInt(valor.substring(4, 6)),
+                Integer.parseInt(valor.substring(6, 8)));
+    }
+
+    private String extrairDocumento(String... textos) {
+        for (String texto : textos) {
+            if (texto == null) continue;
+            Matcher formatado = DOCUMENTO_FORMATADO.matcher(texto);
+            if (formatado.find()) {
+                return formatado.group().replaceAll("\\D", "");
+            }
+            Matcher puro = DOCUMENTO.matcher(texto);
+            if (puro.find()) {
+                return puro.group(1);
+            }
+        }
+        return null;
+    }
+
+    private static class Transacao {
+        final long numero;
+        LocalDate data;
+        long centavos;
+        String nome;
+        String memo;
+        String erro;             // primeiro campo ilegível; a transação inteira é descartada
+
+        Transacao(long numero) {
+            this.numero = numero;
+        }
+    }
+}
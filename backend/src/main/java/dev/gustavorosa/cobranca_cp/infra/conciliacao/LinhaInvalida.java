@@ -0,0 +1,11 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+/**
+ * Linha/registro do extrato que não pôde ser interpretado (valor ou data ilegível, registro truncado).
+ * A leitura continua nas linhas seguintes.
+ *
+ * @param linha  posição da linha (CSV, CNAB) ou do bloco STMTTRN (OFX) no arquivo
+ * @param motivo mensagem do erro de interpretação
+ */
+public record LinhaInvalida(long linha, String motivo) {
+}
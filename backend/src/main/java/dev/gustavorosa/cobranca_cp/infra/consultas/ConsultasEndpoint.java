@@ -0,0 +1,24 @@
+package dev.gustavorosa.cobranca_cp.infra.consultas;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/consultas: comandos SQL por execução de cada rota e job. Só ADMIN (ver SecurityConfig).
+ */
+@Endpoint(id = "consultas")
+public class ConsultasEndpoint {
+
+    private final MonitorConsultas monitor;
+
+    public ConsultasEndpoint(MonitorConsultas monitor) {
+        this.monitor = monitor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> situacao() {
+        return monitor.situacao();
+    }
+}
@@ -0,0 +1,55 @@
+package dev.gustavorosa.cobranca_cp.infra.consultas;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Um escopo de ContagemConsultas por requisição, logo depois do ContextoRequisicaoFilter, para que os avisos saiam
+ * com o requestId e a contagem inclua a autenticação e a serialização da resposta (open-in-view).
+ * A Medicao fica no atributo ATRIBUTO da requisição, de onde os testes de orçamento a leem.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConsultasFilter extends OncePerRequestFilter {
+
+    public static final String ATRIBUTO = Medicao.class.getName();
+
+    private final MonitorConsultas monitor;
+
+    public ConsultasFilter(MonitorConsultas monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContagemConsultas.Escopo escopo = monitor.abrir(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Medicao medicao = escopo.medicao();
+            if (medicao != null) {
+                medicao.renomear(rota(request));
+                request.setAttribute(ATRIBUTO, medicao);
+            }
+            escopo.close();
+        }
+    }
+
+    /**
+     * O padrão da rota (GET /clientes/{id}) em vez da URI, para que as estatísticas agrupem por endpoint.
+     */
+    private static String rota(HttpServletRequest request) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (padrao != null ? padrao : "(sem rota)");
+    }
+}
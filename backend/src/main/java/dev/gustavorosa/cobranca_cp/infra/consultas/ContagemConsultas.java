@@ -0,0 +1,96 @@
+package dev.gustavorosa.cobranca_cp.infra.consultas;
+
+import java.util.function.Consumer;
+
+/**
+ * Contagem de comandos SQL e carregamentos do Hibernate por escopo (uma requisição, um lote de job), guardada
+ * na thread. Os ganchos são chamados pelo InspetorConsultas e pelo OuvinteCarregamentos; fora de um escopo aberto
+ * não fazem nada. Escopos podem ser aninhados: ao fechar, o interno soma seus totais no externo.
+ *
+ * Em testes, medir(...) devolve a Medicao de um trecho de código; ConsultasFilter deixa a da requisição no
+ * atributo ConsultasFilter.ATRIBUTO.
+ */
+public final class ContagemConsultas {
+
+    public static final int LIMITE_REPETICOES_PADRAO = 10;
+
+    private static final ThreadLocal<Medicao> ATUAL = new ThreadLocal<>();
+
+    /**
+     * Escopo para try-with-resources. medicao() é null quando a contagem está desligada.
+     */
+    public interface Escopo extends AutoCloseable {
+        Medicao medicao();
+
+        @Override
+        void close();
+    }
+
+    public static final Escopo INATIVO = new Escopo() {
+        @Override
+        public Medicao medicao() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private ContagemConsultas() {
+    }
+
+    public static Escopo abrir(String nome, int limiteRepeticoes, Consumer<Medicao> aoFechar) {
+        Medicao anterior = ATUAL.get();
+        Medicao medicao = new Medicao(nome, limiteRepeticoes);
+        ATUAL.set(medicao);
+        return new Escopo() {
+            private boolean fechado;
+
+            @Override
+            public Medicao medicao() {
+                return medicao;
+            }
+
+            @Override
+            public void close() {
+                if (fechado) return;
+                fechado = true;
+                medicao.encerrar();
+                if (anterior != null) {
+                    anterior.somar(medicao);
+                    ATUAL.set(anterior);
+                } else {
+                    ATUAL.remove();
+                }
+                if (aoFechar != null) aoFechar.accept(medicao);
+            }
+        };
+    }
+
+    public static Medicao medir(String nome, Runnable tarefa) {
+        try (Escopo escopo = abrir(nome, LIMITE_REPETICOES_PADRAO, null)) {
+            tarefa.run();
+            return escopo.medicao();
+        }
+    }
+
+    public static Medicao atual() {
+        return ATUAL.get();
+    }
+
+    static void comando(String sql) {
+        Medicao medicao = ATUAL.get();
+        if (medicao != null) medicao.comando(sql);
+    }
+
+    static void entidade() {
+        Medicao medicao = ATUAL.get();
+        if (medicao != null) medicao.entidade();
+    }
+
+    static void colecao() {
+        Medicao medicao = ATUAL.get();
+        if (medicao != null) medicao.colecao();
+    }
+}
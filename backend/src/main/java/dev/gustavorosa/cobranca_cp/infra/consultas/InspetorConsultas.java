@@ -0,0 +1,16 @@
+package dev.gustavorosa.cobranca_cp.infra.consultas;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Vê cada comando SQL que o Hibernate prepara (consultas, carregamento de proxies e coleções, flush) e o conta
+ * no escopo aberto da thread. Não altera o SQL.
+ */
+public class InspetorConsultas implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        ContagemConsultas.comando(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,144 @@
+package dev.gustavorosa.cobranca_cp.infra.consultas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Números de um escopo de ContagemConsultas: comandos SQL enviados ao banco, entidades materializadas e coleções
+ * inicializadas. Um mesmo SELECT repetido limiteRepeticoes vezes no escopo vira suspeita de N+1, com a pilha
+ * (só os frames da aplicação) de quem disparou a repetição que cruzou o limite.
+ * Não é thread-safe: pertence à thread que abriu o escopo.
+ */
+public final class Medicao {
+
+    private static final Pattern LISTA_IN = Pattern.compile("in\\s*\\((\\?\\s*,\\s*)*\\?\\)", Pattern.CASE_INSENSITIVE);
+    private static final String PACOTE_APLICACAO = "dev.gustavorosa.cobranca_cp.";
+    private static final String PACOTE_PROPRIO = Medicao.class.getPackageName();
+    private static final int MAX_FRAMES = 8;
+    private static final int MAX_SQL = 300;
+
+    private String nome;
+    private final int limiteRepeticoes;
+    private final long inicio = System.nanoTime();
+    private long duracaoNanos = -1;
+    private int comandos;
+    private int entidades;
+    private int colecoes;
+    private final Map<String, Integer> repeticoes = new HashMap<>();
+    private final Map<String, Suspeita> suspeitas = new LinkedHashMap<>();
+
+    /**
+     * Consulta que se repetiu no escopo. ocorrencias é atualizado até o fim do escopo.
+     */
+    public record Suspeita(String sql, int ocorrencias, List<String> pilha) {
+    }
+
+    Medicao(String nome, int limiteRepeticoes) {
+        this.nome = nome;
+        this.limiteRepeticoes = limiteRepeticoes;
+    }
+
+    void comando(String sql) {
+        comandos++;
+        // só leituras: escritas repetidas são os lotes do JDBC batch, não N+1
+        if (!sql.regionMatches(true, 0, "select", 0, 6)) return;
+        String chave = normalizar(sql);
+        int vezes = repeticoes.merge(chave, 1, Integer::sum);
+        if (vezes == limiteRepeticoes) {
+            suspeitas.put(chave, new Suspeita(chave, vezes, pilhaDaAplicacao()));
+        }
+    }
+
+    void entidade() {
+        entidades++;
+    }
+
+    void colecao() {
+        colecoes++;
+    }
+
+    /**
+     * Soma os totais de um escopo interno. As repetições não sobem: uma consulta por lote de job é esperada.
+     */
+    void somar(Medicao interna) {
+        comandos += interna.comandos;
+        entidades += interna.entidades;
+        colecoes += interna.colecoes;
+    }
+
+    void encerrar() {
+        if (duracaoNanos < 0) duracaoNanos = System.nanoTime() - inicio;
+    }
+
+    /**
+     * O filtro HTTP só conhece a rota (ex: GET /clientes/{id}) depois que a requisição passou pelo DispatcherServlet.
+     */
+    public void renomear(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public int getComandos() {
+        return comandos;
+    }
+
+    public int getEntidades() {
+        return entidades;
+    }
+
+    public int getColecoes() {
+        return colecoes;
+    }
+
+    public long getDuracaoMs() {
+        return (duracaoNanos < 0 ? System.nanoTime() - inicio : duracaoNanos) / 1_000_000;
+    }
+
+    public List<Suspeita> getSuspeitas() {
+        List<Suspeita> resultado = new ArrayList<>(suspeitas.size());
+        for (Suspeita suspeita : suspeitas.values()) {
+            resultado.add(new Suspeita(suspeita.sql(), repeticoes.get(suspeita.sql()), suspeita.pilha()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Quantas vezes cada SELECT distinto rodou, dos mais repetidos para os menos.
+     */
+    public Map<String, Integer> getRepeticoes() {
+        Map<String, Integer> ordenado = new LinkedHashMap<>();
+        repeticoes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entrada -> ordenado.put(entrada.getKey(), entrada.getValue()));
+        return ordenado;
+    }
+
+    @Override
+    public String toString() {
+        return nome + ": " + comandos + " comandos SQL, " + entidades + " entidades, " + colecoes + " coleções em "
+                + getDuracaoMs() + " ms" + (suspeitas.isEmpty() ? "" : ", " + suspeitas.size() + " suspeita(s) de N+1");
+    }
+
+    private static String normalizar(String sql) {
+        String chave = LISTA_IN.matcher(sql).replaceAll("in (?...)");
+        return chave.length() > MAX_SQL ? chave.substring(0, MAX_SQL) + "..." : chave;
+    }
+
+    private static List<String> pilhaDaAplicacao() {
+        return Arrays.stream(new Throwable().getStackTrace())
+                .filter(frame -> frame.getClassName().startsWith(PACOTE_APLICACAO))
+                .filter(frame -> !frame.getClassName().startsWith(PACOTE_PROPRIO))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .limit(MAX_FRAMES)
+                .map(StackTraceElement::toString)
+                .toList();
+    }
+}
@@ -0,0 +1,114 @@
+package dev.gustavorosa.cobranca_cp.infra.consultas;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Abre os escopos de contagem das requisições e dos jobs e acumula, por rota ou job, quantos comandos SQL cada
+ * execução custou. Modos (app.consultas.modo):
+ * <ul>
+ *   <li>desligado: nenhum escopo é aberto</li>
+ *   <li>contar: só acumula os números, visíveis em GET /actuator/consultas</li>
+ *   <li>avisar: também loga WARN, uma vez por rota e consulta, quando um SELECT se repete app.consultas.limite-repeticoes
+ *       vezes (provável N+1, com a pilha de quem o disparou), e quando uma execução passa de
+ *       app.consultas.limite-comandos e bate o máximo já visto daquela rota</li>
+ * </ul>
+ */
+@Slf4j
+public class MonitorConsultas {
+
+    public enum Modo { DESLIGADO, CONTAR, AVISAR }
+
+    private static final int MAX_AVISOS = 1000;
+
+    private final Modo modo;
+    private final int limiteRepeticoes;
+    private final int limiteComandos;
+    private final Map<String, Estatistica> porEscopo = new ConcurrentHashMap<>();
+    private final Set<String> avisados = ConcurrentHashMap.newKeySet();
+
+    public MonitorConsultas(Modo modo, int limiteRepeticoes, int limiteComandos) {
+        this.modo = modo;
+        this.limiteRepeticoes = limiteRepeticoes;
+        this.limiteComandos = limiteComandos;
+    }
+
+    public ContagemConsultas.Escopo abrir(String nome) {
+        if (modo == Modo.DESLIGADO) return ContagemConsultas.INATIVO;
+        return ContagemConsultas.abrir(nome, limiteRepeticoes, this::registrar);
+    }
+
+    private void registrar(Medicao medicao) {
+        long maximoAnterior = porEscopo.computeIfAbsent(medicao.getNome(), nome -> new Estatistica()).registrar(medicao);
+        if (log.isDebugEnabled()) {
+            log.debug("{}", medicao);
+        }
+        if (modo != Modo.AVISAR) return;
+
+        for (Medicao.Suspeita suspeita : medicao.getSuspeitas()) {
+            if (!primeiroAviso(medicao.getNome() + '|' + suspeita.sql())) continue;
+            log.warn("Possível N+1 em {}: a mesma consulta rodou {} vezes\n  {}\n    at {}", medicao.getNome(),
+                    suspeita.ocorrencias(), suspeita.sql(), String.join("\n    at ", suspeita.pilha()));
+        }
+        if (medicao.getComandos() > limiteComandos && medicao.getComandos() > maximoAnterior) {
+            log.warn("{} executou {} comandos SQL (limite {}); mais repetidos: {}", medicao.getNome(), medicao.getComandos(),
+                    limiteComandos, primeiros(medicao.getRepeticoes(), 3));
+        }
+    }
+
+    private boolean primeiroAviso(String chave) {
+        if (avisados.size() >= MAX_AVISOS) return false;
+        return avisados.add(chave);
+    }
+
+    private static Map<String, Integer> primeiros(Map<String, Integer> repeticoes, int quantidade) {
+        Map<String, Integer> primeiros = new LinkedHashMap<>();
+        repeticoes.entrySet().stream().limit(quantidade).forEach(e -> primeiros.put(e.getKey(), e.getValue()));
+        return primeiros;
+    }
+
+    public Map<String, Object> situacao() {
+        Map<String, Object> situacao = new LinkedHashMap<>();
+        situacao.put("modo", modo.name().toLowerCase());
+        situacao.put("limiteRepeticoes", limiteRepeticoes);
+        situacao.put("limiteComandos", limiteComandos);
+        Map<String, Object> escopos = new TreeMap<>();
+        porEscopo.forEach((nome, estatistica) -> escopos.put(nome, estatistica.situacao()));
+        situacao.put("escopos", escopos);
+        return situacao;
+    }
+
+    private static final class Estatistica {
+        private final LongAdder execucoes = new LongAdder();
+        private final LongAdder comandos = new LongAdder();
+        private final LongAdder comSuspeita = new LongAdder();
+        private final AtomicLong maximo = new AtomicLong();
+
+        /**
+         * @return o máximo de comandos visto antes desta execução
+         */
+        long registrar(Medicao medicao) {
+            execucoes.increment();
+            comandos.add(medicao.getComandos());
+            if (!medicao.getSuspeitas().isEmpty()) comSuspeita.increment();
+            return maximo.getAndAccumulate(medicao.getComandos(), Math::max);
+        }
+
+        Map<String, Object> situacao() {
+            long total = execucoes.sum();
+            Map<String, Object> situacao = new LinkedHashMap<>();
+            situacao.put("execucoes", total);
+            situacao.put("comandosPorExecucao", total == 0 ? 0 : Math.round(comandos.sum() * 10.0 / total) / 10.0);
+            situacao.put("maximoComandos", maximo.get());
+            situacao.put("execucoesComSuspeita", comSuspeita.sum());
+            return situacao;
+        }
+    }
+}
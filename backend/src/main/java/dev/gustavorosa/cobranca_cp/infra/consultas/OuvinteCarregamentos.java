@@ -0,0 +1,23 @@
+package dev.gustavorosa.cobranca_cp.infra.consultas;
+
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Conta entidades materializadas e coleções lazy inicializadas. Registrado depois dos ouvintes padrão do Hibernate,
+ * só observa.
+ */
+public class OuvinteCarregamentos implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        ContagemConsultas.entidade();
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        ContagemConsultas.colecao();
+    }
+}
@@ -0,0 +1,12 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+/**
+ * Cache cujos contadores entram no evento periódico cobranca.EstatisticaCache. Basta ser um bean.
+ */
+public interface CacheObservavel {
+
+    record Estatistica(String cache, long entradas, long consultas, long acertos, long faltas) {
+    }
+
+    Estatistica estatisticaCache();
+}
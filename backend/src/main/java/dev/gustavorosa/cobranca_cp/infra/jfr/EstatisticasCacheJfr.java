@@ -0,0 +1,35 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.List;
+
+/**
+ * Registra o gancho do evento periódico cobranca.EstatisticaCache; o JFR só o chama enquanto houver gravação
+ * com o evento habilitado.
+ */
+public class EstatisticasCacheJfr implements AutoCloseable {
+
+    private final Runnable gancho;
+
+    public EstatisticasCacheJfr(List<CacheObservavel> caches) {
+        this.gancho = () -> {
+            for (CacheObservavel cache : caches) {
+                CacheObservavel.Estatistica estatistica = cache.estatisticaCache();
+                EventoEstatisticaCache evento = new EventoEstatisticaCache();
+                evento.cache = estatistica.cache();
+                evento.entradas = estatistica.entradas();
+                evento.consultas = estatistica.consultas();
+                evento.acertos = estatistica.acertos();
+                evento.faltas = estatistica.faltas();
+                evento.commit();
+            }
+        };
+        FlightRecorder.addPeriodicEvent(EventoEstatisticaCache.class, gancho);
+    }
+
+    @Override
+    public void close() {
+        FlightRecorder.removePeriodicEvent(gancho);
+    }
+}
@@ -0,0 +1,29 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cobranca.AtualizacaoPagamentos")
+@Label("Atualização de pagamentos")
+@Description("Uma execução completa da atualização de situação e encargos, até o fim da transação")
+@Category({"Cobrança", "Jobs"})
+@StackTrace(false)
+public class EventoAtualizacaoPagamentos extends Event {
+
+    @Label("Origem")
+    public String origem;
+
+    @Label("Parcelas em atraso")
+    public int parcelas;
+
+    @Label("Lotes")
+    public int lotes;
+
+    @Label("Confirmada")
+    @Description("false quando a transação foi desfeita")
+    public boolean confirmada;
+}
@@ -0,0 +1,25 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cobranca.Cache")
+@Label("Consulta a cache")
+@Description("Consulta que chegou ao cache; em falta, a duração inclui a ida ao banco")
+@Category({"Cobrança", "Cache"})
+@StackTrace(false)
+public class EventoCache extends Event {
+
+    public static final String ACERTO = "acerto";
+    public static final String FALTA = "falta";
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Resultado")
+    public String resultado;
+}
@@ -0,0 +1,33 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+@Name("cobranca.EstatisticaCache")
+@Label("Estatística de cache")
+@Description("Contadores acumulados de cada CacheObservavel, emitidos periodicamente")
+@Category({"Cobrança", "Cache"})
+@Period("60 s")
+@StackTrace(false)
+public class EventoEstatisticaCache extends Event {
+
+    @Label("Cache")
+    String cache;
+
+    @Label("Entradas")
+    long entradas;
+
+    @Label("Consultas")
+    long consultas;
+
+    @Label("Acertos")
+    long acertos;
+
+    @Label("Faltas")
+    long faltas;
+}
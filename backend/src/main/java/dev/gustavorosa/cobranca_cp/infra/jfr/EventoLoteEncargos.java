@@ -0,0 +1,37 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cobranca.LoteEncargos")
+@Label("Lote de encargos")
+@Description("Um lote da atualização de situação, multa e juros, incluindo o flush dos UPDATEs")
+@Category({"Cobrança", "Jobs"})
+@StackTrace(false)
+public class EventoLoteEncargos extends Event {
+
+    @Label("Origem")
+    public String origem;
+
+    @Label("Lote")
+    public int lote;
+
+    @Label("Parcelas")
+    public int parcelas;
+
+    @Label("Novas em atraso")
+    public int novasAtrasadas;
+
+    @Label("Multas aplicadas")
+    public int multas;
+
+    @Label("Com juros")
+    public int comJuros;
+
+    @Label("Comandos SQL")
+    public int comandosSql;
+}
@@ -0,0 +1,32 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cobranca.Requisicao")
+@Label("Requisição HTTP")
+@Description("Uma requisição atendida pelos controllers, da entrada à resposta serializada")
+@Category({"Cobrança", "HTTP"})
+@StackTrace(false)
+public class EventoRequisicao extends Event {
+
+    @Label("Método")
+    String metodo;
+
+    @Label("Rota")
+    @Description("Padrão da rota, ex: GET /clientes/{id}")
+    String rota;
+
+    @Label("Status")
+    int status;
+
+    @Label("Comandos SQL")
+    int comandosSql;
+
+    @Label("Request id")
+    String requestId;
+}
@@ -0,0 +1,52 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import dev.gustavorosa.cobranca_cp.infra.consultas.ContagemConsultas;
+import dev.gustavorosa.cobranca_cp.infra.consultas.Medicao;
+import dev.gustavorosa.cobranca_cp.infra.log.ContextoLog;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Emite cobranca.Requisicao para cada requisição, dentro do escopo do ConsultasFilter para levar junto a
+ * contagem de SQL. Sem gravação ativa (ou abaixo do threshold do perfil) o custo é o de um evento desligado.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class EventoRequisicaoFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EventoRequisicao evento = new EventoRequisicao();
+        if (!evento.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        evento.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            evento.end();
+            if (evento.shouldCommit()) {
+                Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                Medicao consultas = ContagemConsultas.atual();
+                evento.metodo = request.getMethod();
+                evento.rota = padrao != null ? padrao.toString() : "(sem rota)";
+                evento.status = response.getStatus();
+                evento.comandosSql = consultas != null ? consultas.getComandos() : 0;
+                evento.requestId = MDC.get(ContextoLog.REQUISICAO);
+                evento.commit();
+            }
+        }
+    }
+}
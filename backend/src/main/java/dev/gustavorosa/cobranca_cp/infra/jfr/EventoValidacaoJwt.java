@@ -0,0 +1,26 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("cobranca.ValidacaoJwt")
+@Label("Validação de JWT")
+@Description("Assinatura, lista de revogação e carga do usuário de uma requisição com token")
+@Category({"Cobrança", "Segurança"})
+@StackTrace(false)
+public class EventoValidacaoJwt extends Event {
+
+    public static final String VALIDO = "valido";
+    public static final String INVALIDO = "invalido";
+    public static final String RENOVACAO = "renovacao";
+    public static final String REVOGADO = "revogado";
+    public static final String DESATIVADO = "desativado";
+    public static final String ERRO = "erro";
+
+    @Label("Resultado")
+    public String resultado;
+}
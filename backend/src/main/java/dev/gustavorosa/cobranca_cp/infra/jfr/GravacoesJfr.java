@@ -0,0 +1,158 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Gravações JFR sob demanda (ver JfrEndpoint) e, com app.jfr.continua, uma gravação contínua iniciada com a
+ * aplicação e limitada por idade e tamanho, para que haja o que baixar quando o job noturno ou uma listagem já
+ * ficaram lentos.
+ * <p>
+ * O perfil é o "default" do JDK (pensado para ficar sempre ligado, ~1% de custo) mais jfr/cobranca.jfc com os
+ * eventos da aplicação. O mesmo arquivo serve para gravações iniciadas pela JVM:
+ * -XX:StartFlightRecording:settings=default,settings=cobranca.jfc
+ */
+@Slf4j
+public class GravacoesJfr {
+
+    static final String PERFIL = "/jfr/cobranca.jfc";
+    static final String CONTINUA = "continua";
+    private static final int EXPORTACOES_MANTIDAS = 5;
+    private static final DateTimeFormatter CARIMBO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Map<String, String> configuracao;
+    private final Path diretorio;
+    private final Duration idadeMaxima;
+    private final long tamanhoMaximo;
+    private Recording continua;
+
+    public GravacoesJfr(Path diretorio, Duration idadeMaxima, long tamanhoMaximo) {
+        this.configuracao = carregarPerfil();
+        this.diretorio = diretorio;
+        this.idadeMaxima = idadeMaxima;
+        this.tamanhoMaximo = tamanhoMaximo;
+    }
+
+    static Map<String, String> carregarPerfil() {
+        try (InputStream entrada = GravacoesJfr.class.getResourceAsStream(PERFIL)) {
+            if (entrada == null) throw new IllegalStateException("Perfil JFR " + PERFIL + " não encontrado");
+            Map<String, String> configuracao = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            try (Reader leitor = new InputStreamReader(entrada, StandardCharsets.UTF_8)) {
+                configuracao.putAll(Configuration.create(leitor).getSettings());
+            }
+            return configuracao;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Perfil JFR " + PERFIL + " inválido: " + e.getMessage(), e);
+        }
+    }
+
+    public boolean disponivel() {
+        return FlightRecorder.isAvailable();
+    }
+
+    public void iniciarContinua() {
+        if (!disponivel()) {
+            log.warn("JFR indisponível nesta JVM; gravação contínua não iniciada");
+            return;
+        }
+        continua = iniciar(CONTINUA, null);
+        log.info("Gravação JFR contínua {} iniciada (últimos {} / {} MB)", continua.getId(), idadeMaxima,
+                tamanhoMaximo / (1024 * 1024));
+    }
+
+    /**
+     * Encerra a gravação contínua junto com o contexto; as sob demanda ficam com quem as iniciou.
+     */
+    public void encerrar() {
+        if (continua != null) continua.close();
+    }
+
+    /**
+     * @param duracao null para gravar até ser parada (ou, na prática, como um buffer circular de idade e tamanho)
+     */
+    public synchronized Recording iniciar(String nome, Duration duracao) {
+        Recording gravacao = new Recording(configuracao);
+        gravacao.setName(nome);
+        gravacao.setToDisk(true);
+        gravacao.setMaxAge(idadeMaxima);
+        gravacao.setMaxSize(tamanhoMaximo);
+        if (duracao != null) gravacao.setDuration(duracao);
+        gravacao.start();
+        return gravacao;
+    }
+
+    public List<Recording> listar() {
+        return disponivel() ? FlightRecorder.getFlightRecorder().getRecordings() : List.of();
+    }
+
+    public Recording buscar(long id) {
+        return listar().stream().filter(gravacao -> gravacao.getId() == id).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Gravação JFR " + id + " não encontrada"));
+    }
+
+    /**
+     * Grava o conteúdo atual em um arquivo .jfr; funciona com a gravação ainda em andamento.
+     * Mantém só as últimas exportações no diretório.
+     */
+    public synchronized Path exportar(long id) throws IOException {
+        Recording gravacao = buscar(id);
+        Files.createDirectories(diretorio);
+        Path arquivo = diretorio.resolve("gravacao-" + id + "-" + CARIMBO.format(LocalDateTime.now()) + ".jfr");
+        gravacao.dump(arquivo);
+        limparExportacoes();
+        return arquivo;
+    }
+
+    public Recording parar(long id) {
+        Recording gravacao = buscar(id);
+        if (gravacao.getState() == RecordingState.RUNNING || gravacao.getState() == RecordingState.DELAYED) {
+            gravacao.stop();
+        }
+        return gravacao;
+    }
+
+    public void descartar(long id) {
+        buscar(id).close();
+    }
+
+    private void limparExportacoes() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            List<Path> antigos = arquivos.filter(arquivo -> arquivo.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing(GravacoesJfr::modificadoEm).reversed())
+                    .skip(EXPORTACOES_MANTIDAS)
+                    .toList();
+            for (Path antigo : antigos) Files.deleteIfExists(antigo);
+        }
+    }
+
+    private static long modificadoEm(Path arquivo) {
+        try {
+            return Files.getLastModifiedTime(arquivo).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Recording;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gravações JFR sob demanda (só ADMIN, ver SecurityConfig):
+ * <ul>
+ *   <li>GET /actuator/jfr: gravações existentes, incluindo a contínua</li>
+ *   <li>POST /actuator/jfr {"nome": "...", "duracaoSegundos": 300}: inicia uma gravação com o perfil da aplicação</li>
+ *   <li>GET /actuator/jfr/{id}: baixa o .jfr (funciona com a gravação em andamento), para abrir no JDK Mission Control</li>
+ *   <li>POST /actuator/jfr/{id}: para a gravação, que continua disponível para download</li>
+ *   <li>DELETE /actuator/jfr/{id}: descarta a gravação</li>
+ * </ul>
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private static final String BINARIO = "application/octet-stream";
+
+    private final GravacoesJfr gravacoes;
+
+    public JfrEndpoint(GravacoesJfr gravacoes) {
+        this.gravacoes = gravacoes;
+    }
+
+    @ReadOperation
+    public Map<String, Object> listar() {
+        Map<String, Object> situacao = new LinkedHashMap<>();
+        situacao.put("disponivel", gravacoes.disponivel());
+        situacao.put("gravacoes", gravacoes.listar().stream().map(JfrEndpoint::descrever).toList());
+        return situacao;
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> iniciar(@Nullable String nome, @Nullable Integer duracaoSegundos) {
+        if (!gravacoes.disponivel()) {
+            return new WebEndpointResponse<>(Map.of("erro", "JFR indisponível nesta JVM"), WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        Duration duracao = duracaoSegundos != null && duracaoSegundos > 0 ? Duration.ofSeconds(duracaoSegundos) : null;
+        Recording gravacao = gravacoes.iniciar(nome != null && !nome.isBlank() ? nome : "sob-demanda", duracao);
+        return new WebEndpointResponse<>(descrever(gravacao), WebEndpointResponse.STATUS_OK);
+    }
+
+    @ReadOperation(produces = BINARIO)
+    public WebEndpointResponse<Resource> baixar(@Selector long id) throws IOException {
+        try {
+            return new WebEndpointResponse<>(new FileSystemResource(gravacoes.exportar(id)), WebEndpointResponse.STATUS_OK);
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> parar(@Selector long id) {
+        try {
+            return new WebEndpointResponse<>(descrever(gravacoes.parar(id)), WebEndpointResponse.STATUS_OK);
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Void> descartar(@Selector long id) {
+        try {
+            gravacoes.descartar(id);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+    }
+
+    private static Map<String, Object> descrever(Recording gravacao) {
+        Map<String, Object> descricao = new LinkedHashMap<>();
+        descricao.put("id", gravacao.getId());
+        descricao.put("nome", gravacao.getName());
+        descricao.put("estado", gravacao.getState().name().toLowerCase());
+        descricao.put("inicio", gravacao.getStartTime());
+        descricao.put("duracao", gravacao.getDuration());
+        descricao.put("idadeMaxima", gravacao.getMaxAge());
+        descricao.put("tamanhoMaximo", gravacao.getMaxSize());
+        descricao.put("tamanho", gravacao.getSize());
+        return descricao;
+    }
+}
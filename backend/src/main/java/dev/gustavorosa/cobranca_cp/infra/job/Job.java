@@ -0,0 +1,39 @@
+package dev.gustavorosa.cobranca_cp.infra.job;
+
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
+
+import java.time.LocalDate;
+
+/**
+ * Trabalho em segundo plano executado pelo JobService, que grava cada execução, respeita a pausa e permite
+ * disparo manual por GET/POST /jobs. Basta ser um bean; o agendamento continua com o próprio job.
+ */
+public interface Job {
+
+    String nome();
+
+    String descricao();
+
+    /**
+     * Deve poder rodar de novo sobre o que já fez: em conflito de versão com outra transação o JobService
+     * executa outra vez, relendo o estado atual.
+     *
+     * @param dataReferencia hoje nas execuções agendadas; no disparo manual, a data pedida
+     * @return registros processados, base do registros/segundo do histórico
+     */
+    long executar(LocalDate dataReferencia, OrigemExecucaoJob origem);
+
+    /**
+     * Execuções agendadas pulam a data que já tem execução concluída (o disparo manual não).
+     */
+    default boolean umaVezPorData() {
+        return false;
+    }
+
+    /**
+     * Jobs de intervalo curto só gravam as execuções que processaram algo ou falharam.
+     */
+    default boolean registraExecucoesVazias() {
+        return true;
+    }
+}
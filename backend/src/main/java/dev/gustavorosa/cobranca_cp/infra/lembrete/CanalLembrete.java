@@ -0,0 +1,13 @@
+package dev.gustavorosa.cobranca_cp.infra.lembrete;
+
+import dev.gustavorosa.cobranca_cp.model.LembreteOutbox;
+
+/**
+ * Canal de entrega dos lembretes (WhatsApp, SMS, e-mail...).
+ * Implementações podem bloquear; o despachante chama em threads próprias e com concorrência limitada.
+ * Qualquer exceção é tratada como falha e o lembrete é reenviado com backoff.
+ */
+public interface CanalLembrete {
+
+    void enviar(LembreteOutbox lembrete) throws Exception;
+}
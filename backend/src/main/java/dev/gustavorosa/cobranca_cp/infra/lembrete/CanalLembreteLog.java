@@ -0,0 +1,40 @@
+package dev.gustavorosa.cobranca_cp.infra.lembrete;
+
+import dev.gustavorosa.cobranca_cp.model.LembreteOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+
+/**
+ * Canal local para desenvolvimento e testes: registra o lembrete no log e,
+ * se app.lembretes.arquivo estiver configurado, acrescenta uma linha nesse arquivo.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.lembretes.canal", havingValue = "log", matchIfMissing = true)
+public class CanalLembreteLog implements CanalLembrete {
+
+    @Value("${app.lembretes.arquivo:}")
+    private String arquivo;
+
+    @Override
+    public void enviar(LembreteOutbox lembrete) throws IOException {
+        log.info("Lembrete {} para {}: {}", lembrete.getTipo(), lembrete.getDestinatario(), lembrete.getMensagem());
+        if (!arquivo.isBlank()) {
+            String linha = String.join(";", LocalDateTime.now().toString(), lembrete.getChave(),
+                    String.valueOf(lembrete.getDestinatario()), lembrete.getMensagem()) + System.lineSeparator();
+            synchronized (this) {
+                Files.writeString(Path.of(arquivo), linha, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        }
+    }
+}
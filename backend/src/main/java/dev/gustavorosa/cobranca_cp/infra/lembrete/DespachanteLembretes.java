@@ -0,0 +1,167 @@
+package dev.gustavorosa.cobranca_cp.infra.lembrete;
+
+import dev.gustavorosa.cobranca_cp.infra.consultas.ContagemConsultas;
+import dev.gustavorosa.cobranca_cp.infra.consultas.MonitorConsultas;
+import dev.gustavorosa.cobranca_cp.infra.job.Job;
+import dev.gustavorosa.cobranca_cp.infra.log.ContextoLog;
+import dev.gustavorosa.cobranca_cp.model.LembreteOutbox;
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
+import dev.gustavorosa.cobranca_cp.model.StatusLembrete;
+import dev.gustavorosa.cobranca_cp.repository.LembreteOutboxRepository;
+import dev.gustavorosa.cobranca_cp.service.JobService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drena a tabela de outbox de lembretes em lotes e entrega cada lembrete ao CanalLembrete.
+ * Os envios de um lote rodam em paralelo num pool de tamanho fixo (concorrência limitada);
+ * falhas são reagendadas com backoff exponencial até o limite de tentativas, quando o lembrete vira FALHA.
+ * Roda fora da transação do job noturno e das requisições, que apenas gravam no outbox.
+ * Com várias instâncias, cada lote é reservado antes do envio (status EM_ENVIO com uma reserva própria e prazo em
+ * proximaTentativa), então dois despachos não pegam o mesmo lembrete; se a instância cair no meio do envio,
+ * a reserva vence e o lembrete volta a ser elegível (pode sair de novo: a entrega é pelo menos uma vez).
+ * Como roda a cada poucos segundos, só as execuções que enviaram algo (ou falharam) ficam no histórico de jobs.
+ */
+@Slf4j
+@Component
+public class DespachanteLembretes implements Job {
+
+    private final LembreteOutboxRepository lembreteOutboxRepository;
+    private final CanalLembrete canal;
+    private final ExecutorService executor;
+    private final Executor executorComContexto;
+    private final MonitorConsultas monitorConsultas;
+    private final JobService jobService;
+
+    @Value("${app.lembretes.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    @Value("${app.lembretes.max-tentativas:5}")
+    private int maxTentativas;
+
+    @Value("${app.lembretes.backoff-inicial-segundos:60}")
+    private long backoffInicialSegundos;
+
+    @Value("${app.lembretes.reserva-segundos:300}")
+    private long reservaSegundos;
+
+    public DespachanteLembretes(LembreteOutboxRepository lembreteOutboxRepository, CanalLembrete canal,
+                                MonitorConsultas monitorConsultas, JobService jobService,
+                                @Value("${app.lembretes.concorrencia:4}") int concorrencia) {
+        this.lembreteOutboxRepository = lembreteOutboxRepository;
+        this.canal = canal;
+        this.monitorConsultas = monitorConsultas;
+        this.jobService = jobService;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concorrencia, r -> {
+            Thread thread = new Thread(r, "lembretes-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executorComContexto = ContextoLog.propagando(executor);
+    }
+
+    @Scheduled(fixedDelayString = "${app.lembretes.intervalo-ms:30000}", initialDelayString = "${app.lembretes.intervalo-ms:30000}")
+    public void despachar() {
+        jobService.executarAgendado(this, OrigemExecucaoJob.AGENDADA);
+    }
+
+    @Override
+    public String nome() {
+        return "lembretes";
+    }
+
+    @Override
+    public String descricao() {
+        return "Envia os lembretes pendentes do outbox";
+    }
+
+    @Override
+    public boolean registraExecucoesVazias() {
+        return false;
+    }
+
+    /**
+     * @return lembretes processados (enviados ou com falha registrada)
+     */
+    @Override
+    public long executar(LocalDate dataReferencia, OrigemExecucaoJob origem) {
+        long processados = 0;
+        int candidatos;
+        do {
+            try (ContagemConsultas.Escopo consultas = monitorConsultas.abrir("job lembretes (lote)")) {
+                LocalDateTime agora = LocalDateTime.now();
+                List<Long> ids = lembreteOutboxRepository.findIdsDisponiveis(agora, PageRequest.of(0, tamanhoLote));
+                candidatos = ids.size();
+                if (ids.isEmpty()) break;
+                // só envia o que esta reserva conseguiu; o resto do lote já está com outro despacho
+                String reserva = UUID.randomUUID().toString();
+                lembreteOutboxRepository.reservar(ids, reserva, agora, agora.plusSeconds(reservaSegundos));
+                List<LembreteOutbox> lote = lembreteOutboxRepository.findByReservaAndStatusOrderById(reserva, StatusLembrete.EM_ENVIO);
+                if (!lote.isEmpty()) {
+                    despacharLote(lote);
+                    processados += lote.size();
+                }
+            }
+        } while (candidatos == tamanhoLote);
+        return processados;
+    }
+
+    private void despacharLote(List<LembreteOutbox> lote) {
+        List<CompletableFuture<Long>> envios = lote.stream()
+                .map(lembrete -> CompletableFuture.supplyAsync(() -> enviar(lembrete), executorComContexto))
+                .toList();
+
+        List<Long> enviados = new ArrayList<>(lote.size());
+        for (CompletableFuture<Long> envio : envios) {
+            Long id = envio.join();
+            if (id != null) enviados.add(id);
+        }
+        if (!enviados.isEmpty()) {
+            lembreteOutboxRepository.marcarEnviados(enviados, LocalDateTime.now());
+        }
+        log.info("Lote de lembretes despachado: {} enviados, {} com falha", enviados.size(), lote.size() - enviados.size());
+    }
+
+    /**
+     * @return id do lembrete enviado, ou null se o envio falhou (a falha já fica registrada)
+     */
+    private Long enviar(LembreteOutbox lembrete) {
+        try {
+            canal.enviar(lembrete);
+            return lembrete.getId();
+        } catch (Exception e) {
+            int tentativas = lembrete.getTentativas() + 1;
+            boolean desistir = tentativas >= maxTentativas;
+            Duration espera = Duration.ofSeconds(backoffInicialSegundos << Math.min(tentativas - 1, 16));
+            String erro = e.getMessage() != null && e.getMessage().length() > 500 ? e.getMessage().substring(0, 500) : e.getMessage();
+            lembreteOutboxRepository.registrarFalha(lembrete.getId(),
+                    desistir ? StatusLembrete.FALHA : StatusLembrete.PENDENTE, LocalDateTime.now().plus(espera), erro);
+            log.warn("Falha ao enviar lembrete {} (tentativa {}): {}", lembrete.getChave(), tentativas, e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,105 @@
+package dev.gustavorosa.cobranca_cp.infra.limite;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Balde de tokens por chave (IP, e-mail...) sem locks.
+ * Cada chave guarda um único long com o "instante teórico de chegada" (GCRA): o balde está cheio quando esse
+ * instante já passou e cada requisição o empurra um intervalo de reposição para frente. A requisição é aceita
+ * enquanto o instante não se afastar do relógio mais que capacidade * intervalo. Aceitar é um único CAS;
+ * a contenção fica restrita às requisições da mesma chave, e o ConcurrentHashMap já é particionado por chave.
+ * <p>
+ * Chaves com balde cheio são equivalentes a chaves ausentes e são descartadas por {@link #limpar()}.
+ * Acima de maxChaves, chaves novas passam a dividir um balde comum, para que uma rajada de IPs distintos
+ * não esgote a memória.
+ */
+public class LimitadorTaxa {
+
+    static final String CHAVE_EXCEDENTE = "*";
+
+    private final String nome;
+    private final int capacidade;
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final int maxChaves;
+    private final ConcurrentHashMap<String, AtomicLong> baldes = new ConcurrentHashMap<>();
+    private final LongAdder permitidas = new LongAdder();
+    private final LongAdder rejeitadas = new LongAdder();
+
+    public LimitadorTaxa(String nome, int capacidade, int reposicaoPorMinuto, int maxChaves) {
+        if (capacidade < 1 || reposicaoPorMinuto < 1) {
+            throw new IllegalArgumentException("Capacidade e reposição do limitador " + nome + " devem ser positivas");
+        }
+        this.nome = nome;
+        this.capacidade = capacidade;
+        this.intervaloNanos = 60_000_000_000L / reposicaoPorMinuto;
+        this.toleranciaNanos = intervaloNanos * capacidade;
+        this.maxChaves = maxChaves;
+    }
+
+    /**
+     * Consome um token da chave.
+     *
+     * @return 0 se a requisição foi aceita; senão, quantos segundos esperar até haver token disponível
+     */
+    public long consumir(String chave) {
+        return consumir(chave, System.nanoTime());
+    }
+
+    long consumir(String chave, long agora) {
+        AtomicLong balde = balde(chave, agora);
+        while (true) {
+            long chegada = balde.get();
+            long proxima = Math.max(chegada, agora) + intervaloNanos;
+            long excesso = proxima - agora - toleranciaNanos;
+            if (excesso > 0) {
+                rejeitadas.increment();
+                return Math.max(1, (excesso + 999_999_999L) / 1_000_000_000L);
+            }
+            if (balde.compareAndSet(chegada, proxima)) {
+                permitidas.increment();
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong balde(String chave, long agora) {
+        AtomicLong balde = baldes.get(chave);
+        if (balde != null) return balde;
+        if (baldes.size() >= maxChaves) chave = CHAVE_EXCEDENTE;
+        return baldes.computeIfAbsent(chave, k -> new AtomicLong(agora));
+    }
+
+    /**
+     * Remove as chaves cujo balde já se encheu de novo.
+     *
+     * @return quantidade de chaves removidas
+     */
+    public int limpar() {
+        return limpar(System.nanoTime());
+    }
+
+    int limpar(long agora) {
+        int antes = baldes.size();
+        baldes.values().removeIf(balde -> balde.get() - agora <= 0);
+        return antes - baldes.size();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public Map<String, Object> situacao() {
+        Map<String, Object> situacao = new LinkedHashMap<>();
+        situacao.put("capacidade", capacidade);
+        situacao.put("reposicaoPorMinuto", 60_000_000_000L / intervaloNanos);
+        situacao.put("chavesAtivas", baldes.size());
+        situacao.put("permitidas", permitidas.sum());
+        situacao.put("rejeitadas", rejeitadas.sum());
+        return situacao;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.gustavorosa.cobranca_cp.infra.limite;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teto de requisições simultâneas para um grupo de rotas caras.
+ * Não há fila: quem chega com o teto ocupado é recusado na hora, em vez de prender uma thread do Tomcat
+ * e uma conexão do pool esperando.
+ */
+public class LimiteConcorrencia {
+
+    private final String nome;
+    private final int maximo;
+    private final Semaphore vagas;
+    private final LongAdder permitidas = new LongAdder();
+    private final LongAdder rejeitadas = new LongAdder();
+
+    public LimiteConcorrencia(String nome, int maximo) {
+        if (maximo < 1) throw new IllegalArgumentException("Teto de concorrência de " + nome + " deve ser positivo");
+        this.nome = nome;
+        this.maximo = maximo;
+        this.vagas = new Semaphore(maximo);
+    }
+
+    public boolean entrar() {
+        if (vagas.tryAcquire()) {
+            permitidas.increment();
+            return true;
+        }
+        rejeitadas.increment();
+        return false;
+    }
+
+    public void sair() {
+        vagas.release();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public Map<String, Object> situacao() {
+        Map<String, Object> situacao = new LinkedHashMap<>();
+        situacao.put("maximo", maximo);
+        situacao.put("emAndamento", maximo - vagas.availablePermits());
+        situacao.put("permitidas", permitidas.sum());
+        situacao.put("rejeitadas", rejeitadas.sum());
+        return situacao;
+    }
+}
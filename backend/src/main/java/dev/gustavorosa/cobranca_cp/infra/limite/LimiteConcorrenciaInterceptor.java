@@ -0,0 +1,49 @@
+package dev.gustavorosa.cobranca_cp.infra.limite;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Aplica um {@link LimiteConcorrencia} às rotas em que foi registrado, apenas para os métodos informados
+ * (ex: GET /clientes é a listagem completa, POST /clientes é um cadastro barato).
+ * A vaga é devolvida em afterCompletion, que o Spring só chama quando preHandle retornou true.
+ */
+public class LimiteConcorrenciaInterceptor implements HandlerInterceptor {
+
+    private static final long ESPERA_SEGUNDOS = 1;
+
+    private final LimiteConcorrencia limite;
+    private final Set<String> metodos;
+
+    public LimiteConcorrenciaInterceptor(LimiteConcorrencia limite, String... metodos) {
+        this.limite = limite;
+        this.metodos = Set.of(metodos);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!metodos.contains(request.getMethod())) return true;
+        if (limite.entrar()) {
+            request.setAttribute(atributo(), Boolean.TRUE);
+            return true;
+        }
+        LimiteTaxaInterceptor.recusar(response, ESPERA_SEGUNDOS, "Servidor ocupado com requisicoes semelhantes. Tente novamente em instantes.");
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(atributo()) != null) {
+            request.removeAttribute(atributo());
+            limite.sair();
+        }
+    }
+
+    private String atributo() {
+        return LimiteConcorrenciaInterceptor.class.getName() + "." + limite.getNome();
+    }
+}
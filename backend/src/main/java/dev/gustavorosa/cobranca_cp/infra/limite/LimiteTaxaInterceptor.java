@@ -0,0 +1,40 @@
+package dev.gustavorosa.cobranca_cp.infra.limite;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Aplica um {@link LimitadorTaxa} por IP de origem às rotas em que foi registrado.
+ * O IP vem de {@code request.getRemoteAddr()}, que atrás do nginx já é o do cliente
+ * (server.forward-headers-strategy=native, só confia em X-Forwarded-For vindo de proxy de rede interna).
+ */
+public class LimiteTaxaInterceptor implements HandlerInterceptor {
+
+    private final LimitadorTaxa limitador;
+
+    public LimiteTaxaInterceptor(LimitadorTaxa limitador) {
+        this.limitador = limitador;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        long esperaSegundos = limitador.consumir(request.getRemoteAddr());
+        if (esperaSegundos == 0) return true;
+        recusar(response, esperaSegundos, "Muitas requisicoes. Tente novamente em " + esperaSegundos + " segundos.");
+        return false;
+    }
+
+    static void recusar(HttpServletResponse response, long esperaSegundos, String mensagem) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(esperaSegundos));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(mensagem);
+    }
+}
@@ -0,0 +1,24 @@
+package dev.gustavorosa.cobranca_cp.infra.limite;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/limites: contadores de aceites e recusas de cada limitador. Só ADMIN (ver SecurityConfig).
+ */
+@Endpoint(id = "limites")
+public class LimitesEndpoint {
+
+    private final LimitesRequisicao limites;
+
+    public LimitesEndpoint(LimitesRequisicao limites) {
+        this.limites = limites;
+    }
+
+    @ReadOperation
+    public Map<String, Object> situacao() {
+        return limites.situacao();
+    }
+}
@@ -0,0 +1,79 @@
+package dev.gustavorosa.cobranca_cp.infra.limite;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registro dos limitadores de taxa e tetos de concorrência da aplicação.
+ * Centraliza a limpeza periódica das chaves ociosas e a fotografia dos contadores exposta em /actuator/limites.
+ */
+@Slf4j
+public class LimitesRequisicao {
+
+    public static final String LOGIN_IP = "login-ip";
+    public static final String LOGIN_EMAIL = "login-email";
+    public static final String REGISTRO_IP = "registro-ip";
+    public static final String RENOVACAO_IP = "renovacao-ip";
+    public static final String LISTAGENS = "listagens";
+    public static final String PROCESSAMENTO = "processamento";
+
+    private final boolean habilitado;
+    private final Map<String, LimitadorTaxa> taxas;
+    private final Map<String, LimiteConcorrencia> concorrencias;
+
+    public LimitesRequisicao(boolean habilitado, List<LimitadorTaxa> taxas, List<LimiteConcorrencia> concorrencias) {
+        this.habilitado = habilitado;
+        this.taxas = taxas.stream().collect(Collectors.toMap(LimitadorTaxa::getNome, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+        this.concorrencias = concorrencias.stream().collect(Collectors.toMap(LimiteConcorrencia::getNome, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Consome um token do limitador informado para a chave.
+     *
+     * @return 0 se aceito (ou se os limites estão desligados); senão, segundos para o Retry-After
+     */
+    public long consumir(String limitador, String chave) {
+        if (!habilitado || chave == null) return 0;
+        return taxa(limitador).consumir(chave);
+    }
+
+    public LimitadorTaxa taxa(String nome) {
+        LimitadorTaxa limitador = taxas.get(nome);
+        if (limitador == null) throw new IllegalArgumentException("Limitador de taxa desconhecido: " + nome);
+        return limitador;
+    }
+
+    public LimiteConcorrencia concorrencia(String nome) {
+        LimiteConcorrencia limite = concorrencias.get(nome);
+        if (limite == null) throw new IllegalArgumentException("Teto de concorrência desconhecido: " + nome);
+        return limite;
+    }
+
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void limpar() {
+        int removidas = taxas.values().stream().mapToInt(LimitadorTaxa::limpar).sum();
+        if (removidas > 0) log.debug("{} chaves ociosas removidas dos limitadores de taxa", removidas);
+    }
+
+    public Map<String, Object> situacao() {
+        Map<String, Object> situacao = new LinkedHashMap<>();
+        situacao.put("habilitado", habilitado);
+        Map<String, Object> porTaxa = new LinkedHashMap<>();
+        taxas.forEach((nome, limitador) -> porTaxa.put(nome, limitador.situacao()));
+        situacao.put("taxa", porTaxa);
+        Map<String, Object> porConcorrencia = new LinkedHashMap<>();
+        concorrencias.forEach((nome, limite) -> porConcorrencia.put(nome, limite.situacao()));
+        situacao.put("concorrencia", porConcorrencia);
+        return situacao;
+    }
+}
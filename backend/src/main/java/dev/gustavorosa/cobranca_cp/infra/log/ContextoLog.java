@@ -0,0 +1,84 @@
+package dev.gustavorosa.cobranca_cp.infra.log;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chaves de MDC que acompanham cada linha do log estruturado e utilitários para abri-las em jobs
+ * e levá-las para outras threads. Requisições HTTP recebem requestId (e usuario, depois da autenticação)
+ * no ContextoRequisicaoFilter; jobs recebem job e jobId, o que permite filtrar uma execução inteira.
+ */
+public final class ContextoLog {
+
+    public static final String REQUISICAO = "requestId";
+    public static final String USUARIO = "usuario";
+    public static final String JOB = "job";
+    public static final String EXECUCAO = "jobId";
+
+    private ContextoLog() {
+    }
+
+    /**
+     * Escopo de MDC que não lança exceção ao fechar, para uso em try-with-resources.
+     */
+    public interface Escopo extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static Escopo job(String nome) {
+        return job(nome, novoId());
+    }
+
+    /**
+     * @param execucaoId id da execução no histórico de jobs (ExecucaoJob), para ligar as linhas de log a ela
+     */
+    public static Escopo job(String nome, String execucaoId) {
+        MDC.put(JOB, nome);
+        MDC.put(EXECUCAO, execucaoId);
+        return () -> {
+            MDC.remove(JOB);
+            MDC.remove(EXECUCAO);
+        };
+    }
+
+    /**
+     * Tarefa que roda como job em outra thread, levando junto o contexto de quem a disparou (ex: o requestId).
+     */
+    public static Runnable emJob(String nome, Runnable tarefa) {
+        return propagar(() -> {
+            try (Escopo escopo = job(nome)) {
+                tarefa.run();
+            }
+        });
+    }
+
+    /**
+     * Executor que repassa o MDC da thread que submete para a thread que executa.
+     */
+    public static Executor propagando(Executor executor) {
+        return tarefa -> executor.execute(propagar(tarefa));
+    }
+
+    private static Runnable propagar(Runnable tarefa) {
+        Map<String, String> contexto = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> anterior = MDC.getCopyOfContextMap();
+            if (contexto != null) MDC.setContextMap(contexto);
+            else MDC.clear();
+            try {
+                tarefa.run();
+            } finally {
+                if (anterior != null) MDC.setContextMap(anterior);
+                else MDC.clear();
+            }
+        };
+    }
+
+    public static String novoId() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+}
@@ -0,0 +1,41 @@
+package dev.gustavorosa.cobranca_cp.infra.log;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Primeiro filtro da cadeia: coloca o requestId no MDC para todas as linhas de log da requisição e o devolve
+ * no cabeçalho X-Request-Id. Reaproveita o id enviado pelo nginx ($request_id) quando ele tem formato seguro.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ContextoRequisicaoFilter extends OncePerRequestFilter {
+
+    static final String CABECALHO = "X-Request-Id";
+    private static final Pattern ID_VALIDO = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String recebido = request.getHeader(CABECALHO);
+        String id = recebido != null && ID_VALIDO.matcher(recebido).matches() ? recebido : ContextoLog.novoId();
+        MDC.put(ContextoLog.REQUISICAO, id);
+        response.setHeader(CABECALHO, id);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(ContextoLog.REQUISICAO);
+            MDC.remove(ContextoLog.USUARIO);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package dev.gustavorosa.cobranca_cp.infra.replica;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Marca o usuário autenticado como tendo escrito sempre que ele faz POST, PUT, PATCH ou DELETE.
+ * A marca é feita antes do handler (leituras da própria requisição já vão ao primário) e renovada ao final,
+ * para a janela contar a partir do commit. A resposta da escrita leva a marca para o cliente (o cookie precisa
+ * sair antes do corpo, então a janela dele conta do início da requisição); leituras que a trazem de volta,
+ * em qualquer instância, vão ao primário.
+ */
+public class EscritaRecenteInterceptor implements HandlerInterceptor {
+
+    private final EscritasRecentes escritasRecentes;
+
+    public EscritaRecenteInterceptor(EscritasRecentes escritasRecentes) {
+        this.escritasRecentes = escritasRecentes;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (escrita(request)) {
+            escritasRecentes.registrar(EscritasRecentes.usuarioAtual());
+            escritasRecentes.marcar(request, response);
+        } else if (escritasRecentes.marcada(request)) {
+            request.setAttribute(EscritasRecentes.ATRIBUTO_PRIMARIO, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (escrita(request)) escritasRecentes.registrar(EscritasRecentes.usuarioAtual());
+    }
+
+    private static boolean escrita(HttpServletRequest request) {
+        return switch (request.getMethod()) {
+            case "POST", "PUT", "PATCH", "DELETE" -> true;
+            default -> false;
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package dev.gustavorosa.cobranca_cp.infra.replica;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lembra quais usuários escreveram há pouco tempo. Enquanto a janela não expira, as leituras desse usuário
+ * vão para o primário, garantindo que ele veja a própria alteração mesmo que a réplica ainda não a tenha
+ * aplicado (read-your-writes). A janela deve cobrir o atraso máximo tolerado nas réplicas.
+ * <p>
+ * O mapa por usuário só vale nesta instância. Para a leitura que cai em outra instância, a resposta da escrita
+ * leva a marca {@link #MARCA} (cookie e cabeçalho X-Escrita-Recente) com o instante dela; a requisição que
+ * volta com a marca dentro da janela também lê do primário, fura a coalescência e não usa o cache de saldos.
+ */
+public class EscritasRecentes {
+
+    public static final String MARCA = "escrita_recente";
+    public static final String CABECALHO_MARCA = "X-Escrita-Recente";
+    static final String ATRIBUTO_PRIMARIO = EscritasRecentes.class.getName() + ".primario";
+
+    private final long janelaNanos;
+    private final long janelaSegundos;
+    private final ConcurrentHashMap<String, Long> ultimaEscrita = new ConcurrentHashMap<>();
+
+    public EscritasRecentes(long janelaSegundos) {
+        this.janelaSegundos = janelaSegundos;
+        this.janelaNanos = janelaSegundos * 1_000_000_000L;
+    }
+
+    public void registrar(String usuario) {
+        if (usuario != null) ultimaEscrita.put(usuario, System.nanoTime());
+    }
+
+    public boolean recente(String usuario) {
+        if (usuario == null) return false;
+        Long instante = ultimaEscrita.get(usuario);
+        return instante != null && System.nanoTime() - instante < janelaNanos;
+    }
+
+    /**
+     * Põe a marca da escrita na resposta; o cookie expira com a janela.
+     */
+    public void marcar(HttpServletRequest request, HttpServletResponse response) {
+        String instante = Long.toString(System.currentTimeMillis());
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(MARCA, instante)
+                .path("/")
+                .maxAge(janelaSegundos)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .build()
+                .toString());
+        response.setHeader(CABECALHO_MARCA, instante);
+    }
+
+    /**
+     * Se a requisição traz a marca de uma escrita dentro da janela. O instante vem do cliente, então também é
+     * recusado se estiver longe demais no futuro (relógios das instâncias diferem pouco).
+     */
+    public boolean marcada(HttpServletRequest request) {
+        String valor = valorMarca(request);
+        if (valor == null) return false;
+        try {
+            long diferenca = System.currentTimeMillis() - Long.parseLong(valor);
+            return Math.abs(diferenca) < janelaSegundos * 1000;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Se a requisição traz alguma marca de escrita, sem conferir a janela (o cookie já expira com ela). Para quem
+     * não conhece a janela, como a CoalescenciaFilter.
+     */
+    public static boolean temMarca(HttpServletRequest request) {
+        return valorMarca(request) != null;
+    }
+
+    /**
+     * Se a requisição em andamento nesta thread deve ler a própria escrita (marca conferida pelo
+     * EscritaRecenteInterceptor).
+     */
+    public static boolean leituraPropriaEscrita() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        return atributos != null
+                && Boolean.TRUE.equals(atributos.getAttribute(ATRIBUTO_PRIMARIO, RequestAttributes.SCOPE_REQUEST));
+    }
+
+    public void limparExpiradas() {
+        long agora = System.nanoTime();
+        ultimaEscrita.values().removeIf(instante -> agora - instante >= janelaNanos);
+    }
+
+    public int tamanho() {
+        return ultimaEscrita.size();
+    }
+
+    static String usuarioAtual() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null || autenticacao instanceof AnonymousAuthenticationToken || !autenticacao.isAuthenticated()) {
+            return null;
+        }
+        return autenticacao.getName();
+    }
+
+    private static String valorMarca(HttpServletRequest request) {
+        String cabecalho = request.getHeader(CABECALHO_MARCA);
+        if (cabecalho != null && !cabecalho.isBlank()) return cabecalho.trim();
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+        for (Cookie cookie : cookies) {
+            if (MARCA.equals(cookie.getName())) return cookie.getValue();
+        }
+        return null;
+    }
+}
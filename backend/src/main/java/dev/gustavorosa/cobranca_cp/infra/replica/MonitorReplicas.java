@@ -0,0 +1,72 @@
+package dev.gustavorosa.cobranca_cp.infra.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Mede periodicamente o atraso de replicação de cada réplica e retira do roteamento as que passarem do limite
+ * ou não responderem. Toda réplica começa indisponível e só recebe leituras depois da primeira medição.
+ */
+@Slf4j
+public class MonitorReplicas {
+
+    /**
+     * Atraso em segundos numa réplica PostgreSQL. Quando tudo que foi recebido já foi aplicado o atraso é zero,
+     * mesmo que a última transação aplicada seja antiga (primário ocioso).
+     */
+    public static final String CONSULTA_ATRASO_POSTGRES = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+            END""";
+
+    private final RoteadorReplicas roteador;
+    private final EscritasRecentes escritasRecentes;
+    private final String consultaAtraso;
+    private final double atrasoMaximoSegundos;
+
+    public MonitorReplicas(RoteadorReplicas roteador, EscritasRecentes escritasRecentes,
+                           String consultaAtraso, double atrasoMaximoSegundos) {
+        this.roteador = roteador;
+        this.escritasRecentes = escritasRecentes;
+        this.consultaAtraso = consultaAtraso;
+        this.atrasoMaximoSegundos = atrasoMaximoSegundos;
+    }
+
+    @Scheduled(fixedDelayString = "${app.replicas.intervalo-verificacao-ms:2000}")
+    public void verificar() {
+        List<DataSource> replicas = roteador.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            double atraso = medirAtraso(i, replicas.get(i));
+            boolean disponivel = !Double.isNaN(atraso) && atraso <= atrasoMaximoSegundos;
+            if (roteador.atualizar(i, disponivel, atraso)) {
+                if (disponivel) {
+                    log.info("Réplica {} disponível para leituras (atraso {}s)", i, atraso);
+                } else {
+                    log.warn("Réplica {} retirada do roteamento (atraso {}s, máximo {}s); leituras vão para o primário",
+                            i, Double.isNaN(atraso) ? "desconhecido" : atraso, atrasoMaximoSegundos);
+                }
+            }
+        }
+        escritasRecentes.limparExpiradas();
+    }
+
+    private double medirAtraso(int indice, DataSource replica) {
+        try (Connection conexao = replica.getConnection();
+             Statement statement = conexao.createStatement()) {
+            statement.setQueryTimeout(2);
+            try (ResultSet resultado = statement.executeQuery(consultaAtraso)) {
+                return resultado.next() ? resultado.getDouble(1) : Double.NaN;
+            }
+        } catch (Exception e) {
+            log.debug("Falha ao medir atraso da réplica {}: {}", indice, e.getMessage());
+            return Double.NaN;
+        }
+    }
+}
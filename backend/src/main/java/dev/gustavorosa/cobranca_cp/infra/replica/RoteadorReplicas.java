@@ -0,0 +1,100 @@
+package dev.gustavorosa.cobranca_cp.infra.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataSource das conexões somente leitura. Reparte as conexões entre as réplicas disponíveis (round-robin) e
+ * cai para o primário quando nenhuma réplica está dentro do atraso tolerado ou quando o usuário da requisição
+ * escreveu há pouco, nesta instância ou em outra (ver EscritasRecentes). A disponibilidade de cada réplica é mantida pelo MonitorReplicas.
+ * <p>
+ * {@code disponiveis} (1 = disponível) é escrito pela thread do monitor e lido sem lock por toda requisição,
+ * por isso é um AtomicIntegerArray: a mudança fica visível na leitura seguinte.
+ */
+public class RoteadorReplicas extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARIO = "primario";
+
+    private final List<DataSource> replicas;
+    private final EscritasRecentes escritasRecentes;
+    private final AtomicIntegerArray disponiveis;
+    private final double[] atrasosSegundos;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final LongAdder leiturasReplica = new LongAdder();
+    private final LongAdder leiturasPrimario = new LongAdder();
+
+    public RoteadorReplicas(DataSource primario, List<DataSource> replicas, EscritasRecentes escritasRecentes) {
+        this.replicas = List.copyOf(replicas);
+        this.escritasRecentes = escritasRecentes;
+        this.disponiveis = new AtomicIntegerArray(replicas.size());
+        this.atrasosSegundos = new double[replicas.size()];
+        Arrays.fill(atrasosSegundos, Double.NaN);
+
+        Map<Object, Object> alvos = new HashMap<>();
+        alvos.put(PRIMARIO, primario);
+        for (int i = 0; i < replicas.size(); i++) {
+            alvos.put(i, replicas.get(i));
+        }
+        setTargetDataSources(alvos);
+        setDefaultTargetDataSource(primario);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (EscritasRecentes.leituraPropriaEscrita() || escritasRecentes.recente(EscritasRecentes.usuarioAtual())) {
+            leiturasPrimario.increment();
+            return PRIMARIO;
+        }
+        int inicio = Math.floorMod(proxima.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int indice = (inicio + i) % replicas.size();
+            if (disponiveis.get(indice) == 1) {
+                leiturasReplica.increment();
+                return indice;
+            }
+        }
+        leiturasPrimario.increment();
+        return PRIMARIO;
+    }
+
+    List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    synchronized boolean atualizar(int indice, boolean disponivel, double atrasoSegundos) {
+        boolean mudou = disponiveis.getAndSet(indice, disponivel ? 1 : 0) != (disponivel ? 1 : 0);
+        atrasosSegundos[indice] = atrasoSegundos;
+        return mudou;
+    }
+
+    public synchronized Map<String, Object> situacao() {
+        Map<String, Object> situacao = new HashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            situacao.put("replica-" + i, Map.of(
+                    "disponivel", disponiveis.get(i) == 1,
+                    "atrasoSegundos", Double.isNaN(atrasosSegundos[i]) ? "desconhecido" : atrasosSegundos[i]));
+        }
+        situacao.put("leiturasReplica", leiturasReplica.sum());
+        situacao.put("leiturasPrimario", leiturasPrimario.sum());
+        situacao.put("usuariosComEscritaRecente", escritasRecentes.tamanho());
+        return situacao;
+    }
+
+    @Override
+    public void close() {
+        for (DataSource replica : replicas) {
+            if (replica instanceof HikariDataSource hikari) hikari.close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package dev.gustavorosa.cobranca_cp.infra.vencimento;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Roda de temporização hierárquica: cada nível tem 64 posições e cada posição de um nível cobre uma volta
+ * inteira do nível de baixo. Um id agendado vai para o nível mais baixo que ainda compartilha a "volta" com o
+ * tick atual; quando o tick atual entra numa nova posição de um nível alto, os ids dela descem (cascata) até
+ * chegar ao nível 0, onde disparam. Agendar e disparar custam O(1) por id, sem ordenar nada.
+ * <p>
+ * A unidade do tick é de quem usa (a AgendaVencimentosService usa o epoch day). Cada id tem no máximo um
+ * agendamento: agendar de novo move o id e o registro antigo vira lixo, descartado na cascata ou no disparo.
+ * Não é thread-safe; quem usa confina a roda a uma thread.
+ */
+public final class RodaTemporizacao {
+
+    private static final int BITS_NIVEL = 6;
+    private static final int POSICOES = 1 << BITS_NIVEL;
+    private static final int MASCARA = POSICOES - 1;
+
+    private final Balde[][] niveis;
+    private final Balde atrasados = new Balde();
+    private final Map<Long, Long> tickPorId = new HashMap<>();
+    private long atual;
+
+    /**
+     * @param inicio primeiro tick ainda não disparado
+     * @param quantidadeNiveis alcance de 64^quantidadeNiveis ticks a partir do atual
+     */
+    public RodaTemporizacao(long inicio, int quantidadeNiveis) {
+        if (quantidadeNiveis < 1 || quantidadeNiveis * BITS_NIVEL > 60) {
+            throw new IllegalArgumentException("quantidade de níveis inválida: " + quantidadeNiveis);
+        }
+        this.atual = inicio;
+        this.niveis = new Balde[quantidadeNiveis][POSICOES];
+        for (Balde[] nivel : niveis) {
+            for (int i = 0; i < POSICOES; i++) nivel[i] = new Balde();
+        }
+    }
+
+    /**
+     * Próximo tick a disparar; todos os anteriores já dispararam.
+     */
+    public long atual() {
+        return atual;
+    }
+
+    /**
+     * Último tick que ainda cabe na roda.
+     */
+    public long alcance() {
+        return ((atual >>> (BITS_NIVEL * niveis.length)) + 1 << (BITS_NIVEL * niveis.length)) - 1;
+    }
+
+    public int tamanho() {
+        return tickPorId.size();
+    }
+
+    /**
+     * Agenda (ou reagenda) o id para o tick. Tick que já passou dispara no próximo {@link #avancar}.
+     */
+    public void agendar(long id, long tick) {
+        if (tick > alcance()) throw new IllegalArgumentException("tick " + tick + " além do alcance da roda (" + alcance() + ")");
+        Long anterior = tickPorId.put(id, tick);
+        if (anterior != null && anterior == tick) return;
+        inserir(id, tick);
+    }
+
+    public void cancelar(long id) {
+        tickPorId.remove(id);
+    }
+
+    /**
+     * Dispara, em ordem de tick, todos os ids agendados até {@code ate} (inclusive).
+     */
+    public void avancar(long ate, LongConsumer disparar) {
+        disparar(atrasados, disparar);
+        for (; atual <= ate; atual++) {
+            for (int nivel = niveis.length - 1; nivel >= 1; nivel--) {
+                if ((atual & ((1L << (BITS_NIVEL * nivel)) - 1)) != 0) continue;
+                Balde balde = niveis[nivel][posicao(atual, nivel)];
+                if (balde.tamanho == 0) continue;
+                Balde cascata = balde.esvaziar();
+                for (int i = 0; i < cascata.tamanho; i++) {
+                    if (vigente(cascata.ids[i], cascata.ticks[i])) inserir(cascata.ids[i], cascata.ticks[i]);
+                }
+            }
+            Balde balde = niveis[0][posicao(atual, 0)];
+            if (balde.tamanho > 0) disparar(balde, disparar);
+        }
+    }
+
+    private void disparar(Balde balde, LongConsumer disparar) {
+        Balde vencidos = balde.esvaziar();
+        for (int i = 0; i < vencidos.tamanho; i++) {
+            long id = vencidos.ids[i];
+            if (vigente(id, vencidos.ticks[i])) {
+                tickPorId.remove(id);
+                disparar.accept(id);
+            }
+        }
+    }
+
+    private boolean vigente(long id, long tick) {
+        Long agendado = tickPorId.get(id);
+        return agendado != null && agendado == tick;
+    }
+
+    private void inserir(long id, long tick) {
+        if (tick < atual) {
+            atrasados.adicionar(id, tick);
+            return;
+        }
+        int nivel = 0;
+        while ((tick >>> (BITS_NIVEL * (nivel + 1))) != (atual >>> (BITS_NIVEL * (nivel + 1)))) nivel++;
+        niveis[nivel][posicao(tick, nivel)].adicionar(id, tick);
+    }
+
+    private static int posicao(long tick, int nivel) {
+        return (int) ((tick >>> (BITS_NIVEL * nivel)) & MASCARA);
+    }
+
+    /**
+     * Ids e ticks de uma posição em dois arrays paralelos, sem objeto por entrada.
+     */
+    private static final class Balde {
+        private long[] ids = new long[0];
+        private long[] ticks = new long[0];
+        private int tamanho;
+
+        void adicionar(long id, long tick) {
+            if (tamanho == ids.length) {
+                int capacidade = Math.max(16, ids.length * 2);
+                ids = Arrays.copyOf(ids, capacidade);
+                ticks = Arrays.copyOf(ticks, capacidade);
+            }
+            ids[tamanho] = id;
+            ticks[tamanho] = tick;
+            tamanho++;
+        }
+
+        /**
+         * Devolve o conteúdo atual e deixa este balde vazio, para que a cascata possa inserir de volta nele.
+         */
+        Balde esvaziar() {
+            Balde conteudo = new Balde();
+            conteudo.ids = ids;
+            conteudo.ticks = ticks;
+            conteudo.tamanho = tamanho;
+            ids = new long[0];
+            ticks = new long[0];
+            tamanho = 0;
+            return conteudo;
+        }
+    }
+}
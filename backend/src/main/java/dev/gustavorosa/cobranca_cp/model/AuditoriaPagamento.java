@@ -0,0 +1,43 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada do jornal de auditoria: um campo de um pagamento que mudou, com valor anterior e novo.
+ * Append-only: as linhas nunca são atualizadas nem removidas pela aplicação.
+ * Usa sequence (em vez de identity) para que o Hibernate consiga agrupar os INSERTs em batch.
+ */
+@Entity
+@Immutable
+@Table(name = "AUDITORIA_PAGAMENTOS", indexes = {
+        @Index(name = "idx_auditoria_pagamento", columnList = "pagamentoId"),
+        @Index(name = "idx_auditoria_contrato", columnList = "contratoId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditoriaPagamento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auditoria_pagamentos_seq")
+    @SequenceGenerator(name = "auditoria_pagamentos_seq", sequenceName = "auditoria_pagamentos_seq", allocationSize = 100)
+    private Long id;
+
+    private Long pagamentoId;
+    private Long contratoId;
+    private String campo;
+    private String valorAnterior;
+    private String valorNovo;
+    private String usuario;
+    @Enumerated(EnumType.STRING)
+    private OrigemAlteracao origem;
+    private LocalDateTime dataHora;
+}
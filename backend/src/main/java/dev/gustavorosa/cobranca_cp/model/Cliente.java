@@ -7,8 +7,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -37,6 +41,15 @@ public class Cliente {
     private Double taxaMulta;        // Ex: 0.02 = 2%
     private Double taxaJurosMensal;  // Ex: 0.01 = 1% ao mês
 
+    private LocalDateTime excluidoEm;
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long versao;
+
+    // fora do toString/equals/hashCode do @Data: percorreriam a coleção lazy (e, dela, contratos → pagamentos)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Contrato> contratos = new ArrayList<>();
@@ -53,6 +66,7 @@ public class Cliente {
         .taxaMulta(clienteDTO.taxaMulta())
         .taxaJurosMensal(clienteDTO.taxaJurosMensal())
         .contratos(clienteDTO.contratos())
+        .versao(clienteDTO.versao())
         .build();
     }
 }
@@ -0,0 +1,48 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Crédito de extrato que não pôde ser baixado automaticamente e aguarda revisão de um operador.
+ */
+@Entity
+@Table(name = "CONCILIACOES_PENDENTES",
+        indexes = @Index(name = "idx_conciliacoes_arquivo_linha", columnList = "hashArquivo, linhaArquivo", unique = true))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConciliacaoPendente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String arquivo;
+    @Column(length = 64)
+    private String hashArquivo;      // SHA-256 do extrato (ver ExtratoImportado)
+    private Long linhaArquivo;
+    private LocalDate dataLancamento;
+    private Double valor;
+    private String documento;
+    private String descricao;
+    @Enumerated(EnumType.STRING)
+    private MotivoPendencia motivo;
+    private String candidatos;       // ids das parcelas compatíveis, separados por vírgula
+    @Builder.Default
+    private Boolean resolvida = false;
+    private Long pagamentoId;        // parcela escolhida na revisão
+    private LocalDateTime dataCriacao;
+
+    @PrePersist
+    protected void onCreate() {
+        dataCriacao = LocalDateTime.now();
+    }
+}
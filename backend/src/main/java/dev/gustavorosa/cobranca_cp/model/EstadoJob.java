@@ -0,0 +1,29 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pausa de um job. Só existe linha para jobs que já foram pausados alguma vez.
+ */
+@Entity
+@Table(name = "JOBS")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EstadoJob {
+
+    @Id
+    private String nome;
+    private boolean pausado;
+    private String alteradoPor;
+    private LocalDateTime alteradoEm;
+}
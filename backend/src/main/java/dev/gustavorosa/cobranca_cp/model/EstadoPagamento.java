@@ -0,0 +1,19 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import java.time.LocalDate;
+
+/**
+ * Fotografia dos campos auditados de um pagamento, tirada antes de uma alteração.
+ */
+public record EstadoPagamento(
+        Double valor,
+        LocalDate dataPagamento,
+        LocalDate dataVencimento,
+        SituacaoPagamento status
+) {
+
+    public static EstadoPagamento de(Pagamento pagamento) {
+        return new EstadoPagamento(pagamento.getValor(), pagamento.getDataPagamento(),
+                pagamento.getDataVencimento(), pagamento.getStatus());
+    }
+}
@@ -0,0 +1,45 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Acompanhamento de uma exclusão de cliente ou contrato. O campo excluidoEm de Cliente e Contrato é nulo enquanto
+ * o registro está ativo; a exclusão o preenche logo no início, e daí em diante o registro some das consultas e da
+ * busca. As parcelas são removidas em lotes e o registro só sai do banco no final, levando a marca junto.
+ */
+@Entity
+@Table(name = "EXCLUSOES", indexes = @Index(name = "idx_exclusoes_status", columnList = "status"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Exclusao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private TipoExclusao tipo;
+    private Long alvoId;
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private StatusExclusao status = StatusExclusao.PENDENTE;
+    @Builder.Default
+    private Long parcelasExcluidas = 0L;
+    @Builder.Default
+    private Long contratosExcluidos = 0L;
+    private Long parcelasEstimadas;
+    private String usuario;
+    @Column(length = 1000)
+    private String erro;
+    private LocalDateTime criadaEm;
+    private LocalDateTime iniciadaEm;
+    private LocalDateTime concluidaEm;
+}
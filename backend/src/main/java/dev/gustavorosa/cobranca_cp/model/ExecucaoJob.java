@@ -0,0 +1,49 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Uma execução de um job em segundo plano (ver JobService): quando rodou, para qual data, quantos registros
+ * processou e como terminou. É o histórico que alimenta GET /jobs/{nome}/tendencia.
+ */
+@Entity
+@Table(name = "EXECUCOES_JOB", indexes = {
+        @Index(name = "idx_execucoes_job_inicio", columnList = "job, iniciadaEm"),
+        @Index(name = "idx_execucoes_job_data", columnList = "job, dataReferencia, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExecucaoJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String job;
+    private LocalDate dataReferencia;
+    @Enumerated(EnumType.STRING)
+    private OrigemExecucaoJob origem;
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private StatusExecucaoJob status = StatusExecucaoJob.EXECUTANDO;
+    private String usuario;
+    @Builder.Default
+    private Long registros = 0L;
+    @Builder.Default
+    private Integer tentativas = 1; // > 1 quando o job repetiu por conflito de versão (ver JobService)
+    private Double registrosPorSegundo;
+    private Long duracaoMs;
+    @Column(length = 1000)
+    private String erro;
+    private LocalDateTime iniciadaEm;
+    private LocalDateTime concluidaEm;
+}
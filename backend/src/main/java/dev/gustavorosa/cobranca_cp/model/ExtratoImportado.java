@@ -0,0 +1,40 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import dev.gustavorosa.cobranca_cp.infra.conciliacao.FormatoExtrato;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Extrato já conciliado ou em conciliação, identificado pelo SHA-256 do conteúdo.
+ * O hash único impede que o mesmo arquivo seja importado duas vezes, inclusive por duas instâncias ao mesmo tempo.
+ */
+@Entity
+@Table(name = "EXTRATOS_IMPORTADOS")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExtratoImportado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String hash;
+    private String arquivo;
+    @Enumerated(EnumType.STRING)
+    private FormatoExtrato formato;
+    private LocalDateTime dataInicio;
+    private LocalDateTime dataConclusao;   // null enquanto a conciliação está em andamento
+
+    @PrePersist
+    protected void onCreate() {
+        dataInicio = LocalDateTime.now();
+    }
+}
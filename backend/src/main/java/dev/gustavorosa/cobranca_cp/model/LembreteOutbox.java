@@ -0,0 +1,55 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lembrete de cobrança aguardando envio (padrão transactional outbox).
+ * É gravado na mesma transação que altera o pagamento e despachado depois, de forma assíncrona,
+ * pelo DespachanteLembretes. A chave garante que o mesmo lembrete não seja enfileirado duas vezes.
+ */
+@Entity
+@Table(name = "LEMBRETES_OUTBOX", indexes = @Index(name = "idx_lembretes_status_tentativa", columnList = "status, proximaTentativa"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LembreteOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String chave;            // ex: "ATRASO:42", "VENCIMENTO_PROXIMO:42:2025-03-10"
+    private Long pagamentoId;
+    @Enumerated(EnumType.STRING)
+    private TipoLembrete tipo;
+    private String destinatario;
+    @Column(length = 1000)
+    private String mensagem;
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private StatusLembrete status = StatusLembrete.PENDENTE;
+    @Builder.Default
+    private Integer tentativas = 0;
+    private LocalDateTime proximaTentativa;
+    private String reserva;          // despacho que reservou o lembrete (ver DespachanteLembretes)
+    @Column(length = 500)
+    private String ultimoErro;
+    private LocalDateTime dataCriacao;
+    private LocalDateTime dataEnvio;
+
+    @PrePersist
+    protected void onCreate() {
+        dataCriacao = LocalDateTime.now();
+        if (proximaTentativa == null) {
+            proximaTentativa = dataCriacao;
+        }
+    }
+}
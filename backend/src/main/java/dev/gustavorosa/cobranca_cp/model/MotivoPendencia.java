@@ -0,0 +1,6 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+public enum MotivoPendencia {
+    AMBIGUO,
+    SEM_CORRESPONDENCIA
+}
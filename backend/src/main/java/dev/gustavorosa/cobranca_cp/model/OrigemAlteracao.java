@@ -0,0 +1,9 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+public enum OrigemAlteracao {
+    API,
+    JOB_NOTURNO,
+    INICIALIZACAO,
+    CONCILIACAO,
+    VIRADA_DIA
+}
@@ -0,0 +1,7 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+public enum OrigemExecucaoJob {
+    AGENDADA,
+    INICIALIZACAO,
+    MANUAL
+}
@@ -2,17 +2,20 @@ package dev.gustavorosa.cobranca_cp.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.utils.DateConverter;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
-import java.util.Arrays;
 
 @Entity
-@Table(name = "PAGAMENTOS")
+@Table(name = "PAGAMENTOS", indexes = @Index(name = "idx_pagamentos_vencimento", columnList = "dataVencimento"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,6 +29,8 @@ public class Pagamento {
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "contrato_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Contrato contrato;
     private Double valor;
     private Double valorOriginal;
@@ -38,6 +43,10 @@ public class Pagamento {
     private SituacaoPagamento status;
     private String observacao;
     private Integer numeroParcela;
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long versao;
 
     public boolean foiPagoComAtraso(){
         if(this.dataPagamento == null){
@@ -54,18 +63,30 @@ public class Pagamento {
 
 
     public void atualizar(PagamentoDTO pagamento) {
-        if(pagamento.data_pagamento() != null){
-            this.dataPagamento = converteDate(pagamento.data_pagamento());
+        LocalDate novaDataPagamento = pagamento.data_pagamento() != null ? DateConverter.converteDate(pagamento.data_pagamento()) : null;
+        atualizar(novaDataPagamento, DateConverter.converteDate(pagamento.data_vencimento()), LocalDate.now());
+    }
+
+    /**
+     * Aplica novas datas de pagamento/vencimento e recalcula o status em relação a {@code hoje}.
+     * Uma data de pagamento nula mantém a data já registrada.
+     */
+    public void atualizar(LocalDate novaDataPagamento, LocalDate novaDataVencimento, LocalDate hoje) {
+        if(novaDataPagamento != null){
+            this.dataPagamento = novaDataPagamento;
         }
-        LocalDate novaDataVencimento = converteDate(pagamento.data_vencimento());
-        if(this.dataVencimento != novaDataVencimento){
+        if(!novaDataVencimento.equals(this.dataVencimento)){
             this.dataVencimento = novaDataVencimento;
         }
-        verificarStatus();
+        verificarStatus(hoje);
     }
 
     public void verificarStatus() {
-        if(this.dataPagamento == null && this.dataVencimento.isBefore(LocalDate.now())){
+        verificarStatus(LocalDate.now());
+    }
+
+    public void verificarStatus(LocalDate hoje) {
+        if(this.dataPagamento == null && this.dataVencimento.isBefore(hoje)){
             this.status = SituacaoPagamento.ATRASADO;
         } else if(this.dataPagamento != null){
             if(this.dataPagamento.isBefore(this.dataVencimento) || this.dataPagamento.isEqual(this.dataVencimento)) this.status = SituacaoPagamento.PAGO;
@@ -74,13 +95,4 @@ public class Pagamento {
             this.status = SituacaoPagamento.EM_ABERTO;
         }
     }
-
-    private LocalDate converteDate(String s) {
-        String[] pedacos = s.split("-");
-        System.out.println(Arrays.toString(pedacos));
-        int ano = Integer.parseInt(pedacos[0]);
-        int mes = Integer.parseInt(pedacos[1]);
-        int dia = Integer.parseInt(pedacos[2]);
-        return LocalDate.of(ano, mes, dia);
-    }
 }
@@ -0,0 +1,31 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Reserva de um job entre instâncias (ver JobService): quem está rodando o job, até quando a reserva vale se
+ * não for renovada e, nos jobs de uma vez por data, a última data concluída.
+ */
+@Entity
+@Table(name = "RESERVAS_JOB")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservaJob {
+
+    @Id
+    private String job;
+    private String reserva;               // execução que detém o job; null quando livre
+    private LocalDateTime expiraEm;
+    private LocalDate ultimaDataConcluida;
+}
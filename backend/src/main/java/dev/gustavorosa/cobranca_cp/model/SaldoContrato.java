@@ -0,0 +1,57 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumo do que um contrato ainda deve, mantido pelo SaldoService a cada alteração de parcela, para que telas e
+ * relatórios não precisem somar as parcelas. Fica numa tabela própria, e não em colunas de CONTRATOS, para que a
+ * baixa de uma parcela não concorra com a edição do contrato.
+ * <p>
+ * O id é o do contrato (atribuído, não gerado); isNew evita o SELECT que o merge faria antes de cada INSERT.
+ */
+@Entity
+@Table(name = "SALDOS_CONTRATO", indexes = @Index(name = "idx_saldos_contrato_cliente", columnList = "clienteId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaldoContrato implements Persistable<Long> {
+
+    @Id
+    private Long contratoId;
+    private Long clienteId;
+    private Double principalEmAberto; // valor original das parcelas não pagas
+    private Double encargos;          // multa e juros já aplicados às parcelas não pagas
+    private Double valorAtrasado;     // valor atualizado das parcelas atrasadas
+    private Double totalDevido;       // principalEmAberto + encargos
+    private Integer parcelasEmAberto;
+    private Integer parcelasAtrasadas;
+    private LocalDateTime atualizadoEm;
+
+    @Transient
+    @Builder.Default
+    private boolean novo = true;
+
+    @Override
+    public Long getId() {
+        return contratoId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        novo = false;
+    }
+}
@@ -0,0 +1,8 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+public enum StatusExclusao {
+    PENDENTE,
+    EXECUTANDO,
+    CONCLUIDA,
+    FALHA
+}
@@ -0,0 +1,8 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+public enum StatusExecucaoJob {
+    EXECUTANDO,
+    CONCLUIDA,
+    FALHA,
+    INTERROMPIDA
+}
@@ -0,0 +1,8 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+public enum StatusLembrete {
+    PENDENTE,
+    EM_ENVIO, // reservado por um despacho até proximaTentativa; depois disso volta a ser elegível
+    ENVIADO,
+    FALHA
+}
@@ -0,0 +1,45 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token emitido, identificado pelo jti do JWT. Cada renovação consome o token (usadoEm) e emite outro
+ * da mesma família; apresentar de novo um token já consumido indica vazamento e revoga a família inteira.
+ * Guarda também o jti do access token emitido junto, para que ele seja revogado com a família.
+ */
+@Entity
+@Table(name = "TOKENS_RENOVACAO", indexes = {
+        @Index(name = "idx_tokens_renovacao_jti", columnList = "jti", unique = true),
+        @Index(name = "idx_tokens_renovacao_familia", columnList = "familia"),
+        @Index(name = "idx_tokens_renovacao_usuario", columnList = "usuarioId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRenovacao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 36)
+    private String jti;
+    @Column(nullable = false, length = 36)
+    private String familia;
+    @Column(nullable = false)
+    private Long usuarioId;
+    @Column(length = 36)
+    private String jtiAcesso;
+    private LocalDateTime acessoExpiraEm;
+    private LocalDateTime emitidoEm;
+    private LocalDateTime expiraEm;
+    private LocalDateTime usadoEm;
+    private LocalDateTime revogadoEm;
+}
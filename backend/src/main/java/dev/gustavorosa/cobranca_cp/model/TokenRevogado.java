@@ -0,0 +1,35 @@
+package dev.gustavorosa.cobranca_cp.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada da lista de revogação de access tokens. A chave é o jti de um token (logout, família de refresh
+ * comprometida) ou "usuario:{id}", que invalida todos os tokens do usuário emitidos até revogadoEm (desativação).
+ * A entrada só precisa existir até o último token que ela cobre expirar.
+ */
+@Entity
+@Table(name = "TOKENS_REVOGADOS", indexes = {
+        @Index(name = "idx_tokens_revogados_chave", columnList = "chave"),
+        @Index(name = "idx_tokens_revogados_revogado_em", columnList = "revogadoEm")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevogado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 60)
+    private String chave;
+    private LocalDateTime revogadoEm;
+    private LocalDateTime expiraEm;
+}
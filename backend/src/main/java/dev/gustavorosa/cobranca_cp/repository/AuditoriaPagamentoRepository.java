@@ -0,0 +1,15 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.AuditoriaPagamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditoriaPagamentoRepository extends JpaRepository<AuditoriaPagamento, Long> {
+
+    List<AuditoriaPagamento> findByPagamentoIdOrderByDataHoraAscIdAsc(Long pagamentoId);
+
+    List<AuditoriaPagamento> findByContratoIdOrderByDataHoraAscIdAsc(Long contratoId);
+}
@@ -1,9 +1,62 @@
 package dev.gustavorosa.cobranca_cp.repository;
 
+import dev.gustavorosa.cobranca_cp.dto.LinhaExtratoDTO;
+import dev.gustavorosa.cobranca_cp.infra.busca.DocumentoBusca;
 import dev.gustavorosa.cobranca_cp.model.Cliente;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
+
+    List<Cliente> findByExcluidoEmIsNull();
+
+    Optional<Cliente> findByIdAndExcluidoEmIsNull(Long id);
+
+    boolean existsByIdAndExcluidoEmIsNull(Long id);
+
+    @Modifying
+    @Query("update versioned Cliente c set c.excluidoEm = :agora where c.id = :id and c.excluidoEm is null")
+    int marcarExclusao(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("delete from Cliente c where c.id = :id")
+    int excluirDefinitivamente(@Param("id") Long id);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.infra.busca.DocumentoBusca(
+                dev.gustavorosa.cobranca_cp.infra.busca.TipoDocumentoBusca.CLIENTE, c.id, c.id, c.nome, c.registro)
+            from Cliente c where c.id > :ultimoId and c.excluidoEm is null order by c.id
+            """)
+    List<DocumentoBusca> findDocumentosBuscaAposId(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.infra.busca.DocumentoBusca(
+                dev.gustavorosa.cobranca_cp.infra.busca.TipoDocumentoBusca.CLIENTE, c.id, c.id, c.nome, c.registro)
+            from Cliente c where c.id in :ids and c.excluidoEm is null
+            """)
+    List<DocumentoBusca> findDocumentosBusca(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Extrato inteiro em uma única consulta: uma linha por parcela, já ordenada por contrato e parcela.
+     */
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.LinhaExtratoDTO(
+                cl.id, cl.nome, cl.registro, c.id, c.nomeContratante, c.cpfContratante, c.duracaoEmMeses, c.valorContrato,
+                p.id, p.numeroParcela, p.valor, p.valorOriginal, p.valorAtualizado, p.dataVencimento, p.dataPagamento,
+                p.status, p.observacao, p.versao)
+            from Cliente cl left join cl.contratos c left join c.pagamentos p
+            where cl.id = :clienteId and cl.excluidoEm is null
+            order by c.id, p.numeroParcela, p.id
+            """)
+    List<LinhaExtratoDTO> findLinhasExtrato(@Param("clienteId") Long clienteId);
 }
@@ -0,0 +1,18 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.ConciliacaoPendente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface ConciliacaoPendenteRepository extends JpaRepository<ConciliacaoPendente, Long> {
+
+    List<ConciliacaoPendente> findByResolvidaFalseOrderByDataLancamento();
+
+    @Query("select c.linhaArquivo from ConciliacaoPendente c where c.hashArquivo = :hashArquivo")
+    Set<Long> findLinhasByHashArquivo(String hashArquivo);
+}
@@ -1,9 +1,85 @@
 package dev.gustavorosa.cobranca_cp.repository;
 
+import dev.gustavorosa.cobranca_cp.dto.LinhaExtratoDTO;
+import dev.gustavorosa.cobranca_cp.dto.LinhaSaldoDTO;
+import dev.gustavorosa.cobranca_cp.infra.busca.DocumentoBusca;
 import dev.gustavorosa.cobranca_cp.model.Contrato;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ContratoRepository extends JpaRepository<Contrato, Long> {
+
+    List<Contrato> findByExcluidoEmIsNull();
+
+    Optional<Contrato> findByIdAndExcluidoEmIsNull(Long id);
+
+    boolean existsByIdAndExcluidoEmIsNull(Long id);
+
+    @Modifying
+    @Query("update versioned Contrato c set c.excluidoEm = :agora where c.id = :id and c.excluidoEm is null")
+    int marcarExclusao(@Param("id") Long id, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("update versioned Contrato c set c.excluidoEm = :agora where c.cliente.id = :clienteId and c.excluidoEm is null")
+    int marcarExclusaoPorCliente(@Param("clienteId") Long clienteId, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("delete from Contrato c where c.id = :id")
+    int excluirDefinitivamente(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Contrato c where c.cliente.id = :clienteId")
+    int excluirDefinitivamentePorCliente(@Param("clienteId") Long clienteId);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.infra.busca.DocumentoBusca(
+                dev.gustavorosa.cobranca_cp.infra.busca.TipoDocumentoBusca.CONTRATO, c.id, c.cliente.id, c.nomeContratante, c.cpfContratante)
+            from Contrato c where c.id > :ultimoId and c.excluidoEm is null order by c.id
+            """)
+    List<DocumentoBusca> findDocumentosBuscaAposId(@Param("ultimoId") Long ultimoId, Pageable pageable);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.infra.busca.DocumentoBusca(
+                dev.gustavorosa.cobranca_cp.infra.busca.TipoDocumentoBusca.CONTRATO, c.id, c.cliente.id, c.nomeContratante, c.cpfContratante)
+            from Contrato c where c.id in :ids and c.excluidoEm is null
+            """)
+    List<DocumentoBusca> findDocumentosBusca(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Extrato inteiro em uma única consulta: uma linha por parcela, já ordenada por contrato e parcela.
+     */
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.LinhaExtratoDTO(
+                cl.id, cl.nome, cl.registro, c.id, c.nomeContratante, c.cpfContratante, c.duracaoEmMeses, c.valorContrato,
+                p.id, p.numeroParcela, p.valor, p.valorOriginal, p.valorAtualizado, p.dataVencimento, p.dataPagamento,
+                p.status, p.observacao, p.versao)
+            from Contrato c join c.cliente cl left join c.pagamentos p
+            where c.id = :contratoId and c.excluidoEm is null
+            order by c.id, p.numeroParcela, p.id
+            """)
+    List<LinhaExtratoDTO> findLinhasExtrato(@Param("contratoId") Long contratoId);
+
+    /**
+     * Parcelas não pagas dos contratos ativos, base do SaldoService. Contrato sem parcela em aberto vem numa linha só.
+     */
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.LinhaSaldoDTO(c.id, c.cliente.id, p.valor, p.valorOriginal, p.status)
+            from Contrato c left join c.pagamentos p on p.dataPagamento is null
+            where c.id in :contratoIds and c.excluidoEm is null
+            """)
+    List<LinhaSaldoDTO> findLinhasSaldo(@Param("contratoIds") Collection<Long> contratoIds);
+
+    @Query("select c.id from Contrato c where c.excluidoEm is null and c.id > :ultimoId "
+            + "and not exists (select 1 from SaldoContrato s where s.contratoId = c.id) order by c.id")
+    List<Long> findIdsSemSaldo(@Param("ultimoId") Long ultimoId, Pageable pageable);
 }
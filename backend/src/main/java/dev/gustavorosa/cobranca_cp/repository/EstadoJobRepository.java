@@ -0,0 +1,9 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.EstadoJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EstadoJobRepository extends JpaRepository<EstadoJob, String> {
+}
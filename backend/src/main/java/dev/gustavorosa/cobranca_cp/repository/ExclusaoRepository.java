@@ -0,0 +1,17 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.Exclusao;
+import dev.gustavorosa.cobranca_cp.model.StatusExclusao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExclusaoRepository extends JpaRepository<Exclusao, Long> {
+
+    List<Exclusao> findByStatusInOrderById(Collection<StatusExclusao> status);
+
+    List<Exclusao> findTop50ByOrderByIdDesc();
+}
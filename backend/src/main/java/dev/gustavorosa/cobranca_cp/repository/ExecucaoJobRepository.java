@@ -0,0 +1,44 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.ExecucaoJob;
+import dev.gustavorosa.cobranca_cp.model.StatusExecucaoJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExecucaoJobRepository extends JpaRepository<ExecucaoJob, Long> {
+
+    boolean existsByJobAndDataReferenciaAndStatus(String job, LocalDate dataReferencia, StatusExecucaoJob status);
+
+    List<ExecucaoJob> findByJobOrderByIdDesc(String job, Pageable pageable);
+
+    Optional<ExecucaoJob> findFirstByJobOrderByIdDesc(String job);
+
+    Optional<ExecucaoJob> findByIdAndJob(Long id, String job);
+
+    List<ExecucaoJob> findByJobAndStatusAndIniciadaEmGreaterThanEqualOrderByIniciadaEm(String job, StatusExecucaoJob status,
+                                                                                      LocalDateTime desde);
+
+    @Transactional
+    @Modifying
+    @Query("update ExecucaoJob e set e.status = :interrompida, e.concluidaEm = :agora, e.erro = 'Aplicação reiniciada durante a execução' "
+            + "where e.status = :executando and not exists "
+            + "(select r from ReservaJob r where r.job = e.job and r.reserva is not null and r.expiraEm >= :agora)")
+    int marcarInterrompidas(@Param("executando") StatusExecucaoJob executando, @Param("interrompida") StatusExecucaoJob interrompida,
+                            @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ExecucaoJob e where e.iniciadaEm < :limite")
+    int excluirAnteriores(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,13 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.ExtratoImportado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ExtratoImportadoRepository extends JpaRepository<ExtratoImportado, Long> {
+
+    Optional<ExtratoImportado> findByHash(String hash);
+}
@@ -0,0 +1,73 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.LembreteOutbox;
+import dev.gustavorosa.cobranca_cp.model.StatusLembrete;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LembreteOutboxRepository extends JpaRepository<LembreteOutbox, Long> {
+
+    /**
+     * Pendentes prontos para envio e reservas vencidas (despacho que caiu no meio do envio).
+     */
+    @Query("""
+            select l.id from LembreteOutbox l
+            where l.status in (dev.gustavorosa.cobranca_cp.model.StatusLembrete.PENDENTE, dev.gustavorosa.cobranca_cp.model.StatusLembrete.EM_ENVIO)
+              and l.proximaTentativa <= :agora
+            order by l.id
+            """)
+    List<Long> findIdsDisponiveis(@Param("agora") LocalDateTime agora, Pageable pageable);
+
+    /**
+     * Reserva, para o despacho {@code reserva} até {@code expira}, os lembretes de {@code ids} que continuam disponíveis.
+     * A condição é reavaliada depois do lock da linha: o que outro despacho reservou antes fica de fora.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update LembreteOutbox l set l.status = dev.gustavorosa.cobranca_cp.model.StatusLembrete.EM_ENVIO,
+                l.reserva = :reserva, l.proximaTentativa = :expira
+            where l.id in :ids
+              and l.status in (dev.gustavorosa.cobranca_cp.model.StatusLembrete.PENDENTE, dev.gustavorosa.cobranca_cp.model.StatusLembrete.EM_ENVIO)
+              and l.proximaTentativa <= :agora
+            """)
+    int reservar(@Param("ids") Collection<Long> ids, @Param("reserva") String reserva,
+                 @Param("agora") LocalDateTime agora, @Param("expira") LocalDateTime expira);
+
+    List<LembreteOutbox> findByReservaAndStatusOrderById(String reserva, StatusLembrete status);
+
+    @Query("select l.chave from LembreteOutbox l where l.chave in :chaves")
+    List<String> findChavesExistentes(@Param("chaves") Collection<String> chaves);
+
+    @Transactional
+    @Modifying
+    @Query("update LembreteOutbox l set l.status = dev.gustavorosa.cobranca_cp.model.StatusLembrete.ENVIADO, l.dataEnvio = :agora, l.tentativas = l.tentativas + 1 where l.id in :ids")
+    int marcarEnviados(@Param("ids") Collection<Long> ids, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update LembreteOutbox l set l.status = :status, l.tentativas = l.tentativas + 1,
+                l.proximaTentativa = :proximaTentativa, l.ultimoErro = :erro
+            where l.id = :id
+            """)
+    int registrarFalha(@Param("id") Long id, @Param("status") StatusLembrete status,
+                       @Param("proximaTentativa") LocalDateTime proximaTentativa, @Param("erro") String erro);
+
+    /**
+     * Descarta lembretes ainda não enviados de parcelas que estão sendo excluídas; os enviados ficam como histórico.
+     */
+    @Modifying
+    @Query("delete from LembreteOutbox l where l.pagamentoId in :pagamentoIds and l.status <> dev.gustavorosa.cobranca_cp.model.StatusLembrete.ENVIADO")
+    int excluirNaoEnviados(@Param("pagamentoIds") Collection<Long> pagamentoIds);
+}
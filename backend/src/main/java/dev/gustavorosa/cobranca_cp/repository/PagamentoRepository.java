@@ -1,16 +1,135 @@
 package dev.gustavorosa.cobranca_cp.repository;
 
+import dev.gustavorosa.cobranca_cp.dto.LinhaCarteiraDTO;
+import dev.gustavorosa.cobranca_cp.dto.ParcelaAbertaDTO;
+import dev.gustavorosa.cobranca_cp.dto.ParcelaProjecaoDTO;
+import dev.gustavorosa.cobranca_cp.dto.VencimentoParcelaDTO;
 import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PagamentoRepository extends JpaRepository<Pagamento, Long> {
 
+    // os jobs leem as taxas em pagamento.getContrato().getCliente(); sem o grafo seriam duas consultas por parcela
+    @EntityGraph(attributePaths = {"contrato", "contrato.cliente"})
     List<Pagamento> findByDataVencimentoBeforeAndDataPagamentoIsNull(LocalDate data);
 
+    @EntityGraph(attributePaths = {"contrato", "contrato.cliente"})
+    List<Pagamento> findByIdInAndDataVencimentoBeforeAndDataPagamentoIsNull(Collection<Long> ids, LocalDate data);
+
     List<Pagamento> findByContratoClienteId(Long clienteId);
+
+    @Query("select p from Pagamento p join p.contrato c where c.excluidoEm is null")
+    List<Pagamento> findAtivos();
+
+    long countByContratoClienteId(Long clienteId);
+
+    long countByContratoId(Long contratoId);
+
+    List<Pagamento> findByContratoIdOrderByNumeroParcela(Long contratoId);
+
+    @Query("select p.id from Pagamento p where p.contrato.cliente.id = :clienteId order by p.id")
+    List<Long> findIdsPorCliente(Long clienteId, Pageable pageable);
+
+    @Query("select p.id from Pagamento p where p.contrato.id = :contratoId order by p.id")
+    List<Long> findIdsPorContrato(Long contratoId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Pagamento p where p.id in :ids")
+    int excluirDefinitivamente(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"contrato", "contrato.cliente"})
+    List<Pagamento> findByDataVencimentoBetweenAndDataPagamentoIsNull(LocalDate inicio, LocalDate fim);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.ParcelaAbertaDTO(
+                p.id, p.valor, p.dataVencimento, c.cpfContratante, cl.registro)
+            from Pagamento p join p.contrato c join c.cliente cl
+            where p.dataPagamento is null
+            """)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<ParcelaAbertaDTO> streamParcelasAbertas();
+
+    /**
+     * Parcelas não pagas dos contratos e clientes ativos, na ordem (cliente, contrato, parcela) que a
+     * CarteiraColunar exige para a sua base.
+     */
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.LinhaCarteiraDTO(
+                p.id, c.id, cl.id, p.dataVencimento, p.valor, p.status)
+            from Pagamento p join p.contrato c join c.cliente cl
+            where p.dataPagamento is null and c.excluidoEm is null and cl.excluidoEm is null
+            order by cl.id, c.id, p.id
+            """)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<LinhaCarteiraDTO> streamLinhasCarteira();
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.LinhaCarteiraDTO(
+                p.id, c.id, cl.id, p.dataVencimento, p.valor, p.status)
+            from Pagamento p join p.contrato c join c.cliente cl
+            where c.id in :contratoIds and p.dataPagamento is null and c.excluidoEm is null and cl.excluidoEm is null
+            """)
+    List<LinhaCarteiraDTO> findLinhasCarteira(Collection<Long> contratoIds);
+
+    /**
+     * Parcelas não pagas que vencem em [inicio, fim), pelo índice de vencimento.
+     */
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.VencimentoParcelaDTO(p.id, p.dataVencimento)
+            from Pagamento p
+            where p.dataVencimento >= :inicio and p.dataVencimento < :fim and p.dataPagamento is null
+            """)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<VencimentoParcelaDTO> streamVencimentosAbertos(LocalDate inicio, LocalDate fim);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.VencimentoParcelaDTO(p.id, p.dataVencimento)
+            from Pagamento p
+            where p.contrato.id in :contratoIds and p.dataVencimento >= :inicio and p.dataVencimento < :fim
+                and p.dataPagamento is null
+            """)
+    List<VencimentoParcelaDTO> findVencimentosAbertosPorContratos(Collection<Long> contratoIds, LocalDate inicio, LocalDate fim);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.ParcelaProjecaoDTO(
+                p.id, c.id, p.numeroParcela, p.dataVencimento, coalesce(p.valorOriginal, p.valor), cl.taxaMulta, cl.taxaJurosMensal)
+            from Pagamento p join p.contrato c join c.cliente cl
+            where cl.id = :clienteId and p.dataPagamento is null
+            order by p.dataVencimento, p.id
+            """)
+    List<ParcelaProjecaoDTO> findParcelasProjecaoPorCliente(Long clienteId, Pageable pageable);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.ParcelaProjecaoDTO(
+                p.id, c.id, p.numeroParcela, p.dataVencimento, coalesce(p.valorOriginal, p.valor), cl.taxaMulta, cl.taxaJurosMensal)
+            from Pagamento p join p.contrato c join c.cliente cl
+            where c.id = :contratoId and p.dataPagamento is null
+            order by p.dataVencimento, p.id
+            """)
+    List<ParcelaProjecaoDTO> findParcelasProjecaoPorContrato(Long contratoId, Pageable pageable);
+
+    @Query("""
+            select new dev.gustavorosa.cobranca_cp.dto.ParcelaProjecaoDTO(
+                p.id, c.id, p.numeroParcela, p.dataVencimento, coalesce(p.valorOriginal, p.valor), cl.taxaMulta, cl.taxaJurosMensal)
+            from Pagamento p join p.contrato c join c.cliente cl
+            where p.id in :ids and p.dataPagamento is null
+            order by p.dataVencimento, p.id
+            """)
+    List<ParcelaProjecaoDTO> findParcelasProjecaoPorIds(Collection<Long> ids);
 }
@@ -0,0 +1,55 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.ReservaJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ReservaJobRepository extends JpaRepository<ReservaJob, String> {
+
+    /**
+     * Toma o job se estiver livre ou com a reserva vencida. O update condicional é atômico: de duas instâncias,
+     * só uma recebe 1.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ReservaJob r set r.reserva = :reserva, r.expiraEm = :expira "
+            + "where r.job = :job and (r.reserva is null or r.expiraEm < :agora)")
+    int reservar(@Param("job") String job, @Param("reserva") String reserva,
+                 @Param("agora") LocalDateTime agora, @Param("expira") LocalDateTime expira);
+
+    /**
+     * Como {@link #reservar}, mas só se {@code data} ainda não foi concluída.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ReservaJob r set r.reserva = :reserva, r.expiraEm = :expira "
+            + "where r.job = :job and (r.reserva is null or r.expiraEm < :agora) "
+            + "and (r.ultimaDataConcluida is null or r.ultimaDataConcluida < :data)")
+    int reservarParaData(@Param("job") String job, @Param("reserva") String reserva, @Param("data") LocalDate data,
+                         @Param("agora") LocalDateTime agora, @Param("expira") LocalDateTime expira);
+
+    @Transactional
+    @Modifying
+    @Query("update ReservaJob r set r.expiraEm = :expira where r.reserva in :reservas")
+    int renovar(@Param("reservas") Collection<String> reservas, @Param("expira") LocalDateTime expira);
+
+    @Transactional
+    @Modifying
+    @Query("update ReservaJob r set r.reserva = null, r.expiraEm = null where r.job = :job and r.reserva = :reserva")
+    int liberar(@Param("job") String job, @Param("reserva") String reserva);
+
+    @Transactional
+    @Modifying
+    @Query("update ReservaJob r set r.reserva = null, r.expiraEm = null, r.ultimaDataConcluida = :data "
+            + "where r.job = :job and r.reserva = :reserva")
+    int liberarConcluindo(@Param("job") String job, @Param("reserva") String reserva, @Param("data") LocalDate data);
+}
@@ -0,0 +1,25 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.SaldoContrato;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SaldoContratoRepository extends JpaRepository<SaldoContrato, Long> {
+
+    List<SaldoContrato> findByClienteId(Long clienteId);
+
+    @Modifying
+    @Query("delete from SaldoContrato s where s.contratoId in :contratoIds")
+    int excluirPorContratos(@Param("contratoIds") Collection<Long> contratoIds);
+
+    @Modifying
+    @Query("delete from SaldoContrato s where s.clienteId = :clienteId")
+    int excluirPorCliente(@Param("clienteId") Long clienteId);
+}
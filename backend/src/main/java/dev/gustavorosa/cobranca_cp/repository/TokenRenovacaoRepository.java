@@ -0,0 +1,49 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.TokenRenovacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TokenRenovacaoRepository extends JpaRepository<TokenRenovacao, Long> {
+
+    Optional<TokenRenovacao> findByJti(String jti);
+
+    List<TokenRenovacao> findByFamilia(String familia);
+
+    List<TokenRenovacao> findByUsuarioIdAndRevogadoEmIsNull(Long usuarioId);
+
+    /**
+     * Consome o token de forma atômica: entre duas renovações simultâneas com o mesmo token, só uma recebe 1.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update TokenRenovacao t set t.usadoEm = :agora
+            where t.jti = :jti and t.usadoEm is null and t.revogadoEm is null and t.expiraEm > :agora
+            """)
+    int consumir(@Param("jti") String jti, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("update TokenRenovacao t set t.revogadoEm = :agora where t.familia = :familia and t.revogadoEm is null")
+    int revogarFamilia(@Param("familia") String familia, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("update TokenRenovacao t set t.revogadoEm = :agora where t.usuarioId = :usuarioId and t.revogadoEm is null")
+    int revogarPorUsuario(@Param("usuarioId") Long usuarioId, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRenovacao t where t.expiraEm < :agora")
+    int excluirExpirados(@Param("agora") LocalDateTime agora);
+}
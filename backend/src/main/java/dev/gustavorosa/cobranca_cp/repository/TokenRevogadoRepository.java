@@ -0,0 +1,30 @@
+package dev.gustavorosa.cobranca_cp.repository;
+
+import dev.gustavorosa.cobranca_cp.model.TokenRevogado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevogadoRepository extends JpaRepository<TokenRevogado, Long> {
+
+    @Query("select max(t.revogadoEm) from TokenRevogado t where t.chave = :chave and t.expiraEm > :agora")
+    LocalDateTime findUltimaRevogacao(@Param("chave") String chave, @Param("agora") LocalDateTime agora);
+
+    @Query("select t.chave from TokenRevogado t where t.expiraEm > :agora")
+    List<String> findChavesVigentes(@Param("agora") LocalDateTime agora);
+
+    @Query("select t.chave from TokenRevogado t where t.revogadoEm >= :desde and t.expiraEm > :agora")
+    List<String> findChavesRevogadasDesde(@Param("desde") LocalDateTime desde, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("delete from TokenRevogado t where t.expiraEm < :agora")
+    int excluirExpirados(@Param("agora") LocalDateTime agora);
+}
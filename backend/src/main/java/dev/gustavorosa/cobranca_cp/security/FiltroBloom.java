@@ -0,0 +1,70 @@
+package dev.gustavorosa.cobranca_cp.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de chaves textuais: responde "com certeza não está" ou "talvez esteja".
+ * Inserções e consultas são concorrentes e sem lock (cada palavra de 64 bits é atualizada por CAS).
+ * Não suporta remoção; quem o usa reconstrói um filtro novo quando as entradas expiram.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long totalBits;
+    private final int funcoes;
+
+    /**
+     * @param capacidade       número de entradas esperado
+     * @param taxaFalsoPositivo taxa de falso positivo desejada com a capacidade atingida (ex: 0.01)
+     */
+    public FiltroBloom(int capacidade, double taxaFalsoPositivo) {
+        long m = (long) Math.ceil(-capacidade * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        this.totalBits = Math.max(64, (m + 63) / 64 * 64);
+        this.funcoes = Math.max(1, (int) Math.round((double) totalBits / capacidade * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (totalBits / 64));
+    }
+
+    public void adicionar(String chave) {
+        long hash = hash(chave);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoes; i++) {
+            long indice = Integer.toUnsignedLong(h1 + i * h2) % totalBits;
+            long mascara = 1L << indice;
+            int palavra = (int) (indice >>> 6);
+            long atual = bits.get(palavra);
+            while ((atual & mascara) == 0 && !bits.compareAndSet(palavra, atual, atual | mascara)) {
+                atual = bits.get(palavra);
+            }
+        }
+    }
+
+    public boolean talvezContenha(String chave) {
+        long hash = hash(chave);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funcoes; i++) {
+            long indice = Integer.toUnsignedLong(h1 + i * h2) % totalBits;
+            if ((bits.get((int) (indice >>> 6)) & (1L << indice)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a de 64 bits seguido da finalização do MurmurHash3, para espalhar bem chaves parecidas (UUIDs).
+     */
+    private static long hash(String chave) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : chave.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,11 +1,15 @@
 package dev.gustavorosa.cobranca_cp.security;
 
+import dev.gustavorosa.cobranca_cp.infra.jfr.EventoValidacaoJwt;
+import dev.gustavorosa.cobranca_cp.infra.log.ContextoLog;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,38 +28,64 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final RevogacaoTokens revogacaoTokens;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        EventoValidacaoJwt evento = new EventoValidacaoJwt();
+        evento.begin();
         try {
             String jwt = getJwtFromRequest(request);
             String requestPath = request.getRequestURI();
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.lerToken(jwt) : null;
+            evento.resultado = jwt == null ? null : claims == null ? EventoValidacaoJwt.INVALIDO : EventoValidacaoJwt.VALIDO;
             
             // Log apenas para rotas protegidas (não para /auth ou /actuator)
             if (!requestPath.startsWith("/auth") && !requestPath.startsWith("/actuator")) {
                 if (jwt == null) {
                     log.warn("Request sem token JWT: {} {}", request.getMethod(), requestPath);
-                } else if (!tokenProvider.validateToken(jwt)) {
+                } else if (claims == null) {
                     log.warn("Token JWT inválido para: {} {}", request.getMethod(), requestPath);
                 }
             }
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
+            if (claims != null && JwtTokenProvider.isRefreshToken(claims)) {
+                log.warn("Refresh token usado como access token: {} {}", request.getMethod(), requestPath);
+                evento.resultado = EventoValidacaoJwt.RENOVACAO;
+                claims = null;
+            } else if (claims != null && revogacaoTokens.revogado(claims)) {
+                log.warn("Token JWT revogado para: {} {}", request.getMethod(), requestPath);
+                evento.resultado = EventoValidacaoJwt.REVOGADO;
+                claims = null;
+            }
+            
+            if (claims != null) {
+                String email = claims.getSubject();
                 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Usuário autenticado: {} para {}", email, requestPath);
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication = 
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    MDC.put(ContextoLog.USUARIO, email);
+                    log.debug("Usuário autenticado: {} para {}", email, requestPath);
+                } else {
+                    evento.resultado = EventoValidacaoJwt.DESATIVADO;
+                }
             }
         } catch (Exception ex) {
+            evento.resultado = EventoValidacaoJwt.ERRO;
             log.error("Could not set user authentication in security context", ex);
         }
+        // requisições sem token não geram evento
+        evento.end();
+        if (evento.resultado != null && evento.shouldCommit()) {
+            evento.commit();
+        }
         
         filterChain.doFilter(request, response);
     }
@@ -68,4 +98,3 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 }
-
@@ -11,11 +11,15 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
 
 @Slf4j
 @Component
 public class JwtTokenProvider {
     
+    public static final String TIPO_ACESSO = "access";
+    public static final String TIPO_RENOVACAO = "refresh";
+    
     @Value("${app.jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
     private String jwtSecret;
     
@@ -30,29 +34,47 @@ public class JwtTokenProvider {
         return Keys.hmacShaKeyFor(keyBytes);
     }
     
+    public long getExpiration() {
+        return jwtExpiration;
+    }
+    
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+    
     public String generateToken(Usuario usuario) {
+        return generateToken(usuario, UUID.randomUUID().toString());
+    }
+    
+    public String generateToken(Usuario usuario, String jti) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
         
         return Jwts.builder()
+                .id(jti)
                 .subject(usuario.getEmail())
                 .claim("userId", usuario.getId())
                 .claim("role", usuario.getRole().name())
                 .claim("nome", usuario.getNome())
+                .claim("type", TIPO_ACESSO)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
                 .compact();
     }
     
-    public String generateRefreshToken(Usuario usuario) {
+    /**
+     * O jti identifica o refresh token em TOKENS_RENOVACAO; sem o registro correspondente o token é recusado.
+     */
+    public String generateRefreshToken(Usuario usuario, String jti) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshExpiration);
         
         return Jwts.builder()
+                .id(jti)
                 .subject(usuario.getEmail())
                 .claim("userId", usuario.getId())
-                .claim("type", "refresh")
+                .claim("type", TIPO_RENOVACAO)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
@@ -80,12 +102,20 @@ public class JwtTokenProvider {
     }
     
     public boolean validateToken(String token) {
+        return lerToken(token) != null;
+    }
+    
+    /**
+     * Valida assinatura e expiração e devolve as claims, ou null se o token for inválido.
+     * Permite validar e ler o token com um único parse.
+     */
+    public Claims lerToken(String token) {
         try {
-            Jwts.parser()
+            return Jwts.parser()
                     .verifyWith(getSigningKey())
                     .build()
-                    .parseSignedClaims(token);
-            return true;
+                    .parseSignedClaims(token)
+                    .getPayload();
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -94,10 +124,17 @@ public class JwtTokenProvider {
             log.error("Expired JWT token");
         } catch (UnsupportedJwtException ex) {
             log.error("Unsupported JWT token");
+        } catch (JwtException ex) {
+            // assinatura inválida (io.jsonwebtoken.security.SignatureException) e demais falhas do jjwt
+            log.error("Invalid JWT token: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return null;
+    }
+    
+    public static boolean isRefreshToken(Claims claims) {
+        return TIPO_RENOVACAO.equals(claims.get("type", String.class));
     }
 }
 
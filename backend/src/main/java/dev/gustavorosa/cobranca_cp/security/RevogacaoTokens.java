@@ -0,0 +1,170 @@
+package dev.gustavorosa.cobranca_cp.security;
+
+import dev.gustavorosa.cobranca_cp.infra.jfr.CacheObservavel;
+import dev.gustavorosa.cobranca_cp.infra.jfr.EventoCache;
+import dev.gustavorosa.cobranca_cp.model.TokenRevogado;
+import dev.gustavorosa.cobranca_cp.repository.TokenRevogadoRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lista de revogação de access tokens consultada a cada requisição autenticada.
+ * A tabela TOKENS_REVOGADOS é a fonte da verdade; na frente dela fica um filtro de Bloom com todas as chaves
+ * vigentes, que descarta sem ir ao banco a quase totalidade dos tokens (os não revogados), e um LRU com o
+ * resultado das consultas dos raros positivos (revogados de fato ou falsos positivos do filtro).
+ * <p>
+ * Revogações feitas em outra instância chegam pela sincronização periódica, que relê as entradas recentes;
+ * a cada hora o filtro é reconstruído só com as entradas não expiradas.
+ */
+@Slf4j
+@Component
+public class RevogacaoTokens implements CacheObservavel {
+
+    static final String PREFIXO_USUARIO = "usuario:";
+    private static final long NAO_REVOGADO = Long.MIN_VALUE;
+    private static final double TAXA_FALSO_POSITIVO = 0.01;
+    // sobreposição entre sincronizações, para não perder revogações gravadas enquanto a anterior rodava
+    private static final long MARGEM_SINCRONIZACAO_SEGUNDOS = 60;
+
+    private final TokenRevogadoRepository tokenRevogadoRepository;
+    private final int capacidadeFiltro;
+    private final long expiracaoAcessoMs;
+    private final Map<String, Long> cache;
+    private volatile FiltroBloom filtro;
+    private volatile LocalDateTime ultimaSincronizacao = LocalDateTime.now();
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+
+    public RevogacaoTokens(TokenRevogadoRepository tokenRevogadoRepository,
+                           @Value("${app.revogacao.capacidade-filtro:100000}") int capacidadeFiltro,
+                           @Value("${app.revogacao.tamanho-cache:10000}") int tamanhoCache,
+                           @Value("${app.jwt.expiration:3600000}") long expiracaoAcessoMs) {
+        this.tokenRevogadoRepository = tokenRevogadoRepository;
+        this.capacidadeFiltro = capacidadeFiltro;
+        this.expiracaoAcessoMs = expiracaoAcessoMs;
+        this.filtro = new FiltroBloom(capacidadeFiltro, TAXA_FALSO_POSITIVO);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> maisAntiga) {
+                return size() > tamanhoCache;
+            }
+        });
+    }
+
+    /**
+     * Indica se o token foi revogado pelo próprio jti ou por uma revogação do usuário posterior à emissão.
+     * O iat do JWT tem precisão de segundos, então a comparação é em segundos: um token emitido no mesmo segundo
+     * da revogação (reativar e logar de novo logo em seguida) vale. Um emitido pouco antes, no mesmo segundo, também
+     * passa aqui, mas a revogação do usuário vem com a desativação, que o filtro JWT recusa por isEnabled.
+     */
+    public boolean revogado(Claims claims) {
+        String jti = claims.getId();
+        if (jti != null && ultimaRevogacao(jti) != NAO_REVOGADO) return true;
+
+        Long usuarioId = claims.get("userId", Long.class);
+        if (usuarioId == null || claims.getIssuedAt() == null) return false;
+        long revogacaoUsuario = ultimaRevogacao(PREFIXO_USUARIO + usuarioId);
+        return revogacaoUsuario != NAO_REVOGADO
+                && Math.floorDiv(claims.getIssuedAt().getTime(), 1000) < Math.floorDiv(revogacaoUsuario, 1000);
+    }
+
+    private long ultimaRevogacao(String chave) {
+        consultas.increment();
+        if (!filtro.talvezContenha(chave)) return NAO_REVOGADO;
+        EventoCache evento = new EventoCache();
+        evento.begin();
+        Long conhecida = cache.get(chave);
+        if (conhecida != null) {
+            acertos.increment();
+            registrar(evento, EventoCache.ACERTO);
+            return conhecida;
+        }
+        faltas.increment();
+        LocalDateTime revogadoEm = tokenRevogadoRepository.findUltimaRevogacao(chave, LocalDateTime.now());
+        long valor = revogadoEm == null ? NAO_REVOGADO : epochMilli(revogadoEm);
+        cache.put(chave, valor);
+        registrar(evento, EventoCache.FALTA);
+        return valor;
+    }
+
+    private static void registrar(EventoCache evento, String resultado) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.cache = "revogacao";
+            evento.resultado = resultado;
+            evento.commit();
+        }
+    }
+
+    /**
+     * consultas conta todas as verificações; as que o filtro de Bloom descartou são consultas - acertos - faltas.
+     */
+    @Override
+    public Estatistica estatisticaCache() {
+        return new Estatistica("revogacao", cache.size(), consultas.sum(), acertos.sum(), faltas.sum());
+    }
+
+    public void revogarToken(String jti, LocalDateTime expiraEm) {
+        registrar(jti, expiraEm);
+    }
+
+    /**
+     * Invalida todos os access tokens do usuário emitidos até agora. Basta durar o tempo de vida de um access token.
+     */
+    public void revogarUsuario(Long usuarioId) {
+        registrar(PREFIXO_USUARIO + usuarioId, LocalDateTime.now().plusNanos(expiracaoAcessoMs * 1_000_000));
+    }
+
+    private void registrar(String chave, LocalDateTime expiraEm) {
+        LocalDateTime agora = LocalDateTime.now();
+        tokenRevogadoRepository.save(TokenRevogado.builder().chave(chave).revogadoEm(agora).expiraEm(expiraEm).build());
+        filtro.adicionar(chave);
+        cache.merge(chave, epochMilli(agora), Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${app.revogacao.intervalo-sincronizacao-ms:5000}",
+            initialDelayString = "${app.revogacao.intervalo-sincronizacao-ms:5000}")
+    public void sincronizar() {
+        LocalDateTime agora = LocalDateTime.now();
+        List<String> chaves = tokenRevogadoRepository.findChavesRevogadasDesde(
+                ultimaSincronizacao.minusSeconds(MARGEM_SINCRONIZACAO_SEGUNDOS), agora);
+        FiltroBloom atual = filtro;
+        for (String chave : chaves) {
+            atual.adicionar(chave);
+            // o LRU pode guardar "não revogado" de antes desta revogação
+            cache.remove(chave);
+        }
+        ultimaSincronizacao = agora;
+    }
+
+    @PostConstruct
+    @Scheduled(cron = "0 15 * * * *")
+    public void reconstruir() {
+        LocalDateTime agora = LocalDateTime.now();
+        int expiradas = tokenRevogadoRepository.excluirExpirados(agora);
+        List<String> vigentes = tokenRevogadoRepository.findChavesVigentes(agora);
+        FiltroBloom novo = new FiltroBloom(Math.max(capacidadeFiltro, vigentes.size() * 2), TAXA_FALSO_POSITIVO);
+        vigentes.forEach(novo::adicionar);
+        filtro = novo;
+        cache.clear();
+        sincronizar();
+        log.info("Filtro de revogação reconstruído com {} entradas ({} expiradas removidas)", vigentes.size(), expiradas);
+    }
+
+    private static long epochMilli(LocalDateTime dataHora) {
+        return dataHora.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
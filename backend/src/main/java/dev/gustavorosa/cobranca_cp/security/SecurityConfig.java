@@ -40,6 +40,10 @@ public class SecurityConfig {
                         .requestMatchers("/actuator/health/**").permitAll()
                         .requestMatchers("/actuator/info/**").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // demais endpoints do actuator (jfr, limites, consultas, carteira, coalescencia) expõem
+                        // detalhes internos da JVM, das rotas e da carteira; como /auth/register é público,
+                        // autenticação sozinha não basta
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         
                         // Rotas protegidas
                         .anyRequest().authenticated()
@@ -0,0 +1,279 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.dto.VencimentoParcelaDTO;
+import dev.gustavorosa.cobranca_cp.infra.barramento.OuvinteAlteracoesRemotas;
+import dev.gustavorosa.cobranca_cp.infra.barramento.TipoAlteracao;
+import dev.gustavorosa.cobranca_cp.infra.carteira.OuvinteAlteracaoContratos;
+import dev.gustavorosa.cobranca_cp.infra.job.Job;
+import dev.gustavorosa.cobranca_cp.infra.log.ContextoLog;
+import dev.gustavorosa.cobranca_cp.infra.vencimento.RodaTemporizacao;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Vira as parcelas para ATRASADO (com a multa e o primeiro dia de juros) logo na virada do dia, em vez de
+ * esperar o job das 01:00, e espalha esse trabalho em lotes pequenos.
+ * <p>
+ * Os vencimentos em aberto dos próximos {@code app.vencimentos.janela-dias} dias ficam numa RodaTemporizacao
+ * com tick de um dia: a parcela que vence no dia D dispara no dia D+1. A janela é lida pelo índice de
+ * vencimento na subida e completada a cada virada; parcelas criadas ou remarcadas depois chegam pelo aviso de
+ * contratos alterados (OuvinteAlteracaoContratos, ou BarramentoAlteracoes quando a alteração foi em outra
+ * instância). A virada roda como o job "virada-vencimentos", conferido a cada minuto; só uma instância a
+ * executa por dia, e as demais descartam da roda local o que ela já virou. O job noturno
+ * (AtualizacaoPagamentoScheduler) continua como rede de segurança: vira o que a agenda perdeu (parcela paga e
+ * estornada, lote que falhou, instância fora do ar à meia-noite) e calcula o juro do dia.
+ */
+@Slf4j
+@Service
+public class AgendaVencimentosService implements Job, OuvinteAlteracaoContratos, OuvinteAlteracoesRemotas {
+
+    public static final String NOME = "virada-vencimentos";
+
+    private static final int NIVEIS = 3;
+    private static final int TAMANHO_CONSULTA_CONTRATOS = 1000;
+    // acima disto (ex: o job noturno, que toca todos os contratos em atraso) relê a janela inteira pelo índice
+    private static final int LIMITE_REAGENDAMENTO_CONTRATOS = 2000;
+
+    private final PagamentoRepository pagamentoRepository;
+    private final AtualizacaoPagamentoService atualizacaoPagamentoService;
+    private final JobService jobService;
+    private final TransactionTemplate transacao;
+    private final ExecutorService executor;
+    private RodaTemporizacao roda;
+    private LocalDate carregadoAte;
+
+    @Value("${app.vencimentos.janela-dias:45}")
+    private int janelaDias;
+
+    @Value("${app.vencimentos.tamanho-lote:200}")
+    private int tamanhoLote;
+
+    public AgendaVencimentosService(PagamentoRepository pagamentoRepository, AtualizacaoPagamentoService atualizacaoPagamentoService,
+                                    JobService jobService, PlatformTransactionManager transactionManager) {
+        this.pagamentoRepository = pagamentoRepository;
+        this.atualizacaoPagamentoService = atualizacaoPagamentoService;
+        this.jobService = jobService;
+        // leitura no primário: a parcela recém-criada que gerou o aviso pode ainda não estar na réplica
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "vencimentos");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        executor.execute(ContextoLog.emJob(NOME, this::carregarJanela));
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String nome() {
+        return NOME;
+    }
+
+    @Override
+    public String descricao() {
+        return "Vira para atraso, com multa, as parcelas que venceram ontem, logo após a meia-noite";
+    }
+
+    @Override
+    public boolean umaVezPorData() {
+        return true;
+    }
+
+    @Override
+    public boolean registraExecucoesVazias() {
+        return false;
+    }
+
+    /**
+     * Conferência barata (sem banco) de que o dia virou desde o último disparo da roda. Se a virada do dia já foi
+     * concluída por outra instância, a roda local avança sem disparar; sem isso a conferência continuaria
+     * indo ao banco a cada minuto até a virada seguinte.
+     */
+    @Scheduled(fixedDelayString = "${app.vencimentos.intervalo-verificacao-ms:60000}")
+    public void verificarVirada() {
+        LocalDate hoje = LocalDate.now();
+        if (!diaVirou(hoje)) return;
+        if (jobService.executarAgendado(this, OrigemExecucaoJob.AGENDADA).isEmpty() && jobService.concluido(NOME, hoje)) {
+            descartarAte(hoje);
+        }
+    }
+
+    /**
+     * Completa a janela, dispara a roda até {@code dataReferencia} e vira as parcelas disparadas em lotes, cada
+     * um na sua transação. Um lote que falha fica para o job noturno: os ids já saíram da roda.
+     *
+     * @return parcelas que viraram
+     */
+    @Override
+    public long executar(LocalDate dataReferencia, OrigemExecucaoJob origem) {
+        if (roda() == null) return 0;
+        completarJanela(dataReferencia.plusDays(janelaDias));
+        List<Long> vencidas = new ArrayList<>();
+        synchronized (this) {
+            roda.avancar(dataReferencia.toEpochDay(), vencidas::add);
+        }
+
+        long viradas = 0;
+        int falhas = 0;
+        for (int inicio = 0; inicio < vencidas.size(); inicio += tamanhoLote) {
+            List<Long> lote = vencidas.subList(inicio, Math.min(inicio + tamanhoLote, vencidas.size()));
+            try {
+                viradas += virarLote(lote, dataReferencia);
+            } catch (RuntimeException e) {
+                falhas += lote.size();
+                log.error("Falha ao virar lote de {} parcelas vencidas; ficam para o job noturno", lote.size(), e);
+            }
+        }
+        log.info("Virada de {}: {} parcelas disparadas pela agenda, {} viraram para atraso, {} em lotes com falha; {} ainda agendadas",
+                dataReferencia, vencidas.size(), viradas, falhas, tamanhoRoda());
+        return viradas;
+    }
+
+    /**
+     * Conflito de versão com uma requisição (ex: baixa da mesma parcela) repete o lote uma vez, relendo as parcelas.
+     */
+    private int virarLote(List<Long> lote, LocalDate hoje) {
+        try {
+            return atualizacaoPagamentoService.virarVencidas(lote, hoje, OrigemAlteracao.VIRADA_DIA);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Conflito de versão ao virar lote de {} parcelas; repetindo", lote.size());
+            return atualizacaoPagamentoService.virarVencidas(lote, hoje, OrigemAlteracao.VIRADA_DIA);
+        }
+    }
+
+    @Override
+    public void contratosAlterados(Set<Long> contratoIds) {
+        if (contratoIds.isEmpty()) return;
+        Set<Long> ids = Set.copyOf(contratoIds);
+        executor.execute(ContextoLog.emJob(NOME, () -> reagendar(ids)));
+    }
+
+    @Override
+    public void alteradosEmOutraInstancia(TipoAlteracao tipo, Set<Long> ids) {
+        if (tipo == TipoAlteracao.CONTRATO) contratosAlterados(ids);
+    }
+
+    @Override
+    public void ressincronizar() {
+        executor.execute(ContextoLog.emJob(NOME, this::carregarJanela));
+    }
+
+    /**
+     * Relê os vencimentos em aberto desses contratos dentro da janela. A roda guarda um agendamento por parcela,
+     * então reagendar o que não mudou não duplica nada; parcela paga continua agendada e é ignorada ao disparar.
+     */
+    private void reagendar(Set<Long> contratoIds) {
+        if (roda() == null) return;
+        if (contratoIds.size() > LIMITE_REAGENDAMENTO_CONTRATOS) {
+            carregarJanela();
+            return;
+        }
+        try {
+            LocalDate inicio = LocalDate.now();
+            LocalDate fim = carregadoAte();
+            List<Long> ids = new ArrayList<>(contratoIds);
+            List<VencimentoParcelaDTO> vencimentos = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i += TAMANHO_CONSULTA_CONTRATOS) {
+                List<Long> lote = ids.subList(i, Math.min(i + TAMANHO_CONSULTA_CONTRATOS, ids.size()));
+                vencimentos.addAll(transacao.execute(status -> pagamentoRepository.findVencimentosAbertosPorContratos(lote, inicio, fim)));
+            }
+            synchronized (this) {
+                vencimentos.forEach(this::agendar);
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao reagendar vencimentos de {} contratos; o job noturno cobre o que faltar", contratoIds.size(), e);
+        }
+    }
+
+    /**
+     * Monta a roda a partir de hoje: o que venceu até ontem é do job noturno (que também roda na subida).
+     */
+    private void carregarJanela() {
+        LocalDate hoje = LocalDate.now();
+        LocalDate fim = hoje.plusDays(janelaDias);
+        long inicio = System.currentTimeMillis();
+        try {
+            RodaTemporizacao nova = new RodaTemporizacao(hoje.toEpochDay() + 1, NIVEIS);
+            transacao.executeWithoutResult(status -> {
+                try (Stream<VencimentoParcelaDTO> vencimentos = pagamentoRepository.streamVencimentosAbertos(hoje, fim)) {
+                    vencimentos.forEach(vencimento -> nova.agendar(vencimento.pagamentoId(), vencimento.dataVencimento().toEpochDay() + 1));
+                }
+            });
+            synchronized (this) {
+                roda = nova;
+                carregadoAte = fim;
+            }
+            log.info("Agenda de vencimentos carregada até {}: {} parcelas em {} ms", fim, nova.tamanho(), System.currentTimeMillis() - inicio);
+        } catch (RuntimeException e) {
+            log.error("Falha ao carregar a agenda de vencimentos; as viradas ficam com o job noturno", e);
+        }
+    }
+
+    private void completarJanela(LocalDate fim) {
+        LocalDate inicio = carregadoAte();
+        if (!fim.isAfter(inicio)) return;
+        List<VencimentoParcelaDTO> novos = new ArrayList<>();
+        transacao.executeWithoutResult(status -> {
+            try (Stream<VencimentoParcelaDTO> vencimentos = pagamentoRepository.streamVencimentosAbertos(inicio, fim)) {
+                vencimentos.forEach(novos::add);
+            }
+        });
+        synchronized (this) {
+            novos.forEach(this::agendar);
+            carregadoAte = fim;
+        }
+    }
+
+    private void agendar(VencimentoParcelaDTO vencimento) {
+        roda.agendar(vencimento.pagamentoId(), vencimento.dataVencimento().toEpochDay() + 1);
+    }
+
+    private synchronized RodaTemporizacao roda() {
+        return roda;
+    }
+
+    private synchronized LocalDate carregadoAte() {
+        return carregadoAte;
+    }
+
+    private synchronized boolean diaVirou(LocalDate hoje) {
+        return roda != null && hoje.toEpochDay() >= roda.atual();
+    }
+
+    private synchronized void descartarAte(LocalDate hoje) {
+        int[] descartadas = {0};
+        roda.avancar(hoje.toEpochDay(), id -> descartadas[0]++);
+        log.info("Virada de {} concluída por outra instância; {} parcelas descartadas da agenda local", hoje, descartadas[0]);
+    }
+
+    private synchronized int tamanhoRoda() {
+        return roda.tamanho();
+    }
+}
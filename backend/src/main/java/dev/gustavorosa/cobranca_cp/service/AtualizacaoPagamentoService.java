@@ -1,65 +1,199 @@
 package dev.gustavorosa.cobranca_cp.service;
 
-import dev.gustavorosa.cobranca_cp.infra.AtualizacaoSituacaoPagamento;
+import dev.gustavorosa.cobranca_cp.infra.consultas.ContagemConsultas;
+import dev.gustavorosa.cobranca_cp.infra.consultas.Medicao;
+import dev.gustavorosa.cobranca_cp.infra.jfr.EventoAtualizacaoPagamentos;
+import dev.gustavorosa.cobranca_cp.infra.jfr.EventoLoteEncargos;
 import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.EstadoPagamento;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
 import dev.gustavorosa.cobranca_cp.model.Pagamento;
 import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
-import dev.gustavorosa.cobranca_cp.repository.AtualizacaoRepository;
 import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import dev.gustavorosa.cobranca_cp.util.EncargosUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class AtualizacaoPagamentoService {
 
     private final PagamentoRepository pagamentoRepository;
-    private final AtualizacaoRepository atualizacaoRepository;
+    private final LembreteService lembreteService;
+    private final AuditoriaService auditoriaService;
+    private final SaldoService saldoService;
+
+    @Value("${app.atualizacao.tamanho-lote:500}")
+    private int tamanhoLote;
 
     @Autowired
-    public AtualizacaoPagamentoService(PagamentoRepository pagamentoRepository, AtualizacaoRepository atualizacaoRepository) {
+    public AtualizacaoPagamentoService(PagamentoRepository pagamentoRepository, LembreteService lembreteService,
+                                       AuditoriaService auditoriaService, SaldoService saldoService) {
         this.pagamentoRepository = pagamentoRepository;
-        this.atualizacaoRepository = atualizacaoRepository;
+        this.saldoService = saldoService;
+        this.lembreteService = lembreteService;
+        this.auditoriaService = auditoriaService;
     }
 
+    /**
+     * Aplica situação, multa e juros às parcelas vencidas até a data de referência e registra os lembretes.
+     * A virada para ATRASADO normalmente já aconteceu à meia-noite (AgendaVencimentosService); aqui ela só
+     * pega o que a agenda perdeu, e o trabalho principal passa a ser o juro do dia das parcelas em atraso.
+     * Quem evita repetir a execução no mesmo dia é o JobService (histórico de execuções); rodar de novo é
+     * seguro: a multa só entra uma vez, os juros são recalculados sobre o valor original e a auditoria e
+     * os lembretes ignoram o que não mudou.
+     *
+     * @return parcelas em atraso processadas
+     */
     @Transactional
-    public void atualizarSituacaoSeNecessario() {
-        LocalDate hoje = LocalDate.now();
+    public long atualizarSituacao(LocalDate hoje, OrigemAlteracao origem) {
+        log.info("Iniciando atualização de situação e valores dos pagamentos...");
+        long inicio = System.currentTimeMillis();
+        EventoAtualizacaoPagamentos evento = new EventoAtualizacaoPagamentos();
+        evento.begin();
 
-        AtualizacaoSituacaoPagamento atualizacao = atualizacaoRepository.findById("situacao-pagamento")
-                .orElse(new AtualizacaoSituacaoPagamento());
+        List<Pagamento> pagamentosAtrasados = pagamentoRepository
+                .findByDataVencimentoBeforeAndDataPagamentoIsNull(hoje);
 
-        if (hoje.equals(atualizacao.getDataUltimaAtualizacao())) {
-            log.info("Atualização já realizada hoje.");
-            return;
+        List<Pagamento> novosAtrasados = new ArrayList<>();
+        ResumoEncargos resumo = new ResumoEncargos();
+        int lotes = 0;
+        for (int inicioLote = 0; inicioLote < pagamentosAtrasados.size(); inicioLote += tamanhoLote) {
+            List<Pagamento> lote = pagamentosAtrasados.subList(inicioLote, Math.min(inicioLote + tamanhoLote, pagamentosAtrasados.size()));
+            atualizarLote(lote, ++lotes, hoje, origem, novosAtrasados, resumo);
         }
 
-        log.info("Iniciando atualização de situação e valores dos pagamentos...");
+        // Lembretes entram no outbox na mesma transação; o envio é feito pelo DespachanteLembretes
+        lembreteService.registrarAtrasos(novosAtrasados);
+        lembreteService.registrarVencimentosProximos(hoje);
 
-        List<Pagamento> pagamentosAtrasados = pagamentoRepository
-                .findByDataVencimentoBeforeAndDataPagamentoIsNull(hoje);
+        // só os contratos com parcela vencida mudam de saldo na atualização diária
+        Set<Long> contratos = new HashSet<>();
+        pagamentosAtrasados.forEach(pagamento -> contratos.add(pagamento.getContrato().getId()));
+        saldoService.recalcularContratos(contratos);
+
+        registrarAoFimDaTransacao(evento, origem, pagamentosAtrasados.size(), lotes);
 
-        for (Pagamento pagamento : pagamentosAtrasados) {
+        // um resumo por execução em vez de uma linha por parcela: em carteiras grandes a formatação e a escrita
+        // dessas linhas custavam mais que o próprio cálculo
+        log.info("Atualização concluída em {} ms: {} parcelas em atraso ({} novas, não viradas pela agenda), multa aplicada em {} (R$ {}), juros em {} (R$ {})",
+                System.currentTimeMillis() - inicio, pagamentosAtrasados.size(), novosAtrasados.size(),
+                resumo.multas, resumo.totalMulta(), resumo.comJuros, resumo.totalJuros());
+        return pagamentosAtrasados.size();
+    }
+
+    /**
+     * Vira para ATRASADO, com a multa e o primeiro dia de juros, as parcelas indicadas que continuam em aberto
+     * e vencidas antes de {@code hoje}, e registra o lembrete de atraso. Ids pagos, reagendados ou já em atraso
+     * são ignorados, então a agenda pode mandar ids desatualizados.
+     *
+     * @return parcelas que viraram
+     */
+    @Transactional
+    public int virarVencidas(Collection<Long> ids, LocalDate hoje, OrigemAlteracao origem) {
+        List<Pagamento> lote = pagamentoRepository.findByIdInAndDataVencimentoBeforeAndDataPagamentoIsNull(ids, hoje).stream()
+                .filter(pagamento -> pagamento.getStatus() != SituacaoPagamento.ATRASADO)
+                .toList();
+        if (lote.isEmpty()) return 0;
+
+        List<Pagamento> novosAtrasados = new ArrayList<>(lote.size());
+        atualizarLote(lote, 1, hoje, origem, novosAtrasados, new ResumoEncargos());
+        lembreteService.registrarAtrasos(novosAtrasados);
+
+        Set<Long> contratos = new HashSet<>();
+        lote.forEach(pagamento -> contratos.add(pagamento.getContrato().getId()));
+        saldoService.recalcularContratos(contratos);
+        return lote.size();
+    }
+
+    /**
+     * Aplica já a situação ATRASADO, a multa e os juros até {@code hoje} a parcelas em aberto vencidas que foram
+     * reescritas fora do job (ex: regeneração do cronograma, que volta o valor ao original). Sem isso elas ficariam
+     * sem encargos até a próxima atualização diária, porque a agenda só acompanha vencimentos futuros.
+     * Não recalcula saldo: quem chama recalcula os contratos que alterou.
+     */
+    @Transactional
+    public void aplicarEncargos(List<Pagamento> vencidas, LocalDate hoje, OrigemAlteracao origem) {
+        if (vencidas.isEmpty()) return;
+        List<Pagamento> novosAtrasados = new ArrayList<>(vencidas.size());
+        atualizarLote(vencidas, 1, hoje, origem, novosAtrasados, new ResumoEncargos());
+        lembreteService.registrarAtrasos(novosAtrasados);
+    }
+
+    /**
+     * Aplica situação e encargos a um lote e já envia os UPDATEs, para que o evento JFR do lote meça também
+     * a escrita. Tudo continua na transação da execução: um lote não é confirmado sozinho.
+     */
+    private void atualizarLote(List<Pagamento> lote, int numero, LocalDate hoje, OrigemAlteracao origem,
+                               List<Pagamento> novosAtrasados, ResumoEncargos resumo) {
+        EventoLoteEncargos evento = new EventoLoteEncargos();
+        evento.begin();
+        int novosAntes = novosAtrasados.size();
+        int multasAntes = resumo.multas;
+        int jurosAntes = resumo.comJuros;
+        Medicao consultas = ContagemConsultas.atual();
+        int comandosAntes = consultas != null ? consultas.getComandos() : 0;
+
+        for (Pagamento pagamento : lote) {
+            EstadoPagamento antes = EstadoPagamento.de(pagamento);
+            if (pagamento.getStatus() != SituacaoPagamento.ATRASADO) {
+                novosAtrasados.add(pagamento);
+            }
             // Atualiza status para ATRASADO
             pagamento.setStatus(SituacaoPagamento.ATRASADO);
             
             // Calcula e aplica multa e juros
-            atualizarValorComMultaEJuros(pagamento, hoje);
+            atualizarValorComMultaEJuros(pagamento, hoje, resumo);
+            auditoriaService.registrar(pagamento, antes, origem);
         }
+        pagamentoRepository.saveAll(lote);
+        pagamentoRepository.flush();
 
-        pagamentoRepository.saveAll(pagamentosAtrasados);
-
-        atualizacao.setDataUltimaAtualizacao(hoje);
-        atualizacaoRepository.save(atualizacao);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.origem = origem.name();
+            evento.lote = numero;
+            evento.parcelas = lote.size();
+            evento.novasAtrasadas = novosAtrasados.size() - novosAntes;
+            evento.multas = resumo.multas - multasAntes;
+            evento.comJuros = resumo.comJuros - jurosAntes;
+            evento.comandosSql = consultas != null ? consultas.getComandos() - comandosAntes : 0;
+            evento.commit();
+        }
+    }
 
-        log.info("Atualização concluída em {}", LocalDateTime.now());
+    /**
+     * O evento da execução vai até o fim da transação, para incluir o tempo do commit (ou registrar o rollback).
+     */
+    private static void registrarAoFimDaTransacao(EventoAtualizacaoPagamentos evento, OrigemAlteracao origem, int parcelas, int lotes) {
+        if (!evento.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evento.end();
+                if (evento.shouldCommit()) {
+                    evento.origem = origem.name();
+                    evento.parcelas = parcelas;
+                    evento.lotes = lotes;
+                    evento.confirmada = status == STATUS_COMMITTED;
+                    evento.commit();
+                }
+            }
+        });
     }
 
     /**
@@ -71,7 +205,7 @@ public class AtualizacaoPagamentoService {
      * - Juros: 1000 * (5/30) * 0.10 = R$ 16.67
      * - Total: 1000 + 20 + 16.67 = R$ 1036.67
      */
-    private void atualizarValorComMultaEJuros(Pagamento pagamento, LocalDate hoje) {
+    private void atualizarValorComMultaEJuros(Pagamento pagamento, LocalDate hoje, ResumoEncargos resumo) {
         Cliente cliente = pagamento.getContrato().getCliente();
         
         Double taxaMulta = cliente.getTaxaMulta();
@@ -87,39 +221,48 @@ public class AtualizacaoPagamentoService {
             pagamento.setValorOriginal(pagamento.getValor());
         }
         
-        Double valorOriginal = pagamento.getValorOriginal();
-        Double valorFinal = valorOriginal;
-        
-        // Aplica multa (uma única vez) - percentual sobre o valor original
-        if (taxaMulta != null && taxaMulta > 0) {
-            Double multa = valorOriginal * taxaMulta;
-            valorFinal += multa;
-            
-            if (!Boolean.TRUE.equals(pagamento.getMultaAplicada())) {
-                pagamento.setMultaAplicada(true);
-                log.info("Multa de {}% (R$ {}) aplicada ao pagamento {}", 
-                        taxaMulta * 100, String.format("%.2f", multa), pagamento.getId());
-            }
+        double valorOriginal = pagamento.getValorOriginal();
+        long diasAtraso = ChronoUnit.DAYS.between(pagamento.getDataVencimento(), hoje);
+        double multa = EncargosUtils.multa(valorOriginal, taxaMulta);
+        double juros = EncargosUtils.juros(valorOriginal, taxaJurosMensal, diasAtraso);
+
+        // Multa é aplicada uma única vez; o valor é sempre recalculado a partir do original
+        if (taxaMulta != null && taxaMulta > 0 && !Boolean.TRUE.equals(pagamento.getMultaAplicada())) {
+            pagamento.setMultaAplicada(true);
+            resumo.multas++;
+            resumo.centavosMulta += Math.round(multa * 100);
         }
-        
-        // Calcula juros simples diários
-        // Fórmula: valorOriginal * (diasAtraso / 30) * taxaJurosMensal
-        if (taxaJurosMensal != null && taxaJurosMensal > 0) {
-            long diasAtraso = ChronoUnit.DAYS.between(pagamento.getDataVencimento(), hoje);
-            
-            if (diasAtraso > 0) {
-                Double juros = valorOriginal * (diasAtraso / 30.0) * taxaJurosMensal;
-                valorFinal += juros;
-                log.info("Juros simples de {}% ao mês aplicados ao pagamento {} ({} dias = R$ {})", 
-                        taxaJurosMensal * 100, pagamento.getId(), diasAtraso, String.format("%.2f", juros));
-            }
+        if (juros > 0) {
+            resumo.comJuros++;
+            resumo.centavosJuros += Math.round(juros * 100);
         }
-        
-        // Arredonda para 2 casas decimais
-        valorFinal = Math.round(valorFinal * 100.0) / 100.0;
+        if (log.isDebugEnabled()) {
+            log.debug("Pagamento {}: {} dias de atraso, multa R$ {}, juros R$ {}", pagamento.getId(), diasAtraso,
+                    EncargosUtils.arredondar(multa), EncargosUtils.arredondar(juros));
+        }
+
+        Double valorFinal = EncargosUtils.arredondar(valorOriginal + multa + juros);
         
         pagamento.setValorAtualizado(valorFinal);
         pagamento.setValor(valorFinal); // Atualiza o valor principal também
         pagamento.setDataUltimaAtualizacaoValor(hoje);
     }
+
+    /**
+     * Totais da execução; os valores ficam em centavos para não acumular erro de ponto flutuante.
+     */
+    private static final class ResumoEncargos {
+        int multas;
+        int comJuros;
+        long centavosMulta;
+        long centavosJuros;
+
+        BigDecimal totalMulta() {
+            return BigDecimal.valueOf(centavosMulta, 2);
+        }
+
+        BigDecimal totalJuros() {
+            return BigDecimal.valueOf(centavosJuros, 2);
+        }
+    }
 }
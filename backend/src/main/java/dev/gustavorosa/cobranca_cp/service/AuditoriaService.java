@@ -0,0 +1,258 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.model.AuditoriaPagamento;
+import dev.gustavorosa.cobranca_cp.model.EstadoPagamento;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import dev.gustavorosa.cobranca_cp.repository.AuditoriaPagamentoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jornal de auditoria das alterações de pagamentos, gravado em write-behind.
+ * As entradas de uma transação são acumuladas e, somente após o commit, vão para um buffer circular limitado
+ * em memória. Uma thread dedicada drena o buffer e grava em lotes, então o caminho da requisição não faz
+ * nenhum INSERT de auditoria. Se o buffer encher, quem produz espera (backpressure) em vez de perder registros.
+ * <p>
+ * Lote que falha não é descartado: o escritor tenta de novo com espera crescente (do intervalo até
+ * {@link #ESPERA_MAXIMA_MS}) e, enquanto isso, o buffer enche e segura os produtores. Registros só se perdem em
+ * dois casos, ambos logados com o conteúdo e contados em {@link #getEntradasDescartadas()}: uma entrada que o
+ * banco recusa por si só (violação de integridade, isolada gravando o lote uma a uma) e o que sobrar no encerramento
+ * depois de {@link #TENTATIVAS_NO_ENCERRAMENTO} tentativas.
+ */
+@Slf4j
+@Service
+public class AuditoriaService {
+
+    private static final String USUARIO_SISTEMA = "sistema";
+    static final long ESPERA_MAXIMA_MS = 60_000;
+    static final int TENTATIVAS_NO_ENCERRAMENTO = 3;
+
+    private final AuditoriaPagamentoRepository auditoriaPagamentoRepository;
+    private final BlockingQueue<AuditoriaPagamento> buffer;
+    private final int tamanhoLote;
+    private final long intervaloMs;
+    private final Thread escritor;
+    private final AtomicLong esperasBufferCheio = new AtomicLong();
+    private final AtomicLong entradasDescartadas = new AtomicLong();
+    private volatile boolean ativo = true;
+
+    public AuditoriaService(AuditoriaPagamentoRepository auditoriaPagamentoRepository,
+                            @Value("${app.auditoria.capacidade-buffer:65536}") int capacidadeBuffer,
+                            @Value("${app.auditoria.tamanho-lote:500}") int tamanhoLote,
+                            @Value("${app.auditoria.intervalo-ms:1000}") long intervaloMs) {
+        this.auditoriaPagamentoRepository = auditoriaPagamentoRepository;
+        this.buffer = new ArrayBlockingQueue<>(capacidadeBuffer);
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloMs = intervaloMs;
+        this.escritor = new Thread(this::executarEscritor, "auditoria-escritor");
+        this.escritor.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        escritor.start();
+    }
+
+    /**
+     * Registra as diferenças entre o estado anterior e o estado atual do pagamento.
+     * Dentro de uma transação, as entradas só são publicadas se ela for confirmada.
+     */
+    public void registrar(Pagamento pagamento, EstadoPagamento antes, OrigemAlteracao origem) {
+        EstadoPagamento depois = EstadoPagamento.de(pagamento);
+        if (depois.equals(antes)) {
+            return;
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        String usuario = usuarioAtual();
+        Long contratoId = pagamento.getContrato() != null ? pagamento.getContrato().getId() : null;
+        List<AuditoriaPagamento> entradas = new ArrayList<>(4);
+        adicionarSeMudou(entradas, "valor", antes.valor(), depois.valor(), pagamento.getId(), contratoId, usuario, origem, agora);
+        adicionarSeMudou(entradas, "dataPagamento", antes.dataPagamento(), depois.dataPagamento(), pagamento.getId(), contratoId, usuario, origem, agora);
+        adicionarSeMudou(entradas, "dataVencimento", antes.dataVencimento(), depois.dataVencimento(), pagamento.getId(), contratoId, usuario, origem, agora);
+        adicionarSeMudou(entradas, "status", antes.status(), depois.status(), pagamento.getId(), contratoId, usuario, origem, agora);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            entradasDaTransacao().addAll(entradas);
+        } else {
+            publicar(entradas);
+        }
+    }
+
+    public List<AuditoriaPagamento> recuperarPorPagamento(Long pagamentoId) {
+        return auditoriaPagamentoRepository.findByPagamentoIdOrderByDataHoraAscIdAsc(pagamentoId);
+    }
+
+    public List<AuditoriaPagamento> recuperarPorContrato(Long contratoId) {
+        return auditoriaPagamentoRepository.findByContratoIdOrderByDataHoraAscIdAsc(contratoId);
+    }
+
+    private void adicionarSeMudou(List<AuditoriaPagamento> entradas, String campo, Object anterior, Object novo,
+                                  Long pagamentoId, Long contratoId, String usuario, OrigemAlteracao origem, LocalDateTime agora) {
+        if (Objects.equals(anterior, novo)) {
+            return;
+        }
+        entradas.add(AuditoriaPagamento.builder()
+                .pagamentoId(pagamentoId)
+                .contratoId(contratoId)
+                .campo(campo)
+                .valorAnterior(anterior != null ? anterior.toString() : null)
+                .valorNovo(novo != null ? novo.toString() : null)
+                .usuario(usuario)
+                .origem(origem)
+                .dataHora(agora)
+                .build());
+    }
+
+    /**
+     * Lista de entradas da transação corrente, publicada no buffer por uma única sincronização após o commit.
+     */
+    @SuppressWarnings("unchecked")
+    private List<AuditoriaPagamento> entradasDaTransacao() {
+        List<AuditoriaPagamento> entradas = (List<AuditoriaPagamento>) TransactionSynchronizationManager.getResource(this);
+        if (entradas == null) {
+            List<AuditoriaPagamento> novas = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditoriaService.this);
+                    if (status == STATUS_COMMITTED) {
+                        publicar(novas);
+                    }
+                }
+            });
+            entradas = novas;
+        }
+        return entradas;
+    }
+
+    private void publicar(List<AuditoriaPagamento> entradas) {
+        for (AuditoriaPagamento entrada : entradas) {
+            if (!buffer.offer(entrada)) {
+                esperasBufferCheio.incrementAndGet();
+                try {
+                    buffer.put(entrada);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.error("Interrompido ao publicar auditoria; {} entradas nao registradas", entradas.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    private void executarEscritor() {
+        List<AuditoriaPagamento> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !buffer.isEmpty()) {
+            try {
+                AuditoriaPagamento primeira = buffer.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                buffer.drainTo(lote, tamanhoLote - 1);
+                gravar(lote);
+            } catch (InterruptedException e) {
+                if (!ativo) {
+                    buffer.drainTo(lote);
+                    gravar(lote);
+                    return;
+                }
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Grava o lote, tentando de novo até conseguir. Violação de integridade (a entrada em si é inválida) não
+     * melhora com outra tentativa: o lote é gravado uma a uma e só a entrada recusada é descartada.
+     */
+    private void gravar(List<AuditoriaPagamento> lote) {
+        long espera = intervaloMs;
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                // o id tirado da sequência na tentativa que falhou não chegou ao banco
+                lote.forEach(entrada -> entrada.setId(null));
+                auditoriaPagamentoRepository.saveAll(lote);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (lote.size() > 1) {
+                    log.warn("Lote de auditoria recusado ({}); gravando as {} entradas uma a uma", e.getMessage(), lote.size());
+                    for (AuditoriaPagamento entrada : lote) {
+                        gravar(List.of(entrada));
+                    }
+                } else {
+                    descartar(lote, e);
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (!ativo && tentativa >= TENTATIVAS_NO_ENCERRAMENTO) {
+                    descartar(lote, e);
+                    return;
+                }
+                log.warn("Falha ao gravar lote de auditoria (tentativa {}, nova tentativa em {} ms): {}",
+                        tentativa, espera, e.getMessage());
+            }
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                descartar(lote, e);
+                return;
+            }
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_MS);
+        }
+    }
+
+    private void descartar(List<AuditoriaPagamento> lote, Exception causa) {
+        entradasDescartadas.addAndGet(lote.size());
+        for (AuditoriaPagamento entrada : lote) {
+            log.error("Entrada de auditoria descartada: pagamento={} contrato={} campo={} de={} para={} usuario={} origem={} em={}",
+                    entrada.getPagamentoId(), entrada.getContratoId(), entrada.getCampo(), entrada.getValorAnterior(),
+                    entrada.getValorNovo(), entrada.getUsuario(), entrada.getOrigem(), entrada.getDataHora());
+        }
+        log.error("Falha ao gravar {} entradas de auditoria: {}", lote.size(), causa.getMessage(), causa);
+    }
+
+    private String usuarioAtual() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacao != null && autenticacao.isAuthenticated() ? autenticacao.getName() : USUARIO_SISTEMA;
+    }
+
+    public long getEsperasBufferCheio() {
+        return esperasBufferCheio.get();
+    }
+
+    public long getEntradasDescartadas() {
+        return entradasDescartadas.get();
+    }
+
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        escritor.join(10_000);
+        if (!buffer.isEmpty()) {
+            log.warn("{} entradas de auditoria nao gravadas no encerramento", buffer.size());
+        }
+    }
+}
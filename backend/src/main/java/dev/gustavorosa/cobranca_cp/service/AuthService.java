@@ -4,11 +4,16 @@ import dev.gustavorosa.cobranca_cp.dto.AuthResponse;
 import dev.gustavorosa.cobranca_cp.dto.LoginRequest;
 import dev.gustavorosa.cobranca_cp.dto.RegisterRequest;
 import dev.gustavorosa.cobranca_cp.model.Role;
+import dev.gustavorosa.cobranca_cp.model.TokenRenovacao;
 import dev.gustavorosa.cobranca_cp.model.Usuario;
+import dev.gustavorosa.cobranca_cp.repository.TokenRenovacaoRepository;
 import dev.gustavorosa.cobranca_cp.repository.UsuarioRepository;
 import dev.gustavorosa.cobranca_cp.security.JwtTokenProvider;
+import dev.gustavorosa.cobranca_cp.security.RevogacaoTokens;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -16,14 +21,21 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     
     private final UsuarioRepository usuarioRepository;
+    private final TokenRenovacaoRepository tokenRenovacaoRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final RevogacaoTokens revogacaoTokens;
     private final AuthenticationManager authenticationManager;
     
     @Transactional
@@ -34,22 +46,12 @@ public class AuthService {
         
         Usuario usuario = (Usuario) authentication.getPrincipal();
         
-        String token = tokenProvider.generateToken(usuario);
-        String refreshToken = tokenProvider.generateRefreshToken(usuario);
+        // cada login abre uma nova família de refresh tokens
+        AuthResponse response = emitirTokens(usuario, UUID.randomUUID().toString());
         
         log.info("Login realizado com sucesso para usuário: {}", usuario.getEmail());
         
-        return AuthResponse.builder()
-                .token(token)
-                .refreshToken(refreshToken)
-                .tipo("Bearer")
-                .usuario(AuthResponse.UsuarioDTO.builder()
-                        .id(usuario.getId())
-                        .nome(usuario.getNome())
-                        .email(usuario.getEmail())
-                        .role(usuario.getRole())
-                        .build())
-                .build();
+        return response;
     }
     
     @Transactional
@@ -71,42 +73,102 @@ public class AuthService {
         usuario = usuarioRepository.save(usuario);
         
         // Gera tokens
-        String token = tokenProvider.generateToken(usuario);
-        String refreshToken = tokenProvider.generateRefreshToken(usuario);
+        AuthResponse response = emitirTokens(usuario, UUID.randomUUID().toString());
         
         log.info("Novo usuário registrado: {}", usuario.getEmail());
         
-        return AuthResponse.builder()
-                .token(token)
-                .refreshToken(refreshToken)
-                .tipo("Bearer")
-                .usuario(AuthResponse.UsuarioDTO.builder()
-                        .id(usuario.getId())
-                        .nome(usuario.getNome())
-                        .email(usuario.getEmail())
-                        .role(usuario.getRole())
-                        .build())
-                .build();
+        return response;
     }
     
-    @Transactional(readOnly = true)
+    /**
+     * Troca um refresh token por um novo par de tokens (rotação): o token apresentado é consumido e o novo
+     * pertence à mesma família. Um token já consumido apresentado de novo só acontece se ele vazou
+     * (o cliente legítimo sempre usa o mais recente), então a família inteira é revogada.
+     * <p>
+     * Não é transacional de propósito: cada passo grava sozinho, para a revogação por reuso persistir
+     * mesmo com a requisição sendo recusada.
+     */
     public AuthResponse refreshToken(String refreshToken) {
-        if (!tokenProvider.validateToken(refreshToken)) {
+        Claims claims = tokenProvider.lerToken(refreshToken);
+        if (claims == null || !JwtTokenProvider.isRefreshToken(claims) || claims.getId() == null) {
             throw new RuntimeException("Refresh token inválido ou expirado");
         }
         
-        String email = tokenProvider.getEmailFromToken(refreshToken);
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+        TokenRenovacao registro = tokenRenovacaoRepository.findByJti(claims.getId())
+                .orElseThrow(() -> new RuntimeException("Refresh token desconhecido"));
+        LocalDateTime agora = LocalDateTime.now();
+        if (tokenRenovacaoRepository.consumir(registro.getJti(), agora) == 0) {
+            if (registro.getRevogadoEm() == null && registro.getExpiraEm().isAfter(agora)) {
+                log.warn("Reuso de refresh token detectado para usuário {}; sessão revogada", claims.getSubject());
+                revogarFamilia(registro.getFamilia());
+            }
+            throw new RuntimeException("Refresh token inválido ou expirado");
+        }
+        
+        Usuario usuario = usuarioRepository.findById(registro.getUsuarioId())
+                .filter(Usuario::isEnabled)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado ou inativo"));
         
-        String newToken = tokenProvider.generateToken(usuario);
-        String newRefreshToken = tokenProvider.generateRefreshToken(usuario);
+        AuthResponse response = emitirTokens(usuario, registro.getFamilia());
         
         log.info("Token renovado para usuário: {}", usuario.getEmail());
         
+        return response;
+    }
+    
+    /**
+     * Revoga o access token apresentado e, se informado, a família do refresh token (a sessão inteira).
+     * Tokens inválidos são ignorados: o logout sempre "funciona" do ponto de vista do cliente.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        Claims acesso = accessToken != null ? tokenProvider.lerToken(accessToken) : null;
+        if (acesso != null && !JwtTokenProvider.isRefreshToken(acesso) && acesso.getId() != null) {
+            revogacaoTokens.revogarToken(acesso.getId(), dataHora(acesso.getExpiration()));
+        }
+        
+        Claims renovacao = refreshToken != null ? tokenProvider.lerToken(refreshToken) : null;
+        if (renovacao != null && JwtTokenProvider.isRefreshToken(renovacao) && renovacao.getId() != null) {
+            tokenRenovacaoRepository.findByJti(renovacao.getId())
+                    .ifPresent(registro -> revogarFamilia(registro.getFamilia()));
+        }
+    }
+    
+    @Scheduled(cron = "0 30 * * * *")
+    public void excluirTokensExpirados() {
+        int excluidos = tokenRenovacaoRepository.excluirExpirados(LocalDateTime.now());
+        if (excluidos > 0) log.info("{} refresh tokens expirados removidos", excluidos);
+    }
+    
+    private void revogarFamilia(String familia) {
+        LocalDateTime agora = LocalDateTime.now();
+        for (TokenRenovacao token : tokenRenovacaoRepository.findByFamilia(familia)) {
+            if (token.getJtiAcesso() != null && token.getAcessoExpiraEm() != null && token.getAcessoExpiraEm().isAfter(agora)) {
+                revogacaoTokens.revogarToken(token.getJtiAcesso(), token.getAcessoExpiraEm());
+            }
+        }
+        tokenRenovacaoRepository.revogarFamilia(familia, agora);
+    }
+    
+    private AuthResponse emitirTokens(Usuario usuario, String familia) {
+        LocalDateTime agora = LocalDateTime.now();
+        String jtiAcesso = UUID.randomUUID().toString();
+        String jtiRenovacao = UUID.randomUUID().toString();
+        String token = tokenProvider.generateToken(usuario, jtiAcesso);
+        String refreshToken = tokenProvider.generateRefreshToken(usuario, jtiRenovacao);
+        
+        tokenRenovacaoRepository.save(TokenRenovacao.builder()
+                .jti(jtiRenovacao)
+                .familia(familia)
+                .usuarioId(usuario.getId())
+                .jtiAcesso(jtiAcesso)
+                .acessoExpiraEm(agora.plusNanos(tokenProvider.getExpiration() * 1_000_000))
+                .emitidoEm(agora)
+                .expiraEm(agora.plusNanos(tokenProvider.getRefreshExpiration() * 1_000_000))
+                .build());
+        
         return AuthResponse.builder()
-                .token(newToken)
-                .refreshToken(newRefreshToken)
+                .token(token)
+                .refreshToken(refreshToken)
                 .tipo("Bearer")
                 .usuario(AuthResponse.UsuarioDTO.builder()
                         .id(usuario.getId())
@@ -116,5 +178,8 @@ public class AuthService {
                         .build())
                 .build();
     }
+    
+    private static LocalDateTime dataHora(Date data) {
+        return LocalDateTime.ofInstant(data.toInstant(), ZoneId.systemDefault());
+    }
 }
-
@@ -0,0 +1,193 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.infra.barramento.BarramentoAlteracoes;
+import dev.gustavorosa.cobranca_cp.infra.barramento.OuvinteAlteracoesRemotas;
+import dev.gustavorosa.cobranca_cp.infra.barramento.TipoAlteracao;
+import dev.gustavorosa.cobranca_cp.infra.busca.DocumentoBusca;
+import dev.gustavorosa.cobranca_cp.infra.busca.IndiceTrigramas;
+import dev.gustavorosa.cobranca_cp.infra.busca.ResultadoBusca;
+import dev.gustavorosa.cobranca_cp.infra.busca.TipoDocumentoBusca;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ContratoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Busca de clientes e contratos por nome parcial, CPF ou registro sobre um índice de trigramas em memória.
+ * O índice é mantido pelos caminhos de escrita de ClienteService e ContratoService e carregado ao iniciar
+ * a aplicação em páginas, numa thread própria: enquanto a carga não termina a busca já responde com o que
+ * foi indexado até o momento.
+ * <p>
+ * Cada escrita indexada aqui é publicada no BarramentoAlteracoes; as outras instâncias relêem esses registros do
+ * banco. Se o barramento perder notificações, o índice é recarregado inteiro num índice novo, trocado no fim; o
+ * que mudou durante a recarga é relido em seguida.
+ */
+@Slf4j
+@Service
+public class BuscaService implements OuvinteAlteracoesRemotas {
+
+    private final ClienteRepository clienteRepository;
+    private final ContratoRepository contratoRepository;
+    private final ObjectProvider<BarramentoAlteracoes> barramento;
+    private volatile IndiceTrigramas indice = new IndiceTrigramas();
+    private final Set<String> removidosDuranteCarga = ConcurrentHashMap.newKeySet();
+    private final Set<String> alteradosDuranteRecarga = ConcurrentHashMap.newKeySet();
+    private volatile boolean carregando = true;
+    private volatile boolean recarregando;
+
+    @Value("${app.busca.tamanho-pagina-carga:5000}")
+    private int tamanhoPaginaCarga;
+
+    public BuscaService(ClienteRepository clienteRepository, ContratoRepository contratoRepository,
+                        ObjectProvider<BarramentoAlteracoes> barramento) {
+        this.clienteRepository = clienteRepository;
+        this.contratoRepository = contratoRepository;
+        this.barramento = barramento;
+    }
+
+    public List<ResultadoBusca> buscar(String consulta, TipoDocumentoBusca tipo, int limite) {
+        return indice.buscar(consulta, tipo, limite);
+    }
+
+    public boolean isCarregando() {
+        return carregando;
+    }
+
+    public void indexarCliente(Cliente cliente) {
+        alterado(TipoDocumentoBusca.CLIENTE, cliente.getId());
+        indice.indexar(new DocumentoBusca(TipoDocumentoBusca.CLIENTE, cliente.getId(), cliente.getId(), cliente.getNome(), cliente.getRegistro()));
+        publicar(TipoAlteracao.CLIENTE, cliente.getId());
+    }
+
+    public void indexarContrato(Contrato contrato) {
+        alterado(TipoDocumentoBusca.CONTRATO, contrato.getId());
+        indice.indexar(new DocumentoBusca(TipoDocumentoBusca.CONTRATO, contrato.getId(), contrato.getCliente().getId(),
+                contrato.getNomeContratante(), contrato.getCpfContratante()));
+        publicar(TipoAlteracao.CONTRATO, contrato.getId());
+    }
+
+    public void removerCliente(Long clienteId) {
+        removerDoIndice(TipoDocumentoBusca.CLIENTE, clienteId);
+        publicar(TipoAlteracao.CLIENTE, clienteId);
+    }
+
+    public void removerContrato(Long contratoId) {
+        removerDoIndice(TipoDocumentoBusca.CONTRATO, contratoId);
+        publicar(TipoAlteracao.CONTRATO, contratoId);
+    }
+
+    private void removerDoIndice(TipoDocumentoBusca tipo, Long id) {
+        if (carregando) removidosDuranteCarga.add(tipo + ":" + id);
+        alterado(tipo, id);
+        IndiceTrigramas atual = indice;
+        atual.remover(tipo, id);
+        if (tipo == TipoDocumentoBusca.CLIENTE) atual.removerContratosDoCliente(id);
+    }
+
+    private void alterado(TipoDocumentoBusca tipo, Long id) {
+        if (recarregando) alteradosDuranteRecarga.add(tipo + ":" + id);
+    }
+
+    private void publicar(TipoAlteracao tipo, Long id) {
+        barramento.ifAvailable(disponivel -> disponivel.publicarAoConfirmar(tipo, List.of(id)));
+    }
+
+    /**
+     * Relê do banco os registros alterados em outra instância; os que não voltam foram excluídos.
+     */
+    @Override
+    public void alteradosEmOutraInstancia(TipoAlteracao tipo, Set<Long> ids) {
+        reler(tipo == TipoAlteracao.CLIENTE ? TipoDocumentoBusca.CLIENTE : TipoDocumentoBusca.CONTRATO, ids);
+    }
+
+    private void reler(TipoDocumentoBusca tipo, Set<Long> ids) {
+        if (ids.isEmpty()) return;
+        List<DocumentoBusca> documentos = tipo == TipoDocumentoBusca.CLIENTE
+                ? clienteRepository.findDocumentosBusca(ids) : contratoRepository.findDocumentosBusca(ids);
+        Set<Long> excluidos = new HashSet<>(ids);
+        for (DocumentoBusca documento : documentos) {
+            alterado(tipo, documento.id());
+            indice.indexar(documento);
+            excluidos.remove(documento.id());
+        }
+        excluidos.forEach(id -> removerDoIndice(tipo, id));
+    }
+
+    @Override
+    public void ressincronizar() {
+        if (carregando || recarregando) return;
+        recarregando = true;
+        Thread recarga = new Thread(() -> {
+            long inicio = System.currentTimeMillis();
+            try {
+                IndiceTrigramas novo = new IndiceTrigramas();
+                carregar(novo, clienteRepository::findDocumentosBuscaAposId);
+                carregar(novo, contratoRepository::findDocumentosBuscaAposId);
+                indice = novo;
+                log.info("Indice de busca recarregado: {} registros em {} ms", novo.tamanho(), System.currentTimeMillis() - inicio);
+            } catch (Exception e) {
+                log.error("Erro ao recarregar indice de busca: {}", e.getMessage(), e);
+            } finally {
+                recarregando = false;
+            }
+            // o que mudou durante a recarga pode ter ido só para o índice antigo
+            List<String> alterados = new ArrayList<>(alteradosDuranteRecarga);
+            alteradosDuranteRecarga.removeAll(alterados);
+            for (TipoDocumentoBusca tipo : TipoDocumentoBusca.values()) {
+                Set<Long> ids = new HashSet<>();
+                alterados.stream().filter(chave -> chave.startsWith(tipo + ":"))
+                        .forEach(chave -> ids.add(Long.valueOf(chave.substring(tipo.name().length() + 1))));
+                reler(tipo, ids);
+            }
+        }, "busca-recarga-indice");
+        recarga.setDaemon(true);
+        recarga.start();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarIndice() {
+        Thread carga = new Thread(() -> {
+            long inicio = System.currentTimeMillis();
+            try {
+                carregar(indice, clienteRepository::findDocumentosBuscaAposId);
+                carregar(indice, contratoRepository::findDocumentosBuscaAposId);
+                log.info("Indice de busca carregado: {} registros em {} ms", indice.tamanho(), System.currentTimeMillis() - inicio);
+            } catch (Exception e) {
+                log.error("Erro ao carregar indice de busca: {}", e.getMessage(), e);
+            } finally {
+                carregando = false;
+                removidosDuranteCarga.clear();
+            }
+        }, "busca-carga-indice");
+        carga.setDaemon(true);
+        carga.start();
+    }
+
+    private void carregar(IndiceTrigramas destino, BiFunction<Long, PageRequest, List<DocumentoBusca>> pagina) {
+        long ultimoId = 0;
+        List<DocumentoBusca> documentos;
+        do {
+            documentos = pagina.apply(ultimoId, PageRequest.of(0, tamanhoPaginaCarga));
+            for (DocumentoBusca documento : documentos) {
+                if (!removidosDuranteCarga.contains(documento.tipo() + ":" + documento.id())) {
+                    destino.indexarSeAusente(documento);
+                }
+                ultimoId = documento.id();
+            }
+        } while (documentos.size() == tamanhoPaginaCarga);
+    }
+}
@@ -0,0 +1,263 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.dto.AgingCarteiraDTO;
+import dev.gustavorosa.cobranca_cp.dto.FaixaAgingDTO;
+import dev.gustavorosa.cobranca_cp.dto.FluxoCaixaDTO;
+import dev.gustavorosa.cobranca_cp.dto.InadimplenciaClienteDTO;
+import dev.gustavorosa.cobranca_cp.dto.LinhaCarteiraDTO;
+import dev.gustavorosa.cobranca_cp.dto.MesFluxoCaixaDTO;
+import dev.gustavorosa.cobranca_cp.infra.barramento.OuvinteAlteracoesRemotas;
+import dev.gustavorosa.cobranca_cp.infra.barramento.TipoAlteracao;
+import dev.gustavorosa.cobranca_cp.infra.carteira.CarteiraColunar;
+import dev.gustavorosa.cobranca_cp.infra.carteira.OuvinteAlteracaoContratos;
+import dev.gustavorosa.cobranca_cp.infra.log.ContextoLog;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Análises da carteira em aberto (aging, fluxo de caixa esperado e inadimplência por cliente) sobre o retrato
+ * colunar em memória (ver CarteiraColunar), em vez de agregar as parcelas no banco a cada consulta.
+ * <p>
+ * O retrato é construído em segundo plano na subida e de novo depois da atualização diária. Entre uma
+ * reconstrução e outra, cada transação que altera parcelas avisa os contratos tocados (OuvinteAlteracaoContratos)
+ * e o retrato é remendado com as parcelas atuais desses contratos. Reconstruções e remendos rodam numa única
+ * thread, na ordem em que chegaram; as leituras usam o último retrato publicado sem bloquear. Contratos alterados
+ * em outra instância chegam pelo BarramentoAlteracoes e são remendados do mesmo jeito.
+ */
+@Slf4j
+@Service
+public class CarteiraAbertaService implements OuvinteAlteracaoContratos, OuvinteAlteracoesRemotas {
+
+    private static final int TAMANHO_LOTE = 1000;
+    private static final long ESPERA_CONSTRUCAO_SEGUNDOS = 30;
+
+    private final PagamentoRepository pagamentoRepository;
+    private final ClienteRepository clienteRepository;
+    private final TransactionTemplate transacao;
+    private final ExecutorService executor;
+    private final AtomicBoolean reconstrucaoPendente = new AtomicBoolean();
+    private final CompletableFuture<Void> primeiraConstrucao = new CompletableFuture<>();
+    private final LongAdder remendos = new LongAdder();
+    private final LongAdder reconstrucoes = new LongAdder();
+    private volatile CarteiraColunar carteira;
+    private volatile long duracaoUltimaConstrucaoMs;
+
+    @Value("${app.carteira.limite-remendo-contratos:2000}")
+    private int limiteRemendoContratos;
+
+    public CarteiraAbertaService(PagamentoRepository pagamentoRepository, ClienteRepository clienteRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.pagamentoRepository = pagamentoRepository;
+        this.clienteRepository = clienteRepository;
+        // transação de escrita de propósito: leva a leitura ao primário, e não a uma réplica que ainda
+        // não tenha recebido a atualização diária ou os remendos descartados por esta reconstrução
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "carteira");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        solicitarReconstrucao();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Agenda a releitura completa da carteira. Pedidos feitos enquanto outro ainda espera na fila viram um só.
+     */
+    public void solicitarReconstrucao() {
+        if (reconstrucaoPendente.compareAndSet(false, true)) {
+            executor.execute(ContextoLog.emJob("carteira", this::reconstruir));
+        }
+    }
+
+    @Override
+    public void contratosAlterados(Set<Long> contratoIds) {
+        if (contratoIds.isEmpty()) return;
+        Set<Long> ids = Set.copyOf(contratoIds);
+        executor.execute(ContextoLog.emJob("carteira", () -> remendar(ids)));
+    }
+
+    @Override
+    public void alteradosEmOutraInstancia(TipoAlteracao tipo, Set<Long> ids) {
+        if (tipo == TipoAlteracao.CONTRATO) contratosAlterados(ids);
+    }
+
+    @Override
+    public void ressincronizar() {
+        solicitarReconstrucao();
+    }
+
+    private void reconstruir() {
+        reconstrucaoPendente.set(false);
+        long inicio = System.currentTimeMillis();
+        try {
+            CarteiraColunar nova = transacao.execute(status -> {
+                CarteiraColunar.Builder builder = CarteiraColunar.builder();
+                try (Stream<LinhaCarteiraDTO> linhas = pagamentoRepository.streamLinhasCarteira()) {
+                    linhas.forEach(builder::adicionar);
+                }
+                return builder.construir();
+            });
+            carteira = nova;
+            duracaoUltimaConstrucaoMs = System.currentTimeMillis() - inicio;
+            reconstrucoes.increment();
+            primeiraConstrucao.complete(null);
+            log.info("Carteira em memória reconstruída: {} parcelas, {} KB em {} ms", nova.tamanho(), nova.bytes() / 1024,
+                    duracaoUltimaConstrucaoMs);
+        } catch (RuntimeException e) {
+            log.error("Falha ao reconstruir a carteira em memória", e);
+        }
+    }
+
+    private void remendar(Set<Long> contratoIds) {
+        CarteiraColunar atual = carteira;
+        // sem retrato ainda, ou com uma reconstrução na fila: ela já vai ler o estado atual desses contratos
+        if (atual == null || reconstrucaoPendente.get()) return;
+        if (contratoIds.size() > limiteRemendoContratos) {
+            solicitarReconstrucao();
+            return;
+        }
+        try {
+            List<Long> ids = new ArrayList<>(contratoIds);
+            List<LinhaCarteiraDTO> linhas = new ArrayList<>();
+            for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_LOTE) {
+                linhas.addAll(pagamentoRepository.findLinhasCarteira(ids.subList(inicio, Math.min(inicio + TAMANHO_LOTE, ids.size()))));
+            }
+            CarteiraColunar remendada = atual.remendar(contratoIds, linhas);
+            carteira = remendada;
+            remendos.increment();
+            if (remendada.precisaCompactar()) solicitarReconstrucao();
+        } catch (RuntimeException e) {
+            log.error("Falha ao remendar a carteira em memória para {} contratos; reconstruindo", contratoIds.size(), e);
+            solicitarReconstrucao();
+        }
+    }
+
+    /**
+     * Retrato atual. Antes da primeira construção terminar, espera por ela.
+     */
+    private CarteiraColunar carteira() {
+        CarteiraColunar atual = carteira;
+        if (atual != null) return atual;
+        solicitarReconstrucao();
+        try {
+            primeiraConstrucao.get(ESPERA_CONSTRUCAO_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Carteira em memória ainda em construção");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Carteira em memória ainda em construção");
+        }
+        return carteira;
+    }
+
+    public AgingCarteiraDTO aging(LocalDate data) {
+        LocalDate referencia = data != null ? data : LocalDate.now();
+        CarteiraColunar.Aging aging = carteira().aging(referencia);
+
+        List<FaixaAgingDTO> faixas = new ArrayList<>();
+        long quantidade = 0;
+        long centavos = 0;
+        for (int i = 0; i < CarteiraColunar.FAIXAS_AGING.length; i++) {
+            faixas.add(new FaixaAgingDTO(CarteiraColunar.FAIXAS_AGING[i], aging.parcelas()[i], MoneyUtils.fromCents(aging.centavos()[i])));
+            quantidade += aging.parcelas()[i];
+            centavos += aging.centavos()[i];
+        }
+        Map<String, Long> porSituacao = new LinkedHashMap<>();
+        for (SituacaoPagamento situacao : SituacaoPagamento.values()) {
+            long parcelas = aging.situacoes()[situacao.ordinal()];
+            if (parcelas > 0) porSituacao.put(situacao.name(), parcelas);
+        }
+        return new AgingCarteiraDTO(referencia, quantidade, MoneyUtils.fromCents(centavos), faixas, porSituacao);
+    }
+
+    public FluxoCaixaDTO fluxoCaixa(LocalDate data, int meses) {
+        if (meses < 1 || meses > 120) throw new IllegalArgumentException("meses deve estar entre 1 e 120");
+        LocalDate referencia = data != null ? data : LocalDate.now();
+        CarteiraColunar.Fluxo fluxo = carteira().fluxo(referencia, meses);
+
+        YearMonth primeiroMes = YearMonth.from(referencia);
+        List<MesFluxoCaixaDTO> porMes = new ArrayList<>(meses);
+        for (int m = 0; m < meses; m++) {
+            porMes.add(new MesFluxoCaixaDTO(primeiroMes.plusMonths(m), fluxo.parcelas()[m + 1], MoneyUtils.fromCents(fluxo.centavos()[m + 1])));
+        }
+        return new FluxoCaixaDTO(referencia, fluxo.parcelas()[0], MoneyUtils.fromCents(fluxo.centavos()[0]), porMes,
+                fluxo.parcelas()[meses + 1], MoneyUtils.fromCents(fluxo.centavos()[meses + 1]));
+    }
+
+    public List<InadimplenciaClienteDTO> inadimplencia(LocalDate data, int limite) {
+        if (limite < 1 || limite > 500) throw new IllegalArgumentException("limite deve estar entre 1 e 500");
+        LocalDate referencia = data != null ? data : LocalDate.now();
+        List<CarteiraColunar.Inadimplente> inadimplentes = carteira().inadimplentes(referencia, limite);
+
+        Map<Long, String> nomes = clienteRepository.findAllById(inadimplentes.stream().map(CarteiraColunar.Inadimplente::clienteId).toList())
+                .stream()
+                .collect(Collectors.toMap(Cliente::getId, Cliente::getNome));
+        return inadimplentes.stream()
+                .map(i -> new InadimplenciaClienteDTO(i.clienteId(), nomes.get(i.clienteId()), i.parcelas(),
+                        MoneyUtils.fromCents(i.centavos()), i.maiorAtrasoDias()))
+                .toList();
+    }
+
+    /**
+     * Tamanho e memória do retrato atual, para o endpoint /actuator/carteira.
+     */
+    public Map<String, Object> situacao() {
+        Map<String, Object> situacao = new LinkedHashMap<>();
+        CarteiraColunar atual = carteira;
+        situacao.put("pronta", atual != null);
+        if (atual != null) {
+            situacao.put("parcelas", atual.tamanho());
+            situacao.put("base", atual.tamanhoBase());
+            situacao.put("sobreposicao", atual.tamanhoSobreposicao());
+            situacao.put("removidas", atual.quantidadeRemovidas());
+            situacao.put("partes", atual.partes());
+            situacao.put("bytes", atual.bytes());
+            situacao.put("bytesPorParcela", atual.tamanhoBase() + atual.tamanhoSobreposicao() == 0 ? 0
+                    : atual.bytes() / (atual.tamanhoBase() + atual.tamanhoSobreposicao()));
+            situacao.put("construidaEm", atual.construidaEm());
+        }
+        situacao.put("duracaoUltimaConstrucaoMs", duracaoUltimaConstrucaoMs);
+        situacao.put("reconstrucoes", reconstrucoes.sum());
+        situacao.put("remendos", remendos.sum());
+        situacao.put("reconstrucaoPendente", reconstrucaoPendente.get());
+        return situacao;
+    }
+}
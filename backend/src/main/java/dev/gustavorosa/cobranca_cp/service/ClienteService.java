@@ -1,13 +1,20 @@
 package dev.gustavorosa.cobranca_cp.service;
 
 import dev.gustavorosa.cobranca_cp.dto.ClienteDTO;
+import dev.gustavorosa.cobranca_cp.dto.ClienteDetailsDTO;
 import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Exclusao;
 import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
 import dev.gustavorosa.cobranca_cp.util.StringUtils;
+import dev.gustavorosa.cobranca_cp.util.VersaoUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,29 +23,61 @@ public class ClienteService {
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private BuscaService buscaService;
+
+    @Autowired
+    private ExclusaoService exclusaoService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
     public Cliente registraCliente(ClienteDTO clienteDTO){
         Cliente novoCliente = clienteDTO.toModel();
         novoCliente.setNome(StringUtils.toTitleCase(novoCliente.getNome()));
-        return clienteRepository.save(novoCliente);
+        Cliente salvo = clienteRepository.save(novoCliente);
+        buscaService.indexarCliente(salvo);
+        return salvo;
     }
 
+    @Transactional(readOnly = true)
     public List<Cliente> recuperarTodos() {
-        List<Cliente> todosClientes = clienteRepository.findAll();
+        List<Cliente> todosClientes = clienteRepository.findByExcluidoEmIsNull();
+        if(todosClientes.isEmpty())
+            throw new RuntimeException("Nenhum cliente encontrado.");
+
+        return todosClientes;
+    }
+
+    /**
+     * Listagem com só os campos de ClienteDetailsDTO em {@code campos} (ver ClienteDetailsDTO.CAMPOS).
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> recuperarTodos(List<String> campos) {
+        List<Map<String, Object>> todosClientes = ClienteDetailsDTO.CAMPOS.consultar(entityManager, campos);
         if(todosClientes.isEmpty())
             throw new RuntimeException("Nenhum cliente encontrado.");
 
         return todosClientes;
     }
 
+    @Transactional(readOnly = true)
     public Cliente recuperarPorId(Long id) {
-        Optional<Cliente> cliente = clienteRepository.findById(id);
+        Optional<Cliente> cliente = clienteRepository.findByIdAndExcluidoEmIsNull(id);
         if(cliente.isEmpty())
             throw new RuntimeException("Cliente com o id " + id + " nao encontrado.");
         return cliente.get();
     }
 
+    /**
+     * Com {@code clienteDTO.versao()} informada, recusa a alteração se o cliente mudou depois dessa leitura
+     * (ObjectOptimisticLockingFailureException, assim como quando outra transação grava o cliente antes).
+     */
+    @Transactional
     public Cliente atualizarCliente(Long id, ClienteDTO clienteDTO) {
         Cliente clienteExistente = recuperarPorId(id);
+        VersaoUtils.conferir(Cliente.class, id, clienteDTO.versao(), clienteExistente.getVersao());
         
         // Atualiza os campos do cliente existente com os dados do DTO
         clienteExistente.setNome(StringUtils.toTitleCase(clienteDTO.nome()));
@@ -52,11 +91,13 @@ public class ClienteService {
         clienteExistente.setTaxaMulta(clienteDTO.taxaMulta());
         clienteExistente.setTaxaJurosMensal(clienteDTO.taxaJurosMensal());
         
-        return clienteRepository.save(clienteExistente);
+        // flush já aqui: um conflito de versão aparece antes de o índice de busca receber o nome novo
+        Cliente salvo = clienteRepository.saveAndFlush(clienteExistente);
+        buscaService.indexarCliente(salvo);
+        return salvo;
     }
 
-    public void excluirCliente(Long id) {
-        recuperarPorId(id);
-        clienteRepository.deleteById(id);
+    public Exclusao excluirCliente(Long id, Boolean emSegundoPlano) {
+        return exclusaoService.excluirCliente(id, emSegundoPlano);
     }
 }
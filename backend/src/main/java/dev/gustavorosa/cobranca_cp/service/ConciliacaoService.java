@@ -0,0 +1,242 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.dto.ResumoConciliacaoDTO;
+import dev.gustavorosa.cobranca_cp.infra.conciliacao.FormatoExtrato;
+import dev.gustavorosa.cobranca_cp.infra.conciliacao.IndiceParcelasAbertas;
+import dev.gustavorosa.cobranca_cp.infra.conciliacao.LancamentoExtrato;
+import dev.gustavorosa.cobranca_cp.infra.conciliacao.LinhaInvalida;
+import dev.gustavorosa.cobranca_cp.model.ConciliacaoPendente;
+import dev.gustavorosa.cobranca_cp.model.ExtratoImportado;
+import dev.gustavorosa.cobranca_cp.model.MotivoPendencia;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.repository.ConciliacaoPendenteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ExtratoImportadoRepository;
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Concilia extratos bancários com as parcelas em aberto.
+ * O arquivo é lido em streaming e cada crédito é comparado com um índice em memória das parcelas abertas
+ * (valor em centavos, janela de vencimento e CPF/registro do pagador). Correspondências exatas são baixadas
+ * em lotes, cada lote na sua transação; as demais ficam na fila de pendências para revisão.
+ * Linhas ilegíveis não interrompem a conciliação (o que já foi gravado ficaria pela metade): são contadas
+ * e devolvidas no resumo para correção do arquivo.
+ * <p>
+ * Cada arquivo é conciliado uma vez só: o SHA-256 do conteúdo é reservado em EXTRATOS_IMPORTADOS antes da
+ * leitura e um novo envio do mesmo arquivo é recusado. Se a conciliação falha no meio, a reserva é desfeita
+ * para que o arquivo possa ser reenviado; as pendências já gravadas não se repetem (chave hash + linha), mas
+ * os créditos baixados antes da falha voltam como sem correspondência, já que a parcela não está mais em aberto.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConciliacaoService {
+
+    private final PagamentoService pagamentoService;
+    private final ConciliacaoPendenteRepository conciliacaoPendenteRepository;
+    private final ExtratoImportadoRepository extratoImportadoRepository;
+
+    @Value("${app.conciliacao.janela-dias:10}")
+    private int janelaDias;
+
+    @Value("${app.conciliacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    private static final int MAX_ERROS_RESUMO = 100;
+
+    /**
+     * @param extrato lido duas vezes: uma para o hash, outra para a conciliação
+     * @throws IllegalStateException se o mesmo conteúdo já foi (ou está sendo) importado
+     */
+    public ResumoConciliacaoDTO conciliar(String arquivo, InputStreamSource extrato, FormatoExtrato formato) throws IOException {
+        long inicio = System.currentTimeMillis();
+
+        String hash = calcularHash(extrato);
+        ExtratoImportado importacao = reservarArquivo(hash, arquivo, formato);
+        try {
+            IndiceParcelasAbertas indice = carregarIndice();
+            log.info("Conciliacao de {} ({}): {} parcelas em aberto indexadas em {} ms",
+                    arquivo, formato, indice.tamanho(), System.currentTimeMillis() - inicio);
+
+            Execucao execucao = new Execucao(arquivo, hash, indice, conciliacaoPendenteRepository.findLinhasByHashArquivo(hash));
+            long registros;
+            try (InputStream entrada = extrato.getInputStream()) {
+                registros = formato.novoLeitor().ler(entrada, execucao::processar, execucao::rejeitar);
+            }
+            execucao.descarregar();
+
+            importacao.setDataConclusao(LocalDateTime.now());
+            extratoImportadoRepository.save(importacao);
+
+            ResumoConciliacaoDTO resumo = new ResumoConciliacaoDTO(arquivo, registros, execucao.creditos, execucao.baixados,
+                    execucao.ambiguos, execucao.semCorrespondencia, execucao.linhasInvalidas, execucao.errosLeitura,
+                    indice.tamanho(), System.currentTimeMillis() - inicio);
+            log.info("Conciliacao de {} concluida: {}", arquivo, resumo);
+            return resumo;
+        } catch (IOException | RuntimeException e) {
+            extratoImportadoRepository.delete(importacao);
+            throw e;
+        }
+    }
+
+    public List<ConciliacaoPendente> recuperarPendentes() {
+        return conciliacaoPendenteRepository.findByResolvidaFalseOrderByDataLancamento();
+    }
+
+    @Transactional
+    public ConciliacaoPendente resolverPendencia(Long id, Long pagamentoId) {
+        ConciliacaoPendente pendente = conciliacaoPendenteRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Pendencia de conciliacao nao encontrada"));
+        if (Boolean.TRUE.equals(pendente.getResolvida())) {
+            throw new RuntimeException("Pendencia de conciliacao ja resolvida");
+        }
+        if (pagamentoService.registrarPagamentos(Map.of(pagamentoId, pendente.getDataLancamento()), OrigemAlteracao.API) == 0) {
+            throw new RuntimeException("Pagamento nao encontrado ou ja baixado");
+        }
+        pendente.setResolvida(true);
+        pendente.setPagamentoId(pagamentoId);
+        return conciliacaoPendenteRepository.save(pendente);
+    }
+
+    private ExtratoImportado reservarArquivo(String hash, String arquivo, FormatoExtrato formato) {
+        extratoImportadoRepository.findByHash(hash).ifPresent(existente -> {
+            if (existente.getDataConclusao() == null) {
+                throw new IllegalStateException("Extrato ja esta sendo importado como " + existente.getArquivo());
+            }
+            throw new IllegalStateException("Extrato ja importado como " + existente.getArquivo() + " em " + existente.getDataConclusao());
+        });
+        try {
+            return extratoImportadoRepository.saveAndFlush(ExtratoImportado.builder()
+                    .hash(hash)
+                    .arquivo(arquivo)
+                    .formato(formato)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // outro envio do mesmo arquivo reservou entre a consulta e a inserção
+            throw new IllegalStateException("Extrato ja esta sendo importado");
+        }
+    }
+
+    private static String calcularHash(InputStreamSource extrato) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream entrada = new DigestInputStream(extrato.getInputStream(), digest)) {
+            entrada.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private IndiceParcelasAbertas carregarIndice() {
+        IndiceParcelasAbertas.Builder builder = IndiceParcelasAbertas.builder();
+        pagamentoService.percorrerParcelasAbertas(parcela -> {
+            if (parcela.valor() != null && parcela.dataVencimento() != null) {
+                builder.adicionar(parcela.pagamentoId(), MoneyUtils.toCents(parcela.valor()), parcela.dataVencimento(),
+                        parcela.cpfContratante(), parcela.registroCliente());
+            }
+        });
+        return builder.construir();
+    }
+
+    /**
+     * Estado de uma execução: contadores e os lotes ainda não gravados.
+     */
+    private class Execucao {
+        private final String arquivo;
+        private final String hash;
+        private final IndiceParcelasAbertas indice;
+        private final Set<Long> linhasJaPendentes;   // gravadas por uma tentativa anterior que falhou
+        private final Map<Long, LocalDate> baixasPendentes = new HashMap<>();
+        private final List<ConciliacaoPendente> pendencias = new ArrayList<>();
+        private final List<String> errosLeitura = new ArrayList<>();
+        private long creditos;
+        private long baixados;
+        private long ambiguos;
+        private long semCorrespondencia;
+        private long linhasInvalidas;
+
+        Execucao(String arquivo, String hash, IndiceParcelasAbertas indice, Set<Long> linhasJaPendentes) {
+            this.arquivo = arquivo;
+            this.hash = hash;
+            this.indice = indice;
+            this.linhasJaPendentes = linhasJaPendentes;
+        }
+
+        void processar(LancamentoExtrato credito) {
+            creditos++;
+            IndiceParcelasAbertas.Correspondencia correspondencia = indice.buscar(credito, janelaDias);
+            if (correspondencia.exata()) {
+                baixasPendentes.put(correspondencia.pagamentoId(), credito.data());
+                if (baixasPendentes.size() >= tamanhoLote) gravarBaixas();
+                return;
+            }
+
+            MotivoPendencia motivo = correspondencia.candidatos().isEmpty()
+                    ? MotivoPendencia.SEM_CORRESPONDENCIA : MotivoPendencia.AMBIGUO;
+            if (motivo == MotivoPendencia.AMBIGUO) ambiguos++;
+            else semCorrespondencia++;
+
+            if (linhasJaPendentes.contains(credito.linha())) return;
+            pendencias.add(ConciliacaoPendente.builder()
+                    .arquivo(arquivo)
+                    .hashArquivo(hash)
+                    .linhaArquivo(credito.linha())
+                    .dataLancamento(credito.data())
+                    .valor(MoneyUtils.fromCents(credito.centavos()))
+                    .documento(credito.documento())
+                    .descricao(credito.descricao())
+                    .motivo(motivo)
+                    .candidatos(correspondencia.candidatos().stream().map(String::valueOf).collect(Collectors.joining(",")))
+                    .build());
+            if (pendencias.size() >= tamanhoLote) gravarPendencias();
+        }
+
+        void rejeitar(LinhaInvalida invalida) {
+            linhasInvalidas++;
+            if (errosLeitura.size() < MAX_ERROS_RESUMO) {
+                errosLeitura.add("linha " + invalida.linha() + ": " + invalida.motivo());
+            }
+            log.warn("Conciliacao de {}: linha {} ignorada: {}", arquivo, invalida.linha(), invalida.motivo());
+        }
+
+        void descarregar() {
+            if (!baixasPendentes.isEmpty()) gravarBaixas();
+            if (!pendencias.isEmpty()) gravarPendencias();
+        }
+
+        private void gravarBaixas() {
+            baixados += pagamentoService.registrarPagamentos(baixasPendentes, OrigemAlteracao.CONCILIACAO);
+            baixasPendentes.clear();
+        }
+
+        private void gravarPendencias() {
+            conciliacaoPendenteRepository.saveAll(pendencias);
+            pendencias.clear();
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package dev.gustavorosa.cobranca_cp.service;
 
 import dev.gustavorosa.cobranca_cp.dto.ContratoDTO;
+import dev.gustavorosa.cobranca_cp.dto.ContratoDetailsDTO;
+import dev.gustavorosa.cobranca_cp.dto.RegeneracaoParcelasDTO;
 import dev.gustavorosa.cobranca_cp.model.Cliente;
 import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.Exclusao;
 import dev.gustavorosa.cobranca_cp.model.Pagamento;
 import dev.gustavorosa.cobranca_cp.repository.ContratoRepository;
 import dev.gustavorosa.cobranca_cp.util.StringUtils;
+import dev.gustavorosa.cobranca_cp.util.VersaoUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+@Slf4j
 @Service
 public class ContratoService {
 
@@ -24,30 +34,83 @@ public class ContratoService {
     @Autowired
     private PagamentoService pagamentoService;
 
+    @Autowired
+    private BuscaService buscaService;
+
+    @Autowired
+    private ExclusaoService exclusaoService;
+
+    @Autowired
+    private SaldoService saldoService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Grava o contrato, as parcelas e o saldo numa transação só: se o recálculo do saldo falhar, nada fica gravado.
+     */
+    @Transactional
     public Contrato registrarContrato(ContratoDTO contratoDTO) {
+        conferirDuracaoEValor(contratoDTO);
         Cliente cliente = clienteService.recuperarPorId(contratoDTO.clienteId());
         Contrato novoContrato = contratoDTO.toModel(cliente);
         novoContrato.setNomeContratante(StringUtils.toTitleCase(novoContrato.getNomeContratante()));
         List<Pagamento> novosPagamentos = pagamentoService.gerarPagamentosAutomaticos(novoContrato, contratoDTO.dataPrimeiraParcela());
         novoContrato.setPagamentos(novosPagamentos);
-        return contratoRepository.save(novoContrato);
+        Contrato salvo = contratoRepository.save(novoContrato);
+        saldoService.recalcularContratos(List.of(salvo.getId()));
+        buscaService.indexarContrato(salvo);
+        return salvo;
     }
 
+    @Transactional(readOnly = true)
     public List<Contrato> recuperarContratos() {
-        List<Contrato> todosContratos = contratoRepository.findAll();
+        List<Contrato> todosContratos = contratoRepository.findByExcluidoEmIsNull();
+        if(todosContratos.isEmpty()) throw new RuntimeException("Nenhum contrato encontrado.");
+        return todosContratos;
+    }
+
+    /**
+     * Listagem com só os campos de ContratoDetailsDTO em {@code campos} (ver ContratoDetailsDTO.CAMPOS).
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> recuperarContratos(List<String> campos) {
+        List<Map<String, Object>> todosContratos = ContratoDetailsDTO.CAMPOS.consultar(entityManager, campos);
         if(todosContratos.isEmpty()) throw new RuntimeException("Nenhum contrato encontrado.");
         return todosContratos;
     }
 
+    @Transactional(readOnly = true)
     public Contrato recuperarContratoPorId(Long id) {
-        Optional<Contrato> contratoRecuperado = contratoRepository.findById(id);
+        Optional<Contrato> contratoRecuperado = contratoRepository.findByIdAndExcluidoEmIsNull(id);
         if(contratoRecuperado.isEmpty()) throw new RuntimeException("Contrato não encontrado.");
         return contratoRecuperado.get();
     }
 
+    /**
+     * As mesmas regras do @Positive de ContratoDTO, que os controllers não validam: duração zero daria parcela
+     * infinita e, na edição, a remoção de todas as parcelas em aberto.
+     */
+    private static void conferirDuracaoEValor(ContratoDTO contratoDTO) {
+        if (contratoDTO.duracaoEmMeses() == null || contratoDTO.duracaoEmMeses() < 1) {
+            throw new IllegalArgumentException("Duracao do contrato deve ser de pelo menos 1 mes.");
+        }
+        if (contratoDTO.valorContrato() == null || contratoDTO.valorContrato() <= 0) {
+            throw new IllegalArgumentException("O valor do contrato deve ser positivo.");
+        }
+    }
+
+    /**
+     * Atualiza os dados do contrato e, na mesma transação, reconcilia o cronograma de parcelas
+     * com a nova duração, valor e primeira parcela (ver {@link PagamentoService#regenerarParcelas}).
+     * Com {@code contratoDTO.versao()} informada, recusa a alteração se o contrato mudou depois dessa leitura.
+     */
+    @Transactional
     public Contrato atualizarContrato(Long id, ContratoDTO contratoDTO) {
+        conferirDuracaoEValor(contratoDTO);
         Contrato contratoExistente = recuperarContratoPorId(id);
-        
+        VersaoUtils.conferir(Contrato.class, id, contratoDTO.versao(), contratoExistente.getVersao());
+
         // Atualiza os campos do contrato existente
         contratoExistente.setNomeContratante(StringUtils.toTitleCase(contratoDTO.nomeContratante()));
         contratoExistente.setCpfContratante(contratoDTO.cpfContratante());
@@ -57,11 +120,19 @@ public class ContratoService {
             contratoExistente.setDataInicioContrato(contratoDTO.dataInicioContrato());
         }
         
-        return contratoRepository.save(contratoExistente);
+        Contrato salvo = contratoRepository.save(contratoExistente);
+        RegeneracaoParcelasDTO regeneracao = pagamentoService.regenerarParcelas(salvo, contratoDTO.dataPrimeiraParcela());
+        if (regeneracao.houveAlteracao()) {
+            log.info("Parcelas do contrato {} regeneradas: {} inseridas, {} atualizadas, {} removidas, {} preservadas",
+                    salvo.getId(), regeneracao.inseridas(), regeneracao.atualizadas(), regeneracao.removidas(), regeneracao.preservadas());
+        }
+        // conflito de versão no contrato ou nas parcelas aparece antes de o índice de busca receber os dados novos
+        contratoRepository.flush();
+        buscaService.indexarContrato(salvo);
+        return salvo;
     }
 
-    public void excluirContrato(Long id) {
-        recuperarContratoPorId(id);
-        contratoRepository.deleteById(id);
+    public Exclusao excluirContrato(Long id, Boolean emSegundoPlano) {
+        return exclusaoService.excluirContrato(id, emSegundoPlano);
     }
 }
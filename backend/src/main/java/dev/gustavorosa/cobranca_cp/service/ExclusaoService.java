@@ -0,0 +1,209 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.infra.consultas.ContagemConsultas;
+import dev.gustavorosa.cobranca_cp.infra.consultas.MonitorConsultas;
+import dev.gustavorosa.cobranca_cp.infra.log.ContextoLog;
+import dev.gustavorosa.cobranca_cp.model.Exclusao;
+import dev.gustavorosa.cobranca_cp.model.StatusExclusao;
+import dev.gustavorosa.cobranca_cp.model.TipoExclusao;
+import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ContratoRepository;
+import dev.gustavorosa.cobranca_cp.repository.ExclusaoRepository;
+import dev.gustavorosa.cobranca_cp.repository.LembreteOutboxRepository;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Exclusão de clientes e contratos com DELETEs em massa, sem carregar as entidades (o cascade do JPA buscaria
+ * cada contrato e parcela e apagaria linha a linha).
+ *
+ * 1. Numa transação curta o cliente/contrato é marcado com excluidoEm e sai das consultas e da busca.
+ * 2. As parcelas são apagadas em lotes de app.exclusao.tamanho-lote, cada lote na sua transação, junto com os
+ *    lembretes ainda não enviados delas; depois os contratos e, por fim, o cliente (ordem das FKs).
+ * Exclusões com até app.exclusao.limite-sincrono parcelas rodam na própria requisição; as maiores (ou quando
+ * pedido) viram um job em segundo plano acompanhado por GET /exclusoes/{id}. Jobs interrompidos por um
+ * reinício são retomados na subida, já que cada etapa pode ser repetida sem efeito colateral.
+ */
+@Slf4j
+@Service
+public class ExclusaoService {
+
+    private final ExclusaoRepository exclusaoRepository;
+    private final ClienteRepository clienteRepository;
+    private final ContratoRepository contratoRepository;
+    private final PagamentoRepository pagamentoRepository;
+    private final LembreteOutboxRepository lembreteOutboxRepository;
+    private final BuscaService buscaService;
+    private final SaldoService saldoService;
+    private final TransactionTemplate transacao;
+    private final ExecutorService executor;
+    private final MonitorConsultas monitorConsultas;
+
+    @Value("${app.exclusao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${app.exclusao.limite-sincrono:2000}")
+    private long limiteSincrono;
+
+    public ExclusaoService(ExclusaoRepository exclusaoRepository, ClienteRepository clienteRepository,
+                           ContratoRepository contratoRepository, PagamentoRepository pagamentoRepository,
+                           LembreteOutboxRepository lembreteOutboxRepository, BuscaService buscaService,
+                           SaldoService saldoService, PlatformTransactionManager transactionManager,
+                           MonitorConsultas monitorConsultas) {
+        this.exclusaoRepository = exclusaoRepository;
+        this.clienteRepository = clienteRepository;
+        this.contratoRepository = contratoRepository;
+        this.pagamentoRepository = pagamentoRepository;
+        this.lembreteOutboxRepository = lembreteOutboxRepository;
+        this.buscaService = buscaService;
+        this.saldoService = saldoService;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.monitorConsultas = monitorConsultas;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "exclusoes");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param emSegundoPlano true força job em segundo plano, false força execução na requisição,
+     *                       null decide pelo número de parcelas
+     */
+    public Exclusao excluirCliente(Long clienteId, Boolean emSegundoPlano) {
+        Exclusao exclusao = transacao.execute(status -> {
+            if (clienteRepository.marcarExclusao(clienteId, LocalDateTime.now()) == 0) {
+                throw new RuntimeException("Cliente com o id " + clienteId + " nao encontrado.");
+            }
+            contratoRepository.marcarExclusaoPorCliente(clienteId, LocalDateTime.now());
+            saldoService.removerCliente(clienteId);
+            return registrar(TipoExclusao.CLIENTE, clienteId, pagamentoRepository.countByContratoClienteId(clienteId));
+        });
+        buscaService.removerCliente(clienteId);
+        return iniciar(exclusao, emSegundoPlano);
+    }
+
+    public Exclusao excluirContrato(Long contratoId, Boolean emSegundoPlano) {
+        Exclusao exclusao = transacao.execute(status -> {
+            if (contratoRepository.marcarExclusao(contratoId, LocalDateTime.now()) == 0) {
+                throw new RuntimeException("Contrato não encontrado.");
+            }
+            saldoService.removerContrato(contratoId);
+            return registrar(TipoExclusao.CONTRATO, contratoId, pagamentoRepository.countByContratoId(contratoId));
+        });
+        buscaService.removerContrato(contratoId);
+        return iniciar(exclusao, emSegundoPlano);
+    }
+
+    public Exclusao recuperarPorId(Long id) {
+        return exclusaoRepository.findById(id).orElseThrow(() -> new RuntimeException("Exclusao nao encontrada."));
+    }
+
+    public List<Exclusao> recuperarRecentes() {
+        return exclusaoRepository.findTop50ByOrderByIdDesc();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void retomarInterrompidas() {
+        List<Exclusao> interrompidas = exclusaoRepository.findByStatusInOrderById(
+                List.of(StatusExclusao.PENDENTE, StatusExclusao.EXECUTANDO));
+        for (Exclusao exclusao : interrompidas) {
+            log.info("Retomando exclusao {} de {} {}", exclusao.getId(), exclusao.getTipo(), exclusao.getAlvoId());
+            executor.submit(ContextoLog.emJob("exclusao", () -> executar(exclusao.getId())));
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private Exclusao registrar(TipoExclusao tipo, Long alvoId, long parcelasEstimadas) {
+        return exclusaoRepository.save(Exclusao.builder()
+                .tipo(tipo)
+                .alvoId(alvoId)
+                .parcelasEstimadas(parcelasEstimadas)
+                .usuario(usuarioAtual())
+                .criadaEm(LocalDateTime.now())
+                .build());
+    }
+
+    private Exclusao iniciar(Exclusao exclusao, Boolean emSegundoPlano) {
+        boolean segundoPlano = emSegundoPlano != null ? emSegundoPlano : exclusao.getParcelasEstimadas() > limiteSincrono;
+        if (segundoPlano) {
+            executor.submit(ContextoLog.emJob("exclusao", () -> executar(exclusao.getId())));
+            return exclusao;
+        }
+        return executar(exclusao.getId());
+    }
+
+    private Exclusao executar(Long exclusaoId) {
+        Exclusao exclusao = exclusaoRepository.findById(exclusaoId).orElseThrow();
+        exclusao.setStatus(StatusExclusao.EXECUTANDO);
+        exclusao.setIniciadaEm(LocalDateTime.now());
+        exclusao = exclusaoRepository.save(exclusao);
+        long inicio = System.currentTimeMillis();
+        try {
+            Long alvoId = exclusao.getAlvoId();
+            if (exclusao.getTipo() == TipoExclusao.CLIENTE) {
+                exclusao = excluirParcelas(exclusao, () -> pagamentoRepository.findIdsPorCliente(alvoId, PageRequest.of(0, tamanhoLote)));
+                Integer contratos = transacao.execute(status -> {
+                    int excluidos = contratoRepository.excluirDefinitivamentePorCliente(alvoId);
+                    clienteRepository.excluirDefinitivamente(alvoId);
+                    return excluidos;
+                });
+                exclusao.setContratosExcluidos(exclusao.getContratosExcluidos() + contratos);
+            } else {
+                exclusao = excluirParcelas(exclusao, () -> pagamentoRepository.findIdsPorContrato(alvoId, PageRequest.of(0, tamanhoLote)));
+                Integer contratos = transacao.execute(status -> contratoRepository.excluirDefinitivamente(alvoId));
+                exclusao.setContratosExcluidos(exclusao.getContratosExcluidos() + contratos);
+            }
+            exclusao.setStatus(StatusExclusao.CONCLUIDA);
+            exclusao.setConcluidaEm(LocalDateTime.now());
+            log.info("Exclusao {} de {} {} concluida em {} ms: {} parcelas, {} contratos", exclusao.getId(), exclusao.getTipo(),
+                    alvoId, System.currentTimeMillis() - inicio, exclusao.getParcelasExcluidas(), exclusao.getContratosExcluidos());
+        } catch (Exception e) {
+            log.error("Erro na exclusao {}: {}", exclusaoId, e.getMessage(), e);
+            exclusao.setStatus(StatusExclusao.FALHA);
+            exclusao.setErro(e.getMessage());
+        }
+        return exclusaoRepository.save(exclusao);
+    }
+
+    private Exclusao excluirParcelas(Exclusao exclusao, Supplier<List<Long>> proximoLote) {
+        while (true) {
+            try (ContagemConsultas.Escopo consultas = monitorConsultas.abrir("job exclusao (lote)")) {
+                Integer excluidas = transacao.execute(status -> {
+                    List<Long> ids = proximoLote.get();
+                    if (ids.isEmpty()) return 0;
+                    lembreteOutboxRepository.excluirNaoEnviados(ids);
+                    return pagamentoRepository.excluirDefinitivamente(ids);
+                });
+                if (excluidas == null || excluidas == 0) return exclusao;
+                exclusao.setParcelasExcluidas(exclusao.getParcelasExcluidas() + excluidas);
+                exclusao = exclusaoRepository.save(exclusao); // progresso visível em GET /exclusoes/{id}
+            }
+        }
+    }
+
+    private static String usuarioAtual() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacao != null ? autenticacao.getName() : null;
+    }
+}
@@ -0,0 +1,123 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.dto.ExtratoClienteDTO;
+import dev.gustavorosa.cobranca_cp.dto.ExtratoContratoDTO;
+import dev.gustavorosa.cobranca_cp.dto.LinhaExtratoDTO;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.dto.TotaisExtratoDTO;
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ContratoRepository;
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extratos de cliente e de contrato montados a partir de uma única consulta achatada (cliente x contrato x
+ * parcela), sem carregar entidades nem disparar lazy loads: o número de comandos SQL é sempre um, não importa
+ * quantos contratos e parcelas o cliente tenha. Os totais são acumulados em centavos na mesma passada.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExtratoService {
+
+    private final ClienteRepository clienteRepository;
+    private final ContratoRepository contratoRepository;
+
+    @Transactional(readOnly = true)
+    public ExtratoClienteDTO extratoCliente(Long clienteId) {
+        List<LinhaExtratoDTO> linhas = clienteRepository.findLinhasExtrato(clienteId);
+        if (linhas.isEmpty()) {
+            throw new RuntimeException("Cliente com o id " + clienteId + " nao encontrado.");
+        }
+
+        Totais totaisCliente = new Totais();
+        List<ExtratoContratoDTO> contratos = new ArrayList<>();
+        int inicio = 0;
+        while (inicio < linhas.size()) {
+            Long contratoId = linhas.get(inicio).contratoId();
+            if (contratoId == null) break; // cliente sem contratos: única linha, toda nula do lado do contrato
+            int fim = inicio;
+            while (fim < linhas.size() && contratoId.equals(linhas.get(fim).contratoId())) fim++;
+            contratos.add(montarContrato(linhas.subList(inicio, fim), totaisCliente));
+            inicio = fim;
+        }
+
+        LinhaExtratoDTO primeira = linhas.get(0);
+        return new ExtratoClienteDTO(primeira.clienteId(), primeira.clienteNome(), primeira.clienteRegistro(),
+                totaisCliente.toDTO(), contratos);
+    }
+
+    @Transactional(readOnly = true)
+    public ExtratoContratoDTO extratoContrato(Long contratoId) {
+        List<LinhaExtratoDTO> linhas = contratoRepository.findLinhasExtrato(contratoId);
+        if (linhas.isEmpty()) {
+            throw new RuntimeException("Contrato não encontrado.");
+        }
+        return montarContrato(linhas, null);
+    }
+
+    private ExtratoContratoDTO montarContrato(List<LinhaExtratoDTO> linhas, Totais totaisCliente) {
+        Totais totais = new Totais();
+        List<PagamentoDTO> pagamentos = new ArrayList<>(linhas.size());
+        for (LinhaExtratoDTO linha : linhas) {
+            if (linha.pagamentoId() == null) continue; // contrato sem parcelas
+            pagamentos.add(new PagamentoDTO(
+                    linha.pagamentoId(),
+                    linha.contratoId(),
+                    linha.valor(),
+                    linha.valorOriginal(),
+                    linha.valorAtualizado(),
+                    linha.dataPagamento() != null ? linha.dataPagamento().toString() : "",
+                    linha.dataVencimento().toString(),
+                    linha.status().toString(),
+                    linha.observacao(),
+                    linha.numeroParcela(),
+                    linha.versao()
+            ));
+            totais.somar(linha.status(), linha.valor());
+            if (totaisCliente != null) totaisCliente.somar(linha.status(), linha.valor());
+        }
+
+        LinhaExtratoDTO primeira = linhas.get(0);
+        return new ExtratoContratoDTO(primeira.contratoId(), primeira.clienteId(), primeira.nomeContratante(),
+                primeira.cpfContratante(), primeira.duracaoEmMeses(), primeira.valorContrato(), totais.toDTO(), pagamentos);
+    }
+
+    private static final class Totais {
+        private int emAberto;
+        private int atrasadas;
+        private int pagas;
+        private long centavosEmAberto;
+        private long centavosAtrasado;
+        private long centavosPago;
+
+        void somar(SituacaoPagamento status, Double valor) {
+            long centavos = valor != null ? MoneyUtils.toCents(valor) : 0;
+            switch (status) {
+                case EM_ABERTO -> {
+                    emAberto++;
+                    centavosEmAberto += centavos;
+                }
+                case ATRASADO -> {
+                    atrasadas++;
+                    centavosAtrasado += centavos;
+                }
+                case PAGO, PAGO_COM_ATRASO -> {
+                    pagas++;
+                    centavosPago += centavos;
+                }
+            }
+        }
+
+        TotaisExtratoDTO toDTO() {
+            return new TotaisExtratoDTO(emAberto + atrasadas + pagas, emAberto, atrasadas, pagas,
+                    MoneyUtils.fromCents(centavosEmAberto), MoneyUtils.fromCents(centavosAtrasado),
+                    MoneyUtils.fromCents(centavosPago), MoneyUtils.fromCents(centavosEmAberto + centavosAtrasado));
+        }
+    }
+}
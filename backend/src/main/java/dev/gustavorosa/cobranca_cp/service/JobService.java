@@ -0,0 +1,450 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.dto.ExecucaoJobDTO;
+import dev.gustavorosa.cobranca_cp.dto.JobDTO;
+import dev.gustavorosa.cobranca_cp.dto.PontoTendenciaJobDTO;
+import dev.gustavorosa.cobranca_cp.dto.TendenciaJobDTO;
+import dev.gustavorosa.cobranca_cp.infra.consultas.ContagemConsultas;
+import dev.gustavorosa.cobranca_cp.infra.consultas.MonitorConsultas;
+import dev.gustavorosa.cobranca_cp.infra.job.Job;
+import dev.gustavorosa.cobranca_cp.infra.log.ContextoLog;
+import dev.gustavorosa.cobranca_cp.model.EstadoJob;
+import dev.gustavorosa.cobranca_cp.model.ExecucaoJob;
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
+import dev.gustavorosa.cobranca_cp.model.ReservaJob;
+import dev.gustavorosa.cobranca_cp.model.StatusExecucaoJob;
+import dev.gustavorosa.cobranca_cp.repository.EstadoJobRepository;
+import dev.gustavorosa.cobranca_cp.repository.ExecucaoJobRepository;
+import dev.gustavorosa.cobranca_cp.repository.ReservaJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Registro dos jobs em segundo plano (beans que implementam Job). Toda execução, agendada ou manual, passa
+ * por aqui: grava início, fim, registros processados, registros/segundo e o erro, abre o contexto de log
+ * e a contagem de consultas do job, respeita a pausa e impede duas execuções simultâneas do mesmo job.
+ * Execução desfeita por conflito de versão (uma requisição gravou uma linha que o job tinha lido) é repetida
+ * com o estado atual, em vez de travar as linhas e enfileirar o job atrás do tráfego interativo.
+ * <p>
+ * Entre instâncias, cada execução reserva o job em RESERVAS_JOB (update condicional, só uma instância ganha)
+ * e renova a reserva enquanto roda; quem não consegue reservar pula a execução. Nos jobs de uma vez por data
+ * a reserva também guarda a última data concluída, então a virada do dia roda em uma instância só. A reserva
+ * de uma instância que caiu vence em {@code app.jobs.reserva-segundos}.
+ */
+@Slf4j
+@Service
+public class JobService {
+
+    private static final int LIMITE_HISTORICO = 500;
+    private static final int TAMANHO_MAXIMO_ERRO = 1000;
+    // a última execução é comparada com a mediana de até 20 anteriores; com menos de 5 não há base
+    private static final int EXECUCOES_BASE_TENDENCIA = 20;
+    private static final int MINIMO_BASE_TENDENCIA = 5;
+    private static final double FRACAO_REGRESSAO = 0.7;
+
+    private final ExecucaoJobRepository execucaoJobRepository;
+    private final EstadoJobRepository estadoJobRepository;
+    private final ReservaJobRepository reservaJobRepository;
+    private final MonitorConsultas monitorConsultas;
+    // os jobs dependem deste serviço para se agendar; resolvê-los só no uso evita o ciclo entre os beans
+    private final ObjectProvider<Job> provedorJobs;
+    private final Set<String> emExecucao = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> reservas = new ConcurrentHashMap<>();   // job -> reserva desta instância
+    private final ExecutorService executor;
+    private final Executor executorComContexto;
+    private volatile Map<String, Job> jobs;
+
+    @Value("${app.jobs.retencao-dias:180}")
+    private int retencaoDias;
+
+    @Value("${app.jobs.tentativas-conflito:3}")
+    private int tentativasConflito;
+
+    @Value("${app.jobs.espera-conflito-ms:500}")
+    private long esperaConflitoMs;
+
+    @Value("${app.jobs.reserva-segundos:300}")
+    private long reservaSegundos;
+
+    public JobService(ExecucaoJobRepository execucaoJobRepository, EstadoJobRepository estadoJobRepository,
+                      ReservaJobRepository reservaJobRepository, MonitorConsultas monitorConsultas,
+                      ObjectProvider<Job> provedorJobs) {
+        this.execucaoJobRepository = execucaoJobRepository;
+        this.estadoJobRepository = estadoJobRepository;
+        this.reservaJobRepository = reservaJobRepository;
+        this.monitorConsultas = monitorConsultas;
+        this.provedorJobs = provedorJobs;
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "jobs-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executorComContexto = ContextoLog.propagando(executor);
+    }
+
+    /**
+     * Execuções que estavam em andamento quando a aplicação parou nunca vão terminar; ficam como interrompidas.
+     * As de jobs ainda reservados (rodando em outra instância) ficam como estão.
+     */
+    @PostConstruct
+    public void marcarInterrompidas() {
+        int interrompidas = execucaoJobRepository.marcarInterrompidas(StatusExecucaoJob.EXECUTANDO,
+                StatusExecucaoJob.INTERROMPIDA, LocalDateTime.now());
+        if (interrompidas > 0) {
+            log.warn("{} execução(ões) de job interrompida(s) por uma instância que parou no meio", interrompidas);
+        }
+    }
+
+    public Map<String, Job> jobs() {
+        Map<String, Job> registrados = jobs;
+        if (registrados == null) {
+            registrados = provedorJobs.orderedStream()
+                    .collect(Collectors.toMap(Job::nome, job -> job, (a, b) -> {
+                        throw new IllegalStateException("Dois jobs com o nome " + a.nome());
+                    }, TreeMap::new));
+            jobs = registrados;
+        }
+        return registrados;
+    }
+
+    public Optional<Job> buscar(String nome) {
+        return Optional.ofNullable(jobs().get(nome));
+    }
+
+    /**
+     * Execução vinda do agendamento (ou da inicialização), na thread de quem chama. Não roda se o job estiver
+     * pausado, se já estiver rodando (aqui ou em outra instância) ou, nos jobs de uma vez por data, se hoje já
+     * tiver execução concluída.
+     */
+    public Optional<ExecucaoJob> executarAgendado(Job job, OrigemExecucaoJob origem) {
+        if (pausado(job.nome())) {
+            log.info("Job {} pausado; execução {} ignorada", job.nome(), origem);
+            return Optional.empty();
+        }
+        LocalDate hoje = LocalDate.now();
+        if (job.umaVezPorData() && concluido(job.nome(), hoje)) {
+            log.info("Job {} já concluído para {}", job.nome(), hoje);
+            return Optional.empty();
+        }
+        if (!emExecucao.add(job.nome())) {
+            log.warn("Job {} ainda em execução; execução {} ignorada", job.nome(), origem);
+            return Optional.empty();
+        }
+        try {
+            String reserva = reservar(job, job.umaVezPorData() ? hoje : null);
+            if (reserva == null) {
+                log.info("Job {} reservado por outra instância{}; execução {} ignorada", job.nome(),
+                        job.umaVezPorData() ? " ou já concluído para " + hoje : "", origem);
+                return Optional.empty();
+            }
+            ExecucaoJob execucao = null;
+            try {
+                // outra instância pode ter concluído entre a verificação acima e a reserva
+                if (job.umaVezPorData() && concluido(job.nome(), hoje)) {
+                    log.info("Job {} já concluído para {}", job.nome(), hoje);
+                    return Optional.empty();
+                }
+                execucao = iniciar(job, hoje, origem, null);
+                return rodar(job, execucao);
+            } finally {
+                boolean concluida = execucao != null && execucao.getStatus() == StatusExecucaoJob.CONCLUIDA;
+                liberar(job, reserva, job.umaVezPorData() && concluida ? hoje : null);
+            }
+        } finally {
+            emExecucao.remove(job.nome());
+        }
+    }
+
+    /**
+     * Disparo manual pela API: roda em segundo plano, inclusive com o job pausado e para uma data que já foi
+     * processada. A execução é devolvida já gravada, para acompanhar por GET /jobs/{nome}/execucoes/{id}.
+     */
+    public ExecucaoJob disparar(Job job, LocalDate dataReferencia, String usuario) {
+        if (!emExecucao.add(job.nome())) {
+            throw new IllegalStateException("O job " + job.nome() + " já está em execução");
+        }
+        String reserva = null;
+        try {
+            reserva = reservar(job, null);
+            if (reserva == null) {
+                throw new IllegalStateException("O job " + job.nome() + " está em execução em outra instância");
+            }
+            ExecucaoJob execucao = iniciar(job, dataReferencia != null ? dataReferencia : LocalDate.now(),
+                    OrigemExecucaoJob.MANUAL, usuario);
+            String reservaExecucao = reserva;
+            executorComContexto.execute(() -> {
+                try {
+                    rodar(job, execucao);
+                } finally {
+                    liberar(job, reservaExecucao, null);
+                    emExecucao.remove(job.nome());
+                }
+            });
+            log.info("Job {} disparado manualmente por {} para {}", job.nome(), usuario, execucao.getDataReferencia());
+            return execucao;
+        } catch (RuntimeException e) {
+            if (reserva != null) liberar(job, reserva, null);
+            emExecucao.remove(job.nome());
+            if (e instanceof RejectedExecutionException) {
+                throw new IllegalStateException("Não foi possível iniciar o job " + job.nome(), e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param dataPendente nos jobs de uma vez por data, a data que ainda não pode ter sido concluída
+     * @return a reserva, ou null se o job está com outra instância (ou a data já foi concluída)
+     */
+    private String reservar(Job job, LocalDate dataPendente) {
+        if (!reservaJobRepository.existsById(job.nome())) {
+            try {
+                reservaJobRepository.saveAndFlush(ReservaJob.builder().job(job.nome()).build());
+            } catch (DataIntegrityViolationException e) {
+                // outra instância criou a linha ao mesmo tempo
+            }
+        }
+        String reserva = UUID.randomUUID().toString();
+        LocalDateTime agora = LocalDateTime.now();
+        int reservados = dataPendente != null
+                ? reservaJobRepository.reservarParaData(job.nome(), reserva, dataPendente, agora, agora.plusSeconds(reservaSegundos))
+                : reservaJobRepository.reservar(job.nome(), reserva, agora, agora.plusSeconds(reservaSegundos));
+        if (reservados == 0) return null;
+        reservas.put(job.nome(), reserva);
+        return reserva;
+    }
+
+    /**
+     * Falha aqui não derruba a execução que terminou: a reserva vence sozinha em {@code reservaSegundos}.
+     */
+    private void liberar(Job job, String reserva, LocalDate dataConcluida) {
+        reservas.remove(job.nome(), reserva);
+        try {
+            if (dataConcluida != null) reservaJobRepository.liberarConcluindo(job.nome(), reserva, dataConcluida);
+            else reservaJobRepository.liberar(job.nome(), reserva);
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível liberar a reserva do job {}: {}", job.nome(), e.getMessage());
+        }
+    }
+
+    /**
+     * Renova as reservas dos jobs rodando nesta instância e marca como interrompidas as execuções cuja reserva
+     * venceu (instância que caiu no meio).
+     */
+    @Scheduled(fixedDelayString = "${app.jobs.renovacao-reserva-ms:60000}")
+    public void renovarReservas() {
+        if (!reservas.isEmpty()) {
+            reservaJobRepository.renovar(List.copyOf(reservas.values()), LocalDateTime.now().plusSeconds(reservaSegundos));
+        }
+        marcarInterrompidas();
+    }
+
+    private ExecucaoJob iniciar(Job job, LocalDate dataReferencia, OrigemExecucaoJob origem, String usuario) {
+        ExecucaoJob execucao = ExecucaoJob.builder()
+                .job(job.nome())
+                .dataReferencia(dataReferencia)
+                .origem(origem)
+                .usuario(usuario)
+                .iniciadaEm(LocalDateTime.now())
+                .build();
+        // execuções manuais sempre ficam no histórico, para o id devolvido existir
+        return job.registraExecucoesVazias() || origem == OrigemExecucaoJob.MANUAL ? execucaoJobRepository.save(execucao) : execucao;
+    }
+
+    private Optional<ExecucaoJob> rodar(Job job, ExecucaoJob execucao) {
+        String idLog = execucao.getId() != null ? execucao.getId().toString() : ContextoLog.novoId();
+        long inicio = System.nanoTime();
+        try (ContextoLog.Escopo escopo = ContextoLog.job(job.nome(), idLog);
+             ContagemConsultas.Escopo consultas = monitorConsultas.abrir("job " + job.nome())) {
+            try {
+                long registros = executarComRetentativas(job, execucao);
+                concluir(execucao, StatusExecucaoJob.CONCLUIDA, registros, inicio, null);
+                if (registros == 0 && execucao.getId() == null) {
+                    return Optional.empty();
+                }
+                log.info("Job {} concluído em {} ms: {} registros ({} por segundo)", job.nome(), execucao.getDuracaoMs(),
+                        registros, execucao.getRegistrosPorSegundo());
+            } catch (Exception e) {
+                concluir(execucao, StatusExecucaoJob.FALHA, 0, inicio, e.toString());
+                log.error("Erro ao executar job {}: {}", job.nome(), e.getMessage(), e);
+            }
+        }
+        return Optional.of(execucaoJobRepository.save(execucao));
+    }
+
+    /**
+     * A transação desfeita pelo conflito é só a do job; cada nova tentativa abre outra e relê as linhas.
+     * A espera cresce a cada tentativa, com uma parte aleatória para não colidir de novo com o mesmo lote.
+     */
+    private long executarComRetentativas(Job job, ExecucaoJob execucao) {
+        for (int tentativa = 1; ; tentativa++) {
+            execucao.setTentativas(tentativa);
+            try {
+                return job.executar(execucao.getDataReferencia(), execucao.getOrigem());
+            } catch (OptimisticLockingFailureException e) {
+                if (tentativa >= tentativasConflito) throw e;
+                long espera = esperaConflitoMs * tentativa + ThreadLocalRandom.current().nextLong(esperaConflitoMs + 1);
+                log.warn("Job {} em conflito de versão na tentativa {} de {} ({}); repetindo em {} ms", job.nome(), tentativa,
+                        tentativasConflito, e.getMessage(), espera);
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException interrompido) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void concluir(ExecucaoJob execucao, StatusExecucaoJob status, long registros, long inicioNanos, String erro) {
+        long duracaoMs = (System.nanoTime() - inicioNanos) / 1_000_000;
+        execucao.setStatus(status);
+        execucao.setRegistros(registros);
+        execucao.setDuracaoMs(duracaoMs);
+        execucao.setRegistrosPorSegundo(taxa(registros, duracaoMs));
+        execucao.setErro(erro != null && erro.length() > TAMANHO_MAXIMO_ERRO ? erro.substring(0, TAMANHO_MAXIMO_ERRO) : erro);
+        execucao.setConcluidaEm(LocalDateTime.now());
+    }
+
+    public void pausar(Job job, String usuario) {
+        alterarPausa(job, true, usuario);
+    }
+
+    public void retomar(Job job, String usuario) {
+        alterarPausa(job, false, usuario);
+    }
+
+    private void alterarPausa(Job job, boolean pausado, String usuario) {
+        estadoJobRepository.save(new EstadoJob(job.nome(), pausado, usuario, LocalDateTime.now()));
+        log.info("Job {} {} por {}", job.nome(), pausado ? "pausado" : "retomado", usuario);
+    }
+
+    /**
+     * Se há execução CONCLUIDA do job para a data, feita nesta ou em outra instância.
+     */
+    public boolean concluido(String nome, LocalDate data) {
+        return execucaoJobRepository.existsByJobAndDataReferenciaAndStatus(nome, data, StatusExecucaoJob.CONCLUIDA);
+    }
+
+    public boolean pausado(String nome) {
+        return estadoJobRepository.findById(nome).map(EstadoJob::isPausado).orElse(false);
+    }
+
+    public List<JobDTO> listar() {
+        return jobs().values().stream()
+                .map(job -> new JobDTO(job.nome(), job.descricao(), pausado(job.nome()), emExecucao.contains(job.nome()),
+                        execucaoJobRepository.findFirstByJobOrderByIdDesc(job.nome()).map(ExecucaoJobDTO::new).orElse(null)))
+                .toList();
+    }
+
+    public List<ExecucaoJob> historico(Job job, int limite) {
+        int tamanho = Math.max(1, Math.min(limite, LIMITE_HISTORICO));
+        return execucaoJobRepository.findByJobOrderByIdDesc(job.nome(), PageRequest.of(0, tamanho));
+    }
+
+    public Optional<ExecucaoJob> execucao(Job job, Long id) {
+        return execucaoJobRepository.findByIdAndJob(id, job.nome());
+    }
+
+    /**
+     * Duração e vazão por dia das execuções concluídas nos últimos dias, e a vazão da última execução contra
+     * a mediana das anteriores: é o que mostra uma regressão (índice perdido, lote mal dimensionado) antes
+     * que o job noturno passe a invadir o horário comercial.
+     */
+    public TendenciaJobDTO tendencia(Job job, int dias) {
+        int periodo = Math.max(1, dias);
+        List<ExecucaoJob> concluidas = execucaoJobRepository.findByJobAndStatusAndIniciadaEmGreaterThanEqualOrderByIniciadaEm(
+                job.nome(), StatusExecucaoJob.CONCLUIDA, LocalDate.now().minusDays(periodo - 1L).atStartOfDay());
+
+        List<PontoTendenciaJobDTO> pontos = concluidas.stream()
+                .collect(Collectors.groupingBy(e -> e.getIniciadaEm().toLocalDate(), TreeMap::new, Collectors.toList()))
+                .entrySet().stream()
+                .map(dia -> ponto(dia.getKey(), dia.getValue()))
+                .toList();
+
+        Double ultima = null;
+        Double mediana = null;
+        Double variacao = null;
+        boolean regressao = false;
+        if (!concluidas.isEmpty()) {
+            ultima = concluidas.get(concluidas.size() - 1).getRegistrosPorSegundo();
+            List<Double> anteriores = concluidas.subList(Math.max(0, concluidas.size() - 1 - EXECUCOES_BASE_TENDENCIA), concluidas.size() - 1)
+                    .stream()
+                    .map(ExecucaoJob::getRegistrosPorSegundo)
+                    .filter(taxa -> taxa != null)
+                    .sorted()
+                    .toList();
+            if (ultima != null && anteriores.size() >= MINIMO_BASE_TENDENCIA) {
+                int meio = anteriores.size() / 2;
+                mediana = anteriores.size() % 2 == 1 ? anteriores.get(meio) : (anteriores.get(meio - 1) + anteriores.get(meio)) / 2;
+                if (mediana > 0) {
+                    variacao = arredondar((ultima - mediana) / mediana * 100);
+                    regressao = ultima < mediana * FRACAO_REGRESSAO;
+                }
+            }
+        }
+        return new TendenciaJobDTO(job.nome(), periodo, pontos, ultima, mediana, variacao, regressao);
+    }
+
+    private static PontoTendenciaJobDTO ponto(LocalDate data, List<ExecucaoJob> execucoes) {
+        long duracaoTotal = 0;
+        long duracaoMaxima = 0;
+        long registros = 0;
+        for (ExecucaoJob execucao : execucoes) {
+            long duracao = execucao.getDuracaoMs() != null ? execucao.getDuracaoMs() : 0;
+            duracaoTotal += duracao;
+            duracaoMaxima = Math.max(duracaoMaxima, duracao);
+            registros += execucao.getRegistros() != null ? execucao.getRegistros() : 0;
+        }
+        return new PontoTendenciaJobDTO(data, execucoes.size(), duracaoTotal / execucoes.size(), duracaoMaxima, registros,
+                taxa(registros, duracaoTotal));
+    }
+
+    private static Double taxa(long registros, long duracaoMs) {
+        if (registros == 0) return 0.0;
+        return arredondar(registros * 1000.0 / Math.max(1, duracaoMs));
+    }
+
+    private static Double arredondar(double valor) {
+        return Math.round(valor * 10) / 10.0;
+    }
+
+    @Scheduled(cron = "${app.jobs.limpeza-cron:0 30 3 * * *}")
+    public void excluirExecucoesAntigas() {
+        int excluidas = execucaoJobRepository.excluirAnteriores(LocalDate.now().minusDays(retencaoDias).atStartOfDay());
+        if (excluidas > 0) {
+            log.info("{} execução(ões) de job anteriores a {} dias excluída(s)", excluidas, retencaoDias);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+}
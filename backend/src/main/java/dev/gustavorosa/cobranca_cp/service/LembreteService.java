@@ -0,0 +1,104 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.LembreteOutbox;
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import dev.gustavorosa.cobranca_cp.model.TipoLembrete;
+import dev.gustavorosa.cobranca_cp.repository.LembreteOutboxRepository;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Enfileira lembretes de cobrança na tabela de outbox.
+ * Os métodos participam da transação de quem chama, então o lembrete só existe se a alteração
+ * do pagamento for confirmada. O envio em si fica a cargo do DespachanteLembretes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LembreteService {
+
+    // limite de parâmetros por IN na consulta de chaves existentes (o PostgreSQL aceita até 32767 por comando)
+    private static final int TAMANHO_LOTE = 1000;
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final LembreteOutboxRepository lembreteOutboxRepository;
+    private final PagamentoRepository pagamentoRepository;
+
+    @Value("${app.lembretes.dias-antecedencia:3}")
+    private int diasAntecedencia;
+
+    @Transactional
+    public int registrarAtrasos(List<Pagamento> novosAtrasados) {
+        Map<String, Pagamento> porChave = new LinkedHashMap<>();
+        for (Pagamento pagamento : novosAtrasados) {
+            porChave.put(TipoLembrete.ATRASO + ":" + pagamento.getId(), pagamento);
+        }
+        return enfileirar(TipoLembrete.ATRASO, porChave);
+    }
+
+    /**
+     * Enfileira um lembrete para cada parcela em aberto que vence nos próximos dias.
+     * Cada parcela recebe um único lembrete por data de vencimento, mesmo que o job rode mais de uma vez.
+     */
+    @Transactional
+    public int registrarVencimentosProximos(LocalDate hoje) {
+        List<Pagamento> aVencer = pagamentoRepository
+                .findByDataVencimentoBetweenAndDataPagamentoIsNull(hoje, hoje.plusDays(diasAntecedencia));
+        Map<String, Pagamento> porChave = new LinkedHashMap<>();
+        for (Pagamento pagamento : aVencer) {
+            porChave.put(TipoLembrete.VENCIMENTO_PROXIMO + ":" + pagamento.getId() + ":" + pagamento.getDataVencimento(), pagamento);
+        }
+        return enfileirar(TipoLembrete.VENCIMENTO_PROXIMO, porChave);
+    }
+
+    private int enfileirar(TipoLembrete tipo, Map<String, Pagamento> porChave) {
+        if (porChave.isEmpty()) {
+            return 0;
+        }
+        List<String> chaves = List.copyOf(porChave.keySet());
+        Set<String> existentes = new HashSet<>();
+        for (int inicio = 0; inicio < chaves.size(); inicio += TAMANHO_LOTE) {
+            existentes.addAll(lembreteOutboxRepository.findChavesExistentes(chaves.subList(inicio, Math.min(inicio + TAMANHO_LOTE, chaves.size()))));
+        }
+        List<LembreteOutbox> novos = porChave.entrySet().stream()
+                .filter(e -> !existentes.contains(e.getKey()))
+                .map(e -> criarLembrete(e.getKey(), tipo, e.getValue()))
+                .toList();
+        lembreteOutboxRepository.saveAll(novos);
+        log.info("{} lembretes de {} enfileirados", novos.size(), tipo);
+        return novos.size();
+    }
+
+    private LembreteOutbox criarLembrete(String chave, TipoLembrete tipo, Pagamento pagamento) {
+        Cliente cliente = pagamento.getContrato().getCliente();
+        String valor = String.format(Locale.forLanguageTag("pt-BR"), "R$ %.2f", pagamento.getValor());
+        String vencimento = pagamento.getDataVencimento().format(FORMATO_DATA);
+        String mensagem = tipo == TipoLembrete.ATRASO
+                ? "Olá " + cliente.getNome() + ", a parcela " + pagamento.getNumeroParcela() + " no valor de " + valor
+                        + " venceu em " + vencimento + " e ainda não identificamos o pagamento."
+                : "Olá " + cliente.getNome() + ", lembramos que a parcela " + pagamento.getNumeroParcela()
+                        + " no valor de " + valor + " vence em " + vencimento + ".";
+
+        return LembreteOutbox.builder()
+                .chave(chave)
+                .pagamentoId(pagamento.getId())
+                .tipo(tipo)
+                .destinatario(cliente.getTelefone())
+                .mensagem(mensagem)
+                .build();
+    }
+}
@@ -1,18 +1,40 @@
 package dev.gustavorosa.cobranca_cp.service;
 
 import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoLoteItemDTO;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoLoteResultadoDTO;
+import dev.gustavorosa.cobranca_cp.dto.ParcelaAbertaDTO;
+import dev.gustavorosa.cobranca_cp.dto.RegeneracaoParcelasDTO;
 import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.EstadoPagamento;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
 import dev.gustavorosa.cobranca_cp.model.Pagamento;
 import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+import dev.gustavorosa.cobranca_cp.repository.LembreteOutboxRepository;
 import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import dev.gustavorosa.cobranca_cp.util.VersaoUtils;
+import dev.gustavorosa.cobranca_cp.utils.DateConverter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PagamentoService {
@@ -20,6 +42,24 @@ public class PagamentoService {
     @Autowired
     private PagamentoRepository pagamentoRepository;
 
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private LembreteOutboxRepository lembreteOutboxRepository;
+
+    @Autowired
+    private SaldoService saldoService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private AtualizacaoPagamentoService atualizacaoPagamentoService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public List<Pagamento> gerarPagamentosAutomaticos(Contrato novoContrato, LocalDate primeiraParcela){
         List<Pagamento> novosPagamentos = new ArrayList<>();
         List<LocalDate> todasDatasVencimento = gerarDatasVencimento(primeiraParcela, novoContrato.getDuracaoEmMeses());
@@ -46,6 +86,101 @@ public class PagamentoService {
         return novoPagamento;
     }
 
+    /**
+     * Reconcilia as parcelas gravadas de um contrato com o cronograma que ele teria hoje
+     * (duração, valor e primeira parcela atuais), casando pelo número da parcela.
+     * Parcelas já pagas nunca são tocadas; em aberto só recebem UPDATE quando vencimento ou valor mudam,
+     * e nesse caso voltam ao valor original; as que ficam vencidas (e as faltantes inseridas com data passada)
+     * recebem multa e juros na hora, pela AtualizacaoPagamentoService. Faltantes são inseridas e as excedentes em aberto são removidas com um único DELETE,
+     * junto com seus lembretes ainda não enviados. Deve rodar dentro da transação de quem edita o contrato.
+     * Os UPDATEs saem em lote pelo batching do Hibernate (hibernate.jdbc.batch_size); os INSERTs das faltantes
+     * saem um por parcela, porque Pagamento usa IDENTITY e o Hibernate precisa do id gerado de cada linha.
+     *
+     * @param primeiraParcela novo vencimento da parcela 1; se nulo, mantém o cronograma atual
+     */
+    @Transactional
+    public RegeneracaoParcelasDTO regenerarParcelas(Contrato contrato, LocalDate primeiraParcela) {
+        List<Pagamento> existentes = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId());
+        if (primeiraParcela == null) {
+            primeiraParcela = primeiraParcelaAtual(existentes);
+            if (primeiraParcela == null) return new RegeneracaoParcelasDTO(0, 0, 0, existentes.size());
+        }
+        Integer duracao = contrato.getDuracaoEmMeses();
+        if (duracao == null || duracao < 1) {
+            // sem parcelas no cronograma, todas as em aberto seriam removidas
+            throw new IllegalArgumentException("Duracao do contrato deve ser de pelo menos 1 mes.");
+        }
+        Double valorParcela = contrato.getValorContrato() / duracao;
+        LocalDate hoje = LocalDate.now();
+
+        Pagamento[] porNumero = new Pagamento[duracao + 1];
+        List<Pagamento> gravar = new ArrayList<>();
+        List<Long> remover = new ArrayList<>();
+        List<Pagamento> vencidas = new ArrayList<>();
+        int atualizadas = 0;
+        int preservadas = 0;
+        for (Pagamento existente : existentes) {
+            Integer numero = existente.getNumeroParcela();
+            if (existente.getDataPagamento() != null || numero == null || numero < 1) {
+                preservadas++;
+                if (numero != null && numero >= 1 && numero <= duracao) porNumero[numero] = existente;
+                continue;
+            }
+            if (numero > duracao || porNumero[numero] != null) {
+                remover.add(existente.getId());
+                continue;
+            }
+            porNumero[numero] = existente;
+            LocalDate vencimento = primeiraParcela.plusMonths(numero - 1);
+            Double valorAtual = existente.getValorOriginal() != null ? existente.getValorOriginal() : existente.getValor();
+            if (vencimento.equals(existente.getDataVencimento()) && valorParcela.equals(valorAtual)) {
+                preservadas++;
+                continue;
+            }
+            EstadoPagamento antes = EstadoPagamento.de(existente);
+            existente.setDataVencimento(vencimento);
+            existente.setValor(valorParcela);
+            existente.setValorOriginal(valorParcela);
+            existente.setValorAtualizado(valorParcela);
+            existente.setMultaAplicada(false);
+            existente.setDataUltimaAtualizacaoValor(null);
+            // vencida fica com a situação anterior até aplicarEncargos, que a vira e registra o lembrete se preciso
+            if (vencimento.isBefore(hoje)) vencidas.add(existente);
+            else existente.verificarStatus(hoje);
+            auditoriaService.registrar(existente, antes, OrigemAlteracao.API);
+            gravar.add(existente);
+            atualizadas++;
+        }
+
+        int inseridas = 0;
+        for (int numero = 1; numero <= duracao; numero++) {
+            if (porNumero[numero] != null) continue;
+            Pagamento nova = gerarPagamento(contrato, primeiraParcela.plusMonths(numero - 1), numero);
+            if (nova.getDataVencimento().isBefore(hoje)) vencidas.add(nova);
+            gravar.add(nova);
+            inseridas++;
+        }
+
+        pagamentoRepository.saveAll(gravar);
+        atualizacaoPagamentoService.aplicarEncargos(vencidas, hoje, OrigemAlteracao.API);
+        if (!remover.isEmpty()) {
+            lembreteOutboxRepository.excluirNaoEnviados(remover);
+            pagamentoRepository.excluirDefinitivamente(remover);
+        }
+        saldoService.recalcularContratos(List.of(contrato.getId()));
+        return new RegeneracaoParcelasDTO(inseridas, atualizadas, remover.size(), preservadas);
+    }
+
+    private LocalDate primeiraParcelaAtual(List<Pagamento> existentes) {
+        for (Pagamento existente : existentes) {
+            Integer numero = existente.getNumeroParcela();
+            if (numero != null && numero >= 1 && existente.getDataVencimento() != null) {
+                return existente.getDataVencimento().minusMonths(numero - 1);
+            }
+        }
+        return null;
+    }
+
     private List<LocalDate> gerarDatasVencimento(LocalDate primeiraParcela, int numeroParcelas){
         List<LocalDate> datasVencimento = new ArrayList<>();
         for(int i = 0; i < numeroParcelas; i++){
@@ -62,8 +197,9 @@ public class PagamentoService {
         pagamentoRepository.saveAll(pagamentosAtrasados);
     }
 
+    @Transactional(readOnly = true)
     public List<Pagamento> recuperarTodos() {
-        List<Pagamento> recuperados = this.pagamentoRepository.findAll();
+        List<Pagamento> recuperados = this.pagamentoRepository.findAtivos();
         if(recuperados.isEmpty()){
             throw new RuntimeException("Nenhum pagamento encontrado");
         }
@@ -71,14 +207,143 @@ public class PagamentoService {
 
     }
 
+    /**
+     * Listagem com só os campos de PagamentoDTO em {@code campos} (ver PagamentoDTO.CAMPOS).
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> recuperarTodos(List<String> campos) {
+        List<Map<String, Object>> recuperados = PagamentoDTO.CAMPOS.consultar(entityManager, campos);
+        if(recuperados.isEmpty()){
+            throw new RuntimeException("Nenhum pagamento encontrado");
+        }
+        return recuperados;
+    }
+
+    @Transactional(readOnly = true)
+    public Pagamento recuperarPorId(Long id) {
+        return pagamentoRepository.findById(id).orElseThrow(() -> new RuntimeException("Pagamento nao encontrado"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Pagamento> recuperarPorIds(Collection<Long> ids) {
+        return pagamentoRepository.findAllById(ids);
+    }
+
+    /**
+     * Com {@code dto.versao()} informada, recusa a alteração se a parcela mudou depois dessa leitura
+     * (ObjectOptimisticLockingFailureException, assim como quando outra transação grava a parcela antes do commit).
+     */
+    @Transactional
     public Pagamento atualizarPagamento(PagamentoDTO dto, Long id) {
         Optional<Pagamento> pagamentoRecuperado = this.pagamentoRepository.findById(id);
         if(pagamentoRecuperado.isEmpty()) throw new RuntimeException("Pagamento nao encontrado");
         Pagamento pagamentoParaAtualizar = pagamentoRecuperado.get();
+        VersaoUtils.conferir(Pagamento.class, id, dto.versao(), pagamentoParaAtualizar.getVersao());
+        EstadoPagamento antes = EstadoPagamento.de(pagamentoParaAtualizar);
         pagamentoParaAtualizar.atualizar(dto);
-        System.out.println("Pagamento atualizado: " + pagamentoParaAtualizar.getDataPagamento());
         this.pagamentoRepository.save(pagamentoParaAtualizar);
+        auditoriaService.registrar(pagamentoParaAtualizar, antes, OrigemAlteracao.API);
+        saldoService.recalcularContratos(List.of(pagamentoParaAtualizar.getContrato().getId()));
 
         return pagamentoParaAtualizar;
     }
+
+    /**
+     * Baixa várias parcelas de uma vez (ex: uma remessa bancária inteira).
+     * Carrega todos os pagamentos em uma única consulta IN, aplica as datas e o status em memória
+     * e grava tudo na mesma transação, aproveitando o batch de UPDATE do Hibernate.
+     * Itens inválidos (anotações de PagamentoLoteItemDTO ou data mal formada), inexistentes ou com versão
+     * desatualizada são reportados individualmente sem abortar o lote; os demais são aplicados. Um pagamento
+     * aparece aplicado no máximo uma vez: a versão só muda no flush, então uma segunda ocorrência passaria pela
+     * checagem e sobrescreveria a primeira; ela é recusada.
+     */
+    @Transactional
+    public List<PagamentoLoteResultadoDTO> atualizarPagamentosEmLote(List<PagamentoLoteItemDTO> itens) {
+        List<Long> ids = itens.stream().filter(Objects::nonNull).map(PagamentoLoteItemDTO::pagamento_id)
+                .filter(Objects::nonNull).distinct().toList();
+        Map<Long, Pagamento> pagamentosPorId = pagamentoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Pagamento::getId, Function.identity()));
+
+        LocalDate hoje = LocalDate.now();
+        List<PagamentoLoteResultadoDTO> resultados = new ArrayList<>(itens.size());
+        Set<Long> aplicados = new HashSet<>();
+        for (PagamentoLoteItemDTO item : itens) {
+            if (item == null) {
+                resultados.add(PagamentoLoteResultadoDTO.falha(null, "Item vazio"));
+                continue;
+            }
+            Set<ConstraintViolation<PagamentoLoteItemDTO>> violacoes = validator.validate(item);
+            if (!violacoes.isEmpty()) {
+                resultados.add(PagamentoLoteResultadoDTO.falha(item.pagamento_id(), violacoes.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" "))));
+                continue;
+            }
+            Pagamento pagamento = item.pagamento_id() != null ? pagamentosPorId.get(item.pagamento_id()) : null;
+            if (pagamento == null) {
+                resultados.add(PagamentoLoteResultadoDTO.falha(item.pagamento_id(), "Pagamento nao encontrado"));
+                continue;
+            }
+            if (aplicados.contains(pagamento.getId())) {
+                resultados.add(PagamentoLoteResultadoDTO.falha(item.pagamento_id(), "Pagamento repetido no lote"));
+                continue;
+            }
+            if (item.versao() != null && !item.versao().equals(pagamento.getVersao())) {
+                resultados.add(PagamentoLoteResultadoDTO.conflito(pagamento));
+                continue;
+            }
+            try {
+                LocalDate dataPagamento = item.data_pagamento() != null && !item.data_pagamento().isBlank()
+                        ? DateConverter.converteDate(item.data_pagamento()) : null;
+                LocalDate dataVencimento = DateConverter.converteDate(item.data_vencimento());
+                EstadoPagamento antes = EstadoPagamento.de(pagamento);
+                pagamento.atualizar(dataPagamento, dataVencimento, hoje);
+                auditoriaService.registrar(pagamento, antes, OrigemAlteracao.API);
+                aplicados.add(pagamento.getId());
+                resultados.add(PagamentoLoteResultadoDTO.sucesso(pagamento));
+            } catch (RuntimeException e) {
+                resultados.add(PagamentoLoteResultadoDTO.falha(item.pagamento_id(), "Data invalida: " + e.getMessage()));
+            }
+        }
+
+        pagamentoRepository.saveAll(pagamentosPorId.values());
+        saldoService.recalcularContratos(contratosDe(pagamentosPorId.values()));
+        return resultados;
+    }
+
+    /**
+     * Percorre todas as parcelas em aberto via cursor, sem materializar entidades.
+     */
+    @Transactional(readOnly = true)
+    public void percorrerParcelasAbertas(Consumer<ParcelaAbertaDTO> consumidor) {
+        try (Stream<ParcelaAbertaDTO> parcelas = pagamentoRepository.streamParcelasAbertas()) {
+            parcelas.forEach(consumidor);
+        }
+    }
+
+    /**
+     * Registra a data de pagamento de várias parcelas em uma única transação.
+     * Parcelas que já foram pagas nesse meio tempo são ignoradas.
+     *
+     * @return quantidade de parcelas efetivamente baixadas
+     */
+    @Transactional
+    public int registrarPagamentos(Map<Long, LocalDate> datasPagamentoPorId, OrigemAlteracao origem) {
+        LocalDate hoje = LocalDate.now();
+        List<Pagamento> pagamentos = pagamentoRepository.findAllById(datasPagamentoPorId.keySet());
+        List<Pagamento> baixados = new ArrayList<>(pagamentos.size());
+        for (Pagamento pagamento : pagamentos) {
+            if (pagamento.getDataPagamento() != null) continue;
+            EstadoPagamento antes = EstadoPagamento.de(pagamento);
+            pagamento.atualizar(datasPagamentoPorId.get(pagamento.getId()), pagamento.getDataVencimento(), hoje);
+            auditoriaService.registrar(pagamento, antes, origem);
+            baixados.add(pagamento);
+        }
+        pagamentoRepository.saveAll(baixados);
+        saldoService.recalcularContratos(contratosDe(baixados));
+        return baixados.size();
+    }
+
+    private static Set<Long> contratosDe(Collection<Pagamento> pagamentos) {
+        return pagamentos.stream().map(pagamento -> pagamento.getContrato().getId()).collect(Collectors.toSet());
+    }
 }
@@ -0,0 +1,137 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.dto.ParcelaProjecaoDTO;
+import dev.gustavorosa.cobranca_cp.dto.ParcelaProjetadaDTO;
+import dev.gustavorosa.cobranca_cp.dto.ProjecaoSaldoDTO;
+import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ContratoRepository;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import dev.gustavorosa.cobranca_cp.util.EncargosUtils;
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Simula quanto um devedor pagaria numa data qualquer ("e se pagar no dia X?"), aplicando às parcelas em aberto
+ * as mesmas regras de multa e juros do job noturno (EncargosUtils). Nada é gravado: valorAtualizado continua
+ * sendo o da última execução do job.
+ *
+ * As parcelas são copiadas para arrays paralelos de primitivos e projetadas numa única passada, que acumula
+ * os totais junto; o custo por parcela é algumas operações aritméticas, então o limite prático é a consulta.
+ * Toda projeção, por cliente, contrato ou lista de ids, vai até MAXIMO_PARCELAS_POR_REQUISICAO parcelas em aberto.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjecaoSaldoService {
+
+    public static final int MAXIMO_PARCELAS_POR_REQUISICAO = 10_000;
+    private static final Pageable LIMITE_CONSULTA = PageRequest.of(0, MAXIMO_PARCELAS_POR_REQUISICAO + 1);
+
+    private final PagamentoRepository pagamentoRepository;
+    private final ClienteRepository clienteRepository;
+    private final ContratoRepository contratoRepository;
+
+    @Transactional(readOnly = true)
+    public ProjecaoSaldoDTO projetarCliente(Long clienteId, LocalDate data, boolean detalhar) {
+        if (!clienteRepository.existsByIdAndExcluidoEmIsNull(clienteId)) {
+            throw new RuntimeException("Cliente com o id " + clienteId + " nao encontrado.");
+        }
+        return projetar(limitar(pagamentoRepository.findParcelasProjecaoPorCliente(clienteId, LIMITE_CONSULTA)), data, detalhar);
+    }
+
+    @Transactional(readOnly = true)
+    public ProjecaoSaldoDTO projetarContrato(Long contratoId, LocalDate data, boolean detalhar) {
+        if (!contratoRepository.existsByIdAndExcluidoEmIsNull(contratoId)) {
+            throw new RuntimeException("Contrato não encontrado.");
+        }
+        return projetar(limitar(pagamentoRepository.findParcelasProjecaoPorContrato(contratoId, LIMITE_CONSULTA)), data, detalhar);
+    }
+
+    /**
+     * Projeta um conjunto arbitrário de parcelas. Parcelas já pagas ou inexistentes são ignoradas.
+     */
+    @Transactional(readOnly = true)
+    public ProjecaoSaldoDTO projetarParcelas(List<Long> pagamentoIds, LocalDate data, boolean detalhar) {
+        LinkedHashSet<Long> ids = new LinkedHashSet<>(pagamentoIds);
+        if (ids.size() > MAXIMO_PARCELAS_POR_REQUISICAO) {
+            throw excedeuMaximo();
+        }
+        return projetar(pagamentoRepository.findParcelasProjecaoPorIds(ids), data, detalhar);
+    }
+
+    /**
+     * A consulta por cliente ou contrato traz uma parcela além do máximo só para saber que ele foi excedido.
+     */
+    private static List<ParcelaProjecaoDTO> limitar(List<ParcelaProjecaoDTO> linhas) {
+        if (linhas.size() > MAXIMO_PARCELAS_POR_REQUISICAO) {
+            throw excedeuMaximo();
+        }
+        return linhas;
+    }
+
+    private static RuntimeException excedeuMaximo() {
+        return new RuntimeException("Maximo de " + MAXIMO_PARCELAS_POR_REQUISICAO + " parcelas por projecao.");
+    }
+
+    private ProjecaoSaldoDTO projetar(List<ParcelaProjecaoDTO> linhas, LocalDate data, boolean detalhar) {
+        LocalDate referencia = data != null ? data : LocalDate.now();
+        int n = linhas.size();
+
+        long[] vencimentos = new long[n];
+        double[] valoresOriginais = new double[n];
+        double[] taxasMulta = new double[n];
+        double[] taxasJuros = new double[n];
+        for (int i = 0; i < n; i++) {
+            ParcelaProjecaoDTO linha = linhas.get(i);
+            vencimentos[i] = linha.dataVencimento().toEpochDay();
+            valoresOriginais[i] = linha.valorOriginal() != null ? linha.valorOriginal() : 0;
+            taxasMulta[i] = linha.taxaMulta() != null ? linha.taxaMulta() : 0;
+            taxasJuros[i] = linha.taxaJurosMensal() != null ? linha.taxaJurosMensal() : 0;
+        }
+
+        long dia = referencia.toEpochDay();
+        double[] multas = new double[n];
+        double[] juros = new double[n];
+        double[] projetados = new double[n];
+        long centavosOriginal = 0;
+        long centavosMulta = 0;
+        long centavosJuros = 0;
+        long centavosProjetado = 0;
+        for (int i = 0; i < n; i++) {
+            long diasAtraso = dia - vencimentos[i];
+            double original = valoresOriginais[i];
+            if (diasAtraso > 0) {
+                multas[i] = EncargosUtils.multa(original, taxasMulta[i]);
+                juros[i] = EncargosUtils.juros(original, taxasJuros[i], diasAtraso);
+                projetados[i] = EncargosUtils.arredondar(original + multas[i] + juros[i]);
+            } else {
+                projetados[i] = EncargosUtils.arredondar(original);
+            }
+            centavosOriginal += MoneyUtils.toCents(original);
+            centavosMulta += MoneyUtils.toCents(multas[i]);
+            centavosJuros += MoneyUtils.toCents(juros[i]);
+            centavosProjetado += MoneyUtils.toCents(projetados[i]);
+        }
+
+        List<ParcelaProjetadaDTO> parcelas = null;
+        if (detalhar) {
+            parcelas = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                ParcelaProjecaoDTO linha = linhas.get(i);
+                parcelas.add(new ParcelaProjetadaDTO(linha.pagamentoId(), linha.contratoId(), linha.numeroParcela(),
+                        linha.dataVencimento(), Math.max(0, dia - vencimentos[i]), EncargosUtils.arredondar(valoresOriginais[i]),
+                        EncargosUtils.arredondar(multas[i]), EncargosUtils.arredondar(juros[i]), projetados[i]));
+            }
+        }
+        return new ProjecaoSaldoDTO(referencia, n, MoneyUtils.fromCents(centavosOriginal), MoneyUtils.fromCents(centavosMulta),
+                MoneyUtils.fromCents(centavosJuros), MoneyUtils.fromCents(centavosProjetado), parcelas);
+    }
+}
@@ -0,0 +1,381 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.dto.LinhaSaldoDTO;
+import dev.gustavorosa.cobranca_cp.dto.SaldoDTO;
+import dev.gustavorosa.cobranca_cp.infra.barramento.BarramentoAlteracoes;
+import dev.gustavorosa.cobranca_cp.infra.barramento.OuvinteAlteracoesRemotas;
+import dev.gustavorosa.cobranca_cp.infra.barramento.TipoAlteracao;
+import dev.gustavorosa.cobranca_cp.infra.carteira.OuvinteAlteracaoContratos;
+import dev.gustavorosa.cobranca_cp.infra.jfr.CacheObservavel;
+import dev.gustavorosa.cobranca_cp.infra.jfr.EventoCache;
+import dev.gustavorosa.cobranca_cp.infra.replica.EscritasRecentes;
+import dev.gustavorosa.cobranca_cp.model.SaldoContrato;
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ContratoRepository;
+import dev.gustavorosa.cobranca_cp.repository.SaldoContratoRepository;
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Saldo devedor por contrato e por cliente sem somar parcelas na leitura.
+ * <p>
+ * A tabela SALDOS_CONTRATO guarda o resumo de cada contrato e é atualizada por quem altera parcelas (baixa,
+ * baixa em lote, conciliação, regeneração do cronograma, cadastro do contrato e a atualização diária), na mesma
+ * transação da alteração: só os contratos tocados são recalculados, com uma consulta por lote de contratos.
+ * O saldo do cliente é a soma dos resumos dos seus contratos.
+ * <p>
+ * Na frente da tabela fica um LRU limitado com os saldos já montados. Quem altera invalida as chaves do contrato
+ * e do cliente ao fim da transação e as publica no BarramentoAlteracoes, para as outras instâncias invalidarem
+ * também; a validade curta das entradas cobre o que o barramento não entregar (ou a falta dele, fora do PostgreSQL).
+ * A leitura que precisa ver a própria escrita feita em outra instância (ver EscritasRecentes) não consulta o LRU,
+ * porque a invalidação pelo barramento pode ainda não ter chegado; ela lê do primário e renova a entrada.
+ * Depois do commit, os contratos tocados são avisados aos OuvinteAlteracaoContratos.
+ */
+@Slf4j
+@Service
+public class SaldoService implements CacheObservavel, OuvinteAlteracoesRemotas {
+
+    private static final int TAMANHO_LOTE = 1000;
+    private static final String PREFIXO_CONTRATO = "contrato:";
+    private static final String PREFIXO_CLIENTE = "cliente:";
+
+    private final SaldoContratoRepository saldoContratoRepository;
+    private final ContratoRepository contratoRepository;
+    private final ClienteRepository clienteRepository;
+    private final TransactionTemplate transacao;
+    private final ObjectProvider<OuvinteAlteracaoContratos> ouvintes;
+    private final ObjectProvider<BarramentoAlteracoes> barramento;
+    private final long validadeNanos;
+    private final Map<String, Entrada> cache;
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+
+    private record Entrada(SaldoDTO saldo, long expiraEm) {
+    }
+
+    public SaldoService(SaldoContratoRepository saldoContratoRepository, ContratoRepository contratoRepository,
+                        ClienteRepository clienteRepository, PlatformTransactionManager transactionManager,
+                        ObjectProvider<OuvinteAlteracaoContratos> ouvintes,
+                        ObjectProvider<BarramentoAlteracoes> barramento,
+                        @Value("${app.saldos.tamanho-cache:20000}") int tamanhoCache,
+                        @Value("${app.saldos.validade-cache-segundos:60}") long validadeSegundos) {
+        this.saldoContratoRepository = saldoContratoRepository;
+        this.contratoRepository = contratoRepository;
+        this.clienteRepository = clienteRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.ouvintes = ouvintes;
+        this.barramento = barramento;
+        this.validadeNanos = validadeSegundos * 1_000_000_000L;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+                return size() > tamanhoCache;
+            }
+        });
+    }
+
+    @Transactional
+    public SaldoDTO saldoContrato(Long contratoId) {
+        return emCache(PREFIXO_CONTRATO + contratoId, () -> {
+            SaldoContrato saldo = saldoContratoRepository.findById(contratoId).orElse(null);
+            if (saldo == null) {
+                // contrato anterior à tabela de saldos ainda não alcançado por completarSaldos()
+                recalcularContratos(List.of(contratoId));
+                saldo = saldoContratoRepository.findById(contratoId)
+                        .orElseThrow(() -> new RuntimeException("Contrato não encontrado."));
+            }
+            return toDTO(saldo);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public SaldoDTO saldoCliente(Long clienteId) {
+        return emCache(PREFIXO_CLIENTE + clienteId, () -> {
+            List<SaldoContrato> saldos = saldoContratoRepository.findByClienteId(clienteId);
+            if (saldos.isEmpty() && !clienteRepository.existsByIdAndExcluidoEmIsNull(clienteId)) {
+                throw new RuntimeException("Cliente com o id " + clienteId + " nao encontrado.");
+            }
+            return somar(clienteId, saldos);
+        });
+    }
+
+    private SaldoDTO emCache(String chave, Supplier<SaldoDTO> carregar) {
+        consultas.increment();
+        EventoCache evento = new EventoCache();
+        evento.begin();
+        Entrada entrada = EscritasRecentes.leituraPropriaEscrita() ? null : cache.get(chave);
+        if (entrada != null && entrada.expiraEm() - System.nanoTime() > 0) {
+            acertos.increment();
+            registrar(evento, EventoCache.ACERTO);
+            return entrada.saldo();
+        }
+        faltas.increment();
+        SaldoDTO saldo = carregar.get();
+        cache.put(chave, new Entrada(saldo, System.nanoTime() + validadeNanos));
+        registrar(evento, EventoCache.FALTA);
+        return saldo;
+    }
+
+    private static void registrar(EventoCache evento, String resultado) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.cache = "saldos";
+            evento.resultado = resultado;
+            evento.commit();
+        }
+    }
+
+    @Override
+    public Estatistica estatisticaCache() {
+        return new Estatistica("saldos", cache.size(), consultas.sum(), acertos.sum(), faltas.sum());
+    }
+
+    /**
+     * Recalcula o resumo dos contratos a partir das parcelas não pagas e invalida os saldos em memória
+     * desses contratos e dos seus clientes ao fim da transação. Deve rodar na transação de quem alterou as parcelas.
+     *
+     * @return contratos recalculados (os excluídos ou inexistentes perdem o resumo)
+     */
+    @Transactional
+    public int recalcularContratos(Collection<Long> contratoIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(contratoIds));
+        Set<String> invalidar = new HashSet<>();
+        int recalculados = 0;
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_LOTE) {
+            List<Long> lote = ids.subList(inicio, Math.min(inicio + TAMANHO_LOTE, ids.size()));
+            recalculados += recalcularLote(lote, invalidar);
+        }
+        invalidarAoFimDaTransacao(invalidar);
+        avisarAoConfirmar(new HashSet<>(ids));
+        return recalculados;
+    }
+
+    private int recalcularLote(List<Long> contratoIds, Set<String> invalidar) {
+        Map<Long, SaldoContrato> existentes = saldoContratoRepository.findAllById(contratoIds).stream()
+                .collect(Collectors.toMap(SaldoContrato::getContratoId, Function.identity()));
+        Map<Long, Acumulador> porContrato = new LinkedHashMap<>();
+        for (LinhaSaldoDTO linha : contratoRepository.findLinhasSaldo(contratoIds)) {
+            porContrato.computeIfAbsent(linha.contratoId(), id -> new Acumulador(linha.clienteId())).somar(linha);
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<SaldoContrato> gravar = new ArrayList<>(porContrato.size());
+        for (Map.Entry<Long, Acumulador> contrato : porContrato.entrySet()) {
+            SaldoContrato saldo = existentes.get(contrato.getKey());
+            if (saldo == null) saldo = SaldoContrato.builder().contratoId(contrato.getKey()).build();
+            contrato.getValue().aplicar(saldo, agora);
+            gravar.add(saldo);
+            invalidar.add(PREFIXO_CONTRATO + contrato.getKey());
+            invalidar.add(PREFIXO_CLIENTE + saldo.getClienteId());
+        }
+        saldoContratoRepository.saveAll(gravar);
+
+        List<Long> semContrato = new ArrayList<>();
+        for (SaldoContrato existente : existentes.values()) {
+            if (porContrato.containsKey(existente.getContratoId())) continue;
+            semContrato.add(existente.getContratoId());
+            invalidar.add(PREFIXO_CONTRATO + existente.getContratoId());
+            invalidar.add(PREFIXO_CLIENTE + existente.getClienteId());
+        }
+        if (!semContrato.isEmpty()) saldoContratoRepository.excluirPorContratos(semContrato);
+        return gravar.size();
+    }
+
+    /**
+     * Chamado na transação que marca o contrato para exclusão: o saldo some junto com ele das telas.
+     */
+    @Transactional
+    public void removerContrato(Long contratoId) {
+        Set<String> invalidar = new HashSet<>();
+        invalidar.add(PREFIXO_CONTRATO + contratoId);
+        saldoContratoRepository.findById(contratoId).ifPresent(saldo -> {
+            saldoContratoRepository.excluirPorContratos(List.of(contratoId));
+            invalidar.add(PREFIXO_CLIENTE + saldo.getClienteId());
+        });
+        invalidarAoFimDaTransacao(invalidar);
+        avisarAoConfirmar(Set.of(contratoId));
+    }
+
+    @Transactional
+    public void removerCliente(Long clienteId) {
+        List<Long> contratoIds = saldoContratoRepository.findByClienteId(clienteId).stream().map(SaldoContrato::getContratoId).toList();
+        saldoContratoRepository.excluirPorCliente(clienteId);
+        Set<String> invalidar = new HashSet<>();
+        invalidar.add(PREFIXO_CLIENTE + clienteId);
+        contratoIds.forEach(id -> invalidar.add(PREFIXO_CONTRATO + id));
+        invalidarAoFimDaTransacao(invalidar);
+        avisarAoConfirmar(new HashSet<>(contratoIds));
+    }
+
+    /**
+     * Remove já (para que esta transação não leia o valor antigo da memória) e de novo ao terminar, porque uma
+     * leitura concorrente pode ter recolocado o saldo anterior ao commit no cache.
+     */
+    private void invalidarAoFimDaTransacao(Set<String> chaves) {
+        if (chaves.isEmpty()) return;
+        cache.keySet().removeAll(chaves);
+        publicar(chaves);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.keySet().removeAll(chaves);
+            }
+        });
+    }
+
+    /**
+     * As chaves do cache já dizem quais contratos e clientes mudaram de saldo; o barramento só as entrega depois do commit.
+     */
+    private void publicar(Set<String> chaves) {
+        BarramentoAlteracoes disponivel = barramento.getIfAvailable();
+        if (disponivel == null) return;
+        Set<Long> contratos = new HashSet<>();
+        Set<Long> clientes = new HashSet<>();
+        for (String chave : chaves) {
+            if (chave.startsWith(PREFIXO_CONTRATO)) contratos.add(Long.valueOf(chave.substring(PREFIXO_CONTRATO.length())));
+            else clientes.add(Long.valueOf(chave.substring(PREFIXO_CLIENTE.length())));
+        }
+        disponivel.publicarAoConfirmar(TipoAlteracao.CONTRATO, contratos);
+        disponivel.publicarAoConfirmar(TipoAlteracao.CLIENTE, clientes);
+    }
+
+    @Override
+    public void alteradosEmOutraInstancia(TipoAlteracao tipo, Set<Long> ids) {
+        String prefixo = tipo == TipoAlteracao.CLIENTE ? PREFIXO_CLIENTE : PREFIXO_CONTRATO;
+        cache.keySet().removeAll(ids.stream().map(id -> prefixo + id).collect(Collectors.toSet()));
+    }
+
+    @Override
+    public void ressincronizar() {
+        cache.clear();
+    }
+
+    private void avisarAoConfirmar(Set<Long> contratoIds) {
+        if (contratoIds.isEmpty()) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ouvintes.forEach(ouvinte -> ouvinte.contratosAlterados(contratoIds));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ouvintes.forEach(ouvinte -> ouvinte.contratosAlterados(contratoIds));
+            }
+        });
+    }
+
+    /**
+     * Gera o resumo dos contratos que ainda não têm um (bases anteriores à tabela de saldos), em lotes com
+     * transação própria. Contratos novos já nascem com resumo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void completarSaldos() {
+        long inicio = System.currentTimeMillis();
+        long ultimoId = 0;
+        int total = 0;
+        while (true) {
+            List<Long> ids = contratoRepository.findIdsSemSaldo(ultimoId, PageRequest.of(0, TAMANHO_LOTE));
+            if (ids.isEmpty()) break;
+            Integer recalculados = transacao.execute(status -> recalcularContratos(ids));
+            total += recalculados != null ? recalculados : 0;
+            ultimoId = ids.get(ids.size() - 1);
+        }
+        if (total > 0) {
+            log.info("Saldos de {} contratos gerados em {} ms", total, System.currentTimeMillis() - inicio);
+        }
+    }
+
+    private SaldoDTO somar(Long clienteId, List<SaldoContrato> saldos) {
+        long principal = 0;
+        long encargos = 0;
+        long atrasado = 0;
+        int emAberto = 0;
+        int atrasadas = 0;
+        LocalDateTime atualizadoEm = null;
+        for (SaldoContrato saldo : saldos) {
+            principal += MoneyUtils.toCents(saldo.getPrincipalEmAberto());
+            encargos += MoneyUtils.toCents(saldo.getEncargos());
+            atrasado += MoneyUtils.toCents(saldo.getValorAtrasado());
+            emAberto += saldo.getParcelasEmAberto();
+            atrasadas += saldo.getParcelasAtrasadas();
+            if (atualizadoEm == null || saldo.getAtualizadoEm().isAfter(atualizadoEm)) atualizadoEm = saldo.getAtualizadoEm();
+        }
+        return new SaldoDTO(clienteId, null, MoneyUtils.fromCents(principal), MoneyUtils.fromCents(encargos),
+                MoneyUtils.fromCents(atrasado), MoneyUtils.fromCents(principal + encargos), emAberto, atrasadas, atualizadoEm);
+    }
+
+    private static SaldoDTO toDTO(SaldoContrato saldo) {
+        return new SaldoDTO(saldo.getClienteId(), saldo.getContratoId(), saldo.getPrincipalEmAberto(), saldo.getEncargos(),
+                saldo.getValorAtrasado(), saldo.getTotalDevido(), saldo.getParcelasEmAberto(), saldo.getParcelasAtrasadas(),
+                saldo.getAtualizadoEm());
+    }
+
+    /**
+     * Totais de um contrato em centavos, como no ExtratoService, para não acumular erro de ponto flutuante.
+     */
+    private static final class Acumulador {
+        private final Long clienteId;
+        private long centavosPrincipal;
+        private long centavosDevido;
+        private long centavosAtrasado;
+        private int emAberto;
+        private int atrasadas;
+
+        Acumulador(Long clienteId) {
+            this.clienteId = clienteId;
+        }
+
+        void somar(LinhaSaldoDTO linha) {
+            if (linha.valor() == null && linha.status() == null) return; // contrato sem parcelas em aberto
+            long valor = linha.valor() != null ? MoneyUtils.toCents(linha.valor()) : 0;
+            long original = linha.valorOriginal() != null ? MoneyUtils.toCents(linha.valorOriginal()) : valor;
+            centavosPrincipal += original;
+            centavosDevido += valor;
+            emAberto++;
+            if (linha.status() == SituacaoPagamento.ATRASADO) {
+                atrasadas++;
+                centavosAtrasado += valor;
+            }
+        }
+
+        void aplicar(SaldoContrato saldo, LocalDateTime agora) {
+            saldo.setClienteId(clienteId);
+            saldo.setPrincipalEmAberto(MoneyUtils.fromCents(centavosPrincipal));
+            saldo.setEncargos(MoneyUtils.fromCents(centavosDevido - centavosPrincipal));
+            saldo.setValorAtrasado(MoneyUtils.fromCents(centavosAtrasado));
+            saldo.setTotalDevido(MoneyUtils.fromCents(centavosDevido));
+            saldo.setParcelasEmAberto(emAberto);
+            saldo.setParcelasAtrasadas(atrasadas);
+            saldo.setAtualizadoEm(agora);
+        }
+    }
+}
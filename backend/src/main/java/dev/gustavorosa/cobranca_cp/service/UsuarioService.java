@@ -1,33 +1,56 @@
 package dev.gustavorosa.cobranca_cp.service;
 
 import dev.gustavorosa.cobranca_cp.model.Usuario;
+import dev.gustavorosa.cobranca_cp.repository.TokenRenovacaoRepository;
 import dev.gustavorosa.cobranca_cp.repository.UsuarioRepository;
+import dev.gustavorosa.cobranca_cp.security.RevogacaoTokens;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 @Service
 @RequiredArgsConstructor
 public class UsuarioService implements UserDetailsService {
     
     private final UsuarioRepository usuarioRepository;
+    private final TokenRenovacaoRepository tokenRenovacaoRepository;
+    private final RevogacaoTokens revogacaoTokens;
     
+    @Transactional(readOnly = true)
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         return usuarioRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado com email: " + email));
     }
     
+    @Transactional(readOnly = true)
     public Usuario findById(Long id) {
         return usuarioRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
     }
     
+    @Transactional(readOnly = true)
     public Usuario findByEmail(String email) {
         return usuarioRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado"));
     }
+    
+    /**
+     * Desativa o usuário e derruba todas as sessões dele: refresh tokens revogados e
+     * access tokens já emitidos recusados a partir da próxima requisição.
+     */
+    @Transactional
+    public void desativar(Long id) {
+        Usuario usuario = findById(id);
+        usuario.setAtivo(false);
+        usuarioRepository.save(usuario);
+        tokenRenovacaoRepository.revogarPorUsuario(id, LocalDateTime.now());
+        revogacaoTokens.revogarUsuario(id);
+    }
 }
 
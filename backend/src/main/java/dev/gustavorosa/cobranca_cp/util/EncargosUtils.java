@@ -0,0 +1,43 @@
+package dev.gustavorosa.cobranca_cp.util;
+
+/**
+ * Regras de multa e juros de parcelas vencidas, compartilhadas pelo job noturno e pela projeção de saldo.
+ * Fórmula: valorAtualizado = valorOriginal * (1 + taxaMulta) + valorOriginal * (diasAtraso / 30) * taxaJurosMensal,
+ * arredondado para centavos. Taxas nulas equivalem a zero.
+ */
+public class EncargosUtils {
+
+    /**
+     * Multa única, percentual sobre o valor original.
+     */
+    public static double multa(double valorOriginal, Double taxaMulta) {
+        return taxaMulta != null ? multa(valorOriginal, taxaMulta.doubleValue()) : 0;
+    }
+
+    /**
+     * Como {@link #multa(double, Double)}, para quem já tem a taxa em primitivo (taxa ausente = 0).
+     */
+    public static double multa(double valorOriginal, double taxaMulta) {
+        return taxaMulta > 0 ? valorOriginal * taxaMulta : 0;
+    }
+
+    /**
+     * Juros simples diários: valorOriginal * (diasAtraso / 30) * taxaJurosMensal.
+     */
+    public static double juros(double valorOriginal, Double taxaJurosMensal, long diasAtraso) {
+        return taxaJurosMensal != null ? juros(valorOriginal, taxaJurosMensal.doubleValue(), diasAtraso) : 0;
+    }
+
+    /**
+     * Como {@link #juros(double, Double, long)}, para quem já tem a taxa em primitivo (taxa ausente = 0).
+     */
+    public static double juros(double valorOriginal, double taxaJurosMensal, long diasAtraso) {
+        return taxaJurosMensal > 0 && diasAtraso > 0
+                ? valorOriginal * (diasAtraso / 30.0) * taxaJurosMensal
+                : 0;
+    }
+
+    public static double arredondar(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,60 @@
+package dev.gustavorosa.cobranca_cp.util;
+
+public class MoneyUtils {
+
+    /**
+     * Converte um valor em reais para centavos, arredondando para o centavo mais próximo.
+     * Exemplo: 150.755 -> 15076
+     */
+    public static long toCents(double valor) {
+        return Math.round(valor * 100.0);
+    }
+
+    public static double fromCents(long centavos) {
+        return centavos / 100.0;
+    }
+
+    /**
+     * Lê um valor monetário textual em centavos, sem passar por double.
+     * Aceita separador decimal "," ou "." e separador de milhar no outro caractere.
+     * Exemplo: "1.234,56" -> 123456, "1234.5" -> 123450, "-80" -> -8000
+     */
+    public static long parseCents(String valor) {
+        String s = valor.trim();
+        int separadorDecimal = Math.max(s.lastIndexOf('.'), s.lastIndexOf(','));
+        if (separadorDecimal >= 0) {
+            char separador = s.charAt(separadorDecimal);
+            boolean unicoTipo = s.indexOf(separador == '.' ? ',' : '.') < 0;
+            boolean repetido = s.indexOf(separador) != separadorDecimal;
+            // "1.234.567" ou "1.234" -> apenas separadores de milhar
+            if (unicoTipo && (repetido || s.length() - separadorDecimal - 1 == 3)) {
+                separadorDecimal = -1;
+            }
+        }
+
+        long inteiro = 0;
+        long fracao = 0;
+        int casasFracao = 0;
+        boolean negativo = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '-') {
+                negativo = true;
+            } else if (c >= '0' && c <= '9') {
+                if (separadorDecimal >= 0 && i > separadorDecimal) {
+                    if (casasFracao < 2) {
+                        fracao = fracao * 10 + (c - '0');
+                        casasFracao++;
+                    }
+                } else {
+                    inteiro = inteiro * 10 + (c - '0');
+                }
+            } else if (c != '.' && c != ',' && c != '+' && c != ' ') {
+                throw new NumberFormatException("Valor monetario invalido: " + valor);
+            }
+        }
+        if (casasFracao == 1) fracao *= 10;
+        long centavos = inteiro * 100 + fracao;
+        return negativo ? -centavos : centavos;
+    }
+}
@@ -1,7 +1,12 @@
 package dev.gustavorosa.cobranca_cp.util;
 
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
 public class StringUtils {
 
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
     /**
      * Converte uma string para Title Case (primeira letra de cada palavra maiúscula,
      * restante minúscula).
@@ -30,5 +35,54 @@ public class StringUtils {
 
         return result.toString();
     }
-}
 
+    /**
+     * Mantém apenas os dígitos da string (ex: CPF/CNPJ formatado).
+     * Exemplo: "123.456.789-09" -> "12345678909"
+     */
+    public static String onlyDigits(String input) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder result = new StringBuilder(input.length());
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c >= '0' && c <= '9') {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Normaliza um texto para busca: mesma quebra em palavras do toTitleCase (trim, minúsculas, espaços),
+     * sem acentos e sem pontuação. Palavras com dígitos (CPF, CNPJ, registro) ficam só com os dígitos.
+     * Exemplo: " JOÃO  da Silva " -> "joao da silva", "123.456.789-09" -> "12345678909"
+     */
+    public static String normalizeForSearch(String input) {
+        if (input == null || input.isBlank()) {
+            return "";
+        }
+
+        String semAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(input, Normalizer.Form.NFD)).replaceAll("");
+        String[] words = semAcentos.trim().toLowerCase().split("\\s+");
+        StringBuilder result = new StringBuilder(semAcentos.length());
+        for (String word : words) {
+            boolean temDigito = word.chars().anyMatch(Character::isDigit);
+            int inicio = result.length();
+            if (inicio > 0) {
+                result.append(' ');
+            }
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                if (temDigito ? Character.isDigit(c) : Character.isLetterOrDigit(c)) {
+                    result.append(c);
+                }
+            }
+            if (result.length() == inicio + (inicio > 0 ? 1 : 0)) {
+                result.setLength(inicio);
+            }
+        }
+        return result.toString();
+    }
+}
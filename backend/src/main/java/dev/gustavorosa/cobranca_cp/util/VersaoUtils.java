@@ -0,0 +1,25 @@
+package dev.gustavorosa.cobranca_cp.util;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Objects;
+
+/**
+ * Concorrência otimista de Cliente, Contrato e Pagamento: o campo versao (@Version) entra no WHERE do UPDATE, que
+ * só acontece se ninguém gravou depois da leitura; se outro gravou antes, o Hibernate recusa a escrita.
+ */
+public class VersaoUtils {
+
+    /**
+     * Confere a versão que o cliente da API leu (campo versao da requisição) com a atual antes de aplicar a
+     * alteração. Sem versão na requisição, vale só a checagem do @Version no UPDATE contra gravações concorrentes.
+     *
+     * @throws ObjectOptimisticLockingFailureException quando o registro mudou depois da leitura; os controllers
+     *                                                 respondem 409 com o estado atual
+     */
+    public static void conferir(Class<?> tipo, Long id, Long versaoLida, Long versaoAtual) {
+        if (versaoLida != null && !Objects.equals(versaoLida, versaoAtual)) {
+            throw new ObjectOptimisticLockingFailureException(tipo, id);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package dev.gustavorosa.cobranca_cp;
+
+import dev.gustavorosa.cobranca_cp.dto.ClienteDTO;
+import dev.gustavorosa.cobranca_cp.dto.ContratoDTO;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.service.ClienteService;
+import dev.gustavorosa.cobranca_cp.service.ContratoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clientes e contratos de teste, cadastrados pelos serviços como a API faria. O cliente tem multa de 2% e juros de
+ * 10% ao mês e, salvo quando o teste precisa de um registro conhecido (conciliação), um registro próprio.
+ */
+@Component
+@RequiredArgsConstructor
+public class CarteiraTeste {
+
+    private static final String CONTRATANTE = "Contratante";
+
+    private static final AtomicLong REGISTROS = new AtomicLong(90_000_000_000L);
+
+    private final ClienteService clienteService;
+    private final ContratoService contratoService;
+
+    public Cliente cliente(String nome) {
+        return cliente(nome, Long.toString(REGISTROS.incrementAndGet()));
+    }
+
+    public Cliente cliente(String nome, String registro) {
+        return clienteService.registraCliente(new ClienteDTO(null, nome, null, "11999990000",
+                null, registro, null, 0.02, 0.10, null, null));
+    }
+
+    /**
+     * Parcelas de 100, a primeira um mês depois do início.
+     */
+    public Contrato contrato(Cliente cliente, int parcelas, LocalDate inicio) {
+        return contrato(cliente, parcelas, inicio, inicio.plusMonths(1), parcelas * 100.0);
+    }
+
+    public Contrato contrato(Cliente cliente, int parcelas, LocalDate inicio, LocalDate primeira, double valor) {
+        return contratoService.registrarContrato(contratoDTO(cliente, parcelas, inicio, primeira, valor));
+    }
+
+    /**
+     * Cliente novo com um contrato de parcelas de 100.
+     */
+    public Contrato clienteComContrato(String nome, int parcelas, LocalDate inicio) {
+        return contrato(cliente(nome), parcelas, inicio);
+    }
+
+    /**
+     * Corpo de cadastro ou edição; na edição, início e primeira parcela nulos mantêm o cronograma.
+     */
+    public static ContratoDTO contratoDTO(Cliente cliente, int parcelas, LocalDate inicio, LocalDate primeira, double valor) {
+        return new ContratoDTO(cliente.getId(), CONTRATANTE, null, parcelas, inicio, primeira, valor, null);
+    }
+}
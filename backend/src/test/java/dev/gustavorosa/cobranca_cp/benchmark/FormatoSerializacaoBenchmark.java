@@ -0,0 +1,84 @@
+package dev.gustavorosa.cobranca_cp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compara tamanho do payload e CPU de serialização de uma listagem de PagamentoDTO em JSON, Smile e CBOR,
+ * com e sem gzip. Não roda na suíte de testes; execute com:
+ *
+ *   mvn test-compile
+ *   java -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        dev.gustavorosa.cobranca_cp.benchmark.FormatoSerializacaoBenchmark [quantidade]
+ */
+public class FormatoSerializacaoBenchmark {
+
+    private static final int AQUECIMENTO = 20;
+    private static final int MEDICOES = 50;
+
+    public static void main(String[] args) throws IOException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        List<PagamentoDTO> pagamentos = gerarPagamentos(quantidade);
+
+        System.out.printf("%d pagamentos%n", quantidade);
+        System.out.printf("%-8s %12s %12s %14s %14s%n", "formato", "bytes", "bytes gzip", "serializar ms", "c/ gzip ms");
+        medir("json", new ObjectMapper(), pagamentos);
+        medir("smile", new ObjectMapper(new SmileFactory()), pagamentos);
+        medir("cbor", new ObjectMapper(new CBORFactory()), pagamentos);
+    }
+
+    private static void medir(String nome, ObjectMapper mapper, List<PagamentoDTO> pagamentos) throws IOException {
+        byte[] bruto = mapper.writeValueAsBytes(pagamentos);
+        byte[] comprimido = gzip(bruto);
+
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            gzip(mapper.writeValueAsBytes(pagamentos));
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < MEDICOES; i++) {
+            mapper.writeValueAsBytes(pagamentos);
+        }
+        double serializacaoMs = (System.nanoTime() - inicio) / 1e6 / MEDICOES;
+        inicio = System.nanoTime();
+        for (int i = 0; i < MEDICOES; i++) {
+            gzip(mapper.writeValueAsBytes(pagamentos));
+        }
+        double comGzipMs = (System.nanoTime() - inicio) / 1e6 / MEDICOES;
+
+        System.out.printf("%-8s %12d %12d %14.2f %14.2f%n", nome, bruto.length, comprimido.length, serializacaoMs, comGzipMs);
+    }
+
+    private static byte[] gzip(byte[] dados) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        }
+        return saida.toByteArray();
+    }
+
+    private static List<PagamentoDTO> gerarPagamentos(int quantidade) {
+        Random random = new Random(42);
+        String[] status = {"EM_ABERTO", "PAGO", "ATRASADO", "PAGO_COM_ATRASO"};
+        List<PagamentoDTO> pagamentos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            double valor = Math.round((100 + random.nextDouble() * 2000) * 100) / 100.0;
+            LocalDate vencimento = LocalDate.of(2024, 1, 10).plusMonths(i % 36);
+            String situacao = status[random.nextInt(status.length)];
+            boolean pago = situacao.startsWith("PAGO");
+            pagamentos.add(new PagamentoDTO((long) i + 1, (long) (i / 12) + 1, valor, valor, valor,
+                    pago ? vencimento.plusDays(random.nextInt(10)).toString() : "", vencimento.toString(),
+                    situacao, null, i % 12 + 1, 0L));
+        }
+        return pagamentos;
+    }
+}
@@ -0,0 +1,95 @@
+package dev.gustavorosa.cobranca_cp.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gustavorosa.cobranca_cp.CobrancaCpApplication;
+import dev.gustavorosa.cobranca_cp.dto.ClienteDetailsDTO;
+import dev.gustavorosa.cobranca_cp.dto.ContratoDetailsDTO;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.service.ClienteService;
+import dev.gustavorosa.cobranca_cp.service.ContratoService;
+import dev.gustavorosa.cobranca_cp.service.PagamentoService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Listagem completa contra listagem com fields (as colunas das tabelas do frontend) para clientes, contratos e
+ * pagamentos: tempo da consulta (SELECT + montagem das linhas), tempo de serialização e tamanho do JSON, com e
+ * sem gzip. Sobe a aplicação sem servidor web, com a carteira sintética do perfil "carga" num H2 em memória
+ * (ou no banco de SPRING_DATASOURCE_URL, se definido). Não roda na suíte de testes; execute com:
+ *
+ *   mvn test-compile
+ *   java -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        dev.gustavorosa.cobranca_cp.benchmark.ListagemCamposBenchmark [clientes]
+ */
+public class ListagemCamposBenchmark {
+
+    private static final int AQUECIMENTO = 3;
+    private static final int RODADAS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        List<String> argumentos = new ArrayList<>(List.of("--app.carga.clientes=" + clientes, "--logging.level.root=WARN"));
+        if (System.getenv("SPRING_DATASOURCE_URL") == null) {
+            argumentos.add("--spring.datasource.url=jdbc:h2:mem:listagem-campos;MODE=PostgreSQL");
+        }
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CobrancaCpApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("carga")
+                .run(argumentos.toArray(String[]::new))) {
+            ObjectMapper mapper = contexto.getBean(ObjectMapper.class);
+            ClienteService clienteService = contexto.getBean(ClienteService.class);
+            ContratoService contratoService = contexto.getBean(ContratoService.class);
+            PagamentoService pagamentoService = contexto.getBean(PagamentoService.class);
+
+            List<String> camposClientes = ClienteDetailsDTO.CAMPOS.interpretar("cliente_id,nome,telefone");
+            List<String> camposContratos = ContratoDetailsDTO.CAMPOS.interpretar("contrato_id,nome_contratante,data,valor_contrato");
+            List<String> camposPagamentos = PagamentoDTO.CAMPOS.interpretar("pagamento_id,contrato_id,data_vencimento,status");
+
+            System.out.printf("%d clientes na carteira sintética, melhor de %d rodadas%n", clientes, RODADAS);
+            System.out.printf("%-24s %9s %12s %14s %12s %12s%n", "listagem", "linhas", "consulta ms", "serializar ms", "bytes", "bytes gzip");
+            medir("clientes", mapper, () -> clienteService.recuperarTodos().stream().map(ClienteDetailsDTO::new).toList());
+            medir("clientes?fields", mapper, () -> clienteService.recuperarTodos(camposClientes));
+            medir("contratos", mapper, () -> contratoService.recuperarContratos().stream().map(ContratoDetailsDTO::new).toList());
+            medir("contratos?fields", mapper, () -> contratoService.recuperarContratos(camposContratos));
+            medir("pagamentos", mapper, () -> pagamentoService.recuperarTodos().stream().map(PagamentoDTO::new).toList());
+            medir("pagamentos?fields", mapper, () -> pagamentoService.recuperarTodos(camposPagamentos));
+        }
+    }
+
+    private static void medir(String nome, ObjectMapper mapper, Supplier<List<?>> listagem) throws IOException {
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            mapper.writeValueAsBytes(listagem.get());
+        }
+        double melhorConsulta = Double.MAX_VALUE;
+        double melhorSerializacao = Double.MAX_VALUE;
+        List<?> linhas = null;
+        byte[] json = null;
+        for (int i = 0; i < RODADAS; i++) {
+            long inicio = System.nanoTime();
+            linhas = listagem.get();
+            long consultado = System.nanoTime();
+            json = mapper.writeValueAsBytes(linhas);
+            long serializado = System.nanoTime();
+            melhorConsulta = Math.min(melhorConsulta, (consultado - inicio) / 1e6);
+            melhorSerializacao = Math.min(melhorSerializacao, (serializado - consultado) / 1e6);
+        }
+        System.out.printf("%-24s %9d %12.2f %14.2f %12d %12d%n", nome, linhas.size(), melhorConsulta, melhorSerializacao,
+                json.length, gzip(json).length);
+    }
+
+    private static byte[] gzip(byte[] dados) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        }
+        return saida.toByteArray();
+    }
+}
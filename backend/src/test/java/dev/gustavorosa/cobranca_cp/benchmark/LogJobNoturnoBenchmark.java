@@ -0,0 +1,185 @@
+package dev.gustavorosa.cobranca_cp.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import dev.gustavorosa.cobranca_cp.util.EncargosUtils;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Custo do log no laço de multa e juros do job noturno (AtualizacaoPagamentoService), com a mesma conta
+ * por parcela nos três cenários:
+ * <ul>
+ *   <li>antes: duas linhas INFO por parcela com String.format, appender de texto síncrono (o padrão do Boot)</li>
+ *   <li>por linha assíncrono: as mesmas linhas, mas atrás do AsyncAppender (isola o ganho da fila)</li>
+ *   <li>depois: resumo agregado ao final, JSON atrás do AsyncAppender (a configuração do logback-spring.xml)</li>
+ * </ul>
+ * "laço ms" é o tempo que a thread do job fica no laço; "total ms" inclui esvaziar a fila até o disco.
+ * O log vai para um arquivo temporário, como o stdout redirecionado do container.
+ * Não roda na suíte de testes; execute com:
+ *
+ *   mvn test-compile
+ *   java -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        dev.gustavorosa.cobranca_cp.benchmark.LogJobNoturnoBenchmark [parcelas]
+ */
+public class LogJobNoturnoBenchmark {
+
+    private static final String PADRAO_TEXTO = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%15.15t] %-40.40logger{39} : %m%n";
+    private static final int RODADAS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Parcelas parcelas = new Parcelas(quantidade);
+
+        System.out.printf("%d parcelas em atraso, melhor de %d rodadas%n", quantidade, RODADAS);
+        System.out.printf("%-22s %10s %10s %12s%n", "cenario", "laço ms", "total ms", "bytes log");
+        medir("antes", parcelas, false, false, true);
+        medir("por linha assincrono", parcelas, true, false, true);
+        medir("depois", parcelas, true, true, false);
+    }
+
+    private static void medir(String nome, Parcelas parcelas, boolean assincrono, boolean json, boolean porLinha) throws IOException {
+        double melhorLaco = Double.MAX_VALUE;
+        double melhorTotal = Double.MAX_VALUE;
+        long bytes = 0;
+        for (int rodada = 0; rodada < RODADAS + 1; rodada++) {
+            File arquivo = File.createTempFile("log-job-noturno", ".log");
+            arquivo.deleteOnExit();
+            LoggerContext contexto = new LoggerContext();
+            contexto.setMDCAdapter(MDC.getMDCAdapter());
+            contexto.putObject(Environment.class.getName(), new StandardEnvironment());
+            Appender<ILoggingEvent> appender = appender(contexto, arquivo, assincrono, json);
+            Logger log = contexto.getLogger("dev.gustavorosa.cobranca_cp.service.AtualizacaoPagamentoService");
+            log.addAppender(appender);
+
+            MDC.put("job", "atualizacao-diaria");
+            MDC.put("jobId", "9f3c2a71d04b5e68");
+            long inicio = System.nanoTime();
+            executarLaco(log, parcelas, porLinha);
+            double laco = (System.nanoTime() - inicio) / 1e6;
+            contexto.stop();
+            double total = (System.nanoTime() - inicio) / 1e6;
+            MDC.clear();
+
+            // a primeira rodada é aquecimento
+            if (rodada > 0) {
+                melhorLaco = Math.min(melhorLaco, laco);
+                melhorTotal = Math.min(melhorTotal, total);
+                bytes = arquivo.length();
+            }
+            arquivo.delete();
+        }
+        System.out.printf("%-22s %10.1f %10.1f %12d%n", nome, melhorLaco, melhorTotal, bytes);
+    }
+
+    /**
+     * O cálculo de AtualizacaoPagamentoService.atualizarValorComMultaEJuros com o log de antes ou o de agora.
+     */
+    private static void executarLaco(Logger log, Parcelas parcelas, boolean porLinha) {
+        long inicio = System.currentTimeMillis();
+        int multas = 0;
+        int comJuros = 0;
+        long centavosMulta = 0;
+        long centavosJuros = 0;
+        for (int i = 0; i < parcelas.quantidade; i++) {
+            double valorOriginal = parcelas.valores[i];
+            double multa = EncargosUtils.multa(valorOriginal, parcelas.taxaMulta);
+            double juros = EncargosUtils.juros(valorOriginal, parcelas.taxaJuros, parcelas.diasAtraso[i]);
+            if (!parcelas.multaAplicada[i]) {
+                multas++;
+                centavosMulta += Math.round(multa * 100);
+                if (porLinha) {
+                    log.info("Multa de {}% (R$ {}) aplicada ao pagamento {}",
+                            parcelas.taxaMulta * 100, String.format("%.2f", multa), (long) i);
+                }
+            }
+            if (juros > 0) {
+                comJuros++;
+                centavosJuros += Math.round(juros * 100);
+                if (porLinha) {
+                    log.info("Juros simples de {}% ao mês aplicados ao pagamento {} ({} dias = R$ {})",
+                            parcelas.taxaJuros * 100, (long) i, parcelas.diasAtraso[i], String.format("%.2f", juros));
+                }
+            } else if (log.isDebugEnabled()) {
+                log.debug("Pagamento {}: {} dias de atraso, multa R$ {}, juros R$ {}", (long) i, parcelas.diasAtraso[i],
+                        EncargosUtils.arredondar(multa), EncargosUtils.arredondar(juros));
+            }
+            parcelas.resultado[i] = EncargosUtils.arredondar(valorOriginal + multa + juros);
+        }
+        log.info("Atualização concluída em {} ms: {} parcelas em atraso ({} novas), multa aplicada em {} (R$ {}), juros em {} (R$ {})",
+                System.currentTimeMillis() - inicio, parcelas.quantidade, multas, multas,
+                BigDecimal.valueOf(centavosMulta, 2), comJuros, BigDecimal.valueOf(centavosJuros, 2));
+    }
+
+    private static Appender<ILoggingEvent> appender(LoggerContext contexto, File arquivo, boolean assincrono, boolean json) {
+        Encoder<ILoggingEvent> encoder;
+        if (json) {
+            StructuredLogEncoder estruturado = new StructuredLogEncoder();
+            estruturado.setFormat("logstash");
+            encoder = estruturado;
+        } else {
+            PatternLayoutEncoder texto = new PatternLayoutEncoder();
+            texto.setPattern(PADRAO_TEXTO);
+            encoder = texto;
+        }
+        encoder.setContext(contexto);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> arquivoAppender = new FileAppender<>();
+        arquivoAppender.setContext(contexto);
+        arquivoAppender.setFile(arquivo.getAbsolutePath());
+        arquivoAppender.setEncoder(encoder);
+        arquivoAppender.start();
+        if (!assincrono) return arquivoAppender;
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(contexto);
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(0);
+        // no benchmark a fila não pode descartar, senão "depois" pareceria mais barato do que é
+        async.setNeverBlock(false);
+        async.setMaxFlushTime(60_000);
+        async.addAppender(arquivoAppender);
+        async.start();
+        return async;
+    }
+
+    private static final class Parcelas {
+        final int quantidade;
+        final double taxaMulta = 0.02;
+        final double taxaJuros = 0.10;
+        final double[] valores;
+        final long[] diasAtraso;
+        final boolean[] multaAplicada;
+        final double[] resultado;
+
+        Parcelas(int quantidade) {
+            Random random = new Random(42);
+            this.quantidade = quantidade;
+            this.valores = new double[quantidade];
+            this.diasAtraso = new long[quantidade];
+            this.multaAplicada = new boolean[quantidade];
+            this.resultado = new double[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                valores[i] = 100 + random.nextInt(400_000) / 100.0;
+                diasAtraso[i] = 1 + random.nextInt(180);
+                // a maior parte das parcelas em atraso já recebeu a multa em uma noite anterior
+                multaAplicada[i] = random.nextInt(10) != 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package dev.gustavorosa.cobranca_cp.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latências por endpoint coletadas durante o teste de carga e o relatório gerado a partir delas.
+ * O relatório é um JSON com a mesma estrutura em toda execução, para poder ser comparado com o de
+ * uma execução anterior (TesteCarga --comparar=arquivo.json).
+ */
+class RelatorioCarga {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Medicoes> medicoes = new ConcurrentHashMap<>();
+
+    void registrar(String endpoint, long nanos, boolean sucesso) {
+        medicoes.computeIfAbsent(endpoint, e -> new Medicoes()).registrar(nanos, sucesso);
+    }
+
+    Map<String, Object> gerar(Map<String, Object> parametros, double segundosMedidos) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        medicoes.keySet().stream().sorted().forEach(endpoint -> {
+            Medicoes m = medicoes.get(endpoint);
+            long[] latencias = m.ordenadas();
+            Map<String, Object> linha = new LinkedHashMap<>();
+            linha.put("requisicoes", latencias.length + m.erros);
+            linha.put("erros", m.erros);
+            linha.put("rps", arredondar((latencias.length + m.erros) / segundosMedidos));
+            linha.put("p50Ms", percentil(latencias, 0.50));
+            linha.put("p95Ms", percentil(latencias, 0.95));
+            linha.put("p99Ms", percentil(latencias, 0.99));
+            linha.put("maxMs", latencias.length == 0 ? 0 : arredondar(latencias[latencias.length - 1] / 1e6));
+            endpoints.put(endpoint, linha);
+        });
+
+        Map<String, Object> relatorio = new LinkedHashMap<>();
+        relatorio.put("data", LocalDateTime.now().toString());
+        relatorio.put("parametros", parametros);
+        relatorio.put("segundosMedidos", arredondar(segundosMedidos));
+        relatorio.put("endpoints", endpoints);
+        return relatorio;
+    }
+
+    static void imprimir(Map<String, Object> relatorio, JsonNode anterior) {
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) relatorio.get("endpoints");
+        System.out.printf("%-22s %8s %6s %9s %9s %9s %9s %9s%n", "endpoint", "req", "erros", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        endpoints.forEach((endpoint, linha) -> {
+            System.out.printf("%-22s %8d %6d %9.1f %9.2f %9.2f %9.2f %9.2f%n", endpoint,
+                    ((Number) linha.get("requisicoes")).longValue(), ((Number) linha.get("erros")).longValue(),
+                    ((Number) linha.get("rps")).doubleValue(), ((Number) linha.get("p50Ms")).doubleValue(),
+                    ((Number) linha.get("p95Ms")).doubleValue(), ((Number) linha.get("p99Ms")).doubleValue(),
+                    ((Number) linha.get("maxMs")).doubleValue());
+            if (anterior != null && anterior.path("endpoints").has(endpoint)) {
+                JsonNode antes = anterior.path("endpoints").path(endpoint);
+                System.out.printf("%-22s %8s %6s %9s %9s %9s %9s%n", "  vs anterior", "", "",
+                        variacao(antes.path("rps").asDouble(), linha.get("rps")),
+                        variacao(antes.path("p50Ms").asDouble(), linha.get("p50Ms")),
+                        variacao(antes.path("p95Ms").asDouble(), linha.get("p95Ms")),
+                        variacao(antes.path("p99Ms").asDouble(), linha.get("p99Ms")));
+            }
+        });
+    }
+
+    static void salvar(Map<String, Object> relatorio, Path arquivo) throws IOException {
+        if (arquivo.getParent() != null) Files.createDirectories(arquivo.getParent());
+        MAPPER.writeValue(arquivo.toFile(), relatorio);
+    }
+
+    static JsonNode ler(Path arquivo) throws IOException {
+        return MAPPER.readTree(arquivo.toFile());
+    }
+
+    private static String variacao(double antes, Object depois) {
+        if (antes == 0) return "-";
+        return String.format("%+.1f%%", (((Number) depois).doubleValue() - antes) / antes * 100);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) return 0;
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return arredondar(ordenadas[Math.max(0, indice)] / 1e6);
+    }
+
+    private static double arredondar(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+
+    private static final class Medicoes {
+        private long[] latencias = new long[1024];
+        private int quantidade;
+        private long erros;
+
+        synchronized void registrar(long nanos, boolean sucesso) {
+            if (!sucesso) {
+                erros++;
+                return;
+            }
+            if (quantidade == latencias.length) latencias = Arrays.copyOf(latencias, quantidade * 2);
+            latencias[quantidade++] = nanos;
+        }
+
+        synchronized long[] ordenadas() {
+            long[] copia = Arrays.copyOf(latencias, quantidade);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package dev.gustavorosa.cobranca_cp.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Teste de carga HTTP em malha fechada: N usuários virtuais (virtual threads), cada um com a própria sessão,
+ * executam cenários sorteados por peso até o fim do tempo. As requisições do aquecimento não entram no
+ * relatório. Não roda na suíte de testes; suba a aplicação com a carteira sintética e execute:
+ *
+ *   java -jar target/cobranca-cp-0.0.1-SNAPSHOT.jar --spring.profiles.active=carga --app.carga.clientes=20000
+ *   mvn test-compile
+ *   java -cp "target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        dev.gustavorosa.cobranca_cp.carga.TesteCarga --usuarios=32 --duracao=60 [--comparar=relatorio-anterior.json]
+ *
+ * Opções (--nome=valor): url, email, senha, usuarios, duracao e aquecimento (segundos), relatorio (arquivo JSON
+ * de saída), comparar (relatório anterior) e pesos (ex: "listar-pagamentos:0,atualizar-pagamento:50").
+ */
+public class TesteCarga {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Map<String, Integer> PESOS_PADRAO = new LinkedHashMap<>();
+
+    static {
+        PESOS_PADRAO.put("login", 5);
+        PESOS_PADRAO.put("refresh", 10);
+        PESOS_PADRAO.put("listar-clientes", 15);
+        PESOS_PADRAO.put("listar-contratos", 15);
+        PESOS_PADRAO.put("listar-pagamentos", 5);
+        PESOS_PADRAO.put("atualizar-pagamento", 40);
+        PESOS_PADRAO.put("criar-contrato", 10);
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final String url;
+    private final String email;
+    private final String senha;
+    private final RelatorioCarga relatorio = new RelatorioCarga();
+    private final List<Long> clientes = new ArrayList<>();
+    private final List<String[]> pagamentos = new ArrayList<>();
+
+    private TesteCarga(String url, String email, String senha) {
+        this.url = url;
+        this.email = email;
+        this.senha = senha;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = lerOpcoes(args);
+        int usuarios = Integer.parseInt(opcoes.getOrDefault("usuarios", "16"));
+        int duracao = Integer.parseInt(opcoes.getOrDefault("duracao", "60"));
+        int aquecimento = Integer.parseInt(opcoes.getOrDefault("aquecimento", "10"));
+        Path arquivoRelatorio = Path.of(opcoes.getOrDefault("relatorio",
+                "target/carga/relatorio-" + System.currentTimeMillis() + ".json"));
+        Map<String, Integer> pesos = lerPesos(opcoes.get("pesos"));
+
+        TesteCarga teste = new TesteCarga(opcoes.getOrDefault("url", "http://localhost:8080"),
+                opcoes.getOrDefault("email", "admin@cobranca.com"), opcoes.getOrDefault("senha", "admin123"));
+        teste.carregarMassa();
+        System.out.printf("%d clientes e %d parcelas disponíveis; %d usuários, %ds de aquecimento + %ds medidos%n",
+                teste.clientes.size(), teste.pagamentos.size(), usuarios, aquecimento, duracao);
+
+        double segundosMedidos = teste.executar(usuarios, aquecimento, duracao, pesos);
+
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        parametros.put("url", teste.url);
+        parametros.put("usuarios", usuarios);
+        parametros.put("duracao", duracao);
+        parametros.put("aquecimento", aquecimento);
+        parametros.put("pesos", pesos);
+        parametros.put("clientes", teste.clientes.size());
+        parametros.put("parcelas", teste.pagamentos.size());
+        Map<String, Object> resultado = teste.relatorio.gerar(parametros, segundosMedidos);
+
+        JsonNode anterior = opcoes.containsKey("comparar") ? RelatorioCarga.ler(Path.of(opcoes.get("comparar"))) : null;
+        RelatorioCarga.imprimir(resultado, anterior);
+        RelatorioCarga.salvar(resultado, arquivoRelatorio);
+        System.out.println("Relatório salvo em " + arquivoRelatorio.toAbsolutePath());
+    }
+
+    private double executar(int usuarios, int aquecimento, int duracao, Map<String, Integer> pesos) throws InterruptedException {
+        List<String> sorteio = new ArrayList<>();
+        pesos.forEach((cenario, peso) -> {
+            for (int i = 0; i < peso; i++) sorteio.add(cenario);
+        });
+        long inicioMedicao = System.nanoTime() + aquecimento * 1_000_000_000L;
+        long fim = inicioMedicao + duracao * 1_000_000_000L;
+
+        List<Thread> threads = new ArrayList<>();
+        for (int u = 0; u < usuarios; u++) {
+            threads.add(Thread.ofVirtual().name("usuario-" + u).start(() -> {
+                Sessao sessao = new Sessao();
+                try {
+                    login(sessao);
+                } catch (Exception e) {
+                    System.err.println("Falha no login inicial: " + e.getMessage());
+                    return;
+                }
+                while (System.nanoTime() < fim) {
+                    String cenario = sorteio.get(ThreadLocalRandom.current().nextInt(sorteio.size()));
+                    long inicio = System.nanoTime();
+                    boolean sucesso;
+                    try {
+                        sucesso = executarCenario(cenario, sessao);
+                    } catch (Exception e) {
+                        sucesso = false;
+                    }
+                    long termino = System.nanoTime();
+                    if (inicio >= inicioMedicao && termino <= fim) {
+                        relatorio.registrar(cenario, termino - inicio, sucesso);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.join();
+        return duracao;
+    }
+
+    private boolean executarCenario(String cenario, Sessao sessao) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (cenario) {
+            case "login" -> login(sessao);
+            case "refresh" -> refresh(sessao);
+            case "listar-clientes" -> ok(enviar(get("/clientes", sessao)));
+            case "listar-contratos" -> ok(enviar(get("/contratos", sessao)));
+            case "listar-pagamentos" -> ok(enviar(get("/pagamentos", sessao)));
+            case "atualizar-pagamento" -> {
+                String[] pagamento = pagamentos.get(random.nextInt(pagamentos.size()));
+                Map<String, Object> corpo = Map.of(
+                        "data_pagamento", LocalDate.now().minusDays(random.nextInt(30)).toString(),
+                        "data_vencimento", pagamento[1]);
+                yield ok(enviar(json("/pagamentos/" + pagamento[0], "PUT", corpo, sessao)));
+            }
+            case "criar-contrato" -> {
+                Map<String, Object> corpo = new HashMap<>();
+                corpo.put("clienteId", clientes.get(random.nextInt(clientes.size())));
+                corpo.put("nomeContratante", "Contratante Carga " + random.nextInt(1_000_000));
+                corpo.put("cpfContratante", String.format("%011d", random.nextLong(100_000_000_000L)));
+                corpo.put("duracaoEmMeses", 12);
+                corpo.put("dataInicioContrato", LocalDate.now().toString());
+                corpo.put("dataPrimeiraParcela", LocalDate.now().plusMonths(1).toString());
+                corpo.put("valorContrato", 1200.0 + random.nextInt(10_000));
+                yield ok(enviar(json("/contratos", "POST", corpo, sessao)));
+            }
+            default -> throw new IllegalArgumentException("Cenário desconhecido: " + cenario);
+        };
+    }
+
+    private void carregarMassa() throws Exception {
+        Sessao sessao = new Sessao();
+        if (!login(sessao)) throw new IllegalStateException("Login falhou para " + email);
+
+        HttpResponse<byte[]> respostaClientes = http.send(get("/clientes", sessao), HttpResponse.BodyHandlers.ofByteArray());
+        if (ok(respostaClientes)) {
+            for (JsonNode cliente : MAPPER.readTree(respostaClientes.body())) clientes.add(cliente.path("cliente_id").asLong());
+        }
+        HttpResponse<byte[]> respostaPagamentos = http.send(get("/pagamentos", sessao), HttpResponse.BodyHandlers.ofByteArray());
+        if (ok(respostaPagamentos)) {
+            for (JsonNode pagamento : MAPPER.readTree(respostaPagamentos.body())) {
+                pagamentos.add(new String[]{pagamento.path("pagamento_id").asText(), pagamento.path("data_vencimento").asText()});
+            }
+        }
+        if (clientes.isEmpty() || pagamentos.isEmpty()) {
+            throw new IllegalStateException("Banco sem clientes/parcelas; suba a aplicação com --spring.profiles.active=carga");
+        }
+    }
+
+    private boolean login(Sessao sessao) throws Exception {
+        HttpResponse<byte[]> resposta = http.send(json("/auth/login", "POST", Map.of("email", email, "senha", senha), null),
+                HttpResponse.BodyHandlers.ofByteArray());
+        return ok(resposta) && sessao.atualizar(resposta.body());
+    }
+
+    private boolean refresh(Sessao sessao) throws Exception {
+        HttpResponse<byte[]> resposta = http.send(json("/auth/refresh", "POST", Map.of("refreshToken", sessao.refreshToken), null),
+                HttpResponse.BodyHandlers.ofByteArray());
+        return ok(resposta) && sessao.atualizar(resposta.body());
+    }
+
+    private HttpResponse<Void> enviar(HttpRequest requisicao) throws Exception {
+        return http.send(requisicao, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpRequest get(String caminho, Sessao sessao) {
+        return HttpRequest.newBuilder(URI.create(url + caminho))
+                .header("Authorization", "Bearer " + sessao.token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest json(String caminho, String metodo, Object corpo, Sessao sessao) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url + caminho))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .method(metodo, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(corpo)));
+        if (sessao != null) builder.header("Authorization", "Bearer " + sessao.token);
+        return builder.build();
+    }
+
+    private static boolean ok(HttpResponse<?> resposta) {
+        return resposta.statusCode() / 100 == 2;
+    }
+
+    private static Map<String, String> lerOpcoes(String[] args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) throw new IllegalArgumentException("Opção inválida: " + arg);
+            opcoes.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return opcoes;
+    }
+
+    private static Map<String, Integer> lerPesos(String pesos) {
+        Map<String, Integer> resultado = new LinkedHashMap<>(PESOS_PADRAO);
+        if (pesos == null) return resultado;
+        for (String par : pesos.split(",")) {
+            String[] partes = par.split(":");
+            if (!resultado.containsKey(partes[0])) throw new IllegalArgumentException("Cenário desconhecido: " + partes[0]);
+            resultado.put(partes[0], Integer.parseInt(partes[1]));
+        }
+        return resultado;
+    }
+
+    private static final class Sessao {
+        private String token;
+        private String refreshToken;
+
+        boolean atualizar(byte[] respostaAuth) throws Exception {
+            JsonNode json = MAPPER.readTree(respostaAuth);
+            token = json.path("token").asText();
+            refreshToken = json.path("refreshToken").asText();
+            return !token.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package dev.gustavorosa.cobranca_cp.controller;
+
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import dev.gustavorosa.cobranca_cp.model.Role;
+import dev.gustavorosa.cobranca_cp.model.Usuario;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import dev.gustavorosa.cobranca_cp.repository.UsuarioRepository;
+import dev.gustavorosa.cobranca_cp.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Baixa em lote: item inválido volta como falha com o motivo, sem derrubar o lote nem os itens válidos; o mesmo
+ * pagamento repetido no lote só é aplicado na primeira ocorrência.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PagamentoControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Test
+    void loteReportaItensInvalidosSemAbortar() throws Exception {
+        LocalDate inicio = LocalDate.now();
+        Contrato contrato = carteira.clienteComContrato("Cliente Lote", 3, inicio);
+        List<Pagamento> parcelas = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId());
+        Pagamento valida = parcelas.get(0);
+        Pagamento semVencimento = parcelas.get(1);
+        Pagamento dataInvalida = parcelas.get(2);
+
+        String corpo = """
+                [
+                  {"pagamento_id": %d, "data_pagamento": "%s", "data_vencimento": "%s"},
+                  {"data_vencimento": "%s"},
+                  {"pagamento_id": %d, "data_pagamento": "%s", "data_vencimento": ""},
+                  {"pagamento_id": %d, "data_vencimento": "2025-13"},
+                  {"pagamento_id": 999999999, "data_vencimento": "%s"}
+                ]
+                """.formatted(valida.getId(), inicio, valida.getDataVencimento(), inicio,
+                semVencimento.getId(), inicio, dataInvalida.getId(), inicio);
+
+        mockMvc.perform(put("/pagamentos/batch")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].sucesso").value(true))
+                .andExpect(jsonPath("$[0].pagamento.data_pagamento").value(inicio.toString()))
+                .andExpect(jsonPath("$[1].sucesso").value(false))
+                .andExpect(jsonPath("$[1].erro").value("Id do pagamento e obrigatorio."))
+                .andExpect(jsonPath("$[2].sucesso").value(false))
+                .andExpect(jsonPath("$[2].pagamento_id").value(semVencimento.getId()))
+                .andExpect(jsonPath("$[2].erro").value("Data de vencimento e obrigatoria."))
+                .andExpect(jsonPath("$[3].sucesso").value(false))
+                .andExpect(jsonPath("$[3].pagamento_id").value(dataInvalida.getId()))
+                .andExpect(jsonPath("$[4].sucesso").value(false))
+                .andExpect(jsonPath("$[4].erro").value("Pagamento nao encontrado"));
+
+        assertEquals(inicio, pagamentoRepository.findById(valida.getId()).orElseThrow().getDataPagamento());
+        assertNull(pagamentoRepository.findById(semVencimento.getId()).orElseThrow().getDataPagamento());
+    }
+
+    @Test
+    void pagamentoRepetidoNoLoteSoEAplicadoUmaVez() throws Exception {
+        LocalDate inicio = LocalDate.now();
+        Contrato contrato = carteira.clienteComContrato("Cliente Lote Repetido", 2, inicio);
+        Pagamento parcela = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId()).get(0);
+
+        // as duas ocorrências trazem a versão lida, que só muda no flush
+        String corpo = """
+                [
+                  {"pagamento_id": %d, "data_pagamento": "%s", "data_vencimento": "%s", "versao": %d},
+                  {"pagamento_id": %d, "data_pagamento": "%s", "data_vencimento": "%s", "versao": %d}
+                ]
+                """.formatted(parcela.getId(), inicio, parcela.getDataVencimento(), parcela.getVersao(),
+                parcela.getId(), inicio.minusDays(1), parcela.getDataVencimento(), parcela.getVersao());
+
+        mockMvc.perform(put("/pagamentos/batch")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].sucesso").value(true))
+                .andExpect(jsonPath("$[1].sucesso").value(false))
+                .andExpect(jsonPath("$[1].pagamento_id").value(parcela.getId()))
+                .andExpect(jsonPath("$[1].erro").value("Pagamento repetido no lote"));
+
+        assertEquals(inicio, pagamentoRepository.findById(parcela.getId()).orElseThrow().getDataPagamento());
+    }
+
+    private String token() {
+        Usuario usuario = usuarioRepository.findByEmail("usuario-lote@cobranca.com").orElseGet(() ->
+                usuarioRepository.save(Usuario.builder()
+                        .nome("Teste Lote")
+                        .email("usuario-lote@cobranca.com")
+                        .senha("nao usada")
+                        .role(Role.USER)
+                        .ativo(true)
+                        .build()));
+        return tokenProvider.generateToken(usuario);
+    }
+}
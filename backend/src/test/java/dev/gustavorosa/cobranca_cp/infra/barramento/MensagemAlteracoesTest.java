@@ -0,0 +1,47 @@
+package dev.gustavorosa.cobranca_cp.infra.barramento;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Muitos ids pendentes viram vários payloads dentro do limite do NOTIFY, e a decodificação devolve exatamente os ids.
+ */
+class MensagemAlteracoesTest {
+
+    @Test
+    void dividePayloadsDentroDoLimiteSemPerderIds() {
+        Random aleatorio = new Random(3);
+        Map<TipoAlteracao, Set<Long>> pendentes = new EnumMap<>(TipoAlteracao.class);
+        for (TipoAlteracao tipo : TipoAlteracao.values()) {
+            Set<Long> ids = new HashSet<>();
+            for (int i = 0; i < 8_000; i++) ids.add(1 + (long) aleatorio.nextInt(5_000_000));
+            pendentes.put(tipo, ids);
+        }
+
+        List<Map<TipoAlteracao, Set<Long>>> grupos = MensagemAlteracoes.dividir("a1b2c3d4", pendentes);
+        assertTrue(grupos.size() > 1);
+        Map<TipoAlteracao, Set<Long>> recebidos = new EnumMap<>(TipoAlteracao.class);
+        long sequencia = Long.MAX_VALUE - grupos.size();
+        for (Map<TipoAlteracao, Set<Long>> grupo : grupos) {
+            String payload = new MensagemAlteracoes("a1b2c3d4", ++sequencia, grupo).codificar();
+            assertTrue(payload.getBytes(StandardCharsets.UTF_8).length < 8000, "payload com " + payload.length() + " bytes");
+            MensagemAlteracoes mensagem = MensagemAlteracoes.decodificar(payload);
+            assertEquals("a1b2c3d4", mensagem.instancia());
+            assertEquals(sequencia, mensagem.sequencia());
+            mensagem.ids().forEach((tipo, ids) -> recebidos.computeIfAbsent(tipo, t -> new HashSet<>()).addAll(ids));
+        }
+        assertEquals(pendentes, recebidos);
+
+        assertTrue(MensagemAlteracoes.decodificar(new MensagemAlteracoes("x", 7, null).codificar()).ressincronizar());
+    }
+}
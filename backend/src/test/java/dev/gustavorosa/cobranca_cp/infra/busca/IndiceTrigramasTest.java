@@ -0,0 +1,141 @@
+package dev.gustavorosa.cobranca_cp.infra.busca;
+
+import dev.gustavorosa.cobranca_cp.util.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Busca sem acento e pontuação, prefixo da última palavra, tolerância a erro de digitação, filtro por tipo,
+ * atualização e remoção, e ranking depois da compactação.
+ */
+class IndiceTrigramasTest {
+
+    @Test
+    void ignoraAcentosEPontuacao() {
+        assertEquals("joao da silva", StringUtils.normalizeForSearch(" JOÃO  da Silva "));
+        assertEquals("12345678909", StringUtils.normalizeForSearch("123.456.789-09"));
+
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.indexar(cliente(1L, "João da Silva", "123.456.789-09"));
+        indice.indexar(cliente(2L, "Maria Souza", "987.654.321-00"));
+
+        assertEquals(List.of(1L), ids(indice.buscar("12345678909", null, 10)));
+        assertEquals(List.of(1L), ids(indice.buscar("123.456.789-09", null, 10)));
+        assertEquals(List.of(1L), ids(indice.buscar("JOAO silva", null, 10)));
+        assertEquals(List.of(1L), ids(indice.buscar("joão", null, 10)));
+    }
+
+    @Test
+    void ultimaPalavraCasaComoPrefixo() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.indexar(cliente(1L, "Mariana Souza", null));
+        indice.indexar(cliente(2L, "Mario Souto", null));
+        indice.indexar(cliente(3L, "Pedro Marins", null));
+
+        List<ResultadoBusca> mariana = indice.buscar("mariana sou", null, 10);
+        assertEquals(1L, mariana.get(0).documento().id());
+        assertTrue(mariana.get(0).relevancia() > 1.0);
+        // começo de palavra em qualquer posição; quem começa com a consulta e é mais curto vem antes
+        assertEquals(List.of(2L, 1L, 3L), ids(indice.buscar("mar", null, 10)));
+    }
+
+    @Test
+    void toleraErroDeDigitacao() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.indexar(cliente(1L, "Carlos Fernandes", null));
+        indice.indexar(cliente(2L, "Beatriz Almeida", null));
+
+        List<ResultadoBusca> resultado = indice.buscar("fernandez", null, 10);
+        assertEquals(List.of(1L), ids(resultado));
+        assertTrue(resultado.get(0).relevancia() < 1.0);
+        assertEquals(List.of(), indice.buscar("xyzwq", null, 10));
+    }
+
+    @Test
+    void filtraPorTipo() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        // mesmo id nos dois tipos: a chave do índice distingue cliente de contrato
+        indice.indexar(cliente(5L, "Ana Paula Rocha", null));
+        indice.indexar(contrato(5L, 7L, "Ana Paula Rocha", null));
+
+        assertEquals(2, indice.tamanho());
+        assertEquals(2, indice.buscar("ana paula", null, 10).size());
+        List<ResultadoBusca> contratos = indice.buscar("ana paula", TipoDocumentoBusca.CONTRATO, 10);
+        assertEquals(1, contratos.size());
+        assertEquals(TipoDocumentoBusca.CONTRATO, contratos.get(0).documento().tipo());
+        assertEquals(7L, contratos.get(0).documento().clienteId());
+    }
+
+    @Test
+    void atualizaERemove() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.indexar(cliente(1L, "Roberto Lima", null));
+        indice.indexar(cliente(1L, "Roberta Nunes", null));
+
+        assertEquals(1, indice.tamanho());
+        assertEquals(List.of(), indice.buscar("lima", null, 10));
+        assertEquals(List.of(1L), ids(indice.buscar("nunes", null, 10)));
+
+        // carga inicial não sobrescreve o que já foi indexado por uma escrita
+        indice.indexarSeAusente(cliente(1L, "Roberto Lima", null));
+        assertEquals(List.of(), indice.buscar("lima", null, 10));
+
+        indice.remover(TipoDocumentoBusca.CLIENTE, 1L);
+        assertEquals(0, indice.tamanho());
+        assertEquals(List.of(), indice.buscar("nunes", null, 10));
+    }
+
+    @Test
+    void removeContratosDoCliente() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        indice.indexar(cliente(1L, "Empresa Alfa", null));
+        indice.indexar(contrato(10L, 1L, "Contratante Alfa", null));
+        indice.indexar(contrato(11L, 1L, "Contratante Beta", null));
+        indice.indexar(contrato(12L, 2L, "Contratante Gama", null));
+
+        indice.removerContratosDoCliente(1L);
+
+        assertEquals(2, indice.tamanho());
+        assertEquals(List.of(12L), ids(indice.buscar("contratante", TipoDocumentoBusca.CONTRATO, 10)));
+        assertEquals(List.of(1L), ids(indice.buscar("alfa", null, 10)));
+    }
+
+    @Test
+    void rankingSeMantemDepoisDaCompactacao() {
+        IndiceTrigramas indice = new IndiceTrigramas();
+        for (long id = 1; id <= 2000; id++) {
+            indice.indexar(cliente(id, "Cliente Avulso " + id, null));
+        }
+        indice.indexar(cliente(3001L, "Ana Lima Ferreira Costa", null));
+        indice.indexar(cliente(3002L, "Ana Lima", null));
+        indice.indexar(cliente(3003L, "Lima Ana", null));
+        // 1500 removidos: passa de 1024 e de um quarto do índice, então compacta
+        for (long id = 1; id <= 1500; id++) {
+            indice.remover(TipoDocumentoBusca.CLIENTE, id);
+        }
+
+        assertEquals(503, indice.tamanho());
+        assertTrue(ids(indice.buscar("1500", null, 20)).stream().noneMatch(id -> id <= 1500));
+        assertEquals(1501L, indice.buscar("1501", null, 10).get(0).documento().id());
+        // começa com a consulta e é mais curto vem antes; "lima ana" tem os trigramas mas não começa com ela
+        assertEquals(List.of(3002L, 3001L), ids(indice.buscar("ana lima", null, 2)));
+        assertEquals(List.of(3002L, 3001L, 3003L), ids(indice.buscar("ana lima", null, 3)));
+        assertEquals(List.of(3001L), ids(indice.buscar("lima ferrera", null, 10)));
+    }
+
+    private static List<Long> ids(List<ResultadoBusca> resultados) {
+        return resultados.stream().map(resultado -> resultado.documento().id()).toList();
+    }
+
+    private static DocumentoBusca cliente(Long id, String nome, String documento) {
+        return new DocumentoBusca(TipoDocumentoBusca.CLIENTE, id, id, nome, documento);
+    }
+
+    private static DocumentoBusca contrato(Long id, Long clienteId, String nome, String documento) {
+        return new DocumentoBusca(TipoDocumentoBusca.CONTRATO, id, clienteId, nome, documento);
+    }
+}
@@ -0,0 +1,90 @@
+package dev.gustavorosa.cobranca_cp.infra.campos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.dto.ContratoDetailsDTO;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.service.ContratoService;
+import dev.gustavorosa.cobranca_cp.service.PagamentoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A listagem com fields devolve, campo a campo, o mesmo JSON da listagem completa.
+ */
+@SpringBootTest
+class SelecaoCamposTest {
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void camposSelecionadosConferemComListagemCompleta() {
+        Contrato contrato = carteira.clienteComContrato("Cliente Campos", 4, LocalDate.now().minusMonths(2));
+        // uma parcela paga, para conferir data_pagamento preenchida e vazia
+        PagamentoDTO primeira = new PagamentoDTO(contrato.getPagamentos().get(0));
+        pagamentoService.atualizarPagamento(baixa(primeira), primeira.pagamento_id());
+
+        List<String> camposPagamento = PagamentoDTO.CAMPOS.interpretar("data_pagamento, status,pagamento_id,data_vencimento,status");
+        assertEquals(List.of("data_pagamento", "status", "pagamento_id", "data_vencimento"), camposPagamento);
+        Map<Object, Map<String, Object>> completos = porId(pagamentoService.recuperarTodos().stream().map(PagamentoDTO::new).toList(), "pagamento_id");
+        for (Map<String, Object> linha : pagamentoService.recuperarTodos(camposPagamento)) {
+            conferir(completos.get(json(linha).get("pagamento_id")), linha, camposPagamento);
+        }
+
+        List<String> camposContrato = ContratoDetailsDTO.CAMPOS.interpretar("contrato_id,cliente_id,nome_contratante,data");
+        Map<Object, Map<String, Object>> contratos = porId(contratoService.recuperarContratos().stream().map(ContratoDetailsDTO::new).toList(), "contrato_id");
+        for (Map<String, Object> linha : contratoService.recuperarContratos(camposContrato)) {
+            conferir(contratos.get(json(linha).get("contrato_id")), linha, camposContrato);
+        }
+    }
+
+    @Test
+    void campoDesconhecidoERecusado() {
+        assertThrows(IllegalArgumentException.class, () -> PagamentoDTO.CAMPOS.interpretar("pagamento_id,senha"));
+        assertThrows(IllegalArgumentException.class, () -> PagamentoDTO.CAMPOS.interpretar(" , "));
+    }
+
+    private void conferir(Map<String, Object> completo, Map<String, Object> linha, List<String> campos) {
+        Map<String, Object> selecionado = json(linha);
+        assertEquals(campos, List.copyOf(selecionado.keySet()));
+        for (String campo : campos) {
+            assertEquals(completo.get(campo), selecionado.get(campo), campo);
+        }
+    }
+
+    private Map<Object, Map<String, Object>> porId(List<?> dtos, String id) {
+        return dtos.stream().map(this::json).collect(Collectors.toMap(dto -> dto.get(id), Function.identity()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> json(Object valor) {
+        return objectMapper.convertValue(valor, Map.class);
+    }
+
+    private static PagamentoDTO baixa(PagamentoDTO parcela) {
+        return new PagamentoDTO(parcela.pagamento_id(), parcela.contrato_id(), null, null, null,
+                LocalDate.now().toString(), parcela.data_vencimento(), null, null, null, parcela.versao());
+    }
+}
@@ -0,0 +1,132 @@
+package dev.gustavorosa.cobranca_cp.infra.carteira;
+
+import dev.gustavorosa.cobranca_cp.dto.LinhaCarteiraDTO;
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+import dev.gustavorosa.cobranca_cp.util.MoneyUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara as varreduras do retrato colunar, antes e depois de remendos, com a mesma conta feita linha a linha.
+ */
+class CarteiraColunarTest {
+
+    private static final LocalDate REFERENCIA = LocalDate.of(2025, 6, 15);
+
+    @Test
+    void varredurasConferemComSomaDireta() {
+        Random aleatorio = new Random(42);
+        List<LinhaCarteiraDTO> linhas = new ArrayList<>();
+        long pagamentoId = 1;
+        long contratoId = 1;
+        for (long cliente = 1; cliente <= 20_000; cliente++) {
+            for (int c = 0; c < 1 + aleatorio.nextInt(3); c++, contratoId++) {
+                for (int p = 0; p < 1 + aleatorio.nextInt(6); p++) {
+                    linhas.add(linha(pagamentoId++, contratoId, cliente, aleatorio));
+                }
+            }
+        }
+        CarteiraColunar.Builder builder = CarteiraColunar.builder();
+        linhas.forEach(builder::adicionar);
+        CarteiraColunar carteira = builder.construir();
+        assertTrue(carteira.partes() > 1, "a base deve ser varrida em mais de uma parte");
+        conferir(carteira, linhas);
+
+        // remenda contratos existentes (quitados, alterados) e cria contratos de clientes novos e antigos
+        Set<Long> alterados = new HashSet<>();
+        List<LinhaCarteiraDTO> atuais = new ArrayList<>();
+        for (int i = 0; i < 500; i++) alterados.add(1 + (long) aleatorio.nextInt((int) contratoId - 1));
+        for (long alterado : alterados) {
+            long cliente = linhas.stream().filter(l -> l.contratoId() == alterado).findFirst().orElseThrow().clienteId();
+            for (int p = 0; p < aleatorio.nextInt(3); p++) atuais.add(linha(pagamentoId++, alterado, cliente, aleatorio));
+        }
+        for (int i = 0; i < 50; i++, contratoId++) {
+            alterados.add(contratoId);
+            long cliente = i % 2 == 0 ? 30_000 + i : 1 + aleatorio.nextInt(20_000);
+            atuais.add(linha(pagamentoId++, contratoId, cliente, aleatorio));
+        }
+        CarteiraColunar remendada = carteira.remendar(alterados, atuais);
+
+        List<LinhaCarteiraDTO> vigentes = new ArrayList<>(linhas.stream().filter(l -> !alterados.contains(l.contratoId())).toList());
+        vigentes.addAll(atuais);
+        assertEquals(vigentes.size(), remendada.tamanho());
+        conferir(remendada, vigentes);
+        // o retrato anterior continua intacto
+        conferir(carteira, linhas);
+    }
+
+    private static LinhaCarteiraDTO linha(long pagamentoId, long contratoId, long clienteId, Random aleatorio) {
+        LocalDate vencimento = REFERENCIA.plusDays(aleatorio.nextInt(500) - 250);
+        double valor = (100 + aleatorio.nextInt(500_000)) / 100.0;
+        SituacaoPagamento situacao = vencimento.isBefore(REFERENCIA) ? SituacaoPagamento.ATRASADO : SituacaoPagamento.EM_ABERTO;
+        return new LinhaCarteiraDTO(pagamentoId, contratoId, clienteId, vencimento, valor, situacao);
+    }
+
+    private static void conferir(CarteiraColunar carteira, List<LinhaCarteiraDTO> linhas) {
+        long[] parcelasFaixa = new long[CarteiraColunar.FAIXAS_AGING.length];
+        long[] centavosFaixa = new long[CarteiraColunar.FAIXAS_AGING.length];
+        long[] situacoes = new long[SituacaoPagamento.values().length];
+        int meses = 6;
+        long[] parcelasFluxo = new long[meses + 2];
+        long[] centavosFluxo = new long[meses + 2];
+        Map<Long, long[]> porCliente = new HashMap<>();
+        for (LinhaCarteiraDTO linha : linhas) {
+            long centavos = MoneyUtils.toCents(linha.valor());
+            long atraso = ChronoUnit.DAYS.between(linha.dataVencimento(), REFERENCIA);
+            int faixa = atraso < 0 ? 0 : atraso <= 30 ? 1 : atraso <= 60 ? 2 : atraso <= 90 ? 3 : 4;
+            parcelasFaixa[faixa]++;
+            centavosFaixa[faixa] += centavos;
+            situacoes[linha.status().ordinal()]++;
+
+            int posicao = atraso > 0 ? 0
+                    : (int) Math.min(meses + 1, 1 + ChronoUnit.MONTHS.between(REFERENCIA.withDayOfMonth(1), linha.dataVencimento().withDayOfMonth(1)));
+            parcelasFluxo[posicao]++;
+            centavosFluxo[posicao] += centavos;
+
+            if (atraso > 0) {
+                long[] total = porCliente.computeIfAbsent(linha.clienteId(), id -> new long[3]);
+                total[0]++;
+                total[1] += centavos;
+                total[2] = Math.max(total[2], atraso);
+            }
+        }
+
+        CarteiraColunar.Aging aging = carteira.aging(REFERENCIA);
+        assertArrayEquals(parcelasFaixa, aging.parcelas());
+        assertArrayEquals(centavosFaixa, aging.centavos());
+        assertArrayEquals(situacoes, aging.situacoes());
+
+        CarteiraColunar.Fluxo fluxo = carteira.fluxo(REFERENCIA, meses);
+        assertArrayEquals(parcelasFluxo, fluxo.parcelas());
+        assertArrayEquals(centavosFluxo, fluxo.centavos());
+
+        List<Map.Entry<Long, long[]>> esperados = porCliente.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Long, long[]>>comparingLong(e -> -e.getValue()[1]).thenComparing(Map.Entry::getKey))
+                .limit(25)
+                .toList();
+        List<CarteiraColunar.Inadimplente> inadimplentes = carteira.inadimplentes(REFERENCIA, 25);
+        assertEquals(esperados.size(), inadimplentes.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            long[] esperado = esperados.get(i).getValue();
+            CarteiraColunar.Inadimplente obtido = inadimplentes.get(i);
+            assertEquals(esperados.get(i).getKey(), obtido.clienteId());
+            assertEquals(esperado[0], obtido.parcelas());
+            assertEquals(esperado[1], obtido.centavos());
+            assertEquals(esperado[2], obtido.maiorAtrasoDias());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dev.gustavorosa.cobranca_cp.infra.coalescencia;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * O seguidor recebe os cabeçalhos do líder, menos Set-Cookie e os que a própria requisição já tem.
+ */
+class CoalescenciaFilterTest {
+
+    private static final String ROTA = "/pagamentos";
+
+    @Test
+    void seguidorRecebeCabecalhosDoLider() throws Exception {
+        CoalescenciaFilter filtro = new CoalescenciaFilter(new CoalescenciaLeituras<>(5_000), Set.of(ROTA));
+        CountDownLatch liderNoController = new CountDownLatch(1);
+        CountDownLatch liberarLider = new CountDownLatch(1);
+        AtomicInteger execucoes = new AtomicInteger();
+        FilterChain controller = (request, response) -> {
+            execucoes.incrementAndGet();
+            HttpServletResponse resposta = (HttpServletResponse) response;
+            resposta.addHeader(HttpHeaders.ETAG, "\"v1\"");
+            resposta.addHeader("X-Total-Count", "3");
+            resposta.addHeader(HttpHeaders.SET_COOKIE, "sessao=lider");
+            resposta.addHeader(HttpHeaders.VARY, "Origin");
+            resposta.setContentType("application/json");
+            liderNoController.countDown();
+            try {
+                liberarLider.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            resposta.getOutputStream().write("[]".getBytes());
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> lider = executor.submit(() -> executar(filtro, controller, null));
+            liderNoController.await(5, TimeUnit.SECONDS);
+            Future<MockHttpServletResponse> seguidor = executor.submit(() -> executar(filtro, controller, "Accept-Encoding"));
+            // dá tempo ao seguidor de entrar no voo antes de o líder terminar
+            Thread.sleep(200);
+            liberarLider.countDown();
+
+            assertEquals("[]", lider.get().getContentAsString());
+            MockHttpServletResponse copiada = seguidor.get();
+            assertEquals(1, execucoes.get());
+            assertEquals("[]", copiada.getContentAsString());
+            assertEquals("application/json", copiada.getContentType());
+            assertEquals("\"v1\"", copiada.getHeader(HttpHeaders.ETAG));
+            assertEquals("3", copiada.getHeader("X-Total-Count"));
+            assertNull(copiada.getHeader(HttpHeaders.SET_COOKIE));
+            assertEquals(List.of("Accept-Encoding"), copiada.getHeaders(HttpHeaders.VARY));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static MockHttpServletResponse executar(CoalescenciaFilter filtro, FilterChain controller, String vary)
+            throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "usuario", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        try {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            // cabeçalho posto por um filtro anterior para esta requisição
+            if (vary != null) response.addHeader(HttpHeaders.VARY, vary);
+            filtro.doFilter(new MockHttpServletRequest("GET", ROTA), response, controller);
+            return response;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
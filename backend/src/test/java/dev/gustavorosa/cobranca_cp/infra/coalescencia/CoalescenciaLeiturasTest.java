@@ -0,0 +1,86 @@
+package dev.gustavorosa.cobranca_cp.infra.coalescencia;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seguidores recebem o resultado do líder; espera esgotada, líder sem resultado e voo anterior a uma escrita
+ * mandam executar sozinho.
+ */
+class CoalescenciaLeiturasTest {
+
+    private static final String ROTA = "GET /pagamentos";
+
+    @Test
+    void seguidoresRecebemResultadoDoLider() throws Exception {
+        CoalescenciaLeituras<String> coalescencia = new CoalescenciaLeituras<>(5_000);
+        CoalescenciaLeituras.Voo<String> lider = coalescencia.entrar(ROTA, "a");
+        assertTrue(lider.lider());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> seguidores = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                CoalescenciaLeituras.Voo<String> voo = coalescencia.entrar(ROTA, "a");
+                assertFalse(voo.lider());
+                seguidores.add(executor.submit(() -> coalescencia.aguardar(voo)));
+            }
+            // outra chave não espera ninguém
+            assertTrue(coalescencia.entrar(ROTA, "b").lider());
+
+            coalescencia.concluir(lider, "resultado");
+            for (Future<String> seguidor : seguidores) assertEquals("resultado", seguidor.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // terminado o voo, a próxima leitura executa de novo
+        assertTrue(coalescencia.entrar(ROTA, "a").lider());
+        Map<String, Object> contadores = rota(coalescencia);
+        assertEquals(3L, contadores.get("execucoes"));
+        assertEquals(8L, contadores.get("coalescidas"));
+    }
+
+    @Test
+    void executaSozinhoQuandoNaoHaResultadoCompartilhavel() throws Exception {
+        CoalescenciaLeituras<String> coalescencia = new CoalescenciaLeituras<>(50);
+
+        CoalescenciaLeituras.Voo<String> lento = coalescencia.entrar(ROTA, "a");
+        assertNull(coalescencia.aguardar(coalescencia.entrar(ROTA, "a")));
+        coalescencia.concluir(lento, null);
+
+        CoalescenciaLeituras.Voo<String> falhou = coalescencia.entrar(ROTA, "a");
+        CoalescenciaLeituras.Voo<String> seguidor = coalescencia.entrar(ROTA, "a");
+        coalescencia.concluir(falhou, null);
+        assertNull(coalescencia.aguardar(seguidor));
+
+        CoalescenciaLeituras.Voo<String> antesDaEscrita = coalescencia.entrar(ROTA, "a");
+        coalescencia.registrarEscrita();
+        assertNull(coalescencia.entrar(ROTA, "a"));
+        coalescencia.concluir(antesDaEscrita, "velho");
+        assertNotNull(coalescencia.entrar(ROTA, "a"));
+
+        Map<String, Object> contadores = rota(coalescencia);
+        assertEquals(1L, contadores.get("esperasEsgotadas"));
+        assertEquals(1L, contadores.get("semResultado"));
+        assertEquals(1L, contadores.get("aposEscrita"));
+        assertEquals(0L, contadores.get("coalescidas"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> rota(CoalescenciaLeituras<?> coalescencia) {
+        return (Map<String, Object>) ((Map<String, Object>) coalescencia.situacao().get("rotas")).get(ROTA);
+    }
+}
@@ -0,0 +1,94 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Busca por valor e janela de vencimento, desempate pelo documento do pagador e consumo da parcela baixada.
+ */
+class IndiceParcelasAbertasTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void correspondenciaUnicaEConsumida() {
+        IndiceParcelasAbertas indice = IndiceParcelasAbertas.builder()
+                .adicionar(1, 10000, DIA, "111.111.111-11", null)
+                .adicionar(2, 15075, DIA.plusDays(3), "222.222.222-22", null)
+                .adicionar(3, 20000, DIA, "333.333.333-33", null)
+                .construir();
+        assertEquals(3, indice.tamanho());
+
+        IndiceParcelasAbertas.Correspondencia correspondencia = indice.buscar(credito(15075, DIA, null), 5);
+        assertTrue(correspondencia.exata());
+        assertEquals(2L, correspondencia.pagamentoId());
+
+        // a mesma parcela não é baixada por um segundo crédito
+        IndiceParcelasAbertas.Correspondencia repetida = indice.buscar(credito(15075, DIA, null), 5);
+        assertFalse(repetida.exata());
+        assertTrue(repetida.candidatos().isEmpty());
+    }
+
+    @Test
+    void foraDaJanelaOuOutroValorNaoCorresponde() {
+        IndiceParcelasAbertas indice = IndiceParcelasAbertas.builder()
+                .adicionar(1, 10000, DIA, null, null)
+                .construir();
+
+        assertTrue(indice.buscar(credito(10000, DIA.plusDays(11), null), 10).candidatos().isEmpty());
+        assertTrue(indice.buscar(credito(10001, DIA, null), 10).candidatos().isEmpty());
+        assertTrue(indice.buscar(credito(10000, DIA.minusDays(10), null), 10).exata());
+    }
+
+    @Test
+    void documentoDesempataValoresIguais() {
+        IndiceParcelasAbertas indice = IndiceParcelasAbertas.builder()
+                .adicionar(1, 10000, DIA, "111.111.111-11", "900")
+                .adicionar(2, 10000, DIA.plusDays(1), "222.222.222-22", "901")
+                .adicionar(3, 10000, DIA.minusDays(1), "333.333.333-33", "902")
+                .construir();
+
+        IndiceParcelasAbertas.Correspondencia semDocumento = indice.buscar(credito(10000, DIA, null), 5);
+        assertFalse(semDocumento.exata());
+        assertEquals(List.of(1L, 2L, 3L), semDocumento.candidatos().stream().sorted().toList());
+
+        assertEquals(2L, indice.buscar(credito(10000, DIA, "22222222222"), 5).pagamentoId());
+        assertEquals(3L, indice.buscar(credito(10000, DIA, "902"), 5).pagamentoId());
+
+        // documento que não confere com nenhuma parcela não autoriza a baixa de uma delas
+        IndiceParcelasAbertas.Correspondencia outroPagador = indice.buscar(credito(10000, DIA, "99999999999"), 5);
+        assertFalse(outroPagador.exata());
+        assertEquals(List.of(1L), outroPagador.candidatos());
+    }
+
+    @Test
+    void valoresForaDaFaixaFicamForaDoIndice() {
+        IndiceParcelasAbertas indice = IndiceParcelasAbertas.builder()
+                .adicionar(1, -100, DIA, null, null)
+                .adicionar(2, 1L << 40, DIA, null, null)
+                .adicionar(3, 500, DIA, null, null)
+                .construir();
+        assertEquals(1, indice.tamanho());
+    }
+
+    @Test
+    void cresceAlemDaCapacidadeInicial() {
+        IndiceParcelasAbertas.Builder builder = IndiceParcelasAbertas.builder();
+        for (int i = 0; i < 5000; i++) {
+            builder.adicionar(i, 5000 - i, DIA, null, null);
+        }
+        IndiceParcelasAbertas indice = builder.construir();
+        assertEquals(5000, indice.tamanho());
+        assertEquals(4000L, indice.buscar(credito(1000, DIA, null), 0).pagamentoId());
+    }
+
+    private static LancamentoExtrato credito(long centavos, LocalDate data, String documento) {
+        return new LancamentoExtrato(1, data, centavos, documento, null);
+    }
+}
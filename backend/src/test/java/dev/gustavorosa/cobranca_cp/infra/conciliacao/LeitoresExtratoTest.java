@@ -0,0 +1,81 @@
+package dev.gustavorosa.cobranca_cp.infra.conciliacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Um arquivo de exemplo por formato (src/test/resources/extratos): só créditos são entregues, débitos e
+ * registros de controle são ignorados, e uma linha ilegível é reportada sem interromper as seguintes.
+ */
+class LeitoresExtratoTest {
+
+    @Test
+    void csv() throws IOException {
+        Leitura leitura = ler(FormatoExtrato.CSV, "extrato.csv");
+
+        assertEquals(8, leitura.registros);
+        assertEquals(3, leitura.creditos.size());
+        assertEquals(new LancamentoExtrato(2, LocalDate.of(2025, 3, 5), 15075, "12345678909", "PIX recebido"),
+                leitura.creditos.get(0));
+        assertEquals(new LancamentoExtrato(4, LocalDate.of(2025, 3, 7), 123456, "12345678000195", "TED empresa"),
+                leitura.creditos.get(1));
+        assertEquals(new LancamentoExtrato(8, LocalDate.of(2025, 3, 10), 100000, null, "Deposito"),
+                leitura.creditos.get(2));
+
+        assertEquals(List.of(6L, 7L), leitura.invalidas.stream().map(LinhaInvalida::linha).toList());
+    }
+
+    @Test
+    void ofx() throws IOException {
+        Leitura leitura = ler(FormatoExtrato.OFX, "extrato.ofx");
+
+        assertEquals(4, leitura.registros);
+        assertEquals(2, leitura.creditos.size());
+        assertEquals(new LancamentoExtrato(1, LocalDate.of(2025, 3, 5), 15075, "12345678909", "PIX RECEBIDO CPF 123.456.789-09"),
+                leitura.creditos.get(0));
+        assertEquals(new LancamentoExtrato(4, LocalDate.of(2025, 3, 10), 123456, "12345678000195", "EMPRESA 12345678000195"),
+                leitura.creditos.get(1));
+
+        assertEquals(1, leitura.invalidas.size());
+        assertEquals(3, leitura.invalidas.get(0).linha());
+        assertTrue(leitura.invalidas.get(0).motivo().startsWith("DTPOSTED"));
+    }
+
+    @Test
+    void cnab240() throws IOException {
+        Leitura leitura = ler(FormatoExtrato.CNAB240, "extrato-cnab240.txt");
+
+        assertEquals(8, leitura.registros);
+        assertEquals(2, leitura.creditos.size());
+        LancamentoExtrato primeiro = leitura.creditos.get(0);
+        assertEquals(new LancamentoExtrato(3, LocalDate.of(2025, 3, 5), 15075, null, "PIX RECEBIDO JOAO"), primeiro);
+        assertNull(primeiro.documento());
+        assertEquals(new LancamentoExtrato(6, LocalDate.of(2025, 3, 10), 100000, null, "BOLETO LIQUIDADO"),
+                leitura.creditos.get(1));
+
+        assertEquals(List.of(5L), leitura.invalidas.stream().map(LinhaInvalida::linha).toList());
+    }
+
+    private static Leitura ler(FormatoExtrato formato, String arquivo) throws IOException {
+        Leitura leitura = new Leitura();
+        try (InputStream entrada = LeitoresExtratoTest.class.getResourceAsStream("/extratos/" + arquivo)) {
+            leitura.registros = formato.novoLeitor().ler(entrada, leitura.creditos::add, leitura.invalidas::add);
+        }
+        return leitura;
+    }
+
+    private static class Leitura {
+        final List<LancamentoExtrato> creditos = new ArrayList<>();
+        final List<LinhaInvalida> invalidas = new ArrayList<>();
+        long registros;
+    }
+}
@@ -0,0 +1,109 @@
+package dev.gustavorosa.cobranca_cp.infra.consultas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.service.AtualizacaoPagamentoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Orçamento de comandos SQL por endpoint, medido pelo ConsultasFilter. Os números incluem a consulta do usuário
+ * feita na autenticação e não podem depender do tamanho da carteira: uma listagem que passa a carregar o cliente
+ * ou as parcelas de cada linha estoura o orçamento e a mensagem mostra a consulta repetida.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrcamentoConsultasTest {
+
+    private static final int CLIENTES = 4;
+    private static final int CONTRATOS_POR_CLIENTE = 2;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private AtualizacaoPagamentoService atualizacaoPagamentoService;
+
+    private String token;
+    private Long clienteId;
+    private Long contratoId;
+
+    @BeforeEach
+    void popularCarteira() throws Exception {
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = carteira.cliente("Cliente Orcamento " + i);
+            for (int j = 0; j < CONTRATOS_POR_CLIENTE; j++) {
+                // metade das parcelas já venceu, para o job noturno ter o que atualizar
+                contratoId = carteira.contrato(cliente, 12, LocalDate.now().minusMonths(6)).getId();
+            }
+            clienteId = cliente.getId();
+        }
+
+        MvcResult login = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"admin@cobranca.com\",\"senha\":\"admin123\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        token = objectMapper.readTree(login.getResponse().getContentAsString()).path("token").asText();
+    }
+
+    @Test
+    void endpointsDeLeituraRespeitamOOrcamento() throws Exception {
+        Map<String, Integer> orcamentos = new LinkedHashMap<>();
+        orcamentos.put("/clientes", 2);
+        orcamentos.put("/clientes/" + clienteId, 2);
+        orcamentos.put("/clientes/" + clienteId + "/extrato", 2);
+        orcamentos.put("/contratos", 2);
+        orcamentos.put("/contratos/" + contratoId, 2);
+        orcamentos.put("/contratos/" + contratoId + "/pagamentos", 2);
+        orcamentos.put("/pagamentos", 2);
+        orcamentos.put("/contratos/" + contratoId + "/saldo", 2);
+        orcamentos.put("/clientes/" + clienteId + "/saldo", 2);
+
+        for (Map.Entry<String, Integer> orcamento : orcamentos.entrySet()) {
+            MvcResult resultado = mockMvc.perform(get(orcamento.getKey()).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            Medicao medicao = (Medicao) resultado.getRequest().getAttribute(ConsultasFilter.ATRIBUTO);
+            assertNotNull(medicao, "ConsultasFilter não registrou a requisição");
+            assertOrcamento(medicao, orcamento.getValue());
+        }
+    }
+
+    @Test
+    void jobNoturnoNaoCarregaContratoEClientePorParcela() {
+        Medicao medicao = ContagemConsultas.medir("job atualizacao-pagamentos",
+                () -> atualizacaoPagamentoService.atualizarSituacao(LocalDate.now(), OrigemAlteracao.JOB_NOTURNO));
+
+        assertTrue(medicao.getEntidades() > 0, "o job deveria ter lido parcelas em atraso");
+        assertTrue(medicao.getSuspeitas().isEmpty(), () -> "consultas repetidas no job: " + medicao.getSuspeitas());
+    }
+
+    private static void assertOrcamento(Medicao medicao, int maximo) {
+        assertTrue(medicao.getComandos() <= maximo && medicao.getSuspeitas().isEmpty(),
+                () -> medicao + " (orçamento " + maximo + "); consultas: " + medicao.getRepeticoes());
+    }
+}
@@ -0,0 +1,56 @@
+package dev.gustavorosa.cobranca_cp.infra.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O perfil da aplicação é o "default" do JDK mais jfr/cobranca.jfc, e o threshold deixa de fora requisições rápidas.
+ */
+class GravacoesJfrTest {
+
+    @Test
+    void perfilJuntaOsEventosDoJdkAosDaAplicacao() {
+        Map<String, String> perfil = GravacoesJfr.carregarPerfil();
+
+        assertEquals("true", perfil.get("jdk.GarbageCollection#enabled"));
+        assertEquals("10 ms", perfil.get("cobranca.Requisicao#threshold"));
+        assertEquals("true", perfil.get("cobranca.LoteEncargos#enabled"));
+    }
+
+    @Test
+    void gravaLotesEDescartaRequisicoesAbaixoDoThreshold(@TempDir Path diretorio) throws Exception {
+        GravacoesJfr gravacoes = new GravacoesJfr(diretorio, Duration.ofMinutes(5), 16 * 1024 * 1024);
+        Recording gravacao = gravacoes.iniciar("teste", null);
+        try {
+            EventoLoteEncargos lote = new EventoLoteEncargos();
+            lote.begin();
+            lote.lote = 1;
+            lote.parcelas = 500;
+            lote.commit();
+
+            EventoRequisicao rapida = new EventoRequisicao();
+            rapida.begin();
+            rapida.rota = "/clientes";
+            rapida.commit();
+
+            List<RecordedEvent> eventos = RecordingFile.readAllEvents(gravacoes.exportar(gravacao.getId()));
+            List<RecordedEvent> lotes = eventos.stream().filter(e -> e.getEventType().getName().equals("cobranca.LoteEncargos")).toList();
+            assertEquals(1, lotes.size());
+            assertEquals(500, lotes.get(0).getInt("parcelas"));
+            assertTrue(eventos.stream().noneMatch(e -> e.getEventType().getName().equals("cobranca.Requisicao")));
+        } finally {
+            gravacoes.descartar(gravacao.getId());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package dev.gustavorosa.cobranca_cp.infra.lembrete;
+
+import dev.gustavorosa.cobranca_cp.model.LembreteOutbox;
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
+import dev.gustavorosa.cobranca_cp.model.StatusLembrete;
+import dev.gustavorosa.cobranca_cp.model.TipoLembrete;
+import dev.gustavorosa.cobranca_cp.repository.LembreteOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dois despachos simultâneos (como duas instâncias) dividem o outbox: cada lembrete sai uma vez só.
+ */
+@SpringBootTest(properties = "app.lembretes.tamanho-lote=15")
+class DespachanteLembretesTest {
+
+    private static final int QUANTIDADE = 120;
+    private static final Map<String, AtomicInteger> ENVIOS = new ConcurrentHashMap<>();
+
+    @TestConfiguration
+    static class CanalContador {
+        @Bean
+        @Primary
+        CanalLembrete canalContador() {
+            return lembrete -> {
+                if (!lembrete.getChave().startsWith("TESTE-DESPACHO:")) return;
+                ENVIOS.computeIfAbsent(lembrete.getChave(), chave -> new AtomicInteger()).incrementAndGet();
+                // envio lento, para que os dois despachos se sobreponham
+                Thread.sleep(5);
+            };
+        }
+    }
+
+    @Autowired
+    private DespachanteLembretes despachante;
+
+    @Autowired
+    private LembreteOutboxRepository lembreteOutboxRepository;
+
+    @Test
+    void despachosSimultaneosNaoRepetemLembretes() throws Exception {
+        List<LembreteOutbox> lembretes = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE; i++) {
+            lembretes.add(LembreteOutbox.builder()
+                    .chave("TESTE-DESPACHO:" + i)
+                    .tipo(TipoLembrete.ATRASO)
+                    .destinatario("11999990000")
+                    .mensagem("lembrete " + i)
+                    .build());
+        }
+        List<Long> ids = lembreteOutboxRepository.saveAll(lembretes).stream().map(LembreteOutbox::getId).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Long>> despachos = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                despachos.add(executor.submit(() -> {
+                    largada.await();
+                    return despachante.executar(LocalDate.now(), OrigemExecucaoJob.MANUAL);
+                }));
+            }
+            largada.countDown();
+            for (Future<Long> despacho : despachos) despacho.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(QUANTIDADE, ENVIOS.size());
+        ENVIOS.forEach((chave, envios) -> assertEquals(1, envios.get(), chave));
+        assertTrue(lembreteOutboxRepository.findAllById(ids).stream().allMatch(l -> l.getStatus() == StatusLembrete.ENVIADO));
+    }
+}
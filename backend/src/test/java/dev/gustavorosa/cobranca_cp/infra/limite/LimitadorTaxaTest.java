@@ -0,0 +1,49 @@
+package dev.gustavorosa.cobranca_cp.infra.limite;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Balde de tokens com relógio controlado: 3 de capacidade e 6 por minuto (um token a cada 10 segundos).
+ */
+class LimitadorTaxaTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    @Test
+    void aceitaARajadaERecusaComTempoDeEspera() {
+        LimitadorTaxa limitador = new LimitadorTaxa("teste", 3, 6, 100);
+
+        for (int i = 0; i < 3; i++) assertEquals(0, limitador.consumir("10.0.0.1", 0));
+        assertEquals(10, limitador.consumir("10.0.0.1", 0));
+        assertEquals(7, limitador.consumir("10.0.0.1", 3 * SEGUNDO));
+
+        // outra chave tem o próprio balde
+        assertEquals(0, limitador.consumir("10.0.0.2", 0));
+        // passado o intervalo de reposição, um token volta
+        assertEquals(0, limitador.consumir("10.0.0.1", 10 * SEGUNDO));
+        assertTrue(limitador.consumir("10.0.0.1", 10 * SEGUNDO) > 0);
+    }
+
+    @Test
+    void limpezaRemoveSoBaldesCheios() {
+        LimitadorTaxa limitador = new LimitadorTaxa("teste", 3, 6, 100);
+        limitador.consumir("a", 0);
+        for (int i = 0; i < 3; i++) limitador.consumir("b", 0);
+
+        assertEquals(1, limitador.limpar(10 * SEGUNDO));
+        assertEquals(1, limitador.situacao().get("chavesAtivas"));
+    }
+
+    @Test
+    void chavesAlemDoMaximoDividemUmBaldeComum() {
+        LimitadorTaxa limitador = new LimitadorTaxa("teste", 1, 6, 2);
+        limitador.consumir("a", 0);
+        limitador.consumir("b", 0);
+
+        assertEquals(0, limitador.consumir("c", 0));
+        assertTrue(limitador.consumir("d", 0) > 0);
+    }
+}
@@ -0,0 +1,61 @@
+package dev.gustavorosa.cobranca_cp.infra.log;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Política de descarte do logback-spring.xml: DEBUG/INFO vão só para a fila do AsyncAppender (que descarta
+ * com a fila cheia); WARN/ERROR só para o appender síncrono, que nunca descarta.
+ */
+@SpringBootTest
+class ConfiguracaoLogTest {
+
+    @Test
+    void avisosEErrosNaoPassamPelaFila() {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger raiz = contexto.getLogger(Logger.ROOT_LOGGER_NAME);
+
+        for (Level nivel : List.of(Level.DEBUG, Level.INFO)) {
+            List<Appender<ILoggingEvent>> destinos = destinos(raiz, evento(raiz, nivel));
+            assertEquals(1, destinos.size(), nivel.toString());
+            AsyncAppender fila = assertInstanceOf(AsyncAppender.class, destinos.get(0));
+            assertTrue(fila.isNeverBlock());
+        }
+        for (Level nivel : List.of(Level.WARN, Level.ERROR)) {
+            List<Appender<ILoggingEvent>> destinos = destinos(raiz, evento(raiz, nivel));
+            assertEquals(1, destinos.size(), nivel.toString());
+            assertFalse(destinos.get(0) instanceof AsyncAppender, nivel.toString());
+        }
+    }
+
+    private static List<Appender<ILoggingEvent>> destinos(Logger raiz, ILoggingEvent evento) {
+        List<Appender<ILoggingEvent>> destinos = new ArrayList<>();
+        for (Iterator<Appender<ILoggingEvent>> it = raiz.iteratorForAppenders(); it.hasNext(); ) {
+            Appender<ILoggingEvent> appender = it.next();
+            if (appender.getFilterChainDecision(evento) != FilterReply.DENY) destinos.add(appender);
+        }
+        return destinos;
+    }
+
+    private static ILoggingEvent evento(Logger raiz, Level nivel) {
+        return new LoggingEvent(ConfiguracaoLogTest.class.getName(), raiz, nivel, "teste", null, null);
+    }
+}
@@ -0,0 +1,158 @@
+package dev.gustavorosa.cobranca_cp.infra.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import jakarta.servlet.http.Cookie;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Roteamento com dois bancos H2 embutidos fazendo o papel de primário e réplica; cada um responde com o
+ * próprio nome, então a consulta mostra para onde a conexão foi.
+ */
+class RoteamentoReplicasTest {
+
+    private EmbeddedDatabase primario;
+    private EmbeddedDatabase replica;
+    private EscritasRecentes escritasRecentes;
+    private RoteadorReplicas roteador;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate leitura;
+    private TransactionTemplate escrita;
+
+    @BeforeEach
+    void setUp() {
+        primario = banco("primario");
+        replica = banco("replica");
+        escritasRecentes = new EscritasRecentes(60);
+        roteador = new RoteadorReplicas(primario, List.of(replica), escritasRecentes);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primario);
+        dataSource.setReadOnlyDataSource(roteador);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        escrita = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primario.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void replicaSoRecebeLeiturasDepoisDeVerificada() {
+        assertEquals("primario", origem(leitura));
+
+        new MonitorReplicas(roteador, escritasRecentes, "SELECT 0", 5).verificar();
+
+        assertEquals("replica", origem(leitura));
+        assertEquals("primario", origem(escrita));
+    }
+
+    @Test
+    void replicaAtrasadaOuForaDoArVoltaParaOPrimario() {
+        new MonitorReplicas(roteador, escritasRecentes, "SELECT 30", 5).verificar();
+        assertEquals("primario", origem(leitura));
+
+        new MonitorReplicas(roteador, escritasRecentes, "SELECT 0", 5).verificar();
+        assertEquals("replica", origem(leitura));
+
+        // medição falhando equivale a réplica fora do ar
+        new MonitorReplicas(roteador, escritasRecentes, "SELECT atraso FROM tabela_inexistente", 5).verificar();
+        assertEquals("primario", origem(leitura));
+    }
+
+    @Test
+    void usuarioQueEscreveuLeDoPrimarioDuranteAJanela() {
+        new MonitorReplicas(roteador, escritasRecentes, "SELECT 0", 5).verificar();
+        escritasRecentes.registrar("ana@cobranca.com");
+
+        autenticar("ana@cobranca.com");
+        assertEquals("primario", origem(leitura));
+
+        autenticar("bruno@cobranca.com");
+        assertEquals("replica", origem(leitura));
+    }
+
+    @Test
+    void marcaDaEscritaEmOutraInstanciaLevaAoPrimario() {
+        new MonitorReplicas(roteador, escritasRecentes, "SELECT 0", 5).verificar();
+        EscritaRecenteInterceptor interceptorOutraInstancia = new EscritaRecenteInterceptor(new EscritasRecentes(60));
+        EscritaRecenteInterceptor interceptor = new EscritaRecenteInterceptor(escritasRecentes);
+        autenticar("ana@cobranca.com");
+
+        MockHttpServletResponse respostaEscrita = new MockHttpServletResponse();
+        interceptorOutraInstancia.preHandle(new MockHttpServletRequest("PUT", "/pagamentos/1"), respostaEscrita, null);
+        Cookie marca = respostaEscrita.getCookie(EscritasRecentes.MARCA);
+        assertNotNull(marca);
+        assertEquals(60, marca.getMaxAge());
+
+        // a leitura cai nesta instância, que não viu a escrita
+        assertEquals("replica", origem(leitura));
+        MockHttpServletRequest comMarca = new MockHttpServletRequest("GET", "/saldos/contratos/1");
+        comMarca.setCookies(marca);
+        assertEquals("primario", origemNaRequisicao(interceptor, comMarca));
+
+        MockHttpServletRequest pelaCabecalho = new MockHttpServletRequest("GET", "/saldos/contratos/1");
+        pelaCabecalho.addHeader(EscritasRecentes.CABECALHO_MARCA, respostaEscrita.getHeader(EscritasRecentes.CABECALHO_MARCA));
+        assertEquals("primario", origemNaRequisicao(interceptor, pelaCabecalho));
+
+        // marca vencida ou adulterada não vale
+        MockHttpServletRequest vencida = new MockHttpServletRequest("GET", "/saldos/contratos/1");
+        vencida.setCookies(new Cookie(EscritasRecentes.MARCA, Long.toString(System.currentTimeMillis() - 61_000)));
+        assertEquals("replica", origemNaRequisicao(interceptor, vencida));
+        MockHttpServletRequest adulterada = new MockHttpServletRequest("GET", "/saldos/contratos/1");
+        adulterada.setCookies(new Cookie(EscritasRecentes.MARCA, Long.toString(Long.MAX_VALUE)));
+        assertEquals("replica", origemNaRequisicao(interceptor, adulterada));
+    }
+
+    private String origemNaRequisicao(EscritaRecenteInterceptor interceptor, MockHttpServletRequest request) {
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return origem(leitura);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private String origem(TransactionTemplate transacao) {
+        return transacao.execute(status -> jdbc.queryForObject("SELECT nome FROM origem", String.class));
+    }
+
+    private static void autenticar(String usuario) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(usuario, null, List.of()));
+    }
+
+    private static EmbeddedDatabase banco(String nome) {
+        EmbeddedDatabase banco = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(nome + System.nanoTime())
+                .build();
+        new JdbcTemplate(banco).execute("CREATE TABLE origem (nome VARCHAR(20))");
+        new JdbcTemplate(banco).update("INSERT INTO origem VALUES (?)", nome);
+        return banco;
+    }
+}
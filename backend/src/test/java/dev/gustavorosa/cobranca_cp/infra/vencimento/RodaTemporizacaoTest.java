@@ -0,0 +1,64 @@
+package dev.gustavorosa.cobranca_cp.infra.vencimento;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Agenda, remarca e cancela ids ao acaso e confere que cada um dispara uma única vez, no avanço que cobre o seu tick.
+ */
+class RodaTemporizacaoTest {
+
+    @Test
+    void cadaIdDisparaUmaVezNoSeuTick() {
+        Random aleatorio = new Random(7);
+        long inicio = 20_000 + aleatorio.nextInt(5_000);
+        RodaTemporizacao roda = new RodaTemporizacao(inicio, 3);
+        Map<Long, Long> esperados = new HashMap<>();
+        for (long id = 1; id <= 50_000; id++) {
+            long tick = inicio + aleatorio.nextInt(10_000);
+            roda.agendar(id, tick);
+            esperados.put(id, tick);
+        }
+        // remarca parte dos ids, inclusive para ticks que já terão passado quando forem remarcados
+        for (int i = 0; i < 5_000; i++) {
+            long id = 1 + aleatorio.nextInt(50_000);
+            long tick = inicio + aleatorio.nextInt(10_000);
+            roda.agendar(id, tick);
+            esperados.put(id, tick);
+        }
+        for (long id = 1; id <= 1_000; id++) {
+            roda.cancelar(id);
+            esperados.remove(id);
+        }
+        assertEquals(esperados.size(), roda.tamanho());
+
+        Map<Long, Long> disparados = new HashMap<>();
+        long ate = inicio - 1;
+        while (ate < inicio + 10_000) {
+            long anterior = ate;
+            ate += 1 + aleatorio.nextInt(90);
+            long limite = ate;
+            roda.avancar(ate, id -> {
+                Long tick = esperados.get(id);
+                assertTrue(tick != null && tick > anterior && tick <= limite, "id " + id + " disparou fora do seu tick");
+                assertEquals(null, disparados.put(id, tick), "id " + id + " disparou duas vezes");
+            });
+            if (aleatorio.nextInt(10) == 0) {
+                // agendado com atraso: dispara no avanço seguinte
+                long id = 100_000 + ate;
+                long tick = ate - 5;
+                roda.agendar(id, tick);
+                esperados.put(id, tick);
+                roda.avancar(ate, disparado -> disparados.put(disparado, tick));
+            }
+        }
+        assertEquals(esperados, disparados);
+        assertEquals(0, roda.tamanho());
+    }
+}
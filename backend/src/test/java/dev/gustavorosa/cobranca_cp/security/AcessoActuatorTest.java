@@ -0,0 +1,57 @@
+package dev.gustavorosa.cobranca_cp.security;
+
+import dev.gustavorosa.cobranca_cp.model.Role;
+import dev.gustavorosa.cobranca_cp.model.Usuario;
+import dev.gustavorosa.cobranca_cp.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * health e info são públicos; os demais endpoints do actuator exigem ADMIN, não só um usuário autenticado.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AcessoActuatorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Test
+    void endpointsInternosSoParaAdmin() throws Exception {
+        String usuario = token("usuario-actuator@cobranca.com", Role.USER);
+        String admin = token("admin-actuator@cobranca.com", Role.ADMIN);
+
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        for (String endpoint : new String[]{"limites", "consultas", "carteira", "coalescencia", "jfr"}) {
+            mockMvc.perform(get("/actuator/" + endpoint)).andExpect(status().isForbidden());
+            mockMvc.perform(get("/actuator/" + endpoint).header(HttpHeaders.AUTHORIZATION, "Bearer " + usuario))
+                    .andExpect(status().isForbidden());
+        }
+        mockMvc.perform(get("/actuator/limites").header(HttpHeaders.AUTHORIZATION, "Bearer " + admin))
+                .andExpect(status().isOk());
+    }
+
+    private String token(String email, Role role) {
+        Usuario usuario = usuarioRepository.findByEmail(email).orElseGet(() -> usuarioRepository.save(Usuario.builder()
+                .nome("Teste " + role)
+                .email(email)
+                .senha("nao usada")
+                .role(role)
+                .ativo(true)
+                .build()));
+        return tokenProvider.generateToken(usuario);
+    }
+}
@@ -0,0 +1,28 @@
+package dev.gustavorosa.cobranca_cp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FiltroBloomTest {
+
+    @Test
+    void semFalsoNegativoETaxaDeFalsoPositivoPertoDaConfigurada() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        String[] adicionadas = new String[10_000];
+        for (int i = 0; i < adicionadas.length; i++) {
+            adicionadas[i] = UUID.randomUUID().toString();
+            filtro.adicionar(adicionadas[i]);
+        }
+
+        for (String chave : adicionadas) assertTrue(filtro.talvezContenha(chave));
+
+        int falsosPositivos = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filtro.talvezContenha(UUID.randomUUID().toString())) falsosPositivos++;
+        }
+        assertTrue(falsosPositivos < 2_000, "falsos positivos: " + falsosPositivos);
+    }
+}
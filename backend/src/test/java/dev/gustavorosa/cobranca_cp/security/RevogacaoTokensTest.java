@@ -0,0 +1,49 @@
+package dev.gustavorosa.cobranca_cp.security;
+
+import dev.gustavorosa.cobranca_cp.model.TokenRevogado;
+import dev.gustavorosa.cobranca_cp.repository.TokenRevogadoRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A revogação do usuário é comparada ao iat em segundos: vale para o que foi emitido nos segundos anteriores,
+ * não para um token emitido no mesmo segundo.
+ */
+class RevogacaoTokensTest {
+
+    @Test
+    void revogacaoDoUsuarioComparaEmSegundos() {
+        TokenRevogadoRepository repositorio = mock(TokenRevogadoRepository.class);
+        RevogacaoTokens revogacao = new RevogacaoTokens(repositorio, 1_000, 100, 3_600_000);
+
+        revogacao.revogarUsuario(42L);
+        ArgumentCaptor<TokenRevogado> gravado = ArgumentCaptor.forClass(TokenRevogado.class);
+        verify(repositorio).save(gravado.capture());
+        long revogadoEm = gravado.getValue().getRevogadoEm().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long segundo = Math.floorDiv(revogadoEm, 1000) * 1000;
+
+        assertTrue(revogacao.revogado(acesso(42L, segundo - 1000)));
+        assertFalse(revogacao.revogado(acesso(42L, segundo)));
+        assertFalse(revogacao.revogado(acesso(42L, segundo + 1000)));
+        assertFalse(revogacao.revogado(acesso(7L, segundo - 1000)));
+    }
+
+    private static Claims acesso(Long usuarioId, long emitidoEm) {
+        return Jwts.claims()
+                .id(UUID.randomUUID().toString())
+                .add("userId", usuarioId)
+                .issuedAt(new Date(emitidoEm))
+                .build();
+    }
+}
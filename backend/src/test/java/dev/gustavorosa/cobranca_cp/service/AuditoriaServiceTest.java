@@ -0,0 +1,210 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.model.AuditoriaPagamento;
+import dev.gustavorosa.cobranca_cp.model.EstadoPagamento;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+import dev.gustavorosa.cobranca_cp.repository.AuditoriaPagamentoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Write-behind da auditoria: só o que foi confirmado é publicado, o escritor grava em lotes, o buffer cheio segura
+ * quem produz, lote que falha é gravado depois e só a entrada recusada pelo banco se perde. As consultas
+ * devolvem o histórico em ordem.
+ */
+@SpringBootTest
+class AuditoriaServiceTest {
+
+    @Autowired
+    private AuditoriaService auditoriaService;
+
+    @Autowired
+    private AuditoriaPagamentoRepository auditoriaPagamentoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AuditoriaPagamentoRepository repositorio = mock(AuditoriaPagamentoRepository.class);
+    private final List<List<Long>> lotesGravados = new CopyOnWriteArrayList<>();
+    private AuditoriaService servico;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (servico != null) servico.encerrar();
+    }
+
+    @Test
+    void publicaSoDepoisDoCommit() throws InterruptedException {
+        servico = escritor(100, 10);
+        servico.iniciar();
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+
+        transacao.executeWithoutResult(status -> {
+            alterar(servico, 1L);
+            status.setRollbackOnly();
+        });
+        Thread.sleep(100);
+        assertEquals(List.of(), lotesGravados);
+
+        transacao.executeWithoutResult(status -> {
+            alterar(servico, 2L);
+            alterar(servico, 3L);
+            assertEquals(List.of(), lotesGravados);
+        });
+        aguardarGravadas(2);
+        assertEquals(List.of(2L, 3L), lotesGravados.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void escritorGravaEmLotes() {
+        servico = escritor(100, 3);
+        for (long id = 1; id <= 7; id++) alterar(servico, id);
+
+        servico.iniciar();
+
+        aguardarGravadas(7);
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L, 5L, 6L), List.of(7L)), lotesGravados);
+    }
+
+    @Test
+    void bufferCheioSeguraQuemProduz() throws InterruptedException {
+        servico = escritor(2, 10);
+        alterar(servico, 1L);
+        alterar(servico, 2L);
+
+        Thread produtor = new Thread(() -> alterar(servico, 3L));
+        produtor.start();
+        produtor.join(200);
+        assertTrue(produtor.isAlive());
+        assertEquals(1, servico.getEsperasBufferCheio());
+
+        servico.iniciar();
+        produtor.join(2_000);
+        aguardarGravadas(3);
+        assertEquals(List.of(1L, 2L, 3L), lotesGravados.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void loteQueFalhaEhGravadoDepois() {
+        AtomicInteger falhas = new AtomicInteger();
+        when(repositorio.saveAll(any())).thenAnswer(chamada -> {
+            if (falhas.incrementAndGet() <= 3) throw new IllegalStateException("banco fora do ar");
+            return anotar(chamada.getArgument(0));
+        });
+        servico = new AuditoriaService(repositorio, 100, 10, 10);
+        alterar(servico, 1L);
+        alterar(servico, 2L);
+
+        servico.iniciar();
+
+        aguardarGravadas(2);
+        assertEquals(List.of(List.of(1L, 2L)), lotesGravados);
+        assertEquals(0, servico.getEntradasDescartadas());
+    }
+
+    @Test
+    void soAEntradaRecusadaEhDescartada() {
+        when(repositorio.saveAll(any())).thenAnswer(chamada -> {
+            Iterable<AuditoriaPagamento> lote = chamada.getArgument(0);
+            for (AuditoriaPagamento entrada : lote) {
+                if (entrada.getPagamentoId() == 2L) throw new DataIntegrityViolationException("valor longo demais");
+            }
+            return anotar(lote);
+        });
+        servico = new AuditoriaService(repositorio, 100, 10, 10);
+        for (long id = 1; id <= 3; id++) alterar(servico, id);
+
+        servico.iniciar();
+
+        aguardarGravadas(2);
+        assertEquals(List.of(List.of(1L), List.of(3L)), lotesGravados);
+        assertEquals(1, servico.getEntradasDescartadas());
+    }
+
+    @Test
+    void consultasDevolvemOHistoricoEmOrdem() {
+        long contratoId = System.nanoTime();
+        LocalDateTime agora = LocalDateTime.now();
+        auditoriaPagamentoRepository.saveAll(List.of(
+                entrada(contratoId + 1, contratoId, "status", agora.plusMinutes(5)),
+                entrada(contratoId + 1, contratoId, "valor", agora),
+                entrada(contratoId + 2, contratoId, "dataPagamento", agora.plusMinutes(1)),
+                entrada(contratoId + 1, contratoId, "dataVencimento", agora),
+                entrada(contratoId + 3, contratoId + 1, "valor", agora)));
+
+        assertEquals(List.of("valor", "dataVencimento", "status"),
+                auditoriaService.recuperarPorPagamento(contratoId + 1).stream().map(AuditoriaPagamento::getCampo).toList());
+        assertEquals(List.of("valor", "dataVencimento", "dataPagamento", "status"),
+                auditoriaService.recuperarPorContrato(contratoId).stream().map(AuditoriaPagamento::getCampo).toList());
+        assertEquals(List.of(), auditoriaService.recuperarPorPagamento(contratoId + 4));
+    }
+
+    private AuditoriaService escritor(int capacidade, int tamanhoLote) {
+        when(repositorio.saveAll(any())).thenAnswer(chamada -> anotar(chamada.getArgument(0)));
+        return new AuditoriaService(repositorio, capacidade, tamanhoLote, 10);
+    }
+
+    /**
+     * O escritor reaproveita a lista do lote, então a chamada é copiada na hora.
+     */
+    private List<AuditoriaPagamento> anotar(Iterable<AuditoriaPagamento> lote) {
+        List<AuditoriaPagamento> entradas = new ArrayList<>();
+        lote.forEach(entradas::add);
+        lotesGravados.add(entradas.stream().map(AuditoriaPagamento::getPagamentoId).toList());
+        return entradas;
+    }
+
+    private void aguardarGravadas(int quantidade) {
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while (lotesGravados.stream().mapToInt(List::size).sum() < quantidade && System.nanoTime() < limite) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        assertEquals(quantidade, lotesGravados.stream().mapToInt(List::size).sum());
+    }
+
+    /**
+     * Uma baixa: só o status muda, então cada chamada produz uma entrada.
+     */
+    private static void alterar(AuditoriaService servico, Long pagamentoId) {
+        Pagamento pagamento = Pagamento.builder()
+                .id(pagamentoId)
+                .valor(100.0)
+                .dataVencimento(LocalDate.of(2026, 1, 10))
+                .status(SituacaoPagamento.PAGO)
+                .build();
+        EstadoPagamento antes = new EstadoPagamento(100.0, null, LocalDate.of(2026, 1, 10), SituacaoPagamento.EM_ABERTO);
+        servico.registrar(pagamento, antes, OrigemAlteracao.API);
+    }
+
+    private static AuditoriaPagamento entrada(Long pagamentoId, Long contratoId, String campo, LocalDateTime dataHora) {
+        return AuditoriaPagamento.builder()
+                .pagamentoId(pagamentoId)
+                .contratoId(contratoId)
+                .campo(campo)
+                .usuario("sistema")
+                .origem(OrigemAlteracao.API)
+                .dataHora(dataHora)
+                .build();
+    }
+}
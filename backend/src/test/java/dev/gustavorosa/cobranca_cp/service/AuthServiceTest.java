@@ -0,0 +1,143 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.gustavorosa.cobranca_cp.dto.AuthResponse;
+import dev.gustavorosa.cobranca_cp.dto.LoginRequest;
+import dev.gustavorosa.cobranca_cp.dto.RegisterRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sessões: refresh token rotacionado não serve de novo, reuso derruba a família inteira (inclusive o access token
+ * vigente), access token não renova, logout revoga o access token e desativar recusa o que já foi emitido.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthServiceTest {
+
+    private static final String SENHA = "senha-teste";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void refreshTokenRotacionadoNaoServeDeNovo() throws Exception {
+        AuthResponse sessao = registrar();
+
+        AuthResponse renovada = renovar(sessao.getRefreshToken());
+        acessar(renovada.getToken()).andExpect(status().isOk());
+
+        renovarRecusado(sessao.getRefreshToken());
+    }
+
+    @Test
+    void reusoRevogaAFamiliaInteira() throws Exception {
+        AuthResponse sessao = registrar();
+        AuthResponse renovada = renovar(sessao.getRefreshToken());
+        // outro login do mesmo usuário é outra família e não é afetado
+        LoginRequest login = new LoginRequest();
+        login.setEmail(sessao.getUsuario().getEmail());
+        login.setSenha(SENHA);
+        AuthResponse outraSessao = authService.login(login);
+
+        renovarRecusado(sessao.getRefreshToken());
+
+        renovarRecusado(renovada.getRefreshToken());
+        acessar(renovada.getToken()).andExpect(status().isForbidden());
+        acessar(sessao.getToken()).andExpect(status().isForbidden());
+        acessar(outraSessao.getToken()).andExpect(status().isOk());
+    }
+
+    @Test
+    void accessTokenNaoRenova() throws Exception {
+        AuthResponse sessao = registrar();
+
+        renovarRecusado(sessao.getToken());
+        // a tentativa não consome nem revoga nada
+        acessar(sessao.getToken()).andExpect(status().isOk());
+        renovar(sessao.getRefreshToken());
+    }
+
+    @Test
+    void logoutRevogaOAccessToken() throws Exception {
+        AuthResponse sessao = registrar();
+        acessar(sessao.getToken()).andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sessao.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpoRenovacao(sessao.getRefreshToken())))
+                .andExpect(status().isNoContent());
+
+        acessar(sessao.getToken()).andExpect(status().isForbidden());
+        renovarRecusado(sessao.getRefreshToken());
+    }
+
+    @Test
+    void desativarRecusaTokensJaEmitidos() throws Exception {
+        AuthResponse sessao = registrar();
+        acessar(sessao.getToken()).andExpect(status().isOk());
+
+        usuarioService.desativar(sessao.getUsuario().getId());
+
+        acessar(sessao.getToken()).andExpect(status().isForbidden());
+        renovarRecusado(sessao.getRefreshToken());
+    }
+
+    private AuthResponse registrar() {
+        RegisterRequest requisicao = new RegisterRequest();
+        requisicao.setNome("Teste Sessao");
+        requisicao.setEmail("sessao-" + UUID.randomUUID() + "@cobranca.com");
+        requisicao.setSenha(SENHA);
+        return authService.register(requisicao);
+    }
+
+    private ResultActions acessar(String token) throws Exception {
+        return mockMvc.perform(get("/jobs").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private AuthResponse renovar(String refreshToken) throws Exception {
+        String resposta = mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpoRenovacao(refreshToken)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        AuthResponse renovada = objectMapper.readValue(resposta, AuthResponse.class);
+        assertNotEquals(refreshToken, renovada.getRefreshToken());
+        return renovada;
+    }
+
+    private void renovarRecusado(String token) throws Exception {
+        mockMvc.perform(post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpoRenovacao(token)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String corpoRenovacao(String refreshToken) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken));
+    }
+}
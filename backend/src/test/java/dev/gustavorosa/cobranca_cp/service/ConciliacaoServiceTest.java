@@ -0,0 +1,81 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.dto.ResumoConciliacaoDTO;
+import dev.gustavorosa.cobranca_cp.infra.conciliacao.FormatoExtrato;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.repository.ConciliacaoPendenteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ExtratoImportadoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Conciliação de um CSV: baixa a parcela correspondente, deixa o crédito sem par como pendência, conta a linha
+ * ilegível sem interromper, e recusa o reenvio do mesmo arquivo sem duplicar pendências.
+ */
+@SpringBootTest
+class ConciliacaoServiceTest {
+
+    private static final String REGISTRO = "55544433322";
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private ExtratoService extratoService;
+
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Autowired
+    private ConciliacaoService conciliacaoService;
+
+    @Autowired
+    private ConciliacaoPendenteRepository conciliacaoPendenteRepository;
+
+    @Autowired
+    private ExtratoImportadoRepository extratoImportadoRepository;
+
+    @Test
+    void conciliaUmaVezSo() throws Exception {
+        Cliente cliente = carteira.cliente("Cliente Conciliacao", REGISTRO);
+        Contrato contrato = carteira.contrato(cliente, 6, LocalDate.now().minusMonths(2));
+        PagamentoDTO parcela = extratoService.extratoContrato(contrato.getId()).pagamentos().get(0);
+
+        String csv = "data;valor;documento;descricao\n"
+                + parcela.data_vencimento() + ";" + parcela.valor() + ";" + REGISTRO + ";parcela 1\n"
+                + parcela.data_vencimento() + ";0,37;;sem parcela\n"
+                + parcela.data_vencimento() + ";abc;;ilegivel\n";
+        ByteArrayResource extrato = new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8));
+
+        ResumoConciliacaoDTO resumo = conciliacaoService.conciliar("extrato-teste.csv", extrato, FormatoExtrato.CSV);
+        assertEquals(2, resumo.creditos());
+        assertEquals(1, resumo.baixados());
+        assertEquals(1, resumo.sem_correspondencia());
+        assertEquals(1, resumo.linhas_invalidas());
+        assertTrue(resumo.erros_leitura().get(0).startsWith("linha 4:"));
+        assertNotNull(pagamentoService.recuperarPorId(parcela.pagamento_id()).getDataPagamento());
+
+        String hash = extratoImportadoRepository.findAll().stream()
+                .filter(importado -> importado.getArquivo().equals("extrato-teste.csv"))
+                .findFirst().orElseThrow().getHash();
+        assertEquals(1, conciliacaoPendenteRepository.findLinhasByHashArquivo(hash).size());
+
+        // mesmo conteúdo com outro nome
+        assertThrows(IllegalStateException.class,
+                () -> conciliacaoService.conciliar("extrato-teste-reenvio.csv", extrato, FormatoExtrato.CSV));
+        assertEquals(1, conciliacaoPendenteRepository.findLinhasByHashArquivo(hash).size());
+    }
+}
@@ -0,0 +1,119 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.infra.job.Job;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.ExecucaoJob;
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import dev.gustavorosa.cobranca_cp.model.StatusExecucaoJob;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Alterações concorrentes na mesma parcela: a API recusa versão desatualizada e o job repete com o estado atual
+ * em vez de sobrescrever o que a requisição gravou.
+ */
+@SpringBootTest
+class ConcorrenciaOtimistaTest {
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Autowired
+    private ExtratoService extratoService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void alteracaoComVersaoDesatualizadaERecusada() {
+        PagamentoDTO parcela = primeiraParcela(criarContrato("Cliente Versao"));
+
+        Pagamento baixado = pagamentoService.atualizarPagamento(baixa(parcela, LocalDate.now()), parcela.pagamento_id());
+        assertEquals(parcela.versao() + 1, baixado.getVersao());
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> pagamentoService.atualizarPagamento(baixa(parcela, LocalDate.now().minusDays(3)), parcela.pagamento_id()));
+        assertEquals(LocalDate.now(), pagamentoService.recuperarPorId(parcela.pagamento_id()).getDataPagamento());
+    }
+
+    @Test
+    void jobRepeteComEstadoAtualAposConflito() {
+        Long pagamentoId = primeiraParcela(criarContrato("Cliente Conflito")).pagamento_id();
+        TransactionTemplate transacaoJob = new TransactionTemplate(transactionManager);
+        TransactionTemplate transacaoRequisicao = new TransactionTemplate(transactionManager);
+        transacaoRequisicao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger execucoes = new AtomicInteger();
+
+        Job job = new Job() {
+            @Override
+            public String nome() {
+                return "teste-conflito";
+            }
+
+            @Override
+            public String descricao() {
+                return "Anota a parcela; na primeira vez uma requisição grava a mesma parcela no meio";
+            }
+
+            @Override
+            public long executar(LocalDate dataReferencia, OrigemExecucaoJob origem) {
+                return transacaoJob.execute(status -> {
+                    Pagamento pagamento = pagamentoRepository.findById(pagamentoId).orElseThrow();
+                    if (execucoes.incrementAndGet() == 1) {
+                        transacaoRequisicao.executeWithoutResult(requisicao -> {
+                            Pagamento concorrente = pagamentoRepository.findById(pagamentoId).orElseThrow();
+                            concorrente.setObservacao("requisicao");
+                            pagamentoRepository.save(concorrente);
+                        });
+                    }
+                    pagamento.setObservacao(pagamento.getObservacao() == null ? "job" : pagamento.getObservacao() + " + job");
+                    pagamentoRepository.saveAndFlush(pagamento);
+                    return 1L;
+                });
+            }
+        };
+
+        ExecucaoJob execucao = jobService.executarAgendado(job, OrigemExecucaoJob.MANUAL).orElseThrow();
+        assertEquals(StatusExecucaoJob.CONCLUIDA, execucao.getStatus());
+        assertEquals(2, execucao.getTentativas());
+        assertEquals("requisicao + job", pagamentoService.recuperarPorId(pagamentoId).getObservacao());
+    }
+
+    private Contrato criarContrato(String nome) {
+        return carteira.clienteComContrato(nome, 6, LocalDate.now().minusMonths(2));
+    }
+
+    private PagamentoDTO primeiraParcela(Contrato contrato) {
+        return extratoService.extratoContrato(contrato.getId()).pagamentos().get(0);
+    }
+
+    private static PagamentoDTO baixa(PagamentoDTO parcela, LocalDate dataPagamento) {
+        return new PagamentoDTO(parcela.pagamento_id(), parcela.contrato_id(), null, null, null,
+                dataPagamento.toString(), parcela.data_vencimento(), null, null, null, parcela.versao());
+    }
+}
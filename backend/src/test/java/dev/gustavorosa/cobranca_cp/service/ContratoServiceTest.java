@@ -0,0 +1,169 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.LembreteOutbox;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import dev.gustavorosa.cobranca_cp.model.SituacaoPagamento;
+import dev.gustavorosa.cobranca_cp.model.TipoLembrete;
+import dev.gustavorosa.cobranca_cp.repository.ContratoRepository;
+import dev.gustavorosa.cobranca_cp.repository.LembreteOutboxRepository;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import dev.gustavorosa.cobranca_cp.util.EncargosUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static dev.gustavorosa.cobranca_cp.CarteiraTeste.contratoDTO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Cadastro do contrato é uma transação só: falha no recálculo do saldo desfaz o contrato e as parcelas.
+ * Edição do contrato reconcilia o cronograma: paga intocada, abertas atualizadas no lugar, excedentes removidas
+ * com seus lembretes não enviados, faltantes inseridas; as que ficam vencidas recebem multa e juros na hora.
+ */
+@SpringBootTest
+class ContratoServiceTest {
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    @Autowired
+    private LembreteOutboxRepository lembreteOutboxRepository;
+
+    @MockitoSpyBean
+    private SaldoService saldoService;
+
+    @Test
+    void falhaNoRecalculoDesfazOContrato() {
+        Cliente cliente = carteira.cliente("Cliente Rollback");
+        doThrow(new IllegalStateException("falha no recalculo")).when(saldoService).recalcularContratos(anyCollection());
+
+        LocalDate inicio = LocalDate.now();
+        IllegalStateException erro = assertThrows(IllegalStateException.class,
+                () -> carteira.contrato(cliente, 6, inicio));
+        assertEquals("falha no recalculo", erro.getMessage());
+
+        assertTrue(contratoRepository.findByExcluidoEmIsNull().stream()
+                .noneMatch(contrato -> contrato.getCliente().getId().equals(cliente.getId())));
+    }
+
+    @Test
+    void edicaoRegeneraParcelas() {
+        Cliente cliente = carteira.cliente("Cliente Regeneracao");
+        LocalDate inicio = LocalDate.now();
+        LocalDate primeira = inicio.plusMonths(1);
+        Contrato contrato = carteira.contrato(cliente, 6, inicio);
+        List<Pagamento> originais = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId());
+        Pagamento paga = originais.get(1);
+        pagamentoService.registrarPagamentos(Map.of(paga.getId(), inicio), OrigemAlteracao.API);
+        Long lembreteExcedente = lembreteOutboxRepository.save(LembreteOutbox.builder()
+                .chave("TESTE-REGENERACAO:" + originais.get(5).getId())
+                .pagamentoId(originais.get(5).getId())
+                .tipo(TipoLembrete.VENCIMENTO_PROXIMO)
+                .destinatario("11999990000")
+                .mensagem("lembrete")
+                .proximaTentativa(LocalDateTime.now().plusDays(1))
+                .build()).getId();
+
+        // 6 -> 4 parcelas de 200, primeira parcela 5 dias depois
+        LocalDate novaPrimeira = primeira.plusDays(5);
+        contratoService.atualizarContrato(contrato.getId(), contratoDTO(cliente, 4, null, novaPrimeira, 800.0));
+
+        List<Pagamento> reduzidas = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId());
+        assertEquals(List.of(1, 2, 3, 4), reduzidas.stream().map(Pagamento::getNumeroParcela).toList());
+        assertEquals(originais.subList(0, 4).stream().map(Pagamento::getId).toList(),
+                reduzidas.stream().map(Pagamento::getId).toList());
+        for (Pagamento parcela : reduzidas) {
+            if (parcela.getId().equals(paga.getId())) {
+                assertEquals(inicio, parcela.getDataPagamento());
+                assertEquals(paga.getDataVencimento(), parcela.getDataVencimento());
+                assertEquals(100.0, parcela.getValorOriginal(), 0.001);
+            } else {
+                assertEquals(novaPrimeira.plusMonths(parcela.getNumeroParcela() - 1), parcela.getDataVencimento());
+                assertEquals(200.0, parcela.getValorOriginal(), 0.001);
+            }
+        }
+        assertFalse(lembreteOutboxRepository.existsById(lembreteExcedente));
+
+        // de volta a 6 parcelas de 200 com o mesmo cronograma: só as duas faltantes são gravadas
+        contratoService.atualizarContrato(contrato.getId(), contratoDTO(cliente, 6, null, null, 1200.0));
+        List<Pagamento> ampliadas = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId());
+        assertEquals(6, ampliadas.size());
+        assertEquals(reduzidas.stream().map(Pagamento::getVersao).toList(),
+                ampliadas.subList(0, 4).stream().map(Pagamento::getVersao).toList());
+        assertEquals(novaPrimeira.plusMonths(5), ampliadas.get(5).getDataVencimento());
+        assertEquals(200.0, ampliadas.get(5).getValorOriginal(), 0.001);
+    }
+
+    @Test
+    void parcelaRegeneradaVencidaRecebeEncargos() {
+        Cliente cliente = carteira.cliente("Cliente Encargos");
+        LocalDate hoje = LocalDate.now();
+        LocalDate primeira = hoje.minusMonths(2);
+        Contrato contrato = carteira.contrato(cliente, 4, primeira.minusMonths(1), primeira, 400.0);
+
+        // valor da parcela passa de 100 para 200: as duas vencidas não podem ficar sem multa e juros até a noite
+        contratoService.atualizarContrato(contrato.getId(), contratoDTO(cliente, 4, null, null, 800.0));
+
+        List<Pagamento> parcelas = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId());
+        for (Pagamento parcela : parcelas) {
+            assertEquals(200.0, parcela.getValorOriginal(), 0.001);
+            if (parcela.getDataVencimento().isBefore(hoje)) {
+                long dias = ChronoUnit.DAYS.between(parcela.getDataVencimento(), hoje);
+                double esperado = EncargosUtils.arredondar(200.0 + EncargosUtils.multa(200.0, 0.02)
+                        + EncargosUtils.juros(200.0, 0.10, dias));
+                assertEquals(SituacaoPagamento.ATRASADO, parcela.getStatus());
+                assertTrue(parcela.getMultaAplicada());
+                assertEquals(esperado, parcela.getValorAtualizado(), 0.001);
+                assertEquals(hoje, parcela.getDataUltimaAtualizacaoValor());
+            } else {
+                assertEquals(SituacaoPagamento.EM_ABERTO, parcela.getStatus());
+                assertEquals(200.0, parcela.getValorAtualizado(), 0.001);
+            }
+        }
+        assertEquals(2, parcelas.stream().filter(parcela -> parcela.getStatus() == SituacaoPagamento.ATRASADO).count());
+    }
+
+    @Test
+    void duracaoZeroNaoApagaParcelas() {
+        Cliente cliente = carteira.cliente("Cliente Duracao");
+        Contrato contrato = carteira.contrato(cliente, 3, LocalDate.now());
+
+        assertThrows(IllegalArgumentException.class, () -> contratoService.atualizarContrato(contrato.getId(),
+                contratoDTO(cliente, 0, null, null, 300.0)));
+        assertThrows(IllegalArgumentException.class, () -> contratoService.atualizarContrato(contrato.getId(),
+                contratoDTO(cliente, 3, null, null, 0.0)));
+        Contrato semDuracao = contratoRepository.findById(contrato.getId()).orElseThrow();
+        semDuracao.setDuracaoEmMeses(0);
+        assertThrows(IllegalArgumentException.class, () -> pagamentoService.regenerarParcelas(semDuracao, null));
+
+        assertEquals(3, pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId()).size());
+    }
+}
@@ -0,0 +1,162 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.model.AuditoriaPagamento;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.ConciliacaoPendente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.Exclusao;
+import dev.gustavorosa.cobranca_cp.model.LembreteOutbox;
+import dev.gustavorosa.cobranca_cp.model.MotivoPendencia;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.model.StatusExclusao;
+import dev.gustavorosa.cobranca_cp.model.StatusLembrete;
+import dev.gustavorosa.cobranca_cp.model.TipoLembrete;
+import dev.gustavorosa.cobranca_cp.repository.AuditoriaPagamentoRepository;
+import dev.gustavorosa.cobranca_cp.repository.ClienteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ConciliacaoPendenteRepository;
+import dev.gustavorosa.cobranca_cp.repository.ContratoRepository;
+import dev.gustavorosa.cobranca_cp.repository.LembreteOutboxRepository;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exclusão definitiva em lotes de 5 parcelas: contrato com múltiplo exato do lote e cliente com lote final
+ * parcial. Lembretes não enviados das parcelas saem junto; lembretes enviados, auditoria e pendências de
+ * conciliação ficam como histórico.
+ */
+@SpringBootTest(properties = "app.exclusao.tamanho-lote=5")
+class ExclusaoServiceTest {
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private ExclusaoService exclusaoService;
+
+    @Autowired
+    private ConciliacaoService conciliacaoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    @Autowired
+    private LembreteOutboxRepository lembreteOutboxRepository;
+
+    @Autowired
+    private AuditoriaPagamentoRepository auditoriaPagamentoRepository;
+
+    @Autowired
+    private ConciliacaoPendenteRepository conciliacaoPendenteRepository;
+
+    @Test
+    void excluiContratoComMultiploExatoDoLote() {
+        Cliente cliente = carteira.cliente("Cliente Exclusao Contrato");
+        Contrato mantido = contrato(cliente, 3);
+        Contrato excluido = contrato(cliente, 10);
+
+        Exclusao exclusao = exclusaoService.excluirContrato(excluido.getId(), false);
+
+        assertEquals(StatusExclusao.CONCLUIDA, exclusao.getStatus());
+        assertEquals(10, exclusao.getParcelasExcluidas());
+        assertEquals(1, exclusao.getContratosExcluidos());
+        assertEquals(0, pagamentoRepository.countByContratoId(excluido.getId()));
+        assertFalse(contratoRepository.existsById(excluido.getId()));
+        // o outro contrato do cliente não é tocado
+        assertEquals(3, pagamentoRepository.countByContratoId(mantido.getId()));
+        assertTrue(clienteRepository.existsById(cliente.getId()));
+    }
+
+    @Test
+    void excluiClienteComLoteFinalParcialEHistoricoDasParcelas() {
+        Cliente cliente = carteira.cliente("Cliente Exclusao Historico");
+        Contrato primeiro = contrato(cliente, 6);
+        contrato(cliente, 6);
+        List<Long> parcelas = pagamentoRepository.findIdsPorCliente(cliente.getId(), PageRequest.of(0, 100));
+        assertEquals(12, parcelas.size());
+
+        Long auditada = parcelas.get(0);
+        auditoriaPagamentoRepository.save(AuditoriaPagamento.builder()
+                .pagamentoId(auditada)
+                .contratoId(primeiro.getId())
+                .campo("dataPagamento")
+                .valorNovo(LocalDate.now().toString())
+                .origem(OrigemAlteracao.API)
+                .dataHora(LocalDateTime.now())
+                .build());
+
+        LocalDateTime futuro = LocalDateTime.now().plusDays(1); // fora do alcance do despachante durante o teste
+        Map<StatusLembrete, Long> lembretes = Map.of(
+                StatusLembrete.PENDENTE, lembrete(parcelas.get(1), StatusLembrete.PENDENTE, futuro),
+                StatusLembrete.EM_ENVIO, lembrete(parcelas.get(2), StatusLembrete.EM_ENVIO, futuro),
+                StatusLembrete.FALHA, lembrete(parcelas.get(3), StatusLembrete.FALHA, futuro),
+                StatusLembrete.ENVIADO, lembrete(parcelas.get(4), StatusLembrete.ENVIADO, futuro));
+
+        ConciliacaoPendente pendencia = conciliacaoPendenteRepository.save(ConciliacaoPendente.builder()
+                .arquivo("extrato-exclusao.csv")
+                .linhaArquivo(1L)
+                .dataLancamento(LocalDate.now())
+                .valor(100.0)
+                .motivo(MotivoPendencia.AMBIGUO)
+                .candidatos(parcelas.get(5) + "," + parcelas.get(6))
+                .build());
+
+        Exclusao exclusao = exclusaoService.excluirCliente(cliente.getId(), false);
+
+        assertEquals(StatusExclusao.CONCLUIDA, exclusao.getStatus());
+        assertEquals(12, exclusao.getParcelasExcluidas());
+        assertEquals(2, exclusao.getContratosExcluidos());
+        assertEquals(0, pagamentoRepository.countByContratoClienteId(cliente.getId()));
+        assertFalse(contratoRepository.existsById(primeiro.getId()));
+        assertFalse(clienteRepository.existsById(cliente.getId()));
+
+        // só o lembrete já enviado fica, como histórico
+        assertFalse(lembreteOutboxRepository.existsById(lembretes.get(StatusLembrete.PENDENTE)));
+        assertFalse(lembreteOutboxRepository.existsById(lembretes.get(StatusLembrete.EM_ENVIO)));
+        assertFalse(lembreteOutboxRepository.existsById(lembretes.get(StatusLembrete.FALHA)));
+        assertTrue(lembreteOutboxRepository.existsById(lembretes.get(StatusLembrete.ENVIADO)));
+
+        // o jornal de auditoria é append-only
+        assertEquals(1, auditoriaPagamentoRepository.findByPagamentoIdOrderByDataHoraAscIdAsc(auditada).size());
+
+        // o crédito do extrato continua pendente; resolver para uma parcela excluída é recusado
+        assertFalse(conciliacaoPendenteRepository.findById(pendencia.getId()).orElseThrow().getResolvida());
+        assertThrows(RuntimeException.class, () -> conciliacaoService.resolverPendencia(pendencia.getId(), parcelas.get(5)));
+        assertFalse(conciliacaoPendenteRepository.findById(pendencia.getId()).orElseThrow().getResolvida());
+    }
+
+    private Contrato contrato(Cliente cliente, int parcelas) {
+        return carteira.contrato(cliente, parcelas, LocalDate.now());
+    }
+
+    private Long lembrete(Long pagamentoId, StatusLembrete status, LocalDateTime proximaTentativa) {
+        return lembreteOutboxRepository.save(LembreteOutbox.builder()
+                .chave("TESTE-EXCLUSAO:" + status + ":" + pagamentoId)
+                .pagamentoId(pagamentoId)
+                .tipo(TipoLembrete.ATRASO)
+                .destinatario("11999990000")
+                .mensagem("lembrete")
+                .status(status)
+                .proximaTentativa(proximaTentativa)
+                .build()).getId();
+    }
+}
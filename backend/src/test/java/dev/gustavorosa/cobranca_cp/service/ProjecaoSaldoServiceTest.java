@@ -0,0 +1,65 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.dto.ParcelaProjetadaDTO;
+import dev.gustavorosa.cobranca_cp.dto.ProjecaoSaldoDTO;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import dev.gustavorosa.cobranca_cp.model.Pagamento;
+import dev.gustavorosa.cobranca_cp.repository.PagamentoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A projeção para uma data bate com o valorAtualizado que o job grava quando roda nessa data.
+ */
+@SpringBootTest
+class ProjecaoSaldoServiceTest {
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private AtualizacaoPagamentoService atualizacaoPagamentoService;
+
+    @Autowired
+    private ProjecaoSaldoService projecaoSaldoService;
+
+    @Autowired
+    private PagamentoRepository pagamentoRepository;
+
+    @Test
+    void projecaoBateComOJobNaMesmaData() {
+        LocalDate hoje = LocalDate.now();
+        Contrato contrato = carteira.contrato(carteira.cliente("Cliente Projecao"), 4, hoje, hoje.plusDays(5), 1000.0);
+        List<Long> ids = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId()).stream()
+                .map(Pagamento::getId).toList();
+        // três parcelas vencidas na data, com atrasos diferentes; a quarta ainda não venceu
+        LocalDate data = hoje.plusDays(70);
+
+        ProjecaoSaldoDTO projecao = projecaoSaldoService.projetarContrato(contrato.getId(), data, true);
+        atualizacaoPagamentoService.virarVencidas(ids, data, OrigemAlteracao.JOB_NOTURNO);
+
+        Map<Long, Pagamento> atualizadas = pagamentoRepository.findByContratoIdOrderByNumeroParcela(contrato.getId()).stream()
+                .collect(Collectors.toMap(Pagamento::getId, Function.identity()));
+        assertEquals(4, projecao.parcelas().size());
+        double total = 0;
+        for (ParcelaProjetadaDTO parcela : projecao.parcelas()) {
+            Pagamento pagamento = atualizadas.get(parcela.pagamento_id());
+            assertEquals(pagamento.getValorAtualizado(), parcela.valor_projetado(), 0.001);
+            total += pagamento.getValorAtualizado();
+        }
+        assertEquals(3, projecao.parcelas().stream().filter(parcela -> parcela.dias_atraso() > 0).count());
+        assertEquals(total, projecao.valor_projetado(), 0.001);
+    }
+}
@@ -0,0 +1,93 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.infra.job.Job;
+import dev.gustavorosa.cobranca_cp.model.OrigemExecucaoJob;
+import dev.gustavorosa.cobranca_cp.model.ReservaJob;
+import dev.gustavorosa.cobranca_cp.repository.ReservaJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reserva do job no banco: com o job reservado por outra instância a execução é pulada, e o job de uma vez
+ * por data não roda de novo no mesmo dia mesmo sem execução gravada no histórico.
+ */
+@SpringBootTest
+class ReservaJobTest {
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ReservaJobRepository reservaJobRepository;
+
+    @Test
+    void jobDiarioRodaUmaVezPorDia() {
+        AtomicInteger execucoes = new AtomicInteger();
+        Job job = job("teste-reserva-diario", true, execucoes);
+
+        assertTrue(jobService.executarAgendado(job, OrigemExecucaoJob.AGENDADA).isEmpty()); // 0 registros, não grava
+        jobService.executarAgendado(job, OrigemExecucaoJob.AGENDADA);
+        assertEquals(1, execucoes.get());
+
+        ReservaJob reserva = reservaJobRepository.findById(job.nome()).orElseThrow();
+        assertEquals(LocalDate.now(), reserva.getUltimaDataConcluida());
+        assertNull(reserva.getReserva());
+    }
+
+    @Test
+    void jobReservadoPorOutraInstanciaNaoRoda() {
+        AtomicInteger execucoes = new AtomicInteger();
+        Job job = job("teste-reserva-outra-instancia", false, execucoes);
+        reservaJobRepository.save(new ReservaJob(job.nome(), "outra-instancia", LocalDateTime.now().plusMinutes(5), null));
+
+        assertTrue(jobService.executarAgendado(job, OrigemExecucaoJob.AGENDADA).isEmpty());
+        assertThrows(IllegalStateException.class, () -> jobService.disparar(job, null, "admin"));
+        assertEquals(0, execucoes.get());
+
+        // reserva vencida (a outra instância caiu): o job volta a rodar
+        reservaJobRepository.save(new ReservaJob(job.nome(), "outra-instancia", LocalDateTime.now().minusSeconds(1), null));
+        jobService.executarAgendado(job, OrigemExecucaoJob.AGENDADA);
+        assertEquals(1, execucoes.get());
+        assertNull(reservaJobRepository.findById(job.nome()).orElseThrow().getReserva());
+    }
+
+    private static Job job(String nome, boolean umaVezPorData, AtomicInteger execucoes) {
+        return new Job() {
+            @Override
+            public String nome() {
+                return nome;
+            }
+
+            @Override
+            public String descricao() {
+                return "Conta as execuções";
+            }
+
+            @Override
+            public long executar(LocalDate dataReferencia, OrigemExecucaoJob origem) {
+                execucoes.incrementAndGet();
+                return 0;
+            }
+
+            @Override
+            public boolean umaVezPorData() {
+                return umaVezPorData;
+            }
+
+            @Override
+            public boolean registraExecucoesVazias() {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package dev.gustavorosa.cobranca_cp.service;
+
+import dev.gustavorosa.cobranca_cp.CarteiraTeste;
+import dev.gustavorosa.cobranca_cp.dto.ExtratoContratoDTO;
+import dev.gustavorosa.cobranca_cp.dto.PagamentoDTO;
+import dev.gustavorosa.cobranca_cp.dto.SaldoDTO;
+import dev.gustavorosa.cobranca_cp.model.Cliente;
+import dev.gustavorosa.cobranca_cp.model.Contrato;
+import dev.gustavorosa.cobranca_cp.model.OrigemAlteracao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * O saldo mantido precisa bater com o extrato, que soma as parcelas na hora, depois de cada tipo de alteração.
+ */
+@SpringBootTest
+class SaldoServiceTest {
+
+    @Autowired
+    private CarteiraTeste carteira;
+
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Autowired
+    private AtualizacaoPagamentoService atualizacaoPagamentoService;
+
+    @Autowired
+    private ExtratoService extratoService;
+
+    @Autowired
+    private SaldoService saldoService;
+
+    @Test
+    void saldoAcompanhaCadastroAtualizacaoDiariaEBaixa() {
+        Cliente cliente = carteira.cliente("Cliente Saldo");
+        LocalDate inicio = LocalDate.now().minusMonths(6);
+        Contrato primeiro = carteira.contrato(cliente, 12, inicio);
+        Contrato segundo = carteira.contrato(cliente, 6, inicio);
+
+        SaldoDTO cadastrado = saldoService.saldoContrato(primeiro.getId());
+        assertEquals(1200.0, cadastrado.principal_em_aberto(), 0.001);
+        assertEquals(12, cadastrado.parcelas_em_aberto());
+        assertConfere(primeiro.getId());
+
+        atualizacaoPagamentoService.atualizarSituacao(LocalDate.now(), OrigemAlteracao.JOB_NOTURNO);
+        SaldoDTO atualizado = saldoService.saldoContrato(primeiro.getId());
+        assertTrue(atualizado.parcelas_atrasadas() > 0 && atualizado.encargos() > 0, () -> "sem atraso após o job: " + atualizado);
+        assertConfere(primeiro.getId());
+        assertConfere(segundo.getId());
+
+        PagamentoDTO atrasada = extratoService.extratoContrato(primeiro.getId()).pagamentos().stream()
+                .filter(p -> p.status().equals("ATRASADO"))
+                .findFirst()
+                .orElseThrow();
+        pagamentoService.atualizarPagamento(new PagamentoDTO(atrasada.pagamento_id(), primeiro.getId(), null, null, null,
+                LocalDate.now().toString(), atrasada.data_vencimento(), null, null, null, null), atrasada.pagamento_id());
+        SaldoDTO baixado = saldoService.saldoContrato(primeiro.getId());
+        assertEquals(atualizado.parcelas_atrasadas() - 1, baixado.parcelas_atrasadas());
+        assertConfere(primeiro.getId());
+
+        SaldoDTO saldoCliente = saldoService.saldoCliente(cliente.getId());
+        SaldoDTO saldoSegundo = saldoService.saldoContrato(segundo.getId());
+        assertEquals(baixado.total_devido() + saldoSegundo.total_devido(), saldoCliente.total_devido(), 0.001);
+        assertEquals(baixado.parcelas_em_aberto() + saldoSegundo.parcelas_em_aberto(), saldoCliente.parcelas_em_aberto());
+    }
+
+    private void assertConfere(Long contratoId) {
+        ExtratoContratoDTO extrato = extratoService.extratoContrato(contratoId);
+        SaldoDTO saldo = saldoService.saldoContrato(contratoId);
+        assertEquals(extrato.totais().total_devido(), saldo.total_devido(), 0.001);
+        assertEquals(extrato.totais().total_atrasado(), saldo.valor_atrasado(), 0.001);
+        assertEquals(extrato.totais().quantidade_atrasadas(), saldo.parcelas_atrasadas());
+        assertEquals(extrato.totais().quantidade_em_aberto() + extrato.totais().quantidade_atrasadas(), saldo.parcelas_em_aberto());
+    }
+}
@@ -0,0 +1,49 @@
+package dev.gustavorosa.cobranca_cp.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * parseCents: separador decimal "," ou ".", o outro como milhar, e a heurística de três dígitos depois de um
+ * único separador, que é lido como milhar.
+ */
+class MoneyUtilsTest {
+
+    @Test
+    void separadorDecimal() {
+        assertEquals(123456, MoneyUtils.parseCents("1.234,56"));
+        assertEquals(123456, MoneyUtils.parseCents("1,234.56"));
+        assertEquals(15075, MoneyUtils.parseCents("150,75"));
+        assertEquals(15075, MoneyUtils.parseCents("150.75"));
+        assertEquals(123450, MoneyUtils.parseCents("1234.5"));
+        assertEquals(10000, MoneyUtils.parseCents("100"));
+        // casas além do centavo são truncadas
+        assertEquals(1234, MoneyUtils.parseCents("12,3490"));
+    }
+
+    @Test
+    void separadorUnicoComTresDigitosEMilhar() {
+        assertEquals(123400, MoneyUtils.parseCents("1.234"));
+        assertEquals(123400, MoneyUtils.parseCents("1,234"));
+        assertEquals(123456700, MoneyUtils.parseCents("1.234.567"));
+        assertEquals(123456700, MoneyUtils.parseCents("1,234,567"));
+        // com os dois tipos de separador, o último é sempre o decimal
+        assertEquals(123456, MoneyUtils.parseCents("1.234,560"));
+    }
+
+    @Test
+    void sinalEEspacos() {
+        assertEquals(-8000, MoneyUtils.parseCents("-80"));
+        assertEquals(-9990, MoneyUtils.parseCents(" -99,90 "));
+        assertEquals(5000, MoneyUtils.parseCents("+50.00"));
+        assertEquals(100000050, MoneyUtils.parseCents("1 000 000,50"));
+    }
+
+    @Test
+    void caractereInvalido() {
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parseCents("R$ 10,00"));
+        assertThrows(NumberFormatException.class, () -> MoneyUtils.parseCents("12X4"));
+    }
+}
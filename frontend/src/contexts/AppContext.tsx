@@ -1,9 +1,14 @@
 import React, { createContext, useContext, useState, useEffect, type ReactNode } from 'react';
 import { useToast } from '@chakra-ui/react';
+import axios from 'axios';
 import type { Cliente, Contrato, Pagamento, CreateClienteDTO, CreateContratoDTO, UpdateContratoDTO, UpdatePagamentoDTO, StatusPagamento } from '../types';
 import { clienteService, contratoService, pagamentoService } from '../services/api';
 import { format, parseISO, isBefore, isAfter, startOfDay, endOfDay } from 'date-fns';
 
+// 409: o registro mudou depois de carregado (outro usuário ou a atualização diária); a API devolve o estado atual
+const estadoAtualEmConflito = <T,>(error: unknown): T | null =>
+  axios.isAxiosError(error) && error.response?.status === 409 ? (error.response.data as T) : null;
+
 export type PaymentFilterStatus = StatusPagamento | 'TODOS';
 
 export interface PaymentFilters {
@@ -166,6 +171,7 @@ export const AppProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
         dataContrato: cliente.data_vencimento,
         taxaMulta: cliente.taxa_multa,
         taxaJurosMensal: cliente.taxa_juros_mensal,
+        versao: cliente.versao,
       };
       
       const updated = await clienteService.update(cliente.cliente_id, updateDTO);
@@ -175,7 +181,16 @@ export const AppProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
       }
       toast({ title: 'Cliente atualizado', status: 'success' });
     } catch (error) {
-      toast({ title: 'Erro ao atualizar cliente', status: 'error' });
+      const atual = estadoAtualEmConflito<Cliente>(error);
+      if (atual) {
+        setClientes(clientes.map((c: Cliente) => (c.cliente_id === atual.cliente_id ? atual : c)));
+        if (selectedCliente?.cliente_id === atual.cliente_id) {
+          setSelectedCliente(atual);
+        }
+        toast({ title: 'Cliente alterado em outro lugar', description: 'Os dados foram recarregados; revise e salve de novo.', status: 'warning' });
+      } else {
+        toast({ title: 'Erro ao atualizar cliente', status: 'error' });
+      }
       throw error;
     }
   };
@@ -235,6 +250,7 @@ export const AppProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
         duracaoEmMeses: contrato.duracao_em_meses,
         dataInicioContrato: contrato.data,
         valorContrato: contrato.valor_contrato,
+        versao: contrato.versao,
       };
       
       const updated = await contratoService.update(contrato.contrato_id, updateDTO);
@@ -244,7 +260,16 @@ export const AppProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
       }
       toast({ title: 'Contrato atualizado', status: 'success' });
     } catch (error) {
-      toast({ title: 'Erro ao atualizar contrato', status: 'error' });
+      const atual = estadoAtualEmConflito<Contrato>(error);
+      if (atual) {
+        setContratos(contratos.map((c: Contrato) => (c.contrato_id === atual.contrato_id ? atual : c)));
+        if (selectedContrato?.contrato_id === atual.contrato_id) {
+          setSelectedContrato(atual);
+        }
+        toast({ title: 'Contrato alterado em outro lugar', description: 'Os dados foram recarregados; revise e salve de novo.', status: 'warning' });
+      } else {
+        toast({ title: 'Erro ao atualizar contrato', status: 'error' });
+      }
       throw error;
     }
   };
@@ -318,14 +343,21 @@ export const AppProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
         data_vencimento: pagamento.data_vencimento,
         status: pagamento.status,
         observacao: pagamento.observacao,
-        numero_parcela: pagamento.numero_parcela
+        numero_parcela: pagamento.numero_parcela,
+        versao: pagamento.versao
       };
       
       const updated = await pagamentoService.update(pagamento.pagamento_id, updateDTO);
       setPagamentos(pagamentos.map((p: Pagamento) => (p.pagamento_id === updated.pagamento_id ? updated : p)));
       toast({ title: 'Pagamento atualizado', status: 'success' });
     } catch (error) {
-      toast({ title: 'Erro ao atualizar pagamento', status: 'error' });
+      const atual = estadoAtualEmConflito<Pagamento>(error);
+      if (atual) {
+        setPagamentos(pagamentos.map((p: Pagamento) => (p.pagamento_id === atual.pagamento_id ? atual : p)));
+        toast({ title: 'Pagamento alterado em outro lugar', description: 'Os dados foram recarregados; revise e salve de novo.', status: 'warning' });
+      } else {
+        toast({ title: 'Erro ao atualizar pagamento', status: 'error' });
+      }
       throw error;
     }
   };
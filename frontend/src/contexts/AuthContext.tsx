@@ -1,6 +1,6 @@
 import React, { createContext, useContext, useState, useEffect, useRef, type ReactNode } from 'react';
 import { useToast } from '@chakra-ui/react';
-import api, { isTokenExpired } from '../services/api';
+import api, { isTokenExpired, renovarToken } from '../services/api';
 
 interface User {
   id: number;
@@ -48,21 +48,8 @@ export const AuthProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
   // Função para renovar o token
   const refreshTokenFn = async (): Promise<boolean> => {
     try {
-      const refresh = localStorage.getItem('refreshToken');
-      if (!refresh) {
-        throw new Error('No refresh token');
-      }
-
       console.log('Renovando token...');
-      const response = await api.post<AuthResponse>('/auth/refresh', {
-        refreshToken: refresh,
-      });
-
-      const { token, refreshToken: newRefresh, usuario } = response.data;
-
-      localStorage.setItem('token', token);
-      localStorage.setItem('refreshToken', newRefresh);
-      localStorage.setItem('user', JSON.stringify(usuario));
+      const { token, usuario }: AuthResponse = await renovarToken();
 
       setUser(usuario);
       api.defaults.headers.common['Authorization'] = `Bearer ${token}`;
@@ -98,6 +85,15 @@ export const AuthProvider: React.FC<{ children: ReactNode }> = ({ children }) =>
 
   // Função de logout
   const logoutFn = () => {
+    // Revoga a sessão no backend; a falha não impede o logout local
+    const token = localStorage.getItem('token');
+    const refresh = localStorage.getItem('refreshToken');
+    if (token || refresh) {
+      api
+        .post('/auth/logout', { refreshToken: refresh }, { headers: token ? { Authorization: `Bearer ${token}` } : {} })
+        .catch(() => {});
+    }
+
     localStorage.removeItem('token');
     localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
@@ -41,6 +41,35 @@ export const isTokenExpired = (token: string, bufferMinutes: number = 5): boolea
   return Date.now() >= (expirationTime - bufferTime);
 };
 
+// Renovação do token compartilhada: chamadas simultâneas reaproveitam a mesma requisição.
+// O backend rotaciona o refresh token a cada uso e trata o reuso de um token já consumido
+// como vazamento (revogando a sessão), então nunca se pode enviar o mesmo refresh token duas vezes.
+let renovacaoEmAndamento: Promise<any> | null = null;
+
+export const renovarToken = (): Promise<any> => {
+  if (!renovacaoEmAndamento) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (!refreshToken) {
+      return Promise.reject(new Error('No refresh token'));
+    }
+    renovacaoEmAndamento = axios
+      .post(`${import.meta.env.VITE_API_URL || 'http://localhost:8080'}/auth/refresh`, { refreshToken })
+      .then((response) => {
+        const { token, refreshToken: newRefresh, usuario } = response.data;
+        localStorage.setItem('token', token);
+        localStorage.setItem('refreshToken', newRefresh);
+        if (usuario) {
+          localStorage.setItem('user', JSON.stringify(usuario));
+        }
+        return response.data;
+      })
+      .finally(() => {
+        renovacaoEmAndamento = null;
+      });
+  }
+  return renovacaoEmAndamento;
+};
+
 // Request interceptor - adiciona token automaticamente
 api.interceptors.request.use(
   (config) => {
@@ -69,19 +98,8 @@ api.interceptors.response.use(
 
       try {
         // Tenta renovar o token
-        const refreshToken = localStorage.getItem('refreshToken');
-        if (refreshToken) {
-          const response = await axios.post(
-            `${import.meta.env.VITE_API_URL || 'http://localhost:8080'}/auth/refresh`,
-            { refreshToken }
-          );
-
-          const { token, refreshToken: newRefresh, usuario } = response.data;
-          localStorage.setItem('token', token);
-          localStorage.setItem('refreshToken', newRefresh);
-          if (usuario) {
-            localStorage.setItem('user', JSON.stringify(usuario));
-          }
+        if (localStorage.getItem('refreshToken')) {
+          const { token } = await renovarToken();
 
           // Retry original request com novo token
           originalRequest.headers.Authorization = `Bearer ${token}`;
@@ -8,6 +8,7 @@ export interface Contrato {
   nome_contratante: string;
   data: string;
   valor_contrato: number;
+  versao?: number;
 }
 
 export interface CreateContratoDTO {
@@ -28,6 +29,7 @@ export interface UpdateContratoDTO {
   dataInicioContrato: string; // yyyy-MM-dd
   dataPrimeiraParcela?: string; // opcional no update
   valorContrato: number;
+  versao?: number; // versão lida; a API responde 409 se o contrato mudou depois
 }
 
 export interface Pagamento {
@@ -41,6 +43,7 @@ export interface Pagamento {
   numero_parcela: number;
   status: StatusPagamento;
   observacao?: string;
+  versao?: number;
 }
 
 export interface UpdatePagamentoDTO {
@@ -52,6 +55,7 @@ export interface UpdatePagamentoDTO {
   status: StatusPagamento;
   observacao?: string;
   numero_parcela: number;
+  versao?: number; // versão lida; a API responde 409 se a parcela mudou depois
 }
 
 export interface Cliente {
@@ -64,6 +68,7 @@ export interface Cliente {
   banco: string;
   taxa_multa?: number;
   taxa_juros_mensal?: number;
+  versao?: number;
 }
 
 export interface CreateClienteDTO {
@@ -75,4 +80,5 @@ export interface CreateClienteDTO {
   dataContrato?: string; // Backend aceita isso no POST
   taxaMulta?: number;
   taxaJurosMensal?: number;
+  versao?: number; // só na edição; a API responde 409 se o cliente mudou depois
 }